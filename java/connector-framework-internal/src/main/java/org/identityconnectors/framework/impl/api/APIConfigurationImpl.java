@@ -80,6 +80,10 @@ public class APIConfigurationImpl implements APIConfiguration {
     public APIConfigurationImpl() {
     }
 
+    /**
+     * Copies the configuration, sharing the immutable values of the
+     * configuration properties.
+     */
     public APIConfigurationImpl(APIConfigurationImpl other) {
         if (null != other.connectorPoolConfiguration) {
             this.setConnectorPoolConfiguration(new ObjectPoolConfiguration(other.connectorPoolConfiguration));
@@ -88,13 +92,16 @@ public class APIConfigurationImpl implements APIConfiguration {
             this.setResultsHandlerConfiguration(new ResultsHandlerConfiguration(other.resultsHandlerConfiguration));
         }
         this.isConnectorPoolingSupported = other.isConnectorPoolingSupported;
-        ConfigurationPropertiesImpl prop = new ConfigurationPropertiesImpl();
-        prop.setProperties(other.getConfigurationProperties().getProperties());
-        this.setConfigurationProperties(prop);
+        if (null != other.configurationProperties) {
+            this.setConfigurationProperties(new ConfigurationPropertiesImpl(other.configurationProperties));
+        }
+        this.instanceName = other.instanceName;
 
         this.bufferSize = other.bufferSize;
         this.timeoutMap = new HashMap<>(other.timeoutMap);
-        this.supportedOperations = new HashSet<>(other.supportedOperations);
+        if (null != other.supportedOperations) {
+            this.supportedOperations = new HashSet<>(other.supportedOperations);
+        }
 
         this.connectorInfo = other.connectorInfo;
     }
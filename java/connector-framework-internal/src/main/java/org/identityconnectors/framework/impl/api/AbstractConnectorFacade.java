@@ -28,7 +28,6 @@ package org.identityconnectors.framework.impl.api;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.text.MessageFormat;
-import java.util.Base64;
 import java.util.Map;
 import java.util.Set;
 import org.identityconnectors.common.Assertions;
@@ -61,11 +60,9 @@ public abstract class AbstractConnectorFacade implements ConnectorFacade {
         // ensure thread-safety of a ConnectorFacade
         // also, configuration is used as a key in the
         // pool, so it is important that it not be modified.
-        byte[] bytes = SerializerUtil.serializeBinaryObject(configuration);
-        connectorFacadeKey = Base64.getEncoder().encodeToString(bytes);
-        this.configuration = (APIConfigurationImpl) SerializerUtil.deserializeBinaryObject(bytes);
-        // parent ref not included in the clone
-        this.configuration.setConnectorInfo(configuration.getConnectorInfo());
+        connectorFacadeKey = SerializerUtil.serializeBase64Object(configuration);
+        // the copy keeps the parent ref
+        this.configuration = new APIConfigurationImpl(configuration);
     }
 
     /**
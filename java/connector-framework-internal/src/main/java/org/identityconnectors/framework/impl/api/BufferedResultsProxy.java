@@ -28,19 +28,241 @@ package org.identityconnectors.framework.impl.api;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.identityconnectors.common.Assertions;
+import org.identityconnectors.common.l10n.CurrentLocale;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.api.operations.APIOperation;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.exceptions.OperationTimeoutException;
+import org.identityconnectors.framework.common.exceptions.RetryableException;
 
 public class BufferedResultsProxy implements InvocationHandler {
 
     private final static Log LOG = Log.getLog(BufferedResultsProxy.class);
 
+    /**
+     * Default maximum number of producer threads, past which the producers
+     * wait for a thread to be free, as many of them at most, and the next
+     * operations are rejected.
+     *
+     * @since 1.7.0.0
+     */
+    public static final int DEFAULT_MAX_PRODUCERS = 256;
+
+    /**
+     * Statistics bean of the producers.
+     *
+     * @since 1.7.0.0
+     */
+    public static final class Statistics {
+
+        private final boolean virtualThreads;
+
+        private final int maxProducers;
+
+        private final int poolSize;
+
+        private final int activeProducers;
+
+        private final int queuedProducers;
+
+        private final long completedProducers;
+
+        private Statistics(final boolean virtualThreads, final int maxProducers, final int poolSize,
+                final int activeProducers, final int queuedProducers, final long completedProducers) {
+            this.virtualThreads = virtualThreads;
+            this.maxProducers = maxProducers;
+            this.poolSize = poolSize;
+            this.activeProducers = activeProducers;
+            this.queuedProducers = queuedProducers;
+            this.completedProducers = completedProducers;
+        }
+
+        /**
+         * Returns true if each producer runs on its own virtual thread.
+         */
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        /**
+         * Returns the maximum number of pooled threads, 0 with virtual
+         * threads.
+         */
+        public int getMaxProducers() {
+            return maxProducers;
+        }
+
+        /**
+         * Returns the number of threads, busy or idle, of the pool or the
+         * number of virtual threads running.
+         */
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        /**
+         * Returns the number of producers running.
+         */
+        public int getActiveProducers() {
+            return activeProducers;
+        }
+
+        /**
+         * Returns the number of producers waiting for a thread.
+         */
+        public int getQueuedProducers() {
+            return queuedProducers;
+        }
+
+        /**
+         * Returns the number of producers completed since the producers were
+         * configured.
+         */
+        public long getCompletedProducers() {
+            return completedProducers;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics(virtualThreads=" + virtualThreads + ", maxProducers=" + maxProducers
+                    + ", poolSize=" + poolSize + ", active=" + activeProducers
+                    + ", queued=" + queuedProducers + ", completed=" + completedProducers + ")";
+        }
+    }
+
+    /**
+     * Runs the producers and counts them.
+     */
+    private static final class Producers implements Executor {
+
+        private final Executor executor;
+
+        private final ThreadPoolExecutor pool;
+
+        private final int maxProducers;
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final AtomicLong completed = new AtomicLong();
+
+        Producers(final int maxProducers, final boolean virtualThreads) {
+            if (virtualThreads) {
+                executor = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("BufferedResultsProducer-", 0).factory());
+                pool = null;
+                this.maxProducers = 0;
+            } else {
+                // the idle threads expire, so a replaced pool needs no shutdown;
+                // past the queue the operations fail rather than pile up
+                pool = new ThreadPoolExecutor(maxProducers, maxProducers, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<Runnable>(maxProducers), new ProducerThreadFactory());
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+                this.maxProducers = maxProducers;
+            }
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            queued.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    queued.decrementAndGet();
+                    active.incrementAndGet();
+                    try {
+                        command.run();
+                    } finally {
+                        active.decrementAndGet();
+                        completed.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                throw RetryableException.wrap("Too many buffered operations waiting for a producer thread", e);
+            } catch (RuntimeException e) {
+                queued.decrementAndGet();
+                throw e;
+            }
+        }
+
+        Statistics getStatistics() {
+            return new Statistics(pool == null, maxProducers, pool == null ? active.get() : pool.getPoolSize(),
+                    active.get(), queued.get(), completed.get());
+        }
+    }
+
+    private static final class ProducerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread t = new Thread(r, "BufferedResultsProducer-" + threadNumber.getAndIncrement());
+            // like the threads started for each producer before
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private static volatile Producers producers = new Producers(DEFAULT_MAX_PRODUCERS, false);
+
+    /**
+     * Set while running a producer or handing its results to the caller's
+     * handler, whose nested buffered operations must not wait for a pooled
+     * thread that may never be freed.
+     */
+    private static final ThreadLocal<Boolean> IN_OPERATION = new ThreadLocal<>();
+
+    /**
+     * Sets how the producers of the buffered operations are run from now on,
+     * the running producers are not affected.
+     *
+     * @param maxProducers the maximum number of pooled threads, past which as
+     * many producers wait for a thread and the next operations are rejected
+     * with a {@link RetryableException}; the operations nested in another
+     * one, started by its producer or by the handler of its results, run on
+     * their own thread instead and are never rejected; ignored with virtual
+     * threads
+     * @param virtualThreads true to run each producer on its own virtual
+     * thread instead
+     * @since 1.7.0.0
+     */
+    public static void setProducers(final int maxProducers, final boolean virtualThreads) {
+        if (!virtualThreads && maxProducers < 1) {
+            throw new IllegalArgumentException("Maximum number of producers must be positive");
+        }
+        producers = new Producers(maxProducers, virtualThreads);
+        LOG.ok("Running the buffered results producers on {0}",
+                virtualThreads ? "virtual threads" : "at most " + maxProducers + " pooled threads");
+    }
+
+    /**
+     * Returns the statistics of the producers of the buffered operations.
+     *
+     * @since 1.7.0.0
+     */
+    public static Statistics getStatistics() {
+        return producers.getStatistics();
+    }
+
     private final Object target;
 
     private final int bufferSize;
@@ -65,10 +287,26 @@ public class BufferedResultsProxy implements InvocationHandler {
         this.bufferSize = (bufferSize < 1) ? 100 : bufferSize;
     }
 
-    private static class BufferedResultsHandler extends Thread implements ObjectStreamHandler {
+    /**
+     * Hands the results over to the caller in chunks, so that the queue is
+     * locked and the caller woken up once per chunk rather than once per
+     * result. The producer fills the current chunk and queues it when full.
+     * A caller that finds the queue empty takes the chunk being filled, and
+     * until it gets its next chunk the producer queues each result right
+     * away, so a slow producer does not hold results back.
+     * <p>
+     * The buffer size bounds the number of results produced and not yet
+     * taken by the caller, whatever the size of the chunks they are in.
+     */
+    private static class BufferedResultsHandler implements Runnable, ObjectStreamHandler {
 
         private static final Object DONE = new Object();
 
+        /**
+         * Largest number of results in a chunk.
+         */
+        private static final int MAX_CHUNK_SIZE = 64;
+
         private final AtomicBoolean stopped = new AtomicBoolean(false);
 
         private final Method method;
@@ -79,7 +317,48 @@ public class BufferedResultsProxy implements InvocationHandler {
 
         private final long timeoutMillis;
 
-        private final ArrayBlockingQueue<Object> buffer;
+        private final LinkedBlockingQueue<List<Object>> buffer = new LinkedBlockingQueue<>();
+
+        /**
+         * Room left in the buffer, in results.
+         */
+        private final Semaphore room;
+
+        private final int bufferSize;
+
+        private final int chunkSize;
+
+        /**
+         * Guards the chunk being filled, which the caller may take.
+         */
+        private final Object chunkLock = new Object();
+
+        private List<Object> chunk;
+
+        /**
+         * Set while the caller waits for a result, to queue the results
+         * right away.
+         */
+        private volatile boolean consumerWaiting = false;
+
+        /**
+         * The chunk being read by the caller.
+         */
+        private List<Object> current = List.of();
+
+        private int currentIndex = 0;
+
+        /**
+         * The locale and the context class loader of the caller, set on the
+         * producer thread.
+         */
+        private final Locale locale;
+
+        private final ClassLoader contextClassLoader;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile Thread producerThread;
 
         private Object result = null;
 
@@ -88,8 +367,12 @@ public class BufferedResultsProxy implements InvocationHandler {
             this.method = method;
             this.target = target;
             this.arguments = arguments;
-            buffer = new ArrayBlockingQueue<Object>(bufferSize);
+            this.bufferSize = bufferSize;
+            room = new Semaphore(bufferSize);
+            chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, bufferSize / 4));
             this.timeoutMillis = timeoutMillis;
+            locale = CurrentLocale.isSet() ? CurrentLocale.get() : null;
+            contextClassLoader = Thread.currentThread().getContextClassLoader();
         }
 
         @Override
@@ -99,7 +382,7 @@ public class BufferedResultsProxy implements InvocationHandler {
             }
             Assertions.nullCheck(obj, "obj");
             try {
-                buffer.put(obj);
+                add(obj, false);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw ConnectorException.wrap(e);
@@ -108,13 +391,54 @@ public class BufferedResultsProxy implements InvocationHandler {
         }
 
         /**
-         * Stops the thread and optionally waits for it to finish.
+         * Adds a result to the chunk being filled, and queues the chunk if
+         * full, if the caller waits or if asked to.
+         */
+        private void add(Object obj, boolean flush) throws InterruptedException {
+            room.acquire();
+            // the permit may come from the stop, which cleared the buffer
+            if (isStopped()) {
+                return;
+            }
+            List<Object> full = null;
+            synchronized (chunkLock) {
+                if (chunk == null) {
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                chunk.add(obj);
+                if (flush || consumerWaiting || chunk.size() >= chunkSize) {
+                    full = chunk;
+                    chunk = null;
+                }
+            }
+            if (full != null) {
+                buffer.add(full);
+            }
+        }
+
+        /**
+         * Takes the chunk being filled if nothing is queued before it.
+         */
+        private List<Object> takeChunk() {
+            synchronized (chunkLock) {
+                List<Object> rv = null;
+                // a chunk queued before it may not have been taken yet
+                if (chunk != null && buffer.isEmpty()) {
+                    rv = chunk;
+                    chunk = null;
+                }
+                return rv;
+            }
+        }
+
+        /**
+         * Stops the producer and optionally waits for it to finish.
          *
-         * @param wait True if we should wait for the thread to finish
+         * @param wait True if we should wait for the producer to finish
          * @throws OperationTimeoutException If we said to wait and we timed out.
          */
         public void stop(boolean wait) {
-            if (wait && Thread.currentThread() == this) {
+            if (wait && Thread.currentThread() == producerThread) {
                 throw new IllegalStateException("A thread cannot wait on itself");
             }
 
@@ -122,20 +446,24 @@ public class BufferedResultsProxy implements InvocationHandler {
 
                 // clear out the queue - this will cause the thread to
                 // wakeup so that it can exit
+                synchronized (chunkLock) {
+                    chunk = null;
+                }
                 buffer.clear();
+                current = List.of();
+                // more than the producer may wait for
+                room.release(bufferSize + 1);
                 if (wait) {
                     try {
-                        // join with a time-limit. this may timeout
+                        // wait with a time-limit. this may timeout
                         // if we are blocked in the producer
-                        join(timeoutMillis);
+                        if (!finished.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                            throw new OperationTimeoutException();
+                        }
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         throw ConnectorException.wrap(e);
                     }
-                    // if we're still alive, we've timed out
-                    if (isAlive()) {
-                        throw new OperationTimeoutException();
-                    }
                 }
             }
         }
@@ -160,21 +488,43 @@ public class BufferedResultsProxy implements InvocationHandler {
 
         @Override
         public void run() {
+            Thread thread = Thread.currentThread();
+            ClassLoader previousClassLoader = thread.getContextClassLoader();
+            producerThread = thread;
+            IN_OPERATION.set(Boolean.TRUE);
+            // propagate the caller's context since this is a thread pool
+            // new pool threads inherit the locale of whoever started them
+            if (locale != null) {
+                CurrentLocale.set(locale);
+            } else {
+                CurrentLocale.clear();
+            }
+            thread.setContextClassLoader(contextClassLoader);
             try {
                 try {
+                    // the caller may have timed out while the producer was queued
+                    if (isStopped()) {
+                        return;
+                    }
                     result = method.invoke(target, createActualArguments());
-                    buffer.put(DONE);
+                    add(DONE, true);
                 } catch (RuntimeException e) {
-                    buffer.put(e);
+                    add(e, true);
                 } catch (InvocationTargetException e) {
-                    buffer.put(e.getTargetException());
+                    add(e.getTargetException(), true);
                 } catch (InterruptedException e) {
                     throw e;
                 } catch (Exception e) {
-                    buffer.put(ConnectorException.wrap(e));
+                    add(ConnectorException.wrap(e), true);
                 }
             } catch (InterruptedException e) {
                 LOG.error(e, null);
+            } finally {
+                thread.setContextClassLoader(previousClassLoader);
+                CurrentLocale.clear();
+                IN_OPERATION.remove();
+                producerThread = null;
+                finished.countDown();
             }
         }
 
@@ -189,12 +539,15 @@ public class BufferedResultsProxy implements InvocationHandler {
             if (isStopped()) {
                 return null;
             }
-            Object obj;
-            try {
-                obj = buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw ConnectorException.wrap(e);
+            Object obj = null;
+            if (currentIndex == current.size()) {
+                current = nextChunk();
+                currentIndex = 0;
+            }
+            if (current != null) {
+                obj = current.get(currentIndex);
+                // do not keep a reference to the result
+                current.set(currentIndex++, null);
             }
             if (obj == null) {
                 stop(false); // stop, but don't wait since we've already timed
@@ -214,6 +567,32 @@ public class BufferedResultsProxy implements InvocationHandler {
             }
         }
 
+        /**
+         * Returns the next chunk, null if none was produced within the
+         * timeout.
+         */
+        private List<Object> nextChunk() {
+            List<Object> next = buffer.poll();
+            if (next == null) {
+                consumerWaiting = true;
+                try {
+                    next = takeChunk();
+                    if (next == null) {
+                        next = buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw ConnectorException.wrap(e);
+                } finally {
+                    consumerWaiting = false;
+                }
+            }
+            if (next != null) {
+                room.release(next.size());
+            }
+            return next;
+        }
+
         private Object getResult() {
             return result;
         }
@@ -249,12 +628,29 @@ public class BufferedResultsProxy implements InvocationHandler {
                     "We only support operations that have a single stream handler " + method);
         }
 
-        // this guy will automatically inherit
-        // CurrentLocale since we are using a new thread
-        // NOTE: if we ever introduce thread pooling
-        // here, it needs to explicitly propagate
-        bufHandler.setDaemon(true);
-        bufHandler.start();
+        boolean nested = IN_OPERATION.get() != null;
+        if (nested) {
+            // a nested operation gets its own thread, a queued producer
+            // could wait for the one blocked on the operation around it
+            Thread thread = new Thread(bufHandler, "BufferedResultsProducer-nested");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            // the time spent waiting for a pooled thread counts towards the
+            // timeout of the first result
+            producers.execute(bufHandler);
+            IN_OPERATION.set(Boolean.TRUE);
+        }
+        try {
+            return handleResults(bufHandler, handler);
+        } finally {
+            if (!nested) {
+                IN_OPERATION.remove();
+            }
+        }
+    }
+
+    private static Object handleResults(final BufferedResultsHandler bufHandler, final ObjectStreamHandler handler) {
         while (!bufHandler.isStopped()) {
             Object obj = bufHandler.getNextObject();
             if (obj != null) {
@@ -55,6 +55,29 @@ public class ConfigurationPropertiesImpl implements ConfigurationProperties {
      */
     private transient APIConfigurationImpl parent;
 
+    // =======================================================================
+    // Constructors
+    // =======================================================================
+    public ConfigurationPropertiesImpl() {
+    }
+
+    /**
+     * Copies the properties without their parent.
+     *
+     * @since 1.7.0.0
+     */
+    public ConfigurationPropertiesImpl(final ConfigurationPropertiesImpl other) {
+        if (other.properties != null) {
+            Map<String, ConfigurationPropertyImpl> temp = new LinkedHashMap<>();
+            other.properties.values().forEach(prop -> {
+                ConfigurationPropertyImpl copy = new ConfigurationPropertyImpl(prop);
+                temp.put(copy.getName(), copy);
+                copy.setParent(this);
+            });
+            this.properties = temp;
+        }
+    }
+
     // =======================================================================
     // Internal Methods
     // =======================================================================
@@ -22,16 +22,59 @@
  */
 package org.identityconnectors.framework.impl.api;
 
+import java.io.File;
+import java.lang.reflect.Array;
+import java.net.URI;
 import java.util.Objects;
 import java.util.Set;
 import org.identityconnectors.common.CollectionUtil;
+import org.identityconnectors.common.script.Script;
+import org.identityconnectors.common.security.GuardedByteArray;
+import org.identityconnectors.common.security.GuardedString;
 import org.identityconnectors.framework.api.ConfigurationProperty;
 import org.identityconnectors.framework.api.operations.APIOperation;
 import org.identityconnectors.framework.common.objects.ConnectorMessages;
 import org.identityconnectors.framework.common.objects.SuggestedValues;
+import org.identityconnectors.framework.common.serializer.SerializerUtil;
 
 public class ConfigurationPropertyImpl implements ConfigurationProperty {
 
+    /**
+     * The supported configuration types whose values are shared by copies.
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Long.class, Character.class,
+            Double.class, Float.class, Integer.class, Boolean.class, URI.class, File.class, Script.class);
+
+    /**
+     * Returns a copy of a configuration property value: immutable values are
+     * shared, arrays and guarded values are copied, anything else is cloned
+     * through serialization.
+     *
+     * @since 1.7.0.0
+     */
+    public static Object copyValue(final Object value) {
+        if (value == null || IMMUTABLE_TYPES.contains(value.getClass())) {
+            return value;
+        } else if (value instanceof GuardedString) {
+            return ((GuardedString) value).copy();
+        } else if (value instanceof GuardedByteArray) {
+            return ((GuardedByteArray) value).copy();
+        } else if (value.getClass().isArray()) {
+            Class<?> componentType = value.getClass().getComponentType();
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(componentType, length);
+            if (componentType.isPrimitive()) {
+                System.arraycopy(value, 0, copy, 0, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    Array.set(copy, i, copyValue(Array.get(value, i)));
+                }
+            }
+            return copy;
+        }
+        return SerializerUtil.cloneObject(value);
+    }
+
     // =======================================================================
     // Fields
     // =======================================================================
@@ -97,6 +140,32 @@ public class ConfigurationPropertyImpl implements ConfigurationProperty {
      */
     private SuggestedValues allowedValues;
 
+    // =======================================================================
+    // Constructors
+    // =======================================================================
+    public ConfigurationPropertyImpl() {
+    }
+
+    /**
+     * Copies the property without its parent, sharing the immutable state.
+     *
+     * @since 1.7.0.0
+     */
+    public ConfigurationPropertyImpl(final ConfigurationPropertyImpl other) {
+        this.order = other.order;
+        this.confidential = other.confidential;
+        this.name = other.name;
+        this.helpMessageKey = other.helpMessageKey;
+        this.displayMessageKey = other.displayMessageKey;
+        this.groupMessageKey = other.groupMessageKey;
+        this.value = copyValue(other.value);
+        this.type = other.type;
+        // read-only
+        this.operations = other.operations;
+        this.required = other.required;
+        this.allowedValues = other.allowedValues;
+    }
+
     // =======================================================================
     // Internal Methods
     // =======================================================================
@@ -32,6 +32,7 @@ import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.impl.api.local.ConnectorPoolManager;
 import org.identityconnectors.framework.impl.api.local.LocalConnectorFacadeImpl;
 import org.identityconnectors.framework.impl.api.local.LocalConnectorInfoImpl;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionPoolManager;
 import org.identityconnectors.framework.impl.api.remote.RemoteConnectorFacadeImpl;
 import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoImpl;
 
@@ -96,5 +97,6 @@ public class ConnectorFacadeFactoryImpl extends ConnectorFacadeFactory {
         // Disposal of connector factory means shutdown of all connector pools.
         // This is the end. No more connector instances will be created.
         ConnectorPoolManager.shutdown();
+        RemoteConnectionPoolManager.shutdown();
     }
 }
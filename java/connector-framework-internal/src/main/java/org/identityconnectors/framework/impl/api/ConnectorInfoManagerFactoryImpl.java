@@ -31,9 +31,11 @@ import org.identityconnectors.common.Assertions;
 import org.identityconnectors.common.CollectionUtil;
 import org.identityconnectors.framework.api.ConnectorInfoManager;
 import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionGroup;
 import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
 import org.identityconnectors.framework.common.exceptions.ConfigurationException;
 import org.identityconnectors.framework.impl.api.local.LocalConnectorInfoManagerImpl;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorGroupInfoManagerImpl;
 import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoManagerImpl;
 
 public class ConnectorInfoManagerFactoryImpl extends ConnectorInfoManagerFactory {
@@ -44,6 +46,9 @@ public class ConnectorInfoManagerFactoryImpl extends ConnectorInfoManagerFactory
     private final Map<RemoteManagerKey, RemoteConnectorInfoManagerImpl> remoteManagerCache =
             new HashMap<RemoteManagerKey, RemoteConnectorInfoManagerImpl>();
 
+    private final Map<RemoteFrameworkConnectionGroup, RemoteConnectorGroupInfoManagerImpl> groupManagerCache =
+            new HashMap<RemoteFrameworkConnectionGroup, RemoteConnectorGroupInfoManagerImpl>();
+
     public ConnectorInfoManagerFactoryImpl() {
     }
 
@@ -59,6 +64,10 @@ public class ConnectorInfoManagerFactoryImpl extends ConnectorInfoManagerFactory
         synchronized (remoteManagerCache) {
             remoteManagerCache.clear();
         }
+        synchronized (groupManagerCache) {
+            groupManagerCache.values().forEach(RemoteConnectorGroupInfoManagerImpl::dispose);
+            groupManagerCache.clear();
+        }
     }
 
     @Override
@@ -100,6 +109,19 @@ public class ConnectorInfoManagerFactoryImpl extends ConnectorInfoManagerFactory
         }
     }
 
+    @Override
+    public ConnectorInfoManager getRemoteManager(RemoteFrameworkConnectionGroup group) {
+        Assertions.nullCheck(group, "group");
+        synchronized (groupManagerCache) {
+            RemoteConnectorGroupInfoManagerImpl rv = groupManagerCache.get(group);
+            if (rv == null) {
+                rv = new RemoteConnectorGroupInfoManagerImpl(group);
+                groupManagerCache.put(group, rv);
+            }
+            return rv;
+        }
+    }
+
     @Override
     public ConnectorInfoManager getUnCheckedRemoteManager(RemoteFrameworkConnectionInfo info) {
         RemoteManagerKey key = new RemoteManagerKey(info);
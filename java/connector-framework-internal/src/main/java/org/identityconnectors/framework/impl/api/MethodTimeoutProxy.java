@@ -34,6 +34,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import org.identityconnectors.common.l10n.CurrentLocale;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.exceptions.OperationTimeoutException;
@@ -53,6 +54,11 @@ public class MethodTimeoutProxy implements InvocationHandler {
      */
     private static final ExecutorService THREADPOOL = Executors.newCachedThreadPool();
 
+    /**
+     * The call running on the current thread of the pool.
+     */
+    private static final ThreadLocal<Call> CURRENT_CALL = new ThreadLocal<>();
+
     /**
      * The underlying operation that we are providing a timeout for
      */
@@ -75,6 +81,24 @@ public class MethodTimeoutProxy implements InvocationHandler {
         this.timeoutMillis = timeoutMillis;
     }
 
+    /**
+     * Sets the action run when the caller gives up on the method running on
+     * the current thread, on a timeout or an interrupt, before that thread is
+     * interrupted; a blocking socket read, for instance, ignores interrupts.
+     * The action runs on the thread of the caller, right away if it gave up
+     * already, and never once cleared. Does nothing unless the method was
+     * called through this proxy.
+     *
+     * @param action the action, null to clear it
+     * @since 1.7.0.0
+     */
+    public static void setCancelAction(Runnable action) {
+        Call call = CURRENT_CALL.get();
+        if (call != null) {
+            call.setCancelAction(action);
+        }
+    }
+
     @Override
     public Object invoke(final Object proxy, final Method method, final Object[] args)
             throws Throwable {
@@ -85,6 +109,7 @@ public class MethodTimeoutProxy implements InvocationHandler {
         }
 
         final Locale locale = CurrentLocale.get();
+        final Call call = new Call();
 
         Callable<Object> callable = new Callable<Object>() {
             @Override
@@ -94,8 +119,10 @@ public class MethodTimeoutProxy implements InvocationHandler {
                         // propagate current locale
                         // since this is a thread pool
                         CurrentLocale.set(locale);
+                        CURRENT_CALL.set(call);
                         return method.invoke(target, args);
                     } finally {
+                        CURRENT_CALL.remove();
                         CurrentLocale.clear();
                     }
                 } catch (InvocationTargetException e) {
@@ -121,10 +148,56 @@ public class MethodTimeoutProxy implements InvocationHandler {
             // execute and hope it doesn't timeout :)
             return t.get(timeoutMillis, TimeUnit.MILLISECONDS);
         } catch (TimeoutException ex) {
+            call.cancel();
         	t.cancel(true);
             throw new OperationTimeoutException(ex);
+        } catch (InterruptedException ex) {
+            call.cancel();
+            t.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ConnectorException.wrap(ex);
         } catch (ExecutionException ex) {
             throw ex.getCause();
         }
     }
+
+    /**
+     * The action to run if the caller gives up on a call.
+     */
+    private static final class Call {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Runnable cancelAction;
+
+        private boolean cancelled = false;
+
+        /**
+         * Waits for the action running, if any, so that it does not run once
+         * cleared.
+         */
+        void setCancelAction(Runnable action) {
+            lock.lock();
+            try {
+                cancelAction = action;
+                if (cancelled && action != null) {
+                    action.run();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                if (cancelAction != null) {
+                    cancelAction.run();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 }
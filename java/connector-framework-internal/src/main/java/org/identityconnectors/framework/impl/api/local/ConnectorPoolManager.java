@@ -32,7 +32,6 @@ import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.common.pooling.ObjectPoolConfiguration;
 import org.identityconnectors.framework.api.ConnectorKey;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
-import org.identityconnectors.framework.common.serializer.SerializerUtil;
 import org.identityconnectors.framework.impl.api.APIConfigurationImpl;
 import org.identityconnectors.framework.impl.api.ConfigurationPropertiesImpl;
 import org.identityconnectors.framework.impl.api.local.operations.OperationalContext;
@@ -106,8 +105,7 @@ public class ConnectorPoolManager {
 
         @Override
         public ObjectPoolConfiguration validate(ObjectPoolConfiguration original) {
-            ObjectPoolConfiguration configuration =
-                    (ObjectPoolConfiguration) SerializerUtil.cloneObject(original);
+            ObjectPoolConfiguration configuration = new ObjectPoolConfiguration(original);
             configuration.validate();
             return configuration;
         }
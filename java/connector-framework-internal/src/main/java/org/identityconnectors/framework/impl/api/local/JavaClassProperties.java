@@ -48,7 +48,6 @@ import org.identityconnectors.framework.common.FrameworkUtil;
 import org.identityconnectors.framework.common.exceptions.ConfigurationException;
 import org.identityconnectors.framework.common.objects.SuggestedValues;
 import org.identityconnectors.framework.common.objects.SuggestedValuesBuilder;
-import org.identityconnectors.framework.common.serializer.SerializerUtil;
 import org.identityconnectors.framework.impl.api.ConfigurationPropertiesImpl;
 import org.identityconnectors.framework.impl.api.ConfigurationPropertyImpl;
 import org.identityconnectors.framework.spi.Configuration;
@@ -233,7 +232,7 @@ public class JavaClassProperties {
             // some value types such as arrays
             // are mutable. make sure the config object
             // has its own copy
-            value = SerializerUtil.cloneObject(value);
+            value = ConfigurationPropertyImpl.copyValue(value);
             Method setter = desc.getWriteMethod();
             try {
                 setter.invoke(config, value);
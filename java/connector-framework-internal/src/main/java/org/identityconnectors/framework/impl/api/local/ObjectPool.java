@@ -276,11 +276,30 @@ public class ObjectPool<T> {
      * @return An object
      */
     public ObjectPoolEntry<T> borrowObject() {
+        return borrowObject(true);
+    }
+
+    /**
+     * Borrow an object from the pool if one is idle or can be created,
+     * without waiting for one to be returned.
+     *
+     * @return An object, null if all objects are borrowed
+     * @since 1.7.0.0
+     */
+    public ObjectPoolEntry<T> tryBorrowObject() {
+        return borrowObject(false);
+    }
+
+    private ObjectPoolEntry<T> borrowObject(final boolean wait) {
         PooledObject rv = null;
         try {
             do {
-                rv = borrowObjectNoTest();
-                if (rv != null && poolConfiguration.getMaxIdleTimeMillis() > 0 && rv.isOlderThan(poolConfiguration.getMaxIdleTimeMillis())) {
+                rv = borrowObjectNoTest(wait);
+                if (rv == null) {
+                    LOG.ok("No object left to borrow from pool {0}", this);
+                    return null;
+                }
+                if (poolConfiguration.getMaxIdleTimeMillis() > 0 && rv.isOlderThan(poolConfiguration.getMaxIdleTimeMillis())) {
                     // Note: this implementation of maxIdleTimeMillis is not perfect.
                     // Idle connector instance may be kept in the pool for a long time, it gets disposed only when
                     // there is an attempt to use the instance. Therefore this implementation cannot be used to
@@ -290,7 +309,7 @@ public class ObjectPool<T> {
                     //
                     // This implementation could be improved, however, that would need a special thread to watch
                     // the pool and dispose idle connectors. We do not want to complicate the framework by adding
-                    // such thread now.
+                    // such thread now; pools which need it call evictIdleObjects() periodically.
                     LOG.ok("Disposed pool {0} entry (max idle time expired): {1}", getPoolName(), rv);
                     dispose(rv);
                     rv = null;
@@ -322,9 +341,10 @@ public class ObjectPool<T> {
      * Borrow an object from the pool, but don't test it (it gets tested by the
      * caller *outside* of synchronization)
      *
+     * @param wait false to return null rather than wait for an object
      * @return the object
      */
-    private PooledObject borrowObjectNoTest() throws InterruptedException {
+    private PooledObject borrowObjectNoTest(final boolean wait) throws InterruptedException {
         if (isShutdown()) {
             throw new IllegalStateException("Object pool already shutdown");
         }
@@ -348,6 +368,8 @@ public class ObjectPool<T> {
                             totalPermit.release();
                             throw e;
                         }
+                    } else if (!wait) {
+                        return null;
                     } else {
                         // Wait for permit or object to became available
                         try {
@@ -399,6 +421,33 @@ public class ObjectPool<T> {
         return null;
     }
 
+    /**
+     * Disposes the objects idle for longer than {@code MinEvictableIdleTime},
+     * keeping {@code MinIdle} of them, and those idle for longer than
+     * {@code MaxIdleTime}.
+     * <p/>
+     * Idle objects are otherwise disposed only when an object is borrowed or
+     * returned; this is meant to be called periodically for pools whose idle
+     * objects hold resources elsewhere, such as the connections to a server.
+     */
+    public void evictIdleObjects() {
+        try {
+            for (PooledObject entry : idleObjects) {
+                boolean expired = (poolConfiguration.getMinIdle() < idleObjects.size()
+                        && entry.isOlderThan(poolConfiguration.getMinEvictableIdleTimeMillis()))
+                        || (poolConfiguration.getMaxIdleTimeMillis() > 0
+                        && entry.isOlderThan(poolConfiguration.getMaxIdleTimeMillis()));
+                // unless it was borrowed in the meantime
+                if (expired && idleObjects.remove(entry)) {
+                    dispose(entry);
+                    LOG.ok("Disposed pool {0} entry (idle for too long): {1}", getPoolName(), entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Disposes all objects in the pool.
      * <p/>
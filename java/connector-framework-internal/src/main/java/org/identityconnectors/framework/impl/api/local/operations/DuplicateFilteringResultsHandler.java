@@ -24,12 +24,18 @@
  */
 package org.identityconnectors.framework.impl.api.local.operations;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import org.identityconnectors.framework.common.objects.ConnectorObject;
 import org.identityconnectors.framework.common.objects.SearchResult;
 import org.identityconnectors.framework.spi.SearchResultsHandler;
 
+/**
+ * Passes on each object once, by its uid.
+ * <p>
+ * The queries of a search may run concurrently, so the objects are passed on
+ * one at a time and none after the handler chain has stopped. The uids seen
+ * are kept in a {@link UidSet}, released on {@link #close()}.
+ */
 public final class DuplicateFilteringResultsHandler implements SearchResultsHandler {
 
     // =======================================================================
@@ -37,9 +43,15 @@ public final class DuplicateFilteringResultsHandler implements SearchResultsHand
     // =======================================================================
     private final SearchResultsHandler handler;
 
-    private final Set<String> visitedUIDs = new HashSet<String>();
+    private final UidSet visitedUIDs = new UidSet();
+
+    /**
+     * Not a monitor: the handler may block on a socket, which would pin the
+     * carrier of a virtual thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
 
-    private boolean stillHandling = true;
+    private volatile boolean stillHandling = true;
 
     // =======================================================================
     // Constructors
@@ -60,22 +72,55 @@ public final class DuplicateFilteringResultsHandler implements SearchResultsHand
 
     @Override
     public boolean handle(ConnectorObject object) {
-        String uid = object.getUid().getUidValue();
-        if (!visitedUIDs.add(uid)) {
-            // we've already seen this - don't pass it
-            // throw
-            return true;
+        lock.lock();
+        try {
+            if (!stillHandling) {
+                return false;
+            }
+            String uid = object.getUid().getUidValue();
+            if (!visitedUIDs.add(uid)) {
+                // we've already seen this - don't pass it
+                // throw
+                return true;
+            }
+            stillHandling = handler.handle(object);
+            return stillHandling;
+        } finally {
+            lock.unlock();
         }
-        stillHandling = handler.handle(object);
-        return stillHandling;
     }
 
     @Override
     public void handleResult(final SearchResult result) {
-        handler.handleResult(result);
+        lock.lock();
+        try {
+            handler.handleResult(result);
+        } finally {
+            lock.unlock();
+        }
     }
 
     public boolean isStillHandling() {
         return stillHandling;
     }
+
+    /**
+     * Releases the uids seen.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            visitedUIDs.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops passing on objects, the queries still running then stop at their
+     * next object.
+     */
+    public void stop() {
+        stillHandling = false;
+    }
 }
@@ -0,0 +1,482 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.local.operations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.identityconnectors.common.CollectionUtil;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.filter.AndFilter;
+import org.identityconnectors.framework.common.objects.filter.AttributeFilter;
+import org.identityconnectors.framework.common.objects.filter.ComparableAttributeFilter;
+import org.identityconnectors.framework.common.objects.filter.CompositeFilter;
+import org.identityconnectors.framework.common.objects.filter.ContainsAllValuesFilter;
+import org.identityconnectors.framework.common.objects.filter.ContainsFilter;
+import org.identityconnectors.framework.common.objects.filter.EndsWithFilter;
+import org.identityconnectors.framework.common.objects.filter.EqualsFilter;
+import org.identityconnectors.framework.common.objects.filter.EqualsIgnoreCaseFilter;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterVisitor;
+import org.identityconnectors.framework.common.objects.filter.GreaterThanFilter;
+import org.identityconnectors.framework.common.objects.filter.GreaterThanOrEqualFilter;
+import org.identityconnectors.framework.common.objects.filter.LessThanFilter;
+import org.identityconnectors.framework.common.objects.filter.LessThanOrEqualFilter;
+import org.identityconnectors.framework.common.objects.filter.NotFilter;
+import org.identityconnectors.framework.common.objects.filter.OrFilter;
+import org.identityconnectors.framework.common.objects.filter.StartsWithFilter;
+import org.identityconnectors.framework.common.objects.filter.StringFilter;
+
+/**
+ * Compiles a {@link Filter} once per search into a tree accepting the same
+ * objects with less work per object.
+ * <ul>
+ * <li>Each attribute the filter refers to is looked up once per object, by
+ * the slot assigned to its name when compiling.</li>
+ * <li>The values of the filters are taken out of their attributes when
+ * compiling.</li>
+ * <li>A {@link NormalizingFilter} normalizes the attributes its filter refers
+ * to instead of the whole object.</li>
+ * <li>Nested ANDs and ORs are flattened and their filters ordered by the
+ * estimated share of objects they accept, so that the first ones decide most
+ * often.</li>
+ * </ul>
+ * The filters the compiler does not know are called as they are.
+ *
+ * @since 1.7.0.0
+ */
+public final class FilterCompiler {
+
+    /**
+     * The estimated shares of objects accepted by the filters.
+     */
+    private static final double EQUALS_SELECTIVITY = 0.1;
+
+    private static final double CONTAINS_ALL_VALUES_SELECTIVITY = 0.2;
+
+    private static final double STARTS_OR_ENDS_WITH_SELECTIVITY = 0.25;
+
+    private static final double CONTAINS_SELECTIVITY = 0.3;
+
+    private static final double DEFAULT_SELECTIVITY = 0.5;
+
+    /**
+     * Marks the slot of an attribute the object does not have.
+     */
+    private static final Object MISSING = new Object();
+
+    /**
+     * Compiles the filter.
+     *
+     * @return the filter to use instead, it accepts the same objects and
+     * visitors see the original filter.
+     */
+    public static Filter compile(final Filter filter) {
+        if (filter == null || filter instanceof CompiledFilter) {
+            return filter;
+        }
+        FilterCompiler compiler = new FilterCompiler();
+        Node root = compiler.compile(filter, List.of());
+        return new CompiledFilter(filter, root, compiler.slots.toArray(new Slot[0]));
+    }
+
+    private final List<Slot> slots = new ArrayList<>();
+
+    /**
+     * The slots by the normalizers applied and the attribute name.
+     */
+    private final Map<List<ObjectNormalizerFacade>, Map<String, Integer>> slotIndexes = new HashMap<>();
+
+    private FilterCompiler() {
+    }
+
+    private Node compile(final Filter filter, final List<ObjectNormalizerFacade> normalizers) {
+        Class<?> type = filter.getClass();
+        if (type == AndFilter.class || type == OrFilter.class) {
+            boolean and = type == AndFilter.class;
+            List<Node> nodes = new ArrayList<>();
+            flatten(filter, type, normalizers, nodes);
+            // AND first tries what most likely rejects, OR what most likely accepts
+            nodes.sort(and
+                    ? Comparator.comparingDouble((Node n) -> n.selectivity)
+                    : Comparator.comparingDouble((Node n) -> -n.selectivity));
+            return and ? new AndNode(nodes) : new OrNode(nodes);
+        } else if (type == NotFilter.class) {
+            return new NotNode(compile(((NotFilter) filter).getFilter(), normalizers));
+        } else if (type == NormalizingFilter.class) {
+            NormalizingFilter normalizing = (NormalizingFilter) filter;
+            List<ObjectNormalizerFacade> inner = new ArrayList<>(normalizers);
+            inner.add(normalizing.getNormalizerFacade());
+            return compile(normalizing.getFilter(), List.copyOf(inner));
+        } else if (type == FilteredResultsHandler.PassThroughFilter.class) {
+            return new AcceptNode(filter, normalizers, 1.0);
+        } else if (type == EqualsFilter.class) {
+            return equalsNode((EqualsFilter) filter, normalizers);
+        } else if (type == EqualsIgnoreCaseFilter.class) {
+            String value = ((StringFilter) filter).getValue();
+            return new StringNode(slot(filter, normalizers), EQUALS_SELECTIVITY, s -> s.equalsIgnoreCase(value));
+        } else if (type == StartsWithFilter.class) {
+            String value = ((StringFilter) filter).getValue();
+            return new StringNode(slot(filter, normalizers), STARTS_OR_ENDS_WITH_SELECTIVITY, s -> s.startsWith(value));
+        } else if (type == EndsWithFilter.class) {
+            String value = ((StringFilter) filter).getValue();
+            return new StringNode(slot(filter, normalizers), STARTS_OR_ENDS_WITH_SELECTIVITY, s -> s.endsWith(value));
+        } else if (type == ContainsFilter.class) {
+            String value = ((StringFilter) filter).getValue();
+            return new StringNode(slot(filter, normalizers), CONTAINS_SELECTIVITY, s -> s.contains(value));
+        } else if (type == GreaterThanFilter.class) {
+            return new CompareNode((ComparableAttributeFilter) filter, slot(filter, normalizers), c -> c > 0);
+        } else if (type == GreaterThanOrEqualFilter.class) {
+            return new CompareNode((ComparableAttributeFilter) filter, slot(filter, normalizers), c -> c >= 0);
+        } else if (type == LessThanFilter.class) {
+            return new CompareNode((ComparableAttributeFilter) filter, slot(filter, normalizers), c -> c < 0);
+        } else if (type == LessThanOrEqualFilter.class) {
+            return new CompareNode((ComparableAttributeFilter) filter, slot(filter, normalizers), c -> c <= 0);
+        } else if (type == ContainsAllValuesFilter.class) {
+            return containsAllValuesNode((ContainsAllValuesFilter) filter, normalizers);
+        } else {
+            return new AcceptNode(filter, normalizers, DEFAULT_SELECTIVITY);
+        }
+    }
+
+    private void flatten(final Filter filter, final Class<?> type, final List<ObjectNormalizerFacade> normalizers,
+            final List<Node> nodes) {
+
+        for (Filter sub : ((CompositeFilter) filter).getFilters()) {
+            if (sub.getClass() == type) {
+                flatten(sub, type, normalizers, nodes);
+            } else {
+                nodes.add(compile(sub, normalizers));
+            }
+        }
+    }
+
+    private int slot(final Filter filter, final List<ObjectNormalizerFacade> normalizers) {
+        String name = ((AttributeFilter) filter).getName();
+        // the attributes of the objects are looked up ignoring the case
+        Map<String, Integer> indexes = slotIndexes.computeIfAbsent(
+                normalizers, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        return indexes.computeIfAbsent(name, k -> {
+            slots.add(new Slot(name, normalizers));
+            return slots.size() - 1;
+        });
+    }
+
+    private Node equalsNode(final EqualsFilter filter, final List<ObjectNormalizerFacade> normalizers) {
+        Attribute expected = filter.getAttribute();
+        boolean acceptMissing = expected.getValue() == null;
+        return new AttributeNode(slot(filter, normalizers), EQUALS_SELECTIVITY) {
+
+            @Override
+            boolean test(final Attribute attr) {
+                return attr != null ? expected.attributeEquals(attr) : acceptMissing;
+            }
+        };
+    }
+
+    private Node containsAllValuesNode(
+            final ContainsAllValuesFilter filter, final List<ObjectNormalizerFacade> normalizers) {
+
+        String name = filter.getName();
+        List<Object> expected = filter.getAttribute().getValue();
+        return new AttributeNode(slot(filter, normalizers), CONTAINS_ALL_VALUES_SELECTIVITY) {
+
+            @Override
+            boolean test(final Attribute attr) {
+                if (attr == null) {
+                    return false;
+                }
+                List<Object> value = attr.getValue();
+                if (value == null) {
+                    throw new IllegalStateException("Null value found in attribute " + name);
+                }
+                return value.containsAll(expected);
+            }
+        };
+    }
+
+    /**
+     * An attribute looked up once per object, with the normalizers applied in
+     * the order of the filters nesting it.
+     */
+    private static final class Slot {
+
+        private final String name;
+
+        private final List<ObjectNormalizerFacade> normalizers;
+
+        Slot(final String name, final List<ObjectNormalizerFacade> normalizers) {
+            this.name = name;
+            this.normalizers = normalizers;
+        }
+
+        Object lookup(final ConnectorObject object) {
+            Attribute attr = object.getAttributeByName(name);
+            for (ObjectNormalizerFacade normalizer : normalizers) {
+                attr = normalizer.normalizeAttribute(attr);
+            }
+            return attr == null ? MISSING : attr;
+        }
+    }
+
+    /**
+     * The object being tested and its attributes looked up so far.
+     */
+    private static final class Context {
+
+        private final ConnectorObject object;
+
+        private final Slot[] slots;
+
+        private final Object[] attributes;
+
+        Context(final ConnectorObject object, final Slot[] slots) {
+            this.object = object;
+            this.slots = slots;
+            attributes = new Object[slots.length];
+        }
+
+        Attribute attribute(final int slot) {
+            Object attr = attributes[slot];
+            if (attr == null) {
+                attr = slots[slot].lookup(object);
+                attributes[slot] = attr;
+            }
+            return attr == MISSING ? null : (Attribute) attr;
+        }
+    }
+
+    private abstract static class Node {
+
+        final double selectivity;
+
+        Node(final double selectivity) {
+            this.selectivity = selectivity;
+        }
+
+        abstract boolean test(Context context);
+    }
+
+    private abstract static class AttributeNode extends Node {
+
+        private final int slot;
+
+        AttributeNode(final int slot, final double selectivity) {
+            super(selectivity);
+            this.slot = slot;
+        }
+
+        @Override
+        final boolean test(final Context context) {
+            return test(context.attribute(slot));
+        }
+
+        abstract boolean test(Attribute attr);
+    }
+
+    private interface StringTest {
+
+        boolean test(String value);
+    }
+
+    /**
+     * Like {@link StringFilter#accept(ConnectorObject)}.
+     */
+    private static final class StringNode extends AttributeNode {
+
+        private final StringTest test;
+
+        StringNode(final int slot, final double selectivity, final StringTest test) {
+            super(slot, selectivity);
+            this.test = test;
+        }
+
+        @Override
+        boolean test(final Attribute attr) {
+            if (attr == null) {
+                return false;
+            }
+            List<Object> values = attr.getValue();
+            if (CollectionUtil.isEmpty(values)) {
+                return false;
+            }
+            if (!(values.get(0) instanceof String)) {
+                throw new IllegalArgumentException("Value must be a string!");
+            }
+            return test.test((String) values.get(0));
+        }
+    }
+
+    private interface CompareTest {
+
+        boolean test(int comparison);
+    }
+
+    /**
+     * Like {@link ComparableAttributeFilter#compare(ConnectorObject)} and the
+     * filters using it.
+     */
+    private static final class CompareNode extends AttributeNode {
+
+        private final Object value;
+
+        private final CompareTest test;
+
+        CompareNode(final ComparableAttributeFilter filter, final int slot, final CompareTest test) {
+            super(slot, DEFAULT_SELECTIVITY);
+            this.value = filter.getValue();
+            this.test = test;
+        }
+
+        @Override
+        boolean test(final Attribute attr) {
+            if (attr == null) {
+                return false;
+            }
+            int comparison = -1;
+            List<Object> values = attr.getValue();
+            if (values.size() == 1) {
+                if (!(values.get(0) instanceof Comparable)) {
+                    throw new IllegalArgumentException("Attribute value must be comparable!");
+                }
+                comparison = CollectionUtil.forceCompare(values.get(0), value);
+            }
+            return test.test(comparison);
+        }
+    }
+
+    private static final class AndNode extends Node {
+
+        private final Node[] nodes;
+
+        AndNode(final List<Node> nodes) {
+            super(nodes.stream().mapToDouble(n -> n.selectivity).reduce(1.0, (a, b) -> a * b));
+            this.nodes = nodes.toArray(new Node[0]);
+        }
+
+        @Override
+        boolean test(final Context context) {
+            for (Node node : nodes) {
+                if (!node.test(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class OrNode extends Node {
+
+        private final Node[] nodes;
+
+        OrNode(final List<Node> nodes) {
+            super(1.0 - nodes.stream().mapToDouble(n -> 1.0 - n.selectivity).reduce(1.0, (a, b) -> a * b));
+            this.nodes = nodes.toArray(new Node[0]);
+        }
+
+        @Override
+        boolean test(final Context context) {
+            for (Node node : nodes) {
+                if (node.test(context)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class NotNode extends Node {
+
+        private final Node node;
+
+        NotNode(final Node node) {
+            super(1.0 - node.selectivity);
+            this.node = node;
+        }
+
+        @Override
+        boolean test(final Context context) {
+            return !node.test(context);
+        }
+    }
+
+    /**
+     * Calls a filter the compiler does not know with the object normalized as
+     * the filters nesting it do.
+     */
+    private static final class AcceptNode extends Node {
+
+        private final Filter filter;
+
+        private final List<ObjectNormalizerFacade> normalizers;
+
+        AcceptNode(final Filter filter, final List<ObjectNormalizerFacade> normalizers, final double selectivity) {
+            super(selectivity);
+            this.filter = filter;
+            this.normalizers = normalizers;
+        }
+
+        @Override
+        boolean test(final Context context) {
+            ConnectorObject object = context.object;
+            for (ObjectNormalizerFacade normalizer : normalizers) {
+                object = normalizer.normalizeObject(object);
+            }
+            return filter.accept(object);
+        }
+    }
+
+    private static final class CompiledFilter implements Filter {
+
+        private final Filter filter;
+
+        private final Node root;
+
+        private final Slot[] slots;
+
+        CompiledFilter(final Filter filter, final Node root, final Slot[] slots) {
+            this.filter = filter;
+            this.root = root;
+            this.slots = slots;
+        }
+
+        @Override
+        public boolean accept(final ConnectorObject obj) {
+            return root.test(new Context(obj, slots));
+        }
+
+        @Override
+        public <R, P> R accept(final FilterVisitor<R, P> v, final P p) {
+            return filter.accept(v, p);
+        }
+
+        @Override
+        public String toString() {
+            return filter.toString();
+        }
+    }
+}
@@ -63,7 +63,7 @@ public final class FilteredResultsHandler implements SearchResultsHandler {
         this.handler = handler;
         this.inValidationMode = inValidationMode;
         // use a default pass through filter..
-        this.filter = filter == null ? new PassThroughFilter() : filter;
+        this.filter = filter == null ? new PassThroughFilter() : FilterCompiler.compile(filter);
     }
 
     @Override
@@ -47,6 +47,13 @@ public class NormalizingFilter extends ExternallyChainedFilter {
         this.normalizerFacade = normalizerFacade;
     }
 
+    /**
+     * @since 1.7.0.0
+     */
+    public ObjectNormalizerFacade getNormalizerFacade() {
+        return normalizerFacade;
+    }
+
     /**
      * Return the decision based on normalized version of the object.
      *
@@ -26,7 +26,17 @@
 package org.identityconnectors.framework.impl.api.local.operations;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.identityconnectors.common.Assertions;
+import org.identityconnectors.common.l10n.CurrentLocale;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.api.ResultsHandlerConfiguration;
 import org.identityconnectors.framework.api.operations.SearchApiOp;
@@ -39,7 +49,11 @@ import org.identityconnectors.framework.common.objects.SearchResult;
 import org.identityconnectors.framework.common.objects.filter.Filter;
 import org.identityconnectors.framework.common.objects.filter.FilterTranslator;
 import org.identityconnectors.framework.impl.api.SearchResultsHandlerLoggingProxy;
+import org.identityconnectors.framework.impl.api.local.ConnectorLifecycleUtil;
+import org.identityconnectors.framework.impl.api.local.ObjectPool;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
 import org.identityconnectors.framework.spi.Connector;
+import org.identityconnectors.framework.spi.PoolableConnector;
 import org.identityconnectors.framework.spi.SearchResultsHandler;
 import org.identityconnectors.framework.spi.operations.SearchOp;
 
@@ -52,6 +66,25 @@ public class SearchImpl extends ConnectorAPIOperationRunner implements SearchApi
      */
     private static final Log OP_LOG = Log.getLog(SearchOp.class);
 
+    /**
+     * Maximum number of query threads, and of queries waiting for one, shared
+     * by all the searches.
+     */
+    private static final int MAX_QUERY_THREADS = 128;
+
+    /**
+     * Runs the queries of the searches with parallel queries enabled, the
+     * idle threads expire. Once it is saturated the caller runs the queries
+     * left itself.
+     */
+    private static final ThreadPoolExecutor QUERY_EXECUTOR = new ThreadPoolExecutor(
+            MAX_QUERY_THREADS, MAX_QUERY_THREADS, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(MAX_QUERY_THREADS), new QueryThreadFactory());
+
+    static {
+        QUERY_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     /**
      * Initializes the operation works.
      */
@@ -182,36 +215,71 @@ public class SearchImpl extends ConnectorAPIOperationRunner implements SearchApi
             // eliminate dups if more than one
             boolean eliminateDups = queries.size() > 1;
             if (eliminateDups) {
-                handler = new DuplicateFilteringResultsHandler(handler);
                 if (options.getPageSize() != null && options.getPageSize() > 0) {
                     throw new IllegalArgumentException(
                             "Paged search is requested, but the filter was translated into more than one query."
                             + "This is not supported. Queries = " + queries);
                 }
-            }
-            for (Object query : queries) {
-                @SuppressWarnings("unchecked")
-                SearchOp<Object> hack = (SearchOp<Object>) search;
-                logOpEntry(operationalContext, objectClass, query, handler);
+                DuplicateFilteringResultsHandler dupsHandler = new DuplicateFilteringResultsHandler(handler);
                 try {
-                    hack.executeQuery(objectClass, query, handler, options);
-                    logOpExit(operationalContext);
-                } catch (RuntimeException e) {
-                    SpiOperationLoggingUtil.logOpException(
-                            OP_LOG, operationalContext, SearchOp.class, "executeQuery", e);
-                    throw e;
-                }
-                // don't run any more queries if the consumer has stopped
-                if (handler instanceof DuplicateFilteringResultsHandler) {
-                    DuplicateFilteringResultsHandler h = (DuplicateFilteringResultsHandler) handler;
-                    if (!h.isStillHandling()) {
-                        break;
+                    ResultsHandlerConfiguration hdlCfg = null != operationalContext
+                            ? operationalContext.getResultsHandlerConfiguration()
+                            : null;
+                    if (hdlCfg != null && hdlCfg.isEnableParallelQueries()) {
+                        new ParallelQueries(search, objectClass, queries, dupsHandler, options, operationalContext)
+                                .run(hdlCfg.getMaxParallelQueries());
+                    } else {
+                        runQueries(search, objectClass, queries, dupsHandler, options, operationalContext);
                     }
+                } finally {
+                    dupsHandler.close();
+                }
+            } else {
+                runQueries(search, objectClass, queries, handler, options, operationalContext);
+            }
+        }
+    }
+
+    private static void runQueries(
+            final SearchOp<?> search,
+            final ObjectClass objectClass,
+            final List<?> queries,
+            final SearchResultsHandler handler,
+            final OperationOptions options,
+            final ConnectorOperationalContext operationalContext) {
+
+        for (Object query : queries) {
+            executeQuery(search, objectClass, query, handler, options, operationalContext);
+            // don't run any more queries if the consumer has stopped
+            if (handler instanceof DuplicateFilteringResultsHandler) {
+                DuplicateFilteringResultsHandler h = (DuplicateFilteringResultsHandler) handler;
+                if (!h.isStillHandling()) {
+                    break;
                 }
             }
         }
     }
 
+    private static void executeQuery(
+            final SearchOp<?> search,
+            final ObjectClass objectClass,
+            final Object query,
+            final SearchResultsHandler handler,
+            final OperationOptions options,
+            final ConnectorOperationalContext operationalContext) {
+
+        @SuppressWarnings("unchecked")
+        SearchOp<Object> hack = (SearchOp<Object>) search;
+        logOpEntry(operationalContext, objectClass, query, handler);
+        try {
+            hack.executeQuery(objectClass, query, handler, options);
+            logOpExit(operationalContext);
+        } catch (RuntimeException e) {
+            SpiOperationLoggingUtil.logOpException(OP_LOG, operationalContext, SearchOp.class, "executeQuery", e);
+            throw e;
+        }
+    }
+
     private static boolean isLoggable() {
         return OP_LOG.isLoggable(SpiOperationLoggingUtil.LOG_LEVEL);
     }
@@ -245,6 +313,176 @@ public class SearchImpl extends ConnectorAPIOperationRunner implements SearchApi
         return ret;
     }
 
+    /**
+     * Runs the queries of one search on the connector of the caller and on up
+     * to {@code maxParallelQueries - 1} further connector instances, each
+     * taking the next query not run yet. The first failure stops the search
+     * and is thrown once all the running queries have returned.
+     */
+    private static final class ParallelQueries {
+
+        private final SearchOp<?> search;
+
+        private final ObjectClass objectClass;
+
+        private final List<?> queries;
+
+        private final DuplicateFilteringResultsHandler handler;
+
+        private final OperationOptions options;
+
+        private final ConnectorOperationalContext operationalContext;
+
+        private final AtomicInteger nextQuery = new AtomicInteger();
+
+        private final CountDownLatch finished;
+
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        /**
+         * The locale and the context class loader of the caller, set on the
+         * query threads.
+         */
+        private final Locale locale;
+
+        private final ClassLoader contextClassLoader;
+
+        ParallelQueries(
+                final SearchOp<?> search,
+                final ObjectClass objectClass,
+                final List<?> queries,
+                final DuplicateFilteringResultsHandler handler,
+                final OperationOptions options,
+                final ConnectorOperationalContext operationalContext) {
+
+            this.search = search;
+            this.objectClass = objectClass;
+            this.queries = queries;
+            this.handler = handler;
+            this.options = options;
+            this.operationalContext = operationalContext;
+            finished = new CountDownLatch(queries.size());
+            locale = CurrentLocale.isSet() ? CurrentLocale.get() : null;
+            contextClassLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        void run(final int maxParallelQueries) {
+            int helpers = Math.min(queries.size(), maxParallelQueries) - 1;
+            if (helpers > 0) {
+                ObjectPool<PoolableConnector> pool = operationalContext.getPool();
+                for (int i = 0; i < helpers; i++) {
+                    try {
+                        QUERY_EXECUTOR.execute(() -> runOnOtherConnector(pool));
+                    } catch (RejectedExecutionException e) {
+                        LOG.ok("No query thread left, running the queries on {0} with fewer connectors",
+                                objectClass);
+                        break;
+                    }
+                }
+            }
+            runQueries(search);
+
+            // no query may pass on objects once the search has returned
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    handler.stop();
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        private void runQueries(final SearchOp<?> connector) {
+            for (int i = nextQuery.getAndIncrement(); i < queries.size(); i = nextQuery.getAndIncrement()) {
+                try {
+                    // the remaining queries are skipped once the consumer has stopped
+                    if (handler.isStillHandling()) {
+                        executeQuery(connector, objectClass, queries.get(i), handler, options, operationalContext);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    handler.stop();
+                } finally {
+                    finished.countDown();
+                }
+            }
+        }
+
+        private void runOnOtherConnector(final ObjectPool<PoolableConnector> pool) {
+            if (nextQuery.get() >= queries.size()) {
+                return;
+            }
+            Thread thread = Thread.currentThread();
+            ClassLoader previousClassLoader = thread.getContextClassLoader();
+            if (locale != null) {
+                CurrentLocale.set(locale);
+            } else {
+                CurrentLocale.clear();
+            }
+            thread.setContextClassLoader(contextClassLoader);
+            Connector connector = null;
+            ObjectPoolEntry<PoolableConnector> poolEntry = null;
+            try {
+                if (pool != null) {
+                    // the other connectors may be busy for long, the queries
+                    // are left to the running ones rather than wait for them
+                    poolEntry = pool.tryBorrowObject();
+                    if (poolEntry == null) {
+                        LOG.ok("No idle connector for the queries on {0}", objectClass);
+                        return;
+                    }
+                    connector = poolEntry.getPooledObject();
+                } else {
+                    connector = operationalContext.getConnectorClass().getDeclaredConstructor().newInstance();
+                    connector.init(operationalContext.getConfiguration());
+                    ConnectorLifecycleUtil.setConnectorInstanceName(connector, operationalContext.getInstanceName());
+                }
+                runQueries((SearchOp<?>) connector);
+            } catch (Exception e) {
+                // the queries are left to the connectors already running them
+                LOG.ok(e, "No further connector for the queries on {0}", objectClass);
+            } finally {
+                if (poolEntry != null) {
+                    try {
+                        poolEntry.close();
+                    } catch (Exception e) {
+                        LOG.error(e, null);
+                    }
+                } else if (connector != null) {
+                    try {
+                        connector.dispose();
+                    } catch (Exception e) {
+                        LOG.error(e, null);
+                    }
+                }
+                thread.setContextClassLoader(previousClassLoader);
+                CurrentLocale.clear();
+            }
+        }
+    }
+
+    private static final class QueryThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread t = new Thread(r, "SearchQuery-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
     /**
      * Simple results handler that can reduce attributes to only the set of attribute to get.
      */
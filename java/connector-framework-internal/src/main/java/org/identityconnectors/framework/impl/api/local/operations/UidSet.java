@@ -0,0 +1,354 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.local.operations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
+
+/**
+ * The uids a search has passed on, to pass on each object once.
+ * <p>
+ * Up to a number of uids they are kept in a {@link HashSet}. Past it they are
+ * kept as 64 bit hashes in an open addressing table of longs, each with a
+ * reference to the uid stored as UTF-8 bytes, which a matching hash is
+ * verified against, so the set stays exact. The bytes are stored in chunks on
+ * the heap or, optionally, off the heap, and past a size in a temporary file
+ * deleted on {@link #close()}.
+ *
+ * @since 1.7.0.0
+ */
+public final class UidSet implements Closeable {
+
+    private static final Log LOG = Log.getLog(UidSet.class);
+
+    public static final int DEFAULT_HASHED_ABOVE = 10000;
+
+    public static final long DEFAULT_SPILL_ABOVE = 64L * 1024 * 1024;
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Marks the references to the uids stored in the temporary file, the
+     * others hold the index of the chunk in the upper 32 bits.
+     */
+    private static final long FILE_REF = 1L << 62;
+
+    private static final class Limits {
+
+        private final int hashedAbove;
+
+        private final long spillAbove;
+
+        private final boolean offHeap;
+
+        Limits(final int hashedAbove, final long spillAbove, final boolean offHeap) {
+            this.hashedAbove = hashedAbove;
+            this.spillAbove = spillAbove;
+            this.offHeap = offHeap;
+        }
+    }
+
+    private static volatile Limits defaultLimits =
+            new Limits(DEFAULT_HASHED_ABOVE, DEFAULT_SPILL_ABOVE, false);
+
+    /**
+     * Sets how the sets created from now on keep their uids.
+     *
+     * @param hashedAbove the number of uids above which they are kept as
+     * hashes.
+     * @param spillAbove the bytes of the stored uids above which the further
+     * ones are stored in a temporary file.
+     * @param offHeap whether the uids are stored in direct buffers rather than
+     * on the heap.
+     */
+    public static void setLimits(final int hashedAbove, final long spillAbove, final boolean offHeap) {
+        if (hashedAbove < 0 || spillAbove < 0) {
+            throw new IllegalArgumentException("The limits must not be negative");
+        }
+        defaultLimits = new Limits(hashedAbove, spillAbove, offHeap);
+    }
+
+    private final Limits limits = defaultLimits;
+
+    private Set<String> uids = new HashSet<>();
+
+    /**
+     * Pairs of the hash and the reference plus one of each uid, an empty slot
+     * holds a zero reference.
+     */
+    private long[] table;
+
+    private int size;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    private long memoryBytes;
+
+    private SpillFile spillFile;
+
+    /**
+     * Adds the uid.
+     *
+     * @return false if it was in the set already.
+     */
+    public boolean add(final String uid) {
+        if (table == null) {
+            if (!uids.add(uid)) {
+                return false;
+            }
+            if (uids.size() > limits.hashedAbove) {
+                hashUids();
+            }
+            return true;
+        }
+        byte[] bytes = uid.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(bytes);
+        int mask = table.length / 2 - 1;
+        int slot = (int) hash & mask;
+        while (table[2 * slot + 1] != 0) {
+            if (table[2 * slot] == hash && matches(table[2 * slot + 1] - 1, bytes)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[2 * slot] = hash;
+        table[2 * slot + 1] = store(bytes) + 1;
+        if (++size > mask / 2) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public int size() {
+        return table == null ? uids.size() : size;
+    }
+
+    /**
+     * Whether the uids are kept as hashes.
+     */
+    public boolean isHashed() {
+        return table != null;
+    }
+
+    /**
+     * Whether some uids are stored in the temporary file.
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Releases the stored uids and deletes the temporary file.
+     */
+    @Override
+    public void close() {
+        uids = null;
+        table = null;
+        chunks.clear();
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                LOG.warn(e, "Failed to delete the uids of a search");
+            }
+            spillFile = null;
+        }
+    }
+
+    private void hashUids() {
+        LOG.ok("Keeping the hashes of the uids of a search above {0} uids", limits.hashedAbove);
+        table = new long[Math.max(16, Integer.highestOneBit(uids.size()) * 8)];
+        for (String uid : uids) {
+            byte[] bytes = uid.getBytes(StandardCharsets.UTF_8);
+            put(hash(bytes), store(bytes) + 1);
+        }
+        size = uids.size();
+        uids = null;
+    }
+
+    private void rehash(final int length) {
+        long[] old = table;
+        table = new long[length];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i + 1] != 0) {
+                put(old[i], old[i + 1]);
+            }
+        }
+    }
+
+    private void put(final long hash, final long ref) {
+        int mask = table.length / 2 - 1;
+        int slot = (int) hash & mask;
+        while (table[2 * slot + 1] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[2 * slot] = hash;
+        table[2 * slot + 1] = ref;
+    }
+
+    /**
+     * FNV-1a finished with the MurmurHash3 mix, so the low bits taken for the
+     * slot depend on all the bytes.
+     */
+    static long hash(final byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private long store(final byte[] bytes) {
+        int length = 4 + bytes.length;
+        if (spillFile == null) {
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunk.remaining() < length) {
+                int capacity = Math.max(CHUNK_SIZE, length);
+                if (memoryBytes + capacity > limits.spillAbove) {
+                    LOG.ok("Storing the uids of a search in a temporary file above {0} bytes", memoryBytes);
+                    try {
+                        spillFile = new SpillFile();
+                    } catch (IOException e) {
+                        throw new ConnectorIOException(e);
+                    }
+                    return FILE_REF | spillFile.append(bytes);
+                }
+                chunk = limits.offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+                chunks.add(chunk);
+                memoryBytes += capacity;
+            }
+            long ref = ((long) (chunks.size() - 1) << 32) | chunk.position();
+            chunk.putInt(bytes.length).put(bytes);
+            return ref;
+        }
+        return FILE_REF | spillFile.append(bytes);
+    }
+
+    private boolean matches(final long ref, final byte[] bytes) {
+        if ((ref & FILE_REF) != 0) {
+            return spillFile.matches(ref & ~FILE_REF, bytes);
+        }
+        return matches(chunks.get((int) (ref >>> 32)), (int) ref, bytes);
+    }
+
+    private static boolean matches(final ByteBuffer buffer, final int position, final byte[] bytes) {
+        return buffer.getInt(position) == bytes.length
+                && buffer.slice(position + 4, bytes.length).mismatch(ByteBuffer.wrap(bytes)) < 0;
+    }
+
+    /**
+     * The uids past the memory limit, appended through a buffer and read back
+     * to verify the matching hashes.
+     */
+    private static final class SpillFile implements Closeable {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+
+        private ByteBuffer read = ByteBuffer.allocate(256);
+
+        private long written;
+
+        SpillFile() throws IOException {
+            Path path = Files.createTempFile("uids", ".tmp");
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        long append(final byte[] bytes) {
+            int length = 4 + bytes.length;
+            try {
+                if (pending.remaining() < length) {
+                    flush();
+                }
+                long offset = written + pending.position();
+                if (pending.remaining() < length) {
+                    ByteBuffer buffer = ByteBuffer.allocate(length).putInt(bytes.length).put(bytes).flip();
+                    write(buffer);
+                } else {
+                    pending.putInt(bytes.length).put(bytes);
+                }
+                return offset;
+            } catch (IOException e) {
+                throw new ConnectorIOException(e);
+            }
+        }
+
+        boolean matches(final long offset, final byte[] bytes) {
+            if (offset >= written) {
+                return UidSet.matches(pending, (int) (offset - written), bytes);
+            }
+            int length = 4 + bytes.length;
+            if (read.capacity() < length) {
+                read = ByteBuffer.allocate(length);
+            }
+            read.clear().limit(length);
+            try {
+                long position = offset;
+                while (read.hasRemaining() && position < written) {
+                    position += channel.read(read, position);
+                }
+            } catch (IOException e) {
+                throw new ConnectorIOException(e);
+            }
+            // a shorter uid may be the last one written
+            return read.position() >= 4 && UidSet.matches(read.flip(), 0, bytes);
+        }
+
+        private void flush() throws IOException {
+            pending.flip();
+            write(pending);
+            pending.clear();
+        }
+
+        private void write(final ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, written);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
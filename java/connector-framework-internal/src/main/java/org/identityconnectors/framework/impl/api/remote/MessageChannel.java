@@ -0,0 +1,60 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote;
+
+/**
+ * Sends and receives the messages of one remote operation: either a whole
+ * {@link RemoteFrameworkConnection}, or one stream of a connection shared by
+ * the multiplexed protocol.
+ */
+public interface MessageChannel {
+
+    /**
+     * Returns the id of the stream, to be set on the
+     * {@link org.identityconnectors.framework.impl.api.remote.messages.StreamMessage}s
+     * sent over this channel; zero if the channel is a whole connection.
+     */
+    long getStreamId();
+
+    /**
+     * Writes the objects consecutively, without messages of other streams in
+     * between.
+     */
+    void writeObjects(Object... objects);
+
+    /**
+     * Makes sure that everything written so far is sent.
+     */
+    void flush();
+
+    /**
+     * Reads the next object of this channel, blocking until one is available.
+     */
+    Object readObject();
+
+    /**
+     * Returns true if {@link #readObject()} has something to read, so it
+     * will not wait long for the peer.
+     */
+    boolean hasPendingInput();
+}
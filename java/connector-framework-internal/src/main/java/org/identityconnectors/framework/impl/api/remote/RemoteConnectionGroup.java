@@ -0,0 +1,237 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.identityconnectors.common.l10n.CurrentLocale;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionGroup;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
+import org.identityconnectors.framework.impl.api.remote.messages.EchoMessage;
+
+/**
+ * Chooses the server of each operation sent to a
+ * {@link RemoteFrameworkConnectionGroup} and keeps track of the servers that
+ * could not be reached. An unreachable server is skipped for the retry
+ * interval of the group, or until a health check finds it up again.
+ */
+public class RemoteConnectionGroup {
+
+    private static final Log LOG = Log.getLog(RemoteConnectionGroup.class);
+
+    /**
+     * A server of the group.
+     */
+    public static final class Member {
+
+        private final RemoteFrameworkConnectionInfo connectionInfo;
+
+        /**
+         * Operations in progress on the server.
+         */
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * The time until which the server is skipped, 0 if it is up.
+         */
+        private volatile long downUntil = 0;
+
+        private Member(RemoteFrameworkConnectionInfo connectionInfo) {
+            this.connectionInfo = connectionInfo;
+        }
+
+        public RemoteFrameworkConnectionInfo getConnectionInfo() {
+            return connectionInfo;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isDown() {
+            return downUntil != 0;
+        }
+
+        private boolean isAvailable(long now) {
+            return downUntil <= now;
+        }
+
+        @Override
+        public String toString() {
+            return connectionInfo.toString();
+        }
+    }
+
+    private final RemoteFrameworkConnectionGroup configuration;
+
+    private final List<Member> members;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    public RemoteConnectionGroup(RemoteFrameworkConnectionGroup configuration) {
+        this.configuration = configuration;
+        List<Member> list = new ArrayList<>(configuration.getServers().size());
+        for (RemoteFrameworkConnectionInfo info : configuration.getServers()) {
+            list.add(new Member(info));
+        }
+        members = List.copyOf(list);
+    }
+
+    public RemoteFrameworkConnectionGroup getConfiguration() {
+        return configuration;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    /**
+     * Chooses the server of the next operation among those not tried yet.
+     * Servers known to be unreachable are only chosen if all the others were
+     * tried.
+     *
+     * @param tried
+     *            the servers the operation already failed to reach
+     * @return the chosen server, null if all the servers were tried
+     */
+    public Member select(List<Member> tried) {
+        long now = System.currentTimeMillis();
+        int start = (int) Math.floorMod(counter.getAndIncrement(), (long) members.size());
+        Member best = null;
+        Member fallback = null;
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get((start + i) % members.size());
+            if (tried.contains(member)) {
+                continue;
+            }
+            if (!member.isAvailable(now)) {
+                if (fallback == null) {
+                    fallback = member;
+                }
+                continue;
+            }
+            if (configuration.getStrategy() == RemoteFrameworkConnectionGroup.Strategy.ROUND_ROBIN) {
+                return member;
+            }
+            if (best == null || member.getOutstanding() < best.getOutstanding()) {
+                best = member;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * Counts an operation starting on the given server.
+     */
+    public void acquire(Member member) {
+        member.outstanding.incrementAndGet();
+    }
+
+    /**
+     * Counts an operation completed on the given server.
+     */
+    public void release(Member member) {
+        member.outstanding.decrementAndGet();
+    }
+
+    /**
+     * Skips the given server for the retry interval.
+     */
+    public void markDown(Member member, Throwable cause) {
+        if (!member.isDown()) {
+            LOG.warn("Connector server {0} is unreachable, failing over: {1}", member,
+                    cause != null ? cause.getMessage() : null);
+        }
+        // may not be 0, which marks up servers
+        member.downUntil = Math.max(System.currentTimeMillis() + configuration.getRetryInterval(), 1);
+    }
+
+    /**
+     * Uses the given server again.
+     */
+    public void markUp(Member member) {
+        if (member.isDown()) {
+            LOG.info("Connector server {0} is reachable again", member);
+        }
+        member.downUntil = 0;
+    }
+
+    /**
+     * Sends an {@link EchoMessage} to each server of the group and updates
+     * their state.
+     *
+     * @return the number of servers up
+     */
+    public int checkHealth() {
+        int up = 0;
+        for (Member member : members) {
+            try {
+                ping(member.getConnectionInfo());
+                markUp(member);
+                up++;
+            } catch (RuntimeException e) {
+                markDown(member, e);
+            }
+        }
+        return up;
+    }
+
+    private static void ping(RemoteFrameworkConnectionInfo connectionInfo) {
+        ObjectPoolEntry<RemoteFrameworkConnection> entry =
+                RemoteConnectionPoolManager.borrowConnection(connectionInfo);
+        boolean complete = false;
+        try {
+            RemoteFrameworkConnection connection = entry.getPooledObject();
+            EchoMessage ping = new EchoMessage(Boolean.TRUE, null);
+            if (connection.isAuthenticated()) {
+                connection.writeObjects(ping);
+            } else {
+                connection.writeObjects(CurrentLocale.get(), connectionInfo.getKey(), ping);
+            }
+            Object response = connection.readObject();
+            complete = true;
+            if (!(response instanceof EchoMessage)) {
+                throw new ConnectorException("Unexpected response: " + response);
+            }
+            Object value = ((EchoMessage) response).getObject();
+            if (value instanceof Throwable) {
+                throw ConnectorException.wrap((Throwable) value);
+            }
+        } finally {
+            try {
+                if (!complete) {
+                    entry.getPooledObject().close();
+                }
+                // closed connections are discarded by the pool
+                entry.close();
+            } catch (Exception e) {
+                LOG.ok(e, "Failed to close remote connection");
+            }
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.identityconnectors.common.Assertions;
+import org.identityconnectors.common.l10n.CurrentLocale;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.common.pooling.ObjectPoolConfiguration;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.serializer.WireCodec;
+import org.identityconnectors.framework.impl.api.local.ObjectPool;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolHandler;
+import org.identityconnectors.framework.impl.api.remote.messages.HelloRequest;
+import org.identityconnectors.framework.impl.api.remote.messages.HelloResponse;
+
+/**
+ * Keeps pools of open {@link RemoteFrameworkConnection}s, one pool per
+ * {@link RemoteFrameworkConnectionInfo}, so that consecutive operations
+ * against the same connector server do not pay for a new TCP connection
+ * (and TLS handshake) each time.
+ * <p/>
+ * The connector server already processes any number of requests on a single
+ * socket; a connection is returned here only after a complete response has
+ * been read, otherwise it is closed and discarded by the pool.
+ * <p/>
+ * Each open connection holds a worker thread of the server, a platform thread
+ * unless it runs on virtual threads, so idle connections are closed by a
+ * background thread once they have been idle for the
+ * {@code minEvictableIdleTimeMillis} of the pool configuration.
+ * <p/>
+ * If {@link RemoteFrameworkConnectionInfo#isMultiplexed()} is set and the
+ * server agrees, all operations share a single
+ * {@link RemoteMultiplexedConnection} instead.
+ * <p/>
+ * New connections start with a {@link HelloRequest} opening a session, so the
+ * key is verified once per connection rather than with every request, and
+ * offering compression if {@link RemoteFrameworkConnectionInfo#isCompressed()}
+ * is set.
+ */
+public class RemoteConnectionPoolManager {
+
+    private static final Log LOG = Log.getLog(RemoteConnectionPoolManager.class);
+
+    /**
+     * Idle connections older than this are probed before being handed out.
+     */
+    private static final long PROBE_IDLE_MILLIS = 5 * 1000;
+
+    /**
+     * How often idle connections are looked for.
+     */
+    private static final long EVICTION_INTERVAL_MILLIS = 15 * 1000;
+
+    private static class RemoteConnectionPoolHandler implements ObjectPoolHandler<RemoteFrameworkConnection> {
+
+        private final RemoteFrameworkConnectionInfo connectionInfo;
+
+        public RemoteConnectionPoolHandler(final RemoteFrameworkConnectionInfo connectionInfo) {
+            this.connectionInfo = connectionInfo;
+        }
+
+        @Override
+        public ObjectPoolConfiguration validate(final ObjectPoolConfiguration original) {
+            ObjectPoolConfiguration configuration = new ObjectPoolConfiguration(original);
+            configuration.validate();
+            return configuration;
+        }
+
+        @Override
+        public RemoteFrameworkConnection makeObject() {
+            RemoteFrameworkConnection connection = new RemoteFrameworkConnection(connectionInfo);
+            try {
+                handshake(connection, connectionInfo, new HashMap<>());
+            } catch (RuntimeException e) {
+                closeQuietly(connection);
+                throw e;
+            }
+            return connection;
+        }
+
+        @Override
+        public void testObject(final RemoteFrameworkConnection object) {
+            object.checkAlive(PROBE_IDLE_MILLIS);
+        }
+
+        @Override
+        public void disposeObject(final RemoteFrameworkConnection object) {
+            closeQuietly(object);
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to release
+        }
+    }
+
+    /**
+     * Cache of the various pools.
+     */
+    private static final ConcurrentMap<RemoteFrameworkConnectionInfo, ObjectPool<RemoteFrameworkConnection>> POOLS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Shared connections of the multiplexed protocol.
+     */
+    private static final ConcurrentMap<RemoteFrameworkConnectionInfo, RemoteMultiplexedConnection> MULTIPLEXED =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Servers which did not agree to the multiplexed protocol.
+     */
+    private static final Set<RemoteFrameworkConnectionInfo> LEGACY_SERVERS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Closes the connections idle for too long, started with the first pool.
+     * Guarded by {@link #POOLS}.
+     */
+    private static ScheduledExecutorService evictor;
+
+    private static volatile ObjectPoolConfiguration poolConfiguration = defaultPoolConfiguration();
+
+    private static ObjectPoolConfiguration defaultPoolConfiguration() {
+        ObjectPoolConfiguration configuration = new ObjectPoolConfiguration();
+        // matches the default number of workers of the connector server
+        configuration.setMaxObjects(100);
+        // each idle connection holds a worker of the server until evicted
+        configuration.setMaxIdle(10);
+        configuration.setMinIdle(0);
+        configuration.setMinEvictableIdleTimeMillis(60 * 1000);
+        return configuration;
+    }
+
+    /**
+     * Returns a copy of the configuration used for new connection pools.
+     */
+    public static ObjectPoolConfiguration getPoolConfiguration() {
+        return new ObjectPoolConfiguration(poolConfiguration);
+    }
+
+    /**
+     * Sets the configuration used for connection pools created from now on.
+     * A {@code maxIdle} of zero effectively disables connection reuse.
+     */
+    public static void setPoolConfiguration(final ObjectPoolConfiguration configuration) {
+        Assertions.nullCheck(configuration, "configuration");
+        ObjectPoolConfiguration copy = new ObjectPoolConfiguration(configuration);
+        copy.validate();
+        poolConfiguration = copy;
+    }
+
+    /**
+     * Gets the pool for the given connection info, creating it if needed.
+     */
+    public static ObjectPool<RemoteFrameworkConnection> getPool(final RemoteFrameworkConnectionInfo connectionInfo) {
+        ObjectPool<RemoteFrameworkConnection> pool = POOLS.get(connectionInfo);
+        if (pool == null) {
+            LOG.info("Creating new remote connection pool: {0}", connectionInfo);
+            pool = new ObjectPool<>(new RemoteConnectionPoolHandler(connectionInfo), poolConfiguration);
+            pool.setPoolName(connectionInfo.toString());
+            ObjectPool<RemoteFrameworkConnection> previousPool = POOLS.putIfAbsent(connectionInfo, pool);
+            // Use the pool made by other thread
+            if (previousPool != null) {
+                pool = previousPool;
+            } else {
+                startEvictor();
+            }
+        }
+        return pool;
+    }
+
+    private static void startEvictor() {
+        synchronized (POOLS) {
+            if (null != evictor) {
+                return;
+            }
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "RemoteConnectionPoolEvictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            evictor.scheduleWithFixedDelay(() -> POOLS.values().forEach(pool -> {
+                try {
+                    pool.evictIdleObjects();
+                } catch (RuntimeException e) {
+                    LOG.warn(e, "Failed to evict idle connections of pool {0}: {1}",
+                            pool.getPoolName(), e.getMessage());
+                }
+            }), EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrows an open connection to the given connector server.
+     * <p/>
+     * The returned entry must always be closed; the connection must be closed
+     * before that if the request/response exchange did not complete.
+     */
+    public static ObjectPoolEntry<RemoteFrameworkConnection> borrowConnection(
+            final RemoteFrameworkConnectionInfo connectionInfo) {
+        return getPool(connectionInfo).borrowObject();
+    }
+
+    /**
+     * Returns the connection shared by all operations against the given
+     * connector server, connecting if needed.
+     *
+     * @return null if the multiplexed protocol is not requested by the
+     * connection info or not supported by the server
+     */
+    public static RemoteMultiplexedConnection getMultiplexedConnection(
+            final RemoteFrameworkConnectionInfo connectionInfo) {
+        if (!connectionInfo.isMultiplexed() || LEGACY_SERVERS.contains(connectionInfo)) {
+            return null;
+        }
+        RemoteMultiplexedConnection connection = MULTIPLEXED.get(connectionInfo);
+        if (null != connection && connection.isAlive()) {
+            return connection;
+        }
+        synchronized (MULTIPLEXED) {
+            connection = MULTIPLEXED.get(connectionInfo);
+            if (null == connection || !connection.isAlive()) {
+                connection = connectMultiplexed(connectionInfo);
+                if (null == connection) {
+                    LEGACY_SERVERS.add(connectionInfo);
+                    MULTIPLEXED.remove(connectionInfo);
+                } else {
+                    MULTIPLEXED.put(connectionInfo, connection);
+                }
+            }
+            return connection;
+        }
+    }
+
+    private static RemoteMultiplexedConnection connectMultiplexed(final RemoteFrameworkConnectionInfo connectionInfo) {
+        RemoteFrameworkConnection connection = new RemoteFrameworkConnection(connectionInfo);
+        try {
+            Map<String, Object> clientInfo = new HashMap<>();
+            clientInfo.put(HelloRequest.PROTOCOL_VERSION, HelloRequest.MULTIPLEXED_PROTOCOL_VERSION);
+            Map<String, Object> serverInfo = handshake(connection, connectionInfo, clientInfo);
+            if (!Integer.valueOf(HelloRequest.MULTIPLEXED_PROTOCOL_VERSION).equals(
+                    serverInfo.get(HelloRequest.PROTOCOL_VERSION))) {
+                LOG.info("Connector server {0} does not support the multiplexed protocol", connectionInfo);
+                return null;
+            }
+            LOG.info("Opened multiplexed connection to {0}", connectionInfo);
+            RemoteMultiplexedConnection multiplexed =
+                    new RemoteMultiplexedConnection(connection, connectionInfo.getTimeout());
+            connection = null;
+            return multiplexed;
+        } finally {
+            if (null != connection) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    /**
+     * Sends a {@link HelloRequest} with the given client info, adding the
+     * session, the cancellation, the facade digests, the codecs and the compression offer if
+     * requested, and sets up the
+     * connection for what the server agreed to.
+     *
+     * @return the server info of the response
+     */
+    private static Map<String, Object> handshake(final RemoteFrameworkConnection connection,
+            final RemoteFrameworkConnectionInfo connectionInfo, final Map<String, Object> clientInfo) {
+        clientInfo.put(HelloRequest.SESSION, Boolean.TRUE);
+        clientInfo.put(HelloRequest.CANCEL, Boolean.TRUE);
+        clientInfo.put(HelloRequest.FACADE_DIGEST, Boolean.TRUE);
+        if (!connectionInfo.getCodecs().isEmpty()) {
+            clientInfo.put(HelloRequest.CODEC, connectionInfo.getCodecs());
+        }
+        if (connectionInfo.isCompressed()) {
+            clientInfo.put(HelloRequest.COMPRESSION, HelloRequest.DEFLATE_COMPRESSION);
+        }
+        connection.writeObjects(CurrentLocale.get(), connectionInfo.getKey(),
+                new HelloRequest(HelloRequest.SERVER_INFO, clientInfo));
+        HelloResponse response = (HelloResponse) connection.readObject();
+        if (response.getException() != null) {
+            throw ConnectorException.wrap(response.getException());
+        }
+        Map<String, Object> serverInfo = response.getServerInfo();
+        if (Boolean.TRUE.equals(serverInfo.get(HelloRequest.SESSION))) {
+            connection.setAuthenticated();
+        }
+        if (Boolean.TRUE.equals(serverInfo.get(HelloRequest.CANCEL))) {
+            connection.setCancellable();
+        }
+        if (Boolean.TRUE.equals(serverInfo.get(HelloRequest.FACADE_DIGEST))) {
+            connection.setFacadeDigests();
+        }
+        boolean compress = HelloRequest.DEFLATE_COMPRESSION.equals(serverInfo.get(HelloRequest.COMPRESSION));
+        Object codec = serverInfo.get(HelloRequest.CODEC);
+        if (codec != null && !connectionInfo.getCodecs().contains(codec)) {
+            throw new ConnectorException("Server picked a codec that was not offered: " + codec);
+        }
+        // the server switches under the same conditions
+        if (compress || codec != null) {
+            LOG.ok("Switching connection to {0} to compression {1}, codec {2}", connectionInfo, compress, codec);
+            connection.switchEncoding(compress, codec != null ? (String) codec : WireCodec.BINARY);
+        }
+        return serverInfo;
+    }
+
+    private static void closeQuietly(final RemoteFrameworkConnection connection) {
+        try {
+            connection.close();
+        } catch (Exception e) {
+            LOG.ok(e, "Failed to close remote connection");
+        }
+    }
+
+    /**
+     * Closes all idle connections to the given connector server.
+     */
+    public static void dispose(final RemoteFrameworkConnectionInfo connectionInfo) {
+        synchronized (MULTIPLEXED) {
+            RemoteMultiplexedConnection connection = MULTIPLEXED.remove(connectionInfo);
+            if (null != connection) {
+                connection.close();
+            }
+            LEGACY_SERVERS.remove(connectionInfo);
+        }
+        synchronized (POOLS) {
+            ObjectPool<RemoteFrameworkConnection> pool = POOLS.remove(connectionInfo);
+            if (null != pool) {
+                try {
+                    pool.shutdown();
+                } catch (Exception e) {
+                    LOG.warn(e, "Failed to shutdown pool {0}: {1}", pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes all idle connections of all pools. Connections in use are closed
+     * as soon as they are returned.
+     */
+    public static void shutdown() {
+        LOG.info("Shutting down all remote connection pools");
+        synchronized (MULTIPLEXED) {
+            MULTIPLEXED.values().forEach(RemoteMultiplexedConnection::close);
+            MULTIPLEXED.clear();
+            LEGACY_SERVERS.clear();
+        }
+        synchronized (POOLS) {
+            POOLS.values().forEach(pool -> {
+                try {
+                    pool.shutdown();
+                } catch (Exception e) {
+                    LOG.warn(e, "Failed to shutdown pool {0}: {1}", pool.getPoolName(), e.getMessage());
+                }
+            });
+            POOLS.clear();
+            if (null != evictor) {
+                evictor.shutdownNow();
+                evictor = null;
+            }
+        }
+    }
+}
@@ -26,8 +26,13 @@
 package org.identityconnectors.framework.impl.api.remote;
 
 import java.lang.reflect.InvocationHandler;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
 import org.identityconnectors.framework.api.operations.APIOperation;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.serializer.SerializerUtil;
 import org.identityconnectors.framework.impl.api.APIConfigurationImpl;
 import org.identityconnectors.framework.impl.api.AbstractConnectorFacade;
@@ -42,11 +47,34 @@ public class RemoteConnectorFacadeImpl extends AbstractConnectorFacade {
         APIConfigurationImpl copy = new APIConfigurationImpl(configuration);
         copy.setProducerBufferSize(0);
         copy.setTimeoutMap(new HashMap<>());
+        // the remote facades of different instances share their connectors
+        copy.setInstanceName(null);
         return SerializerUtil.serializeBase64Object(copy);
     }
 
+    /**
+     * Computes the digest identifying a remote connector facade key, the
+     * Base64 encoded SHA-256 hash of the key.
+     *
+     * @since 1.7.0.0
+     */
+    public static String computeConnectorFacadeDigest(final String connectorFacadeKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(
+                    digest.digest(connectorFacadeKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw ConnectorException.wrap(e);
+        }
+    }
+
     final String remoteConnectorFacadeKey;
 
+    /**
+     * The digest sent instead of the key once the server knows it.
+     */
+    private volatile String remoteConnectorFacadeDigest;
+
     /**
      * Builds up the maps of supported operations and calls.
      */
@@ -69,7 +97,7 @@ public class RemoteConnectorFacadeImpl extends AbstractConnectorFacade {
         // add remote proxy
         InvocationHandler handler =
                 new RemoteOperationInvocationHandler((RemoteConnectorInfoImpl) getAPIConfiguration()
-                        .getConnectorInfo(), remoteConnectorFacadeKey, api);
+                        .getConnectorInfo(), remoteConnectorFacadeKey, getConnectorFacadeDigest(), api);
         APIOperation proxy = newAPIOperationProxy(api, handler);
         // now wrap the proxy in the appropriate timeout proxy
         proxy = createTimeoutProxy(api, proxy);
@@ -81,8 +109,18 @@ public class RemoteConnectorFacadeImpl extends AbstractConnectorFacade {
         return proxy;
     }
 
+    private String getConnectorFacadeDigest() {
+        String digest = remoteConnectorFacadeDigest;
+        if (digest == null) {
+            digest = computeConnectorFacadeDigest(remoteConnectorFacadeKey);
+            remoteConnectorFacadeDigest = digest;
+        }
+        return digest;
+    }
+
     @Override
     public void dispose() {
-        // Nothing to do here. No connection pools are maintained for remote connectors.
+        // Nothing to do here. Connections to the connector server are shared by all remote facades,
+        // they are released by ConnectorFacadeFactory.dispose().
     }
 }
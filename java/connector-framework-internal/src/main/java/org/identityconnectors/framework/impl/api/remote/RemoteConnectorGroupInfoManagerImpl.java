@@ -0,0 +1,130 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorKey;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionGroup;
+
+/**
+ * The {@link ConnectorInfoManager} of a group of equivalent connector
+ * servers. The connector info is loaded from the first reachable server of
+ * the group; the operations of the facades created from it are spread across
+ * all the servers by {@link RemoteConnectionGroup}.
+ * <p/>
+ * The health of every server of the group is checked in the background at
+ * the retry interval of the group, so that unreachable servers are retired
+ * and probed again until {@link #dispose()} is called. Running the manager
+ * checks it right away.
+ */
+public class RemoteConnectorGroupInfoManagerImpl implements ConnectorInfoManager, Runnable {
+
+    private static final Log LOG = Log.getLog(RemoteConnectorGroupInfoManagerImpl.class);
+
+    private final RemoteConnectionGroup group;
+
+    private final List<ConnectorInfo> connectorInfoList;
+
+    private final ScheduledExecutorService healthCheck;
+
+    public RemoteConnectorGroupInfoManagerImpl(RemoteFrameworkConnectionGroup configuration) {
+        group = new RemoteConnectionGroup(configuration);
+        connectorInfoList = loadConnectorInfos();
+        healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "RemoteConnectorGroupHealthCheck");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = configuration.getRetryInterval() > 0
+                ? configuration.getRetryInterval()
+                : RemoteFrameworkConnectionGroup.DEFAULT_RETRY_INTERVAL;
+        healthCheck.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private List<ConnectorInfo> loadConnectorInfos() {
+        List<RemoteConnectionGroup.Member> tried = new ArrayList<>(group.getMembers().size());
+        RuntimeException failure = null;
+        RemoteConnectionGroup.Member member;
+        while ((member = group.select(tried)) != null) {
+            try {
+                RemoteConnectorInfoManagerImpl manager =
+                        new RemoteConnectorInfoManagerImpl(member.getConnectionInfo());
+                List<ConnectorInfo> infos = manager.getConnectorInfos();
+                infos.forEach(info -> ((RemoteConnectorInfoImpl) info).setConnectionGroup(group));
+                group.markUp(member);
+                return infos;
+            } catch (RuntimeException e) {
+                group.markDown(member, e);
+                tried.add(member);
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    public RemoteConnectionGroup getConnectionGroup() {
+        return group;
+    }
+
+    /**
+     * Stops checking the health of the servers of the group.
+     */
+    public void dispose() {
+        healthCheck.shutdownNow();
+    }
+
+    @Override
+    public ConnectorInfo findConnectorInfo(ConnectorKey key) {
+        for (ConnectorInfo info : connectorInfoList) {
+            if (info.getConnectorKey().equals(key)) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<ConnectorInfo> getConnectorInfos() {
+        return connectorInfoList;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        try {
+            group.checkHealth();
+        } catch (Exception e) {
+            LOG.error(e, "Failed to check the health of connector server group {0}",
+                    group.getConfiguration());
+        }
+    }
+}
@@ -32,6 +32,11 @@ public class RemoteConnectorInfoImpl extends AbstractConnectorInfo {
      */
     private transient RemoteFrameworkConnectionInfo remoteConnectionInfo;
 
+    /**
+     * Transient field, not serialized
+     */
+    private transient RemoteConnectionGroup connectionGroup;
+
     public RemoteConnectorInfoImpl() {
 
     }
@@ -43,4 +48,18 @@ public class RemoteConnectorInfoImpl extends AbstractConnectorInfo {
     public void setRemoteConnectionInfo(RemoteFrameworkConnectionInfo info) {
         remoteConnectionInfo = info;
     }
+
+    /**
+     * Returns the group of servers the operations are spread across, null if
+     * they are all sent to the server of {@link #getRemoteConnectionInfo()}.
+     *
+     * @since 1.7.0.0
+     */
+    public RemoteConnectionGroup getConnectionGroup() {
+        return connectionGroup;
+    }
+
+    public void setConnectionGroup(RemoteConnectionGroup group) {
+        connectionGroup = group;
+    }
 }
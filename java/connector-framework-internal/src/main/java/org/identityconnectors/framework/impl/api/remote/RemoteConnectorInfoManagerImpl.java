@@ -26,8 +26,11 @@ package org.identityconnectors.framework.impl.api.remote;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.identityconnectors.common.CollectionUtil;
 import org.identityconnectors.common.event.ConnectorEvent;
 import org.identityconnectors.common.event.ConnectorEventHandler;
@@ -59,6 +62,11 @@ public class RemoteConnectorInfoManagerImpl implements ConnectorInfoManager,
 
     private Long serverStartTime = null;
 
+    /**
+     * Version of the connector info list, as sent by the server.
+     */
+    private String connectorInfoEtag = null;
+
     private final List<ConnectorEventHandler> eventHandlers = new ArrayList<>();
 
     private RemoteConnectorInfoManagerImpl() {
@@ -80,12 +88,23 @@ public class RemoteConnectorInfoManagerImpl implements ConnectorInfoManager,
     }
 
     private void init() {
+        List<ConnectorInfo> connectorInfoBefore = connectorInfoList;
+        // let the server skip what did not change since the last time
+        Map<String, Object> clientInfo = new HashMap<>();
+        if (null != connectorInfoEtag && null != connectorInfoBefore) {
+            clientInfo.put(HelloRequest.CONNECTOR_INFO_ETAG, connectorInfoEtag);
+        }
+        if (null != connectorInfoBefore && !connectorInfoBefore.isEmpty()) {
+            List<ConnectorKey> knownKeys = new ArrayList<>(connectorInfoBefore.size());
+            connectorInfoBefore.forEach(info -> knownKeys.add(info.getConnectorKey()));
+            clientInfo.put(HelloRequest.KNOWN_CONNECTOR_KEYS, knownKeys);
+        }
         RemoteFrameworkConnection connection = new RemoteFrameworkConnection(frameworkConnectionInfo);
         HelloResponse response = null;
         try {
             connection.writeObject(CurrentLocale.get());
             connection.writeObject(frameworkConnectionInfo.getKey());
-            connection.writeObject(new HelloRequest(HelloRequest.CONNECTOR_INFO));
+            connection.writeObject(new HelloRequest(HelloRequest.CONNECTOR_INFO, clientInfo));
             response = fetchHelloResponse(connection);
         } catch (Throwable e) {
 
@@ -102,45 +121,58 @@ public class RemoteConnectorInfoManagerImpl implements ConnectorInfoManager,
             throw ConnectorException.wrap(response.getException());
         }
 
-        List<RemoteConnectorInfoImpl> remoteInfos = response.getConnectorInfos();
-        // populate transient fields not serialized
-        remoteInfos.forEach((remoteInfo) -> {
-            remoteInfo.setRemoteConnectionInfo(frameworkConnectionInfo);
-        });
-
-        List<ConnectorInfo> connectorInfoBefore = connectorInfoList;
-        connectorInfoList = CollectionUtil.<ConnectorInfo>newReadOnlyList(remoteInfos);
-        Object o = response.getServerInfo().get(HelloResponse.SERVER_START_TIME);
+        Map<String, Object> serverInfo = response.getServerInfo();
+        Object o = serverInfo.get(HelloResponse.SERVER_START_TIME);
         if (o instanceof Long) {
             serverStartTime = (Long) o;
         } else {
             serverStartTime = System.currentTimeMillis();
         }
+        o = serverInfo.get(HelloRequest.CONNECTOR_INFO_ETAG);
+        connectorInfoEtag = o instanceof String ? (String) o : null;
+        if (Boolean.TRUE.equals(serverInfo.get(HelloResponse.CONNECTOR_INFO_NOT_MODIFIED))
+                && null != connectorInfoBefore) {
+            LOG.ok("Connector info of {0} is up to date", frameworkConnectionInfo);
+            return;
+        }
 
-        // Notify all the listeners
-        List<ConnectorInfo> unchanged = new ArrayList<>(connectorInfoList.size());
+        // the infos sent are those the client did not know, older servers send them all
+        Map<ConnectorKey, ConnectorInfo> infosBefore = new HashMap<>();
         if (null != connectorInfoBefore) {
-            for (ConnectorInfo oldCi : connectorInfoBefore) {
-                boolean unregistered = true;
-                for (ConnectorInfo newCi : connectorInfoList) {
-                    if (oldCi.getConnectorKey().equals(newCi.getConnectorKey())) {
-                        unregistered = false;
-                        unchanged.add(newCi);
-                        break;
-                    }
-                }
-                if (unregistered) {
-                    notifyListeners(new ConnectorEvent(ConnectorEvent.CONNECTOR_UNREGISTERING,
-                            oldCi.getConnectorKey()));
-                }
+            connectorInfoBefore.forEach(info -> infosBefore.put(info.getConnectorKey(), info));
+        }
+        Map<ConnectorKey, RemoteConnectorInfoImpl> infosSent = new HashMap<>();
+        response.getConnectorInfos().forEach(info -> infosSent.put(info.getConnectorKey(), info));
+        List<ConnectorKey> keys = response.getConnectorKeys();
+        if (keys.isEmpty() && !infosSent.isEmpty()) {
+            keys = new ArrayList<>(infosSent.keySet());
+        }
+        List<ConnectorInfo> remoteInfos = new ArrayList<>(keys.size());
+        for (ConnectorKey key : keys) {
+            RemoteConnectorInfoImpl remoteInfo = infosSent.get(key);
+            if (null != remoteInfo) {
+                // populate transient fields not serialized
+                remoteInfo.setRemoteConnectionInfo(frameworkConnectionInfo);
+                remoteInfos.add(remoteInfo);
+            } else if (infosBefore.containsKey(key)) {
+                remoteInfos.add(infosBefore.get(key));
+            } else {
+                throw new ConnectorException("Connector info of " + key + " missing from "
+                        + frameworkConnectionInfo);
             }
         }
-        connectorInfoList.stream().
-                filter((newCi) -> (!unchanged.contains(newCi))).
-                forEachOrdered((newCi) -> {
-                    notifyListeners(
-                            new ConnectorEvent(ConnectorEvent.CONNECTOR_REGISTERED, newCi.getConnectorKey()));
-                });
+        connectorInfoList = CollectionUtil.newReadOnlyList(remoteInfos);
+
+        // Notify all the listeners
+        Set<ConnectorKey> keysAfter = new HashSet<>(keys);
+        infosBefore.keySet().stream().
+                filter(key -> !keysAfter.contains(key)).
+                forEach(key -> notifyListeners(
+                        new ConnectorEvent(ConnectorEvent.CONNECTOR_UNREGISTERING, key)));
+        keys.stream().
+                filter(key -> !infosBefore.containsKey(key)).
+                forEachOrdered(key -> notifyListeners(
+                        new ConnectorEvent(ConnectorEvent.CONNECTOR_REGISTERED, key)));
     }
 
     private HelloResponse fetchHelloResponse(RemoteFrameworkConnection connection) throws Throwable {
@@ -212,6 +244,11 @@ public class RemoteConnectorInfoManagerImpl implements ConnectorInfoManager,
     @Override
     public void run() {
         try {
+            if (null != connectorInfoEtag && null != connectorInfoList) {
+                // a single round trip, the server answers whether anything changed
+                init();
+                return;
+            }
             Map<String, Object> serverInfo = getServerInfo();
             Object o = serverInfo.get(HelloResponse.SERVER_START_TIME);
             if (o instanceof Long) {
@@ -23,12 +23,21 @@
 package org.identityconnectors.framework.impl.api.remote;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
@@ -40,14 +49,99 @@ import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
 import org.identityconnectors.framework.common.serializer.BinaryObjectDeserializer;
 import org.identityconnectors.framework.common.serializer.BinaryObjectSerializer;
 import org.identityconnectors.framework.common.serializer.ObjectSerializerFactory;
+import org.identityconnectors.framework.common.serializer.WireCodec;
 
-public class RemoteFrameworkConnection implements Closeable {
+public class RemoteFrameworkConnection implements MessageChannel, Closeable {
 
     private static final Log LOG = Log.getLog(RemoteFrameworkConnection.class);
+
+    private static final int COMPRESSION_BUFFER_SIZE = 8192;
+
+    /**
+     * Flushes the pending output with a sync flush, so the peer can decode
+     * every complete message. Nothing is sent when nothing was written since
+     * the last flush; in particular the peer receives no compressed data
+     * before it has switched to compression itself.
+     */
+    private static class CompressedOutputStream extends DeflaterOutputStream {
+
+        private boolean pending = false;
+
+        public CompressedOutputStream(final OutputStream out) {
+            super(out, new Deflater(Deflater.BEST_SPEED), COMPRESSION_BUFFER_SIZE, true);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            super.write(b, off, len);
+            pending = pending || len > 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (pending) {
+                super.flush();
+                pending = false;
+            } else {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Reports the compressed bytes already received as available, where
+     * {@link InflaterInputStream} always reports one byte until the end of
+     * the stream.
+     */
+    private static class CompressedInputStream extends InflaterInputStream {
+
+        public CompressedInputStream(final InputStream in) {
+            super(in, new Inflater(), COMPRESSION_BUFFER_SIZE);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return inf.needsInput() ? in.available() : 1;
+        }
+    }
+
     private Socket socket;
     private BinaryObjectSerializer encoder;
     private BinaryObjectDeserializer decoder;
 
+    /**
+     * Guards the encoder, which may be shared by the streams of a multiplexed
+     * connection. Not a monitor: a virtual thread blocked on the socket while
+     * holding a monitor would pin its carrier thread.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Set once the connection has been closed or an I/O error has left the
+     * stream in an unknown state; such connection must not be reused.
+     */
+    private volatile boolean broken = false;
+
+    /**
+     * Time of the last completed read or write.
+     */
+    private volatile long lastUsedTimestamp = System.currentTimeMillis();
+
+    private volatile boolean compressed = false;
+
+    private volatile String codec = WireCodec.BINARY;
+
+    private volatile boolean authenticated = false;
+
+    private volatile boolean cancellable = false;
+
+    private volatile boolean facadeDigests = false;
+
+    /**
+     * The digests of the facade keys the server received on this connection.
+     */
+    private final Set<String> uploadedFacadeDigests = ConcurrentHashMap.newKeySet();
+
     public RemoteFrameworkConnection(RemoteFrameworkConnectionInfo info) {
         try {
             init(info);
@@ -116,6 +210,9 @@ public class RemoteFrameworkConnection implements Closeable {
 
     private void init(Socket socket) throws Exception {
         this.socket = socket;
+        // messages are flushed once complete; do not hold back the short
+        // flow control messages waiting for an acknowledgement
+        this.socket.setTcpNoDelay(true);
         InputStream inputStream = this.socket.getInputStream();
         OutputStream outputStream = this.socket.getOutputStream();
         ObjectSerializerFactory factory = ObjectSerializerFactory.getInstance();
@@ -123,9 +220,65 @@ public class RemoteFrameworkConnection implements Closeable {
         decoder = factory.newBinaryDeserializer(inputStream);
     }
 
+    /**
+     * Returns {@code true} if this connection has not been closed and no I/O
+     * error was detected on it so far.
+     */
+    public boolean isAlive() {
+        return !broken && null != socket && !socket.isClosed();
+    }
+
+    /**
+     * Checks whether this connection can be used for the next request.
+     * <p/>
+     * If the connection has been idle for longer than {@code probeIdleMillis}
+     * the socket is probed with a very short read: the peer closing the
+     * connection or unexpected data on the stream mark it as dead.
+     *
+     * @param probeIdleMillis idle time after which the socket is probed
+     * @throws ConnectorIOException if the connection is not usable
+     */
+    public void checkAlive(long probeIdleMillis) {
+        if (!isAlive()) {
+            throw new ConnectorIOException("Remote framework connection is closed");
+        }
+        if (System.currentTimeMillis() - lastUsedTimestamp <= probeIdleMillis) {
+            return;
+        }
+        try {
+            int timeout = socket.getSoTimeout();
+            socket.setSoTimeout(1);
+            try {
+                if (socket.getInputStream().read() < 0) {
+                    throw new ConnectorIOException("Remote framework connection was closed by the peer");
+                }
+                throw new ConnectorIOException("Unexpected data on idle remote framework connection");
+            } catch (SocketTimeoutException e) {
+                // nothing to read, the connection is still open
+            } finally {
+                socket.setSoTimeout(timeout);
+            }
+        } catch (IOException e) {
+            broken = true;
+            throw new ConnectorIOException(e);
+        } catch (ConnectorIOException e) {
+            broken = true;
+            throw e;
+        }
+        lastUsedTimestamp = System.currentTimeMillis();
+    }
+
     @Override
     public void close() {
-        flush();
+        if (broken && (null == socket || socket.isClosed())) {
+            return;
+        }
+        broken = true;
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOG.ok(e, "Failed to flush connection before close");
+        }
         try {
             if (socket instanceof SSLSocket) {
                 // SSLSocket doesn't like shutdownOutput/shutdownInput
@@ -142,18 +295,197 @@ public class RemoteFrameworkConnection implements Closeable {
         }
     }
 
+    /**
+     * Sets the read timeout of the underlying socket, zero means infinite.
+     */
+    public void setReadTimeout(int timeout) {
+        try {
+            socket.setSoTimeout(timeout);
+        } catch (SocketException e) {
+            throw new ConnectorIOException(e);
+        }
+    }
+
+    /**
+     * Switches both directions of the connection to what the peers agreed to
+     * in the {@link org.identityconnectors.framework.impl.api.remote.messages.HelloResponse}
+     * at once, right after it and before anything else is sent.
+     *
+     * @param compress true to compress with deflate, flushed at the end of
+     * every message
+     * @param codec the name of the {@link WireCodec} used from now on
+     */
+    public void switchEncoding(boolean compress, String codec) {
+        WireCodec wireCodec = WireCodec.getCodec(codec);
+        if (wireCodec == null) {
+            throw new ConnectorIOException("Unsupported codec: " + codec);
+        }
+        writeLock.lock();
+        try {
+            // the peer may switch and send as soon as the flush reaches it
+            if (hasPendingInput()) {
+                throw new ConnectorIOException("Unexpected data before switching the encoding");
+            }
+            flush();
+            try {
+                OutputStream outputStream = socket.getOutputStream();
+                InputStream inputStream = socket.getInputStream();
+                if (compress) {
+                    outputStream = new CompressedOutputStream(outputStream);
+                    inputStream = new CompressedInputStream(inputStream);
+                }
+                encoder = wireCodec.newSerializer(outputStream);
+                decoder = wireCodec.newDeserializer(inputStream);
+                compressed = compress;
+                this.codec = codec;
+            } catch (IOException e) {
+                broken = true;
+                throw new ConnectorIOException(e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the connection as authenticated once for all following requests,
+     * after the server agreed to a session.
+     */
+    public void setAuthenticated() {
+        authenticated = true;
+    }
+
+    /**
+     * Returns true if requests are sent without their locale and the key.
+     */
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    /**
+     * Marks the connection as accepting cancel messages for the operations in
+     * progress, after the server agreed to it.
+     */
+    public void setCancellable() {
+        cancellable = true;
+    }
+
+    /**
+     * Returns true if operations in progress may be cancelled.
+     */
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * Marks the connection as identifying the facades by the digest of their
+     * key, after the server agreed to it.
+     */
+    public void setFacadeDigests() {
+        facadeDigests = true;
+    }
+
+    /**
+     * Returns true if the facades are identified by the digest of their key.
+     */
+    public boolean isFacadeDigests() {
+        return facadeDigests;
+    }
+
+    /**
+     * Returns true if the facade key of the given digest has been sent on
+     * this connection already.
+     */
+    public boolean isFacadeKeyUploaded(String digest) {
+        return uploadedFacadeDigests.contains(digest);
+    }
+
+    /**
+     * Records that the facade key of the given digest has been sent on this
+     * connection, so the following requests carry the digest only.
+     */
+    public void setFacadeKeyUploaded(String digest) {
+        uploadedFacadeDigests.add(digest);
+    }
+
+    /**
+     * Returns the name of the {@link WireCodec} used on the connection.
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns true once the connection has been switched to compression.
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    @Override
+    public long getStreamId() {
+        return 0;
+    }
+
+    @Override
     public void flush() {
-        encoder.flush();
+        writeLock.lock();
+        try {
+            encoder.flush();
+        } catch (RuntimeException e) {
+            broken = true;
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public void writeObject(Object object) {
-        encoder.writeObject(object);
+        writeLock.lock();
+        try {
+            encoder.writeObject(object);
+        } catch (RuntimeException e) {
+            broken = true;
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void writeObjects(Object... objects) {
+        writeLock.lock();
+        try {
+            for (Object object : objects) {
+                writeObject(object);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
+    @Override
     public Object readObject() {
         // flush first in case there is any data in the
         // output buffer
         flush();
-        return decoder.readObject();
+        try {
+            Object object = decoder.readObject();
+            lastUsedTimestamp = System.currentTimeMillis();
+            return object;
+        } catch (RuntimeException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasPendingInput() {
+        try {
+            return decoder.available() > 0;
+        } catch (RuntimeException e) {
+            broken = true;
+            throw e;
+        }
     }
 }
@@ -0,0 +1,278 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote;
+
+import java.io.Closeable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.ConnectorIOException;
+import org.identityconnectors.framework.impl.api.remote.messages.ErrorResponse;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestCancel;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestStopData;
+import org.identityconnectors.framework.impl.api.remote.messages.StreamMessage;
+
+/**
+ * Client side of the multiplexed protocol: a single connection to the
+ * connector server shared by any number of concurrent operations.
+ * <p/>
+ * Each operation opens a {@link Stream}; a reader thread dispatches the
+ * responses to the streams by their stream id.
+ */
+public class RemoteMultiplexedConnection implements Closeable {
+
+    private static final Log LOG = Log.getLog(RemoteMultiplexedConnection.class);
+
+    /**
+     * Queued to all open streams when the connection fails.
+     */
+    private static final Object CONNECTION_FAILED = new Object();
+
+    private final RemoteFrameworkConnection connection;
+
+    /**
+     * Time to wait for each response of a stream, zero means infinite.
+     */
+    private final int timeout;
+
+    private final AtomicLong lastStreamId = new AtomicLong();
+
+    private final ConcurrentMap<Long, Stream> streams = new ConcurrentHashMap<>();
+
+    private volatile RuntimeException failure;
+
+    /**
+     * One operation over the shared connection.
+     */
+    public final class Stream implements MessageChannel, Closeable {
+
+        private final long streamId;
+
+        private final BlockingQueue<Object> responses = new LinkedBlockingQueue<>();
+
+        private Stream(final long streamId) {
+            this.streamId = streamId;
+        }
+
+        @Override
+        public long getStreamId() {
+            return streamId;
+        }
+
+        /**
+         * Writes and flushes the objects at once: the client only sends
+         * requests and short control messages.
+         */
+        @Override
+        public void writeObjects(final Object... objects) {
+            checkAlive();
+            connection.writeObjects(objects);
+            connection.flush();
+        }
+
+        @Override
+        public void flush() {
+            connection.flush();
+        }
+
+        @Override
+        public Object readObject() {
+            Object response;
+            try {
+                if (timeout > 0) {
+                    response = responses.poll(timeout, TimeUnit.MILLISECONDS);
+                } else {
+                    response = responses.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ConnectorException.wrap(e);
+            }
+            if (response == null) {
+                throw new ConnectorIOException("Timed out waiting for the response of stream " + streamId);
+            }
+            if (response == CONNECTION_FAILED) {
+                throw new ConnectorIOException("Remote framework connection failed", failure);
+            }
+            return response;
+        }
+
+        @Override
+        public boolean hasPendingInput() {
+            return !responses.isEmpty();
+        }
+
+        /**
+         * Asks the server to abandon the operation of this stream if it
+         * supports it, otherwise to stop sending data for it.
+         */
+        public void cancel() {
+            if (isAlive()) {
+                try {
+                    writeObjects(isCancellable()
+                            ? new OperationRequestCancel(streamId)
+                            : new OperationRequestStopData(streamId));
+                } catch (RuntimeException e) {
+                    LOG.ok(e, "Failed to stop stream {0}", streamId);
+                }
+            }
+        }
+
+        /**
+         * Releases the stream; further responses for it are dropped.
+         */
+        @Override
+        public void close() {
+            streams.remove(streamId);
+        }
+    }
+
+    /**
+     * Takes over a connection on which the multiplexed protocol has just been
+     * negotiated.
+     *
+     * @param connection the connection
+     * @param timeout time to wait for each response of a stream (in
+     * milliseconds), zero means infinite
+     */
+    public RemoteMultiplexedConnection(final RemoteFrameworkConnection connection, final int timeout) {
+        this.connection = connection;
+        this.timeout = timeout;
+        // idle periods are normal here, timeouts apply to the streams instead
+        connection.setReadTimeout(0);
+        Thread reader = new Thread(this::readResponses, "RemoteMultiplexedConnection reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public boolean isAlive() {
+        return failure == null && connection.isAlive();
+    }
+
+    /**
+     * Returns true if requests are sent without their locale and the key.
+     */
+    public boolean isAuthenticated() {
+        return connection.isAuthenticated();
+    }
+
+    /**
+     * Returns true if operations in progress may be cancelled.
+     */
+    public boolean isCancellable() {
+        return connection.isCancellable();
+    }
+
+    /**
+     * Returns the shared connection.
+     */
+    RemoteFrameworkConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns true if the shared connection is compressed.
+     */
+    public boolean isCompressed() {
+        return connection.isCompressed();
+    }
+
+    /**
+     * Returns the number of operations in progress.
+     */
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * Opens a new stream for an operation.
+     *
+     * @throws ConnectorIOException if the connection has failed
+     */
+    public Stream openStream() {
+        checkAlive();
+        Stream stream = new Stream(lastStreamId.incrementAndGet());
+        streams.put(stream.getStreamId(), stream);
+        if (failure != null) {
+            // the reader may have failed in the meantime, without seeing this stream
+            stream.close();
+            checkAlive();
+        }
+        return stream;
+    }
+
+    private void checkAlive() {
+        if (failure != null) {
+            throw new ConnectorIOException("Remote framework connection failed", failure);
+        }
+    }
+
+    private void readResponses() {
+        try {
+            while (true) {
+                Object response = connection.readObject();
+                if (response instanceof StreamMessage) {
+                    Stream stream = streams.get(((StreamMessage) response).getStreamId());
+                    if (stream != null) {
+                        stream.responses.add(response);
+                    } else {
+                        LOG.ok("Dropping response of closed stream: {0}", response);
+                    }
+                } else if (response instanceof ErrorResponse) {
+                    // the server could not read a request and gave up the connection
+                    throw ConnectorException.wrap(((ErrorResponse) response).getException());
+                } else {
+                    throw new ConnectorException("Unexpected response: " + response);
+                }
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(final RuntimeException e) {
+        if (failure == null) {
+            failure = e;
+            LOG.info("Multiplexed remote connection closed: {0}", e.getMessage());
+        }
+        streams.values().forEach(stream -> stream.responses.add(CONNECTION_FAILED));
+        try {
+            connection.close();
+        } catch (Exception e2) {
+            LOG.ok(e2, "Failed to close remote connection");
+        }
+    }
+
+    /**
+     * Closes the connection; operations still in progress fail.
+     */
+    @Override
+    public void close() {
+        fail(new ConnectorIOException("Remote framework connection closed"));
+    }
+}
@@ -28,15 +28,21 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.identityconnectors.common.CollectionUtil;
 import org.identityconnectors.common.l10n.CurrentLocale;
+import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
 import org.identityconnectors.framework.api.operations.APIOperation;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.SearchResult;
+import org.identityconnectors.framework.impl.api.MethodTimeoutProxy;
 import org.identityconnectors.framework.impl.api.ObjectStreamHandler;
 import org.identityconnectors.framework.impl.api.StreamHandlerUtil;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
 import org.identityconnectors.framework.impl.api.remote.messages.ErrorResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestCancel;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestMoreData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestStopData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponseEnd;
@@ -48,16 +54,39 @@ import org.identityconnectors.framework.impl.api.remote.messages.OperationRespon
  */
 public class RemoteOperationInvocationHandler implements InvocationHandler {
 
+    private static final Log LOG = Log.getLog(RemoteOperationInvocationHandler.class);
+
+    /**
+     * An adaptive flow control window grows up to this many times the
+     * configured one.
+     */
+    private static final int MAX_ADAPTIVE_WINDOW_FACTOR = 16;
+
     private final RemoteConnectorInfoImpl connectorInfo;
 
     private final String connectorFacadeKey;
 
+    private final String connectorFacadeDigest;
+
     private final Class<? extends APIOperation> operation;
 
     public RemoteOperationInvocationHandler(final RemoteConnectorInfoImpl connectorInfo,
             String connectorFacadeKey, final Class<? extends APIOperation> operation) {
+        this(connectorInfo, connectorFacadeKey, null, operation);
+    }
+
+    /**
+     * @param connectorFacadeDigest the digest sent instead of the facade key
+     * once the server received the key on the connection, null to always send
+     * the key
+     * @since 1.7.0.0
+     */
+    public RemoteOperationInvocationHandler(final RemoteConnectorInfoImpl connectorInfo,
+            String connectorFacadeKey, String connectorFacadeDigest,
+            final Class<? extends APIOperation> operation) {
         this.connectorInfo = connectorInfo;
         this.connectorFacadeKey = connectorFacadeKey;
+        this.connectorFacadeDigest = connectorFacadeDigest;
         this.operation = operation;
     }
 
@@ -73,35 +102,128 @@ public class RemoteOperationInvocationHandler implements InvocationHandler {
         ObjectStreamHandler streamHandlerArg =
                 extractStreamHandler(method.getParameterTypes(), simpleMarshallArgs);
 
-        // build the request object
         RemoteFrameworkConnectionInfo connectionInfo = connectorInfo.getRemoteConnectionInfo();
-        OperationRequest request = new OperationRequest(
-                connectorInfo.getConnectorKey(), connectorFacadeKey, operation, method.getName(), simpleMarshallArgs);
+        RemoteConnectionGroup group = connectorInfo.getConnectionGroup();
+        RemoteConnectionGroup.Member member = null;
 
-        // create the connection
-        RemoteFrameworkConnection connection = null;
+        // either a stream of the shared connection or a pooled connection
+        RemoteMultiplexedConnection.Stream stream = null;
+        ObjectPoolEntry<RemoteFrameworkConnection> entry = null;
+        MessageChannel channel;
+        RemoteFrameworkConnection connection;
+        boolean authenticated;
+        boolean cancellable;
+        // set only once the whole response has been read, so the connection can be reused
+        boolean complete = false;
 
         try {
-            connection = new RemoteFrameworkConnection(connectionInfo);
-            connection.writeObject(CurrentLocale.get());
-            connection.writeObject(connectionInfo.getKey());
-            // send the request
-            connection.writeObject(request);
+            List<RemoteConnectionGroup.Member> tried = new ArrayList<>(1);
+            RemoteConnectionGroup.Member candidate = null;
+            while (true) {
+                if (null != group) {
+                    candidate = group.select(tried);
+                    connectionInfo = candidate.getConnectionInfo();
+                }
+                try {
+                    RemoteMultiplexedConnection multiplexed =
+                            RemoteConnectionPoolManager.getMultiplexedConnection(connectionInfo);
+                    if (null != multiplexed) {
+                        stream = multiplexed.openStream();
+                        channel = stream;
+                        connection = multiplexed.getConnection();
+                        authenticated = multiplexed.isAuthenticated();
+                        cancellable = multiplexed.isCancellable();
+                    } else {
+                        entry = RemoteConnectionPoolManager.borrowConnection(connectionInfo);
+                        channel = entry.getPooledObject();
+                        connection = entry.getPooledObject();
+                        authenticated = entry.getPooledObject().isAuthenticated();
+                        cancellable = entry.getPooledObject().isCancellable();
+                    }
+                    break;
+                } catch (RuntimeException e) {
+                    // nothing was sent yet, so any operation may fail over to another server
+                    if (null == group) {
+                        throw e;
+                    }
+                    group.markDown(candidate, e);
+                    tried.add(candidate);
+                    if (tried.size() == group.getMembers().size()) {
+                        throw e;
+                    }
+                }
+            }
+            if (null != candidate) {
+                // the whole operation, including any streamed results, stays on this server
+                group.acquire(candidate);
+                member = candidate;
+                group.markUp(member);
+            }
+
+            // build the request object, granting the initial credits for the results
+            int window = streamHandlerArg != null ? connectionInfo.getFlowControlWindow() : 0;
+            String digest = null != connectorFacadeDigest && connection.isFacadeDigests()
+                    ? connectorFacadeDigest : null;
+            // the key goes along with the digest until the server received it on
+            // this connection; the streams of a connection are read in order
+            boolean uploaded = null != digest && connection.isFacadeKeyUploaded(digest);
+            OperationRequest request = new OperationRequest(channel.getStreamId(), connectorInfo.getConnectorKey(),
+                    uploaded ? null : connectorFacadeKey, digest, operation, method.getName(), simpleMarshallArgs,
+                    window, authenticated ? CurrentLocale.get() : null);
+
+            // send the request, preceded by the locale and the key unless the
+            // connection is authenticated already
+            if (authenticated) {
+                channel.writeObjects(request);
+            } else {
+                channel.writeObjects(CurrentLocale.get(), connectionInfo.getKey(), request);
+            }
+            if (null != digest && !uploaded) {
+                connection.setFacadeKeyUploaded(digest);
+            }
 
-            // now process the response stream (if any)
+            // now process the response stream (if any); a whole connection reads
+            // a cancel along with the credits, or while the server is running
+            // an operation without results
+            Object response = null;
+            AtomicBoolean cancelled = new AtomicBoolean();
             if (streamHandlerArg != null) {
-                handleStreamResponse(connection, streamHandlerArg);
+                response = handleStreamResponse(channel, streamHandlerArg, window,
+                        connectionInfo.isAdaptiveFlowControl(),
+                        cancellable && (null != stream || window > 0) ? cancelled : null);
             }
 
             // finally return the actual return value
-
-            Object response = connection.readObject();
+            if (response == null) {
+                if (null != entry && cancellable) {
+                    // a blocking socket read ignores interrupts, the thread
+                    // timing the operation out sends the cancel instead
+                    final MessageChannel pooled = channel;
+                    MethodTimeoutProxy.setCancelAction(() -> sendCancel(pooled));
+                    try {
+                        response = channel.readObject();
+                    } finally {
+                        MethodTimeoutProxy.setCancelAction(null);
+                    }
+                } else {
+                    response = channel.readObject();
+                }
+            }
 
             if (response instanceof OperationResponsePart) {
+                complete = true;
 
                 OperationResponsePart part = (OperationResponsePart) response;
 
                 if (part.getException() != null) {
+                    // the handler stopped, most likely the cause of the failure;
+                    // a search returns as if it had completed
+                    if (cancelled.get() && (method.getReturnType() == SearchResult.class
+                            || method.getReturnType() == void.class)) {
+                        LOG.info("Remote operation failed after its results handler stopped: {0}",
+                                part.getException().getMessage());
+                        return method.getReturnType() == SearchResult.class ? new SearchResult() : null;
+                    }
                     throw part.getException();
                 }
                 return part.getResult();
@@ -120,39 +242,92 @@ public class RemoteOperationInvocationHandler implements InvocationHandler {
             }
 
         } finally {
-            if (null != connection) {
-                connection.close();
+            if (null != member) {
+                group.release(member);
+            }
+            if (null != stream) {
+                if (!complete) {
+                    stream.cancel();
+                }
+                stream.close();
+            }
+            if (null != entry) {
+                if (!complete) {
+                    try {
+                        entry.getPooledObject().close();
+                    } catch (Exception e) {
+                        LOG.ok(e, "Failed to close remote connection");
+                    }
+                }
+                // closed connections are discarded by the pool
+                entry.close();
             }
         }
 
     }
 
+    /**
+     * Cancels the operation in progress on a whole connection; its response
+     * is still read, so that the connection can be reused.
+     */
+    private static void sendCancel(final MessageChannel channel) {
+        try {
+            channel.writeObjects(new OperationRequestCancel(channel.getStreamId()));
+            channel.flush();
+        } catch (RuntimeException e) {
+            LOG.ok(e, "Failed to cancel the remote operation");
+        }
+    }
+
     /**
      * Handles a stream response until the end of the stream.
+     * <p>
+     * Every pause is answered. If the request granted credits, each answer
+     * grants another window; with adaptive flow control the window doubles
+     * whenever the server ran out of credits before the answer arrived.
+     *
+     * @param window the credits granted with the request, zero if none
+     * @param cancelled if not null, set once the handler stopped and the
+     * server was sent an {@link OperationRequestCancel} right away, rather
+     * than a stop in answer to the next pause
+     * @return the response part if the server answered with a final part
+     * instead of a stream, or {@code null} when the stream ended normally
      */
-    private static void handleStreamResponse(final RemoteFrameworkConnection connection,
-            final ObjectStreamHandler streamHandler) throws ConnectorException {
+    private static OperationResponsePart handleStreamResponse(final MessageChannel channel,
+            final ObjectStreamHandler streamHandler, int window, final boolean adaptive,
+            final AtomicBoolean cancelled) throws ConnectorException {
 
+        final long maxWindow = (long) window * MAX_ADAPTIVE_WINDOW_FACTOR;
         boolean handleMore = true;
         while (true) {
-            Object response = connection.readObject();
+            Object response = channel.readObject();
             if (response instanceof OperationResponsePart) {
                 OperationResponsePart part = (OperationResponsePart) response;
                 if (part.getException() != null) {
-                    throw part.getException();
+                    return part;
                 }
                 Object object = part.getResult();
                 if (handleMore) {
                     handleMore = streamHandler.handle(object);
+                    if (!handleMore && null != cancelled) {
+                        channel.writeObjects(new OperationRequestCancel(channel.getStreamId()));
+                        channel.flush();
+                        cancelled.set(true);
+                    }
                 }
             } else if (response instanceof OperationResponsePause) {
-                if (handleMore) {
-                    connection.writeObject(new OperationRequestMoreData());
+                if (!handleMore) {
+                    channel.writeObjects(new OperationRequestStopData(channel.getStreamId()));
+                } else if (window > 0) {
+                    if (adaptive && ((OperationResponsePause) response).getCredits() == 0) {
+                        window = (int) Math.min(window * 2L, maxWindow);
+                    }
+                    channel.writeObjects(new OperationRequestMoreData(channel.getStreamId(), window));
                 } else {
-                    connection.writeObject(new OperationRequestStopData());
+                    channel.writeObjects(new OperationRequestMoreData(channel.getStreamId()));
                 }
             } else if (response instanceof OperationResponseEnd) {
-                break;
+                return null;
             } else if (response instanceof ErrorResponse) {
 
                 ErrorResponse error = (ErrorResponse) response;
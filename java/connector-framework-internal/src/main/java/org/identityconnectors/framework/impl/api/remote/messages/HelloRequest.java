@@ -24,6 +24,9 @@
 
 package org.identityconnectors.framework.impl.api.remote.messages;
 
+import java.util.Map;
+import org.identityconnectors.common.CollectionUtil;
+
 /**
  * Sent the first time we connect to a given server. The server
  * will respond with a {@link HelloResponse}.
@@ -35,16 +38,100 @@ public class HelloRequest implements Message {
     //public static final int DEFAULT_CONFIG = 32;
     public static final int CONNECTOR_INFO = CONNECTOR_KEY_LIST | SERVER_INFO;
 
+    /**
+     * Key of the protocol version in the client and server info maps. The
+     * server answers with the version it agrees to, or omits it if it only
+     * speaks the legacy protocol.
+     */
+    public static final String PROTOCOL_VERSION = "PROTOCOL_VERSION";
+
+    /**
+     * Protocol version where operations are multiplexed over one connection
+     * by the stream id of the {@link StreamMessage}s.
+     */
+    public static final int MULTIPLEXED_PROTOCOL_VERSION = 2;
+
+    /**
+     * Key of the compression in the client and server info maps. The client
+     * offers {@link #DEFLATE_COMPRESSION}; if the server answers with the same
+     * value, both switch the connection to it right after the response.
+     */
+    public static final String COMPRESSION = "COMPRESSION";
+
+    public static final String DEFLATE_COMPRESSION = "deflate";
+
+    /**
+     * Key of the session in the client and server info maps. If both set it
+     * to true, the connection stays authenticated by the key of this request:
+     * the following requests are sent alone, and operation requests carry
+     * their locale.
+     */
+    public static final String SESSION = "SESSION";
+
+    /**
+     * Key of the cancellation in the client and server info maps. If both set
+     * it to true, the client may send {@link OperationRequestCancel} to
+     * abandon an operation in progress.
+     */
+    public static final String CANCEL = "CANCEL";
+
+    /**
+     * Key of the wire codec in the client and server info maps. The client
+     * offers the list of the names of the
+     * {@link org.identityconnectors.framework.common.serializer.WireCodec}s
+     * it prefers; the server answers with the first one it supports, and they
+     * switch the connection to it right after the response. Absent means the
+     * default binary codec.
+     */
+    public static final String CODEC = "CODEC";
+
+    /**
+     * Key of the facade digests in the client and server info maps. If both
+     * set it to true, an {@link OperationRequest} carries the digest of its
+     * configuration, and the configuration itself only the first time it is
+     * sent on the connection.
+     */
+    public static final String FACADE_DIGEST = "FACADE_DIGEST";
+
+    /**
+     * Key of the version of the connector keys and infos in the client and
+     * server info maps. The server tags the connector keys it sends with it;
+     * a client sending back the current version gets a response marked
+     * {@link HelloResponse#CONNECTOR_INFO_NOT_MODIFIED} instead.
+     */
+    public static final String CONNECTOR_INFO_ETAG = "CONNECTOR_INFO_ETAG";
+
+    /**
+     * Key of the list of {@code ConnectorKey}s the client already has the
+     * infos of, in the client info map. The server leaves them out of the
+     * connector infos it sends; the connector keys are still all sent.
+     */
+    public static final String KNOWN_CONNECTOR_KEYS = "KNOWN_CONNECTOR_KEYS";
+
     private final int level;
 
+    /**
+     * Capabilities requested by the client, ignored by older servers.
+     */
+    private final Map<String, Object> clientInfo;
+
     public HelloRequest(int infoLevel) {
+        this(infoLevel, null);
+    }
+
+    public HelloRequest(int infoLevel, Map<String, Object> clientInfo) {
         level = infoLevel;
+        this.clientInfo = CollectionUtil.asReadOnlyMap(clientInfo);
     }
 
     public int getInfoLevel() {
         return level;
     }
 
+    public Map<String, Object> getClientInfo() {
+        return clientInfo;
+    }
+
     private boolean checkInfoLevel(int info) {
         return ((level & info) == info);
     }
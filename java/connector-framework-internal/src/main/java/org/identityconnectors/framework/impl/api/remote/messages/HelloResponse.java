@@ -36,6 +36,14 @@ import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoImpl;
 public class HelloResponse implements Message {
 
     public static final String SERVER_START_TIME = "SERVER_START_TIME";
+
+    /**
+     * Set to true in the server info when the connector keys and infos are
+     * those of the {@link HelloRequest#CONNECTOR_INFO_ETAG} sent by the
+     * client; neither is sent then.
+     */
+    public static final String CONNECTOR_INFO_NOT_MODIFIED = "CONNECTOR_INFO_NOT_MODIFIED";
+
     /**
      * The exception
      */
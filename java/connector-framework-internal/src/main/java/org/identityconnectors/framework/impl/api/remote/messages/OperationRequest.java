@@ -24,6 +24,7 @@
 package org.identityconnectors.framework.impl.api.remote.messages;
 
 import java.util.List;
+import java.util.Locale;
 import org.identityconnectors.common.CollectionUtil;
 import org.identityconnectors.framework.api.ConnectorKey;
 import org.identityconnectors.framework.api.operations.APIOperation;
@@ -32,7 +33,12 @@ import org.identityconnectors.framework.api.operations.APIOperation;
  * Sent to request an operation. Response will consist of one-or-more
  * {@link OperationResponsePart}'s followed by an {@link OperationResponseEnd}.
  */
-public class OperationRequest implements Message {
+public class OperationRequest implements StreamMessage {
+
+    /**
+     * The stream of the multiplexed protocol, zero otherwise.
+     */
+    private final long streamId;
 
     /**
      * The key of the connector to operate on.
@@ -40,10 +46,17 @@ public class OperationRequest implements Message {
     private final ConnectorKey connectorKey;
 
     /**
-     * The configuration information to use.
+     * The configuration information to use, null if the server knows it by
+     * its digest already.
      */
     private final String configuration;
 
+    /**
+     * The digest of the configuration, if the server keeps the configurations
+     * by their digest.
+     */
+    private final String configurationDigest;
+
     /**
      * The operation to perform.
      */
@@ -62,14 +75,66 @@ public class OperationRequest implements Message {
      */
     private final List<Object> arguments;
 
+    /**
+     * The number of results the client accepts before the server has to wait
+     * for more credits; zero if the client expects a
+     * {@link OperationResponsePause} every fixed number of results.
+     */
+    private final int credits;
+
+    /**
+     * The locale of the request, if the connection is authenticated once and
+     * the request is not preceded by its locale and the key.
+     */
+    private final Locale locale;
+
     public OperationRequest(ConnectorKey key, String connectorFacadeKey,
             Class<? extends APIOperation> operation, String operationMethodName,
             List<Object> arguments) {
+        this(0, key, connectorFacadeKey, operation, operationMethodName, arguments);
+    }
+
+    public OperationRequest(long streamId, ConnectorKey key, String connectorFacadeKey,
+            Class<? extends APIOperation> operation, String operationMethodName,
+            List<Object> arguments) {
+        this(streamId, key, connectorFacadeKey, operation, operationMethodName, arguments, 0);
+    }
+
+    public OperationRequest(long streamId, ConnectorKey key, String connectorFacadeKey,
+            Class<? extends APIOperation> operation, String operationMethodName,
+            List<Object> arguments, int credits) {
+        this(streamId, key, connectorFacadeKey, operation, operationMethodName, arguments, credits, null);
+    }
+
+    public OperationRequest(long streamId, ConnectorKey key, String connectorFacadeKey,
+            Class<? extends APIOperation> operation, String operationMethodName,
+            List<Object> arguments, int credits, Locale locale) {
+        this(streamId, key, connectorFacadeKey, null, operation, operationMethodName, arguments, credits, locale);
+    }
+
+    /**
+     * Creates a request identifying the configuration by its digest, with the
+     * configuration itself only the first time.
+     *
+     * @since 1.7.0.0
+     */
+    public OperationRequest(long streamId, ConnectorKey key, String connectorFacadeKey,
+            String connectorFacadeDigest, Class<? extends APIOperation> operation, String operationMethodName,
+            List<Object> arguments, int credits, Locale locale) {
+        this.streamId = streamId;
         connectorKey = key;
         configuration = connectorFacadeKey;
+        configurationDigest = connectorFacadeDigest;
         this.operation = operation;
         this.operationMethodName = operationMethodName;
         this.arguments = CollectionUtil.newReadOnlyList(arguments);
+        this.credits = credits;
+        this.locale = locale;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
     }
 
     public ConnectorKey getConnectorKey() {
@@ -80,6 +145,14 @@ public class OperationRequest implements Message {
         return configuration;
     }
 
+    /**
+     * Returns the digest of the configuration, null if the request is not
+     * identified by it.
+     */
+    public String getConnectorFacadeDigest() {
+        return configurationDigest;
+    }
+
     public Class<? extends APIOperation> getOperation() {
         return operation;
     }
@@ -91,4 +164,12 @@ public class OperationRequest implements Message {
     public List<Object> getArguments() {
         return arguments;
     }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote.messages;
+
+/**
+ * Sent by the client to abandon an operation in progress. Unlike
+ * {@link OperationRequestStopData}, it is not the answer to a pause: it may be
+ * sent at any time, and on a multiplexed connection the server interrupts the
+ * thread running the operation. The operation still ends with its final
+ * response part, which the client may ignore.
+ * <p>
+ * Only sent if the server agreed to {@link HelloRequest#CANCEL}.
+ *
+ * @since 1.7.0.0
+ */
+public class OperationRequestCancel implements StreamMessage {
+
+    private final long streamId;
+
+    public OperationRequestCancel() {
+        this(0);
+    }
+
+    public OperationRequestCancel(long streamId) {
+        this.streamId = streamId;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
+    }
+}
@@ -25,9 +25,36 @@ package org.identityconnectors.framework.impl.api.remote.messages;
 /**
  * Sent by the client to request more data.
  */
-public class OperationRequestMoreData implements Message {
+public class OperationRequestMoreData implements StreamMessage {
+
+    private final long streamId;
+
+    /**
+     * The number of further results granted to the server, zero if the
+     * operation was not requested with credits.
+     */
+    private final int credits;
 
     public OperationRequestMoreData() {
+        this(0);
+    }
+
+    public OperationRequestMoreData(long streamId) {
+        this(streamId, 0);
+    }
+
+    public OperationRequestMoreData(long streamId, int credits) {
+        this.streamId = streamId;
+        this.credits = credits;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
+    }
+
+    public int getCredits() {
+        return credits;
     }
 
 }
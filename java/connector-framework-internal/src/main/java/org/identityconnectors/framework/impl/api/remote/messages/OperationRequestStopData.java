@@ -25,9 +25,21 @@ package org.identityconnectors.framework.impl.api.remote.messages;
 /**
  * Sent by the client to request stop sending data
  */
-public class OperationRequestStopData implements Message {
+public class OperationRequestStopData implements StreamMessage {
+
+    private final long streamId;
 
     public OperationRequestStopData() {
+        this(0);
+    }
+
+    public OperationRequestStopData(long streamId) {
+        this.streamId = streamId;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
     }
 
 }
@@ -25,9 +25,21 @@ package org.identityconnectors.framework.impl.api.remote.messages;
 /**
  * Special marker class to mark the end of a response.
  */
-public class OperationResponseEnd implements Message {
+public class OperationResponseEnd implements StreamMessage {
+
+    private final long streamId;
 
     public OperationResponseEnd() {
+        this(0);
+    }
+
+    public OperationResponseEnd(long streamId) {
+        this.streamId = streamId;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
     }
 
 }
@@ -30,15 +30,26 @@ import org.identityconnectors.framework.impl.api.remote.RemoteWrappedException;
  * response part, followed by a OperationResponseEnd. The one exception is
  * Search, which returns multiple parts.
  */
-public class OperationResponsePart implements Message {
+public class OperationResponsePart implements StreamMessage {
+    private final long streamId;
     private RemoteWrappedException exception;
     private Object result;
 
     public OperationResponsePart(Throwable ex, Object result) {
+        this(0, ex, result);
+    }
+
+    public OperationResponsePart(long streamId, Throwable ex, Object result) {
+        this.streamId = streamId;
         exception = RemoteWrappedException.wrap(ex);
         this.result = result;
     }
 
+    @Override
+    public long getStreamId() {
+        return streamId;
+    }
+
     public RemoteWrappedException getException() {
         return exception;
     }
@@ -26,10 +26,40 @@ package org.identityconnectors.framework.impl.api.remote.messages;
  * Special marker class to ask if the client wants more data.
  * At this point the client will respond with either
  * OperationRequestMoreData or OperationRequestStopData
+ * <p>
+ * If the operation was requested with credits, the server keeps sending
+ * results while it has credits left, so the client can grant more before the
+ * server runs out.
  */
-public class OperationResponsePause implements Message {
+public class OperationResponsePause implements StreamMessage {
+
+    private final long streamId;
+
+    /**
+     * The credits the server has left; zero if it waits for the answer.
+     */
+    private final int credits;
 
     public OperationResponsePause() {
+        this(0);
+    }
+
+    public OperationResponsePause(long streamId) {
+        this(streamId, 0);
+    }
+
+    public OperationResponsePause(long streamId, int credits) {
+        this.streamId = streamId;
+        this.credits = credits;
+    }
+
+    @Override
+    public long getStreamId() {
+        return streamId;
+    }
+
+    public int getCredits() {
+        return credits;
     }
 
 }
@@ -0,0 +1,37 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.remote.messages;
+
+/**
+ * Message belonging to a single operation. With the multiplexed protocol
+ * several operations share one connection and their messages are told apart
+ * by the stream id; it is always zero with the legacy protocol, where each
+ * connection carries one operation at a time.
+ */
+public interface StreamMessage extends Message {
+
+    /**
+     * Returns the id of the stream (operation) this message belongs to.
+     */
+    long getStreamId();
+}
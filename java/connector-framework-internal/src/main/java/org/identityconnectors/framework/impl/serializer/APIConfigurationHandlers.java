@@ -94,6 +94,10 @@ class APIConfigurationHandlers {
                 rv.setEnableAttributesToGetSearchResultsHandler(decoder.readBooleanField(
                         "enableAttributesToGetSearchResultsHandler", rv
                                 .isEnableAttributesToGetSearchResultsHandler()));
+                rv.setEnableParallelQueries(decoder.readBooleanField(
+                        "enableParallelQueries", rv.isEnableParallelQueries()));
+                rv.setMaxParallelQueries(decoder.readIntField(
+                        "maxParallelQueries", rv.getMaxParallelQueries()));
                 return rv;
             }
 
@@ -110,6 +114,10 @@ class APIConfigurationHandlers {
                         .isEnableCaseInsensitiveFilter());
                 encoder.writeBooleanField("enableAttributesToGetSearchResultsHandler", val
                         .isEnableAttributesToGetSearchResultsHandler());
+                encoder.writeBooleanField("enableParallelQueries", val
+                        .isEnableParallelQueries());
+                encoder.writeIntField("maxParallelQueries", val
+                        .getMaxParallelQueries());
             }
         });
 
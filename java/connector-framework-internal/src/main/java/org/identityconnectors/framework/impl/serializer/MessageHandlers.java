@@ -26,6 +26,7 @@ package org.identityconnectors.framework.impl.serializer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import org.identityconnectors.framework.api.ConnectorKey;
 import org.identityconnectors.framework.api.operations.APIOperation;
@@ -35,11 +36,13 @@ import org.identityconnectors.framework.impl.api.remote.messages.ErrorResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloRequest;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestCancel;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestMoreData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestStopData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponseEnd;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponsePart;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponsePause;
+import org.identityconnectors.framework.impl.api.remote.messages.StreamMessage;
 
 /**
  * Serialization handles for remote messages.
@@ -48,18 +51,41 @@ class MessageHandlers {
 
     public static final List<ObjectTypeMapper> HANDLERS = new ArrayList<ObjectTypeMapper>();
 
+    /**
+     * The stream id is only written by the multiplexed protocol, leaving the
+     * legacy messages unchanged on the wire.
+     */
+    private static void writeStreamId(final StreamMessage message, final ObjectEncoder encoder) {
+        if (message.getStreamId() != 0) {
+            encoder.writeLongField("streamId", message.getStreamId());
+        }
+    }
+
+    private static void writeCredits(final int credits, final ObjectEncoder encoder) {
+        if (credits != 0) {
+            encoder.writeIntField("credits", credits);
+        }
+    }
+
     static {
 
         HANDLERS.add(new AbstractObjectSerializationHandler(HelloRequest.class, "HelloRequest") {
 
             public Object deserialize(final ObjectDecoder decoder) {
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> clientInfo =
+                        (Map<String, Object>) decoder.readObjectField("clientInfoMap", null, null);
                 return new HelloRequest(decoder.readIntField("infoLevel",
-                        HelloRequest.CONNECTOR_INFO));
+                        HelloRequest.CONNECTOR_INFO), clientInfo);
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
                 HelloRequest val = (HelloRequest) object;
                 encoder.writeIntField("infoLevel", val.getInfoLevel());
+                // only sent when needed, so old servers see the same request as before
+                if (!val.getClientInfo().isEmpty()) {
+                    encoder.writeObjectField("clientInfoMap", val.getClientInfo(), false);
+                }
             }
         });
 
@@ -99,6 +125,8 @@ class MessageHandlers {
                                 null);
                 final String connectorFacadeKey =
                         decoder.readStringField("connectorFacadeKey", null);
+                final String connectorFacadeDigest =
+                        decoder.readStringField("connectorFacadeDigest", null);
                 @SuppressWarnings("unchecked")
                 final Class<? extends APIOperation> operation =
                         (Class) decoder.readClassField("operation", null);
@@ -107,16 +135,25 @@ class MessageHandlers {
                 @SuppressWarnings("unchecked")
                 final List<Object> arguments =
                         (List) decoder.readObjectField("Arguments", List.class, null);
-                return new OperationRequest(connectorKey, connectorFacadeKey, operation,
-                        operationMethodName, arguments);
+                final String locale = decoder.readStringField("locale", null);
+                return new OperationRequest(decoder.readLongField("streamId", 0), connectorKey,
+                        connectorFacadeKey, connectorFacadeDigest, operation, operationMethodName, arguments,
+                        decoder.readIntField("credits", 0),
+                        locale != null ? Locale.forLanguageTag(locale) : null);
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
                 OperationRequest val = (OperationRequest) object;
+                writeStreamId(val, encoder);
+                writeCredits(val.getCredits(), encoder);
+                if (val.getLocale() != null) {
+                    encoder.writeStringField("locale", val.getLocale().toLanguageTag());
+                }
                 encoder.writeClassField("operation", val.getOperation());
                 encoder.writeStringField("operationMethodName", val.getOperationMethodName());
                 encoder.writeObjectField("ConnectorKey", val.getConnectorKey(), true);
                 encoder.writeStringField("connectorFacadeKey", val.getConnectorFacadeKey());
+                encoder.writeStringField("connectorFacadeDigest", val.getConnectorFacadeDigest());
                 encoder.writeObjectField("Arguments", val.getArguments(), true);
             }
         });
@@ -125,10 +162,11 @@ class MessageHandlers {
                 "OperationResponseEnd") {
 
             public Object deserialize(final ObjectDecoder decoder) {
-                return new OperationResponseEnd();
+                return new OperationResponseEnd(decoder.readLongField("streamId", 0));
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
+                writeStreamId((StreamMessage) object, encoder);
             }
         });
 
@@ -140,11 +178,12 @@ class MessageHandlers {
                         (Throwable) decoder.readObjectField("exception", null, null);
                 final Object result = decoder.readObjectField("result", null, null);
 
-                return new OperationResponsePart(exception, result);
+                return new OperationResponsePart(decoder.readLongField("streamId", 0), exception, result);
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
                 final OperationResponsePart val = (OperationResponsePart) object;
+                writeStreamId(val, encoder);
                 encoder.writeObjectField("exception", val.getException(), false);
                 encoder.writeObjectField("result", val.getResult(), false);
             }
@@ -154,10 +193,14 @@ class MessageHandlers {
                 "OperationRequestMoreData") {
 
             public Object deserialize(final ObjectDecoder decoder) {
-                return new OperationRequestMoreData();
+                return new OperationRequestMoreData(decoder.readLongField("streamId", 0),
+                        decoder.readIntField("credits", 0));
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
+                final OperationRequestMoreData val = (OperationRequestMoreData) object;
+                writeStreamId(val, encoder);
+                writeCredits(val.getCredits(), encoder);
             }
         });
 
@@ -165,10 +208,23 @@ class MessageHandlers {
                 "OperationRequestStopData") {
 
             public Object deserialize(final ObjectDecoder decoder) {
-                return new OperationRequestStopData();
+                return new OperationRequestStopData(decoder.readLongField("streamId", 0));
+            }
+
+            public void serialize(final Object object, final ObjectEncoder encoder) {
+                writeStreamId((StreamMessage) object, encoder);
+            }
+        });
+
+        HANDLERS.add(new AbstractObjectSerializationHandler(OperationRequestCancel.class,
+                "OperationRequestCancel") {
+
+            public Object deserialize(final ObjectDecoder decoder) {
+                return new OperationRequestCancel(decoder.readLongField("streamId", 0));
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
+                writeStreamId((StreamMessage) object, encoder);
             }
         });
 
@@ -176,10 +232,14 @@ class MessageHandlers {
                 "OperationResponsePause") {
 
             public Object deserialize(final ObjectDecoder decoder) {
-                return new OperationResponsePause();
+                return new OperationResponsePause(decoder.readLongField("streamId", 0),
+                        decoder.readIntField("credits", 0));
             }
 
             public void serialize(final Object object, final ObjectEncoder encoder) {
+                final OperationResponsePause val = (OperationResponsePause) object;
+                writeStreamId(val, encoder);
+                writeCredits(val.getCredits(), encoder);
             }
         });
 
@@ -25,6 +25,9 @@ package org.identityconnectors.framework.impl.serializer;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
 import org.identityconnectors.framework.common.serializer.BinaryObjectDeserializer;
 import org.identityconnectors.framework.common.serializer.BinaryObjectSerializer;
 import org.identityconnectors.framework.common.serializer.ObjectSerializerFactory;
@@ -32,8 +35,9 @@ import org.identityconnectors.framework.common.serializer.XmlObjectResultsHandle
 import org.identityconnectors.framework.common.serializer.XmlObjectSerializer;
 import org.identityconnectors.framework.impl.serializer.binary.BinaryObjectDecoder;
 import org.identityconnectors.framework.impl.serializer.binary.BinaryObjectEncoder;
-import org.identityconnectors.framework.impl.serializer.xml.XmlObjectParser;
+import org.identityconnectors.framework.impl.serializer.xml.XmlObjectChunkedSerializer;
 import org.identityconnectors.framework.impl.serializer.xml.XmlObjectSerializerImpl;
+import org.identityconnectors.framework.impl.serializer.xml.XmlObjectStreamParser;
 import org.xml.sax.InputSource;
 
 
@@ -56,11 +60,26 @@ public class ObjectSerializerFactoryImpl extends ObjectSerializerFactory {
         return new XmlObjectSerializerImpl(w,includeHeader,multiObject);
     }
 
+    @Override
+    public XmlObjectSerializer newChunkedXmlSerializer(IntFunction<Writer> chunkFactory,
+            boolean includeHeader,
+            int objectsPerChunk) {
+        return new XmlObjectChunkedSerializer(chunkFactory, includeHeader, objectsPerChunk);
+    }
+
     @Override
     public void deserializeXmlStream(InputSource is,
             XmlObjectResultsHandler handler,
             boolean validate) {
-        XmlObjectParser.parse(is, handler, validate);
+        XmlObjectStreamParser.parse(is, handler, validate);
+    }
+
+    @Override
+    public void deserializeXmlChunks(List<InputSource> chunks,
+            XmlObjectResultsHandler handler,
+            boolean validate,
+            Executor executor) {
+        XmlObjectStreamParser.parse(chunks, handler, validate, executor);
     }
 
 }
@@ -24,11 +24,9 @@
 package org.identityconnectors.framework.impl.serializer;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 
 public final class ObjectSerializerRegistry {
@@ -58,32 +56,50 @@ public final class ObjectSerializerRegistry {
     }
 
     /**
-     * Mapping by class. Dynamically built since actual class may be a subclass.
+     * The mapper of a class and the same mapper as a handler, if it is one.
      */
-    private static final Map<Class<?>, ObjectTypeMapper> HANDLERS_BY_OBJECT_TYPE =
-            Collections.synchronizedMap(new WeakHashMap<>());
+    private static final class Resolved {
 
-    public static ObjectTypeMapper getMapperBySerialType(final String type) {
-        return HANDLERS_BY_SERIAL_TYPE.get(type);
+        private final ObjectTypeMapper mapper;
+
+        private final ObjectSerializationHandler handler;
+
+        private Resolved(final ObjectTypeMapper mapper) {
+            this.mapper = mapper;
+            this.handler = mapper instanceof ObjectSerializationHandler
+                    ? (ObjectSerializationHandler) mapper
+                    : null;
+        }
     }
 
-    public static ObjectTypeMapper getMapperByObjectType(final Class<?> clazz) {
-        ObjectTypeMapper mapper = HANDLERS_BY_OBJECT_TYPE.get(clazz);
-        if (mapper == null) {
+    /**
+     * Mapping by class. Dynamically built since actual class may be a subclass.
+     * Lookups do not lock, and the entry of a class goes away with its class
+     * loader.
+     */
+    private static final ClassValue<Resolved> HANDLERS_BY_OBJECT_TYPE = new ClassValue<Resolved>() {
+
+        @Override
+        protected Resolved computeValue(final Class<?> clazz) {
             for (ObjectTypeMapper handler : HANDLERS) {
                 if (handler.isMatchSubclasses()) {
                     if (handler.getHandledObjectType().isAssignableFrom(clazz)) {
-                        mapper = handler;
-                        break;
+                        return new Resolved(handler);
                     }
                 } else if (handler.getHandledObjectType().equals(clazz)) {
-                    mapper = handler;
-                    break;
+                    return new Resolved(handler);
                 }
             }
-            HANDLERS_BY_OBJECT_TYPE.put(clazz, mapper);
+            return new Resolved(null);
         }
-        return mapper;
+    };
+
+    public static ObjectTypeMapper getMapperBySerialType(final String type) {
+        return HANDLERS_BY_SERIAL_TYPE.get(type);
+    }
+
+    public static ObjectTypeMapper getMapperByObjectType(final Class<?> clazz) {
+        return HANDLERS_BY_OBJECT_TYPE.get(clazz).mapper;
     }
 
     public static ObjectSerializationHandler getHandlerBySerialType(final String type) {
@@ -96,12 +112,7 @@ public final class ObjectSerializerRegistry {
     }
 
     public static ObjectSerializationHandler getHandlerByObjectType(final Class<?> clazz) {
-        final ObjectTypeMapper mapper = getMapperByObjectType(clazz);
-        if (mapper instanceof ObjectSerializationHandler) {
-            return (ObjectSerializationHandler) mapper;
-        } else {
-            return null;
-        }
+        return HANDLERS_BY_OBJECT_TYPE.get(clazz).handler;
     }
 
     private ObjectSerializerRegistry() {
@@ -24,17 +24,14 @@
 package org.identityconnectors.framework.impl.serializer.binary;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Array;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.serializer.BinaryObjectDeserializer;
 import org.identityconnectors.framework.impl.serializer.ObjectDecoder;
@@ -44,48 +41,156 @@ import org.identityconnectors.framework.impl.serializer.ObjectTypeMapper;
 
 public class BinaryObjectDecoder implements ObjectDecoder, BinaryObjectDeserializer {
 
+    /**
+     * The fields of an object being read, as slices of the buffer of the
+     * decoder. The slots are reused by all the objects at the same depth.
+     */
     private static class ReadState {
 
-        public Map<String, byte[]> objectFields = new HashMap<>();
+        private String[] fieldNames = new String[8];
 
-        public List<byte[]> anonymousFields = new ArrayList<>();
+        private int[] fieldOffsets = new int[8];
 
-        public DataInputStream currentInput;
+        private int[] fieldLengths = new int[8];
 
-        public ReadState() {
+        private int numFields;
+
+        private int[] anonymousOffsets = new int[8];
+
+        private int[] anonymousLengths = new int[8];
+
+        private int numAnonymousFields;
+
+        /**
+         * The slice of the field being read.
+         */
+        private int position;
+
+        private int limit;
+
+        public void reset() {
+            Arrays.fill(fieldNames, 0, numFields, null);
+            numFields = 0;
+            numAnonymousFields = 0;
+            position = 0;
+            limit = 0;
+        }
+
+        public void addField(String name, int offset, int length) {
+            if (numFields == fieldNames.length) {
+                fieldNames = Arrays.copyOf(fieldNames, numFields * 2);
+                fieldOffsets = Arrays.copyOf(fieldOffsets, numFields * 2);
+                fieldLengths = Arrays.copyOf(fieldLengths, numFields * 2);
+            }
+            fieldNames[numFields] = name;
+            fieldOffsets[numFields] = offset;
+            fieldLengths[numFields] = length;
+            numFields++;
+        }
+
+        public void addAnonymousField(int offset, int length) {
+            if (numAnonymousFields == anonymousOffsets.length) {
+                anonymousOffsets = Arrays.copyOf(anonymousOffsets, numAnonymousFields * 2);
+                anonymousLengths = Arrays.copyOf(anonymousLengths, numAnonymousFields * 2);
+            }
+            anonymousOffsets[numAnonymousFields] = offset;
+            anonymousLengths[numAnonymousFields] = length;
+            numAnonymousFields++;
         }
 
         public boolean startField(String name) {
-            currentInput = null;
-            byte[] content = objectFields.get(name);
-            if (content == null) {
-                return false;
-            } else {
-                currentInput = new DataInputStream(new ByteArrayInputStream(content));
-                return true;
+            // the last one wins if a name is repeated
+            for (int i = numFields - 1; i >= 0; i--) {
+                if (fieldNames[i].equals(name)) {
+                    position = fieldOffsets[i];
+                    limit = position + fieldLengths[i];
+                    return true;
+                }
             }
+            position = 0;
+            limit = 0;
+            return false;
         }
 
         public void startAnonymousField(int index) {
-            if (index >= anonymousFields.size()) {
+            if (index >= numAnonymousFields) {
                 throw new ConnectorException("Anonymous content not found");
             }
-            currentInput =
-                    new DataInputStream(new ByteArrayInputStream(anonymousFields.get(index)));
+            position = anonymousOffsets[index];
+            limit = position + anonymousLengths[index];
+        }
+
+        /**
+         * Consumes the given number of bytes of the current field.
+         *
+         * @return the offset of the bytes in the buffer
+         */
+        public int consume(int length) {
+            if (length < 0 || length > limit - position) {
+                throw new ConnectorException("Unexpected end of field");
+            }
+            int offset = position;
+            position += length;
+            return offset;
         }
     }
 
-    private static class InternalDecoder {
+    /**
+     * Reads the fields of each top-level object once from the stream into a
+     * buffer that is reused for all the objects. The nested objects and their
+     * fields are then read in place from slices of that buffer, rather than
+     * copied at every level.
+     * <p>
+     * Both the {@link BinaryObjectEncoder#ENCODING_VERSION default} and the
+     * {@link BinaryObjectEncoder#COMPACT_ENCODING_VERSION compact} encodings
+     * are read, as announced at the start of the stream. In the compact
+     * encoding the large byte arrays of an object are read from the stream
+     * straight into the arrays returned for them.
+     */
+    private static class InternalDecoder implements FixedLayoutCodecs.Input {
+
+        private static final byte[][] NO_BYTE_ARRAYS = new byte[0][];
+
+        /**
+         * Initial size of the buffer.
+         */
+        private static final int INITIAL_BUFFER_SIZE = 1024;
+
+        /**
+         * A buffer that grew past this size for an unusually large object is
+         * not kept for the next ones.
+         */
+        private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
 
         private boolean firstObject = true;
 
         private final Map<Integer, String> constantPool = new HashMap<>();
 
-        private final Stack<ReadState> readStateStack = new Stack<>();
+        /**
+         * Byte arrays of the current top-level object written outside of it.
+         */
+        private byte[][] largeByteArrays = NO_BYTE_ARRAYS;
+
+        private ReadState[] readStates = new ReadState[8];
+
+        /**
+         * Number of objects being read, their fields are in the first read
+         * states.
+         */
+        private int depth = 0;
+
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        private int bufferLength = 0;
 
         private final DataInputStream rootInput;
 
-        public InternalDecoder(DataInputStream input) {
+        private boolean compact = false;
+
+        private final ObjectDecoder decoder;
+
+        public InternalDecoder(ObjectDecoder decoder, DataInputStream input) {
+            this.decoder = decoder;
             rootInput = input;
         }
 
@@ -97,70 +202,89 @@ public class BinaryObjectDecoder implements ObjectDecoder, BinaryObjectDeseriali
                     throw new ConnectorException("Bad magic number: " + magic);
                 }
                 int version = readInt();
-                if (version != BinaryObjectEncoder.ENCODING_VERSION) {
+                if (version == BinaryObjectEncoder.COMPACT_ENCODING_VERSION) {
+                    compact = true;
+                } else if (version != BinaryObjectEncoder.ENCODING_VERSION) {
                     throw new ConnectorException("Unexpected version: " + version);
                 }
                 firstObject = false;
             }
 
             // if it's a top-level object, it's proceeded by a constant pool
-            if (readStateStack.isEmpty()) {
-                int size = readInt();
+            if (depth == 0) {
+                int size = readLength();
                 for (int i = 0; i < size; i++) {
-                    String constant = readString(false);
-                    int code = readInt();
+                    String constant = new String(readRawByteArray(), StandardCharsets.UTF_8);
+                    int code = readLength();
                     constantPool.put(code, constant);
                 }
+                if (compact) {
+                    readLargeByteArrays();
+                }
+                bufferLength = 0;
             }
 
             Class<?> clazz = readClass();
-            ReadState state = new ReadState();
+            ReadState state = nextReadState();
 
             while (true) {
                 byte type = readByte();
                 if (type == BinaryObjectEncoder.FIELD_TYPE_END_OBJECT) {
                     break;
                 } else if (type == BinaryObjectEncoder.FIELD_TYPE_ANONYMOUS_FIELD) {
-                    byte[] bytes = readByteArray();
-                    state.anonymousFields.add(bytes);
+                    int length = readLength();
+                    state.addAnonymousField(readSlice(length), length);
                 } else if (type == BinaryObjectEncoder.FIELD_TYPE_NAMED_FIELD) {
                     String fieldName = readString(true);
-                    byte[] bytes = readByteArray();
-                    state.objectFields.put(fieldName, bytes);
+                    int length = readLength();
+                    state.addField(fieldName, readSlice(length), length);
                 } else {
                     throw new ConnectorException("Unknown type: " + type);
                 }
             }
             // push the state on the stack before we read the body
-            readStateStack.push(state);
+            depth++;
 
             Object rv;
-            if (clazz == null) {
-                rv = null;
-            } else {
-                ObjectSerializationHandler handler =
-                        ObjectSerializerRegistry.getHandlerByObjectType(clazz);
-                if (handler == null) {
-                    // we may have special handlers for certain types of arrays
-                    // if handler is null, treat like any other array
-                    if (clazz.isArray()) {
-                        int length = getNumAnonymousFields();
-                        Object array = Array.newInstance(clazz.getComponentType(), length);
-                        for (int i = 0; i < length; i++) {
-                            startAnonymousField(i);
-                            Object element = readObject(decoder);
-                            Array.set(array, i, element);
+            try {
+                if (clazz == null) {
+                    rv = null;
+                } else {
+                    ObjectSerializationHandler handler =
+                            ObjectSerializerRegistry.getHandlerByObjectType(clazz);
+                    if (handler == null) {
+                        // we may have special handlers for certain types of arrays
+                        // if handler is null, treat like any other array
+                        if (clazz.isArray()) {
+                            int length = getNumAnonymousFields();
+                            Object array = Array.newInstance(clazz.getComponentType(), length);
+                            for (int i = 0; i < length; i++) {
+                                startAnonymousField(i);
+                                Object element = readObject(decoder);
+                                Array.set(array, i, element);
+                            }
+                            rv = array;
+                        } else {
+                            throw new ConnectorException("No deserializer for type: " + clazz);
                         }
-                        rv = array;
+                    } else if (compact && FixedLayoutCodecs.isFixedLayout(clazz)) {
+                        startAnonymousField(0);
+                        rv = FixedLayoutCodecs.read(clazz, this);
                     } else {
-                        throw new ConnectorException("No deserializer for type: " + clazz);
+                        rv = handler.deserialize(decoder);
+                    }
+                }
+            } finally {
+                // pop
+                depth--;
+                if (depth == 0) {
+                    largeByteArrays = NO_BYTE_ARRAYS;
+                    if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                        buffer = new byte[INITIAL_BUFFER_SIZE];
+                        bufferLength = 0;
                     }
-                } else {
-                    rv = handler.deserialize(decoder);
                 }
             }
-            // pop
-            readStateStack.pop();
             return rv;
         }
 
@@ -184,91 +308,253 @@ public class BinaryObjectDecoder implements ObjectDecoder, BinaryObjectDeseriali
         }
 
         public int getNumAnonymousFields() {
-            ReadState readState = readStateStack.get(readStateStack.size() - 1);
-            return readState.anonymousFields.size();
+            return readStates[depth - 1].numAnonymousFields;
         }
 
         public void startAnonymousField(int index) {
-            ReadState readState = readStateStack.get(readStateStack.size() - 1);
-            readState.startAnonymousField(index);
+            readStates[depth - 1].startAnonymousField(index);
         }
 
         public boolean startField(String name) {
-            ReadState readState = readStateStack.get(readStateStack.size() - 1);
-            return readState.startField(name);
+            return readStates[depth - 1].startField(name);
+        }
+
+        /**
+         * Reads a length, a count or a code.
+         */
+        @Override
+        public Object readObject() {
+            return readObject(decoder);
+        }
+
+        @Override
+        public int readLength() {
+            if (!compact) {
+                return readInt();
+            }
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                v |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+            }
+            throw new ConnectorException("Malformed variable-length integer");
         }
 
         public int readInt() {
-            try {
-                return getCurrentInput().readInt();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (compact && !firstObject) {
+                int v = readLength();
+                return (v >>> 1) ^ -(v & 1);
+            }
+            if (depth == 0) {
+                try {
+                    return rootInput.readInt();
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                }
             }
+            return getInt(readStates[depth - 1].consume(4));
         }
 
         public long readLong() {
-            try {
-                return getCurrentInput().readLong();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (compact) {
+                long v = 0;
+                for (int shift = 0; shift < 64; shift += 7) {
+                    byte b = readByte();
+                    v |= (long) (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        return (v >>> 1) ^ -(v & 1);
+                    }
+                }
+                throw new ConnectorException("Malformed variable-length integer");
             }
+            return readFixedLong();
         }
 
-        public double readDouble() {
-            try {
-                return getCurrentInput().readDouble();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+        private long readFixedLong() {
+            if (depth == 0) {
+                try {
+                    return rootInput.readLong();
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                }
             }
+            int offset = readStates[depth - 1].consume(8);
+            return ((long) getInt(offset) << 32) | (getInt(offset + 4) & 0xFFFFFFFFL);
+        }
+
+        public double readDouble() {
+            return Double.longBitsToDouble(readFixedLong());
         }
 
         public byte[] readByteArray() {
-            try {
-                int length = getCurrentInput().readInt();
-                byte[] rv = new byte[length];
-                getCurrentInput().readFully(rv);
-                return rv;
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            int length = readLength();
+            if (compact) {
+                // either a reference to a large array or the array itself
+                if ((length & 1) != 0) {
+                    int index = length >>> 1;
+                    if (index >= largeByteArrays.length) {
+                        throw new ConnectorException("Undeclared byte array: " + index);
+                    }
+                    return largeByteArrays[index];
+                }
+                length >>>= 1;
+            }
+            return readBytes(length);
+        }
+
+        private byte[] readRawByteArray() {
+            return readBytes(readLength());
+        }
+
+        private byte[] readBytes(int length) {
+            if (depth == 0) {
+                try {
+                    byte[] rv = new byte[length];
+                    rootInput.readFully(rv);
+                    return rv;
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                }
             }
+            int offset = readStates[depth - 1].consume(length);
+            return Arrays.copyOfRange(buffer, offset, offset + length);
         }
 
+        @Override
         public byte readByte() {
-            try {
-                return getCurrentInput().readByte();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (depth == 0) {
+                try {
+                    return rootInput.readByte();
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                }
             }
+            return buffer[readStates[depth - 1].consume(1)];
         }
 
         public boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        @Override
+        public String readString() {
+            return readString(false);
+        }
+
+        public String readString(boolean interned) {
+            if (interned) {
+                return getConstant(readLength());
+            }
+
+            int length = readLength();
+            if (compact) {
+                // either a reference to the pool or the string itself
+                if ((length & 1) != 0) {
+                    return getConstant(length >>> 1);
+                }
+                length >>>= 1;
+            }
+            if (depth == 0) {
+                try {
+                    byte[] bytes = new byte[length];
+                    rootInput.readFully(bytes);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                }
+            }
+            int offset = readStates[depth - 1].consume(length);
+            return new String(buffer, offset, length, StandardCharsets.UTF_8);
+        }
+
+        private String getConstant(int code) {
+            String name = constantPool.get(code);
+            if (name == null) {
+                throw new ConnectorException("Undeclared code: " + code);
+            }
+            return name;
+        }
+
+        /**
+         * Reads a field of the given length from the current input.
+         *
+         * @return the offset of the field in the buffer
+         */
+        private int readSlice(int length) {
+            if (depth > 0) {
+                // already in the buffer, skip it
+                return readStates[depth - 1].consume(length);
+            }
+            if (length < 0) {
+                throw new ConnectorException("Bad field length: " + length);
+            }
+            if (length > buffer.length - bufferLength) {
+                long size = Math.max(buffer.length * 2L, (long) bufferLength + length);
+                if (size > Integer.MAX_VALUE) {
+                    throw new ConnectorException("Object too large to deserialize");
+                }
+                buffer = Arrays.copyOf(buffer, (int) size);
+            }
             try {
-                return getCurrentInput().readBoolean();
+                rootInput.readFully(buffer, bufferLength, length);
             } catch (IOException e) {
                 throw ConnectorException.wrap(e);
             }
+            int offset = bufferLength;
+            bufferLength += length;
+            return offset;
         }
 
-        public String readString(boolean interned) {
-            if (interned) {
-                int code = readInt();
-                String name = constantPool.get(code);
-                if (name == null) {
-                    throw new ConnectorException("Undeclared code: " + code);
+        /**
+         * Reads the lengths of the large byte arrays and then each of them into
+         * its own array.
+         */
+        private void readLargeByteArrays() {
+            int count = readLength();
+            if (count == 0) {
+                return;
+            }
+            if (count < 0) {
+                throw new ConnectorException("Bad byte array count: " + count);
+            }
+            byte[][] arrays = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                int length = readLength();
+                if (length < 0) {
+                    throw new ConnectorException("Bad byte array length: " + length);
                 }
-                return name;
+                arrays[i] = new byte[length];
             }
-
-            return new String(readByteArray(), StandardCharsets.UTF_8);
+            try {
+                for (byte[] array : arrays) {
+                    rootInput.readFully(array);
+                }
+            } catch (IOException e) {
+                throw ConnectorException.wrap(e);
+            }
+            largeByteArrays = arrays;
         }
 
-        private DataInputStream getCurrentInput() {
-            if (readStateStack.size() > 0) {
-                ReadState state = readStateStack.get(readStateStack.size() - 1);
-                return state.currentInput;
+        private ReadState nextReadState() {
+            if (depth == readStates.length) {
+                readStates = Arrays.copyOf(readStates, depth * 2);
+            }
+            ReadState state = readStates[depth];
+            if (state == null) {
+                state = new ReadState();
+                readStates[depth] = state;
             } else {
-                return rootInput;
+                state.reset();
             }
+            return state;
+        }
+
+        private int getInt(int offset) {
+            return ((buffer[offset] & 0xFF) << 24) | ((buffer[offset + 1] & 0xFF) << 16)
+                    | ((buffer[offset + 2] & 0xFF) << 8) | (buffer[offset + 3] & 0xFF);
         }
     }
 
@@ -276,7 +562,7 @@ public class BinaryObjectDecoder implements ObjectDecoder, BinaryObjectDeseriali
 
     public BinaryObjectDecoder(InputStream in) {
         internalDecoder =
-                new InternalDecoder(new DataInputStream(new BufferedInputStream(in, 4096)));
+                new InternalDecoder(this, new DataInputStream(new BufferedInputStream(in, 4096)));
     }
 
     @Override
@@ -293,6 +579,15 @@ public class BinaryObjectDecoder implements ObjectDecoder, BinaryObjectDeseriali
         return internalDecoder.readObject(this);
     }
 
+    @Override
+    public int available() {
+        try {
+            return internalDecoder.rootInput.available();
+        } catch (IOException e) {
+            throw ConnectorException.wrap(e);
+        }
+    }
+
     @Override
     public boolean readBooleanContents() {
         internalDecoder.startAnonymousField(0);
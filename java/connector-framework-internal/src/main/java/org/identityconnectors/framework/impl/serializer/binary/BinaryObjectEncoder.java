@@ -24,18 +24,17 @@
 package org.identityconnectors.framework.impl.serializer.binary;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Array;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
-import org.identityconnectors.common.Pair;
+import java.util.Set;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.serializer.BinaryObjectSerializer;
 import org.identityconnectors.framework.impl.serializer.ObjectEncoder;
@@ -51,6 +50,23 @@ public class BinaryObjectEncoder implements ObjectEncoder, BinaryObjectSerialize
      */
     public static final int ENCODING_VERSION = 2;
 
+    /**
+     * Version of the compact encoding, with variable-length integers and
+     * repeated string values pooled for the whole stream. Only written when
+     * both peers agreed to it.
+     *
+     * @since 1.7.0.0
+     */
+    public static final int COMPACT_ENCODING_VERSION = 3;
+
+    /**
+     * Default length from which byte array values are written outside of the
+     * object in the {@link #COMPACT_ENCODING_VERSION compact encoding}.
+     *
+     * @since 1.7.0.0
+     */
+    public static final int DEFAULT_LARGE_BYTE_ARRAY_THRESHOLD = 16 * 1024;
+
     public static final int OBJECT_MAGIC = 0xFAFB;
 
     public static final byte OBJECT_TYPE_NULL = 60;
@@ -65,14 +81,58 @@ public class BinaryObjectEncoder implements ObjectEncoder, BinaryObjectSerialize
 
     public static final byte FIELD_TYPE_END_OBJECT = 72;
 
-    private static class OutputBuffer extends Pair<ByteArrayOutputStream, DataOutputStream> {
+    /**
+     * Writes each object in a single pass into one buffer that is reused for
+     * all the objects of the stream. A field is written in place: its length
+     * prefix is reserved when it starts and patched when it ends, so nested
+     * values are never copied into their parents. Only a top-level object is
+     * copied once, to the output, since the constants it introduces have to
+     * be written before it.
+     * <p>
+     * In the {@link #COMPACT_ENCODING_VERSION compact encoding} lengths and
+     * codes are unsigned variable-length integers and values are zigzag
+     * encoded. A field reserves no room for its length there: the lengths are
+     * recorded aside as the fields end, counting the lengths of the nested
+     * fields, and inserted while the object is copied to the output, so the
+     * buffer is never shifted. String values seen for the second time
+     * are added to the constant pool, which lasts as long as the stream, and
+     * are then written as references, and the hottest types are written with
+     * a {@link FixedLayoutCodecs fixed layout}.
+     * <p>
+     * Byte array values past a threshold are not copied into the buffer either
+     * in the compact encoding: the object refers to them by index and they are
+     * written straight to the output, each prefixed by its length, between
+     * the constant pool and the object. The decoder reads each of them
+     * directly into the array it returns.
+     */
+    private static class InternalEncoder implements FixedLayoutCodecs.Output {
 
-        public OutputBuffer(ByteArrayOutputStream buf, DataOutputStream data) {
-            super(buf, data);
-        }
-    }
+        /**
+         * Initial size of the buffer.
+         */
+        private static final int INITIAL_BUFFER_SIZE = 1024;
+
+        /**
+         * A buffer that grew past this size for an unusually large object is
+         * not kept for the next ones.
+         */
+        private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+        /**
+         * Longest string value added to the constant pool, in UTF-8 bytes.
+         */
+        private static final int MAX_POOLED_STRING_LENGTH = 256;
+
+        /**
+         * Size of the constant pool past which no more string values are
+         * added, bounding the memory kept by the decoder.
+         */
+        private static final int MAX_POOLED_STRINGS = 65536;
 
-    private static class InternalEncoder {
+        /**
+         * Number of string values remembered as seen once.
+         */
+        private static final int MAX_CANDIDATE_STRINGS = 8192;
 
         /**
          * Mapping from type name to the ID we serialize so we only have to
@@ -81,82 +141,173 @@ public class BinaryObjectEncoder implements ObjectEncoder, BinaryObjectSerialize
 
         private final List<String> constantBuffer = new ArrayList<>();
 
-        private final Stack<OutputBuffer> outputBufferStack = new Stack<>();
+        /**
+         * String values seen once, which are pooled when seen again.
+         */
+        private final Set<String> candidateStrings = new HashSet<>();
+
+        /**
+         * Byte arrays of the current object written outside of the buffer.
+         */
+        private final List<byte[]> largeByteArrays = new ArrayList<>();
+
+        /**
+         * Positions of the length prefixes of the fields being written, or
+         * their indexes in {@link #lengthPositions} in the compact encoding.
+         */
+        private int[] fieldStack = new int[16];
+
+        private int fieldDepth = 0;
+
+        /**
+         * Positions in the buffer of the lengths of the fields of the current
+         * object in the compact encoding, in the order of the buffer.
+         */
+        private int[] lengthPositions = new int[16];
+
+        /**
+         * The lengths at {@link #lengthPositions}; while a field is being
+         * written, the value of {@link #lengthBytes} when it started.
+         */
+        private int[] lengths = new int[16];
+
+        private int lengthCount = 0;
+
+        /**
+         * Number of bytes of the lengths of the fields ended so far.
+         */
+        private int lengthBytes = 0;
+
+        private final byte[] lengthBuffer = new byte[5];
+
+        /**
+         * Number of objects being written, 0 between top-level objects.
+         */
+        private int objectDepth = 0;
+
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        private int position = 0;
 
-        private final DataOutputStream rootOutput;
+        private final OutputStream rootOutput;
+
+        private final int version;
+
+        private final boolean compact;
+
+        private final int largeByteArrayThreshold;
 
         private boolean firstObject = true;
 
-        public InternalEncoder(DataOutputStream output) {
+        private final ObjectEncoder encoder;
+
+        public InternalEncoder(ObjectEncoder encoder, OutputStream output, int version,
+                int largeByteArrayThreshold) {
+            this.encoder = encoder;
             rootOutput = output;
+            this.version = version;
+            this.compact = version == COMPACT_ENCODING_VERSION;
+            // the length of smaller arrays is shifted to tag it
+            this.largeByteArrayThreshold = Math.min(largeByteArrayThreshold, Integer.MAX_VALUE >> 1);
         }
 
         public void writeObject(ObjectEncoder encoder, Object object) {
 
-            if (firstObject) {
-                writeInt(OBJECT_MAGIC);
-                writeInt(ENCODING_VERSION);
-                firstObject = false;
-            }
-
-            // push the stack
-            OutputBuffer objectBuffer;
-            {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                DataOutputStream data = new DataOutputStream(baos);
-                objectBuffer = new OutputBuffer(baos, data);
-                outputBufferStack.push(objectBuffer);
+            if (objectDepth == 0) {
+                position = 0;
+                fieldDepth = 0;
+                lengthCount = 0;
+                lengthBytes = 0;
+                largeByteArrays.clear();
             }
-
-            if (object == null) {
-                writeByte(OBJECT_TYPE_NULL);
-            } else {
-                Class<?> clazz = object.getClass();
-                writeClass(clazz);
-                ObjectSerializationHandler handler =
-                        ObjectSerializerRegistry.getHandlerByObjectType(clazz);
-                if (handler == null) {
-                    // we may have special handlers for certain types of arrays
-                    // if handler is null, treat like any other array
-                    if (clazz.isArray()) {
-                        int length = Array.getLength(object);
-                        for (int i = 0; i < length; i++) {
-                            Object val = Array.get(object, i);
-                            startAnonymousField();
-                            writeObject(encoder, val);
-                            endField();
+            objectDepth++;
+            try {
+                if (object == null) {
+                    writeByte(OBJECT_TYPE_NULL);
+                } else {
+                    Class<?> clazz = object.getClass();
+                    writeClass(clazz);
+                    ObjectSerializationHandler handler =
+                            ObjectSerializerRegistry.getHandlerByObjectType(clazz);
+                    if (handler == null) {
+                        // we may have special handlers for certain types of arrays
+                        // if handler is null, treat like any other array
+                        if (clazz.isArray()) {
+                            int length = Array.getLength(object);
+                            for (int i = 0; i < length; i++) {
+                                Object val = Array.get(object, i);
+                                startAnonymousField();
+                                writeObject(encoder, val);
+                                endField();
+                            }
+                        } else {
+                            throw new ConnectorException("No serializer for class: " + clazz);
                         }
+                    } else if (compact && object instanceof byte[]
+                            && ((byte[]) object).length >= largeByteArrayThreshold) {
+                        // the same as the handler, but not copied
+                        startAnonymousField();
+                        writeLargeByteArray((byte[]) object);
+                        endField();
+                    } else if (compact && FixedLayoutCodecs.isFixedLayout(clazz)) {
+                        startAnonymousField();
+                        FixedLayoutCodecs.write(object, this);
+                        endField();
                     } else {
-                        throw new ConnectorException("No serializer for class: " + clazz);
+                        handler.serialize(object, encoder);
                     }
-                } else {
-                    handler.serialize(object, encoder);
                 }
+                writeByte(FIELD_TYPE_END_OBJECT);
+            } finally {
+                objectDepth--;
             }
-            writeByte(FIELD_TYPE_END_OBJECT); // write end-object into the
-            // current obj buffer
-
-            // pop the stack
-            outputBufferStack.pop();
-
-            // it's a top-level object, flush the constant pool
-            if (outputBufferStack.isEmpty()) {
-                writeInt(constantBuffer.size());
-                constantBuffer.forEach(constant -> {
-                    writeString(constant, false);
-                    writeInt(constantPool.get(constant));
-                });
+
+            // it's a top-level object, flush the constant pool and then the object
+            if (objectDepth == 0) {
+                int length = position;
+                writeHeader();
+                writeLength(constantBuffer.size());
+                for (String constant : constantBuffer) {
+                    writeRawByteArray(constant.getBytes(StandardCharsets.UTF_8));
+                    writeLength(constantPool.get(constant));
+                }
                 constantBuffer.clear();
+                if (compact) {
+                    writeLength(largeByteArrays.size());
+                    for (byte[] array : largeByteArrays) {
+                        writeLength(array.length);
+                    }
+                }
+                try {
+                    // the header was appended to the object
+                    rootOutput.write(buffer, length, position - length);
+                    for (byte[] array : largeByteArrays) {
+                        rootOutput.write(array);
+                    }
+                    writeBody(length);
+                } catch (IOException e) {
+                    throw ConnectorException.wrap(e);
+                } finally {
+                    largeByteArrays.clear();
+                }
+                position = 0;
+                if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                    buffer = new byte[INITIAL_BUFFER_SIZE];
+                }
             }
+        }
 
-            // now write the actual object
-            try {
-                objectBuffer.second.close();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+        @Override
+        public void writeObject(Object object) {
+            writeObject(encoder, object);
+        }
+
+        private void writeHeader() {
+            if (firstObject) {
+                putInt(OBJECT_MAGIC);
+                putInt(version);
+                firstObject = false;
             }
-            byte[] bytes = objectBuffer.first.toByteArray();
-            writeBytes(bytes);
         }
 
         public void writeClass(Class<?> clazz) {
@@ -178,93 +329,223 @@ public class BinaryObjectEncoder implements ObjectEncoder, BinaryObjectSerialize
 
         public void startAnonymousField() {
             writeByte(FIELD_TYPE_ANONYMOUS_FIELD);
-            ByteArrayOutputStream buf = new ByteArrayOutputStream();
-            DataOutputStream data = new DataOutputStream(buf);
-            outputBufferStack.push(new OutputBuffer(buf, data));
+            reserveLength();
         }
 
         public void startField(String name) {
             writeByte(FIELD_TYPE_NAMED_FIELD);
             writeString(name, true);
-            ByteArrayOutputStream buf = new ByteArrayOutputStream();
-            DataOutputStream data = new DataOutputStream(buf);
-            outputBufferStack.push(new OutputBuffer(buf, data));
+            reserveLength();
         }
 
         public void endField() {
-            OutputBuffer buf = outputBufferStack.pop();
-            try {
-                buf.second.close();
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            int field = fieldStack[--fieldDepth];
+            if (!compact) {
+                setInt(field, position - field - 4);
+                return;
+            }
+            // the nested lengths are all known by now
+            int length = position - lengthPositions[field] + lengthBytes - lengths[field];
+            lengths[field] = length;
+            lengthBytes += varIntSize(length);
+        }
+
+        private void reserveLength() {
+            if (fieldDepth == fieldStack.length) {
+                fieldStack = Arrays.copyOf(fieldStack, fieldDepth * 2);
+            }
+            if (!compact) {
+                fieldStack[fieldDepth++] = position;
+                ensureCapacity(4);
+                position += 4;
+                return;
+            }
+            if (lengthCount == lengthPositions.length) {
+                lengthPositions = Arrays.copyOf(lengthPositions, lengthCount * 2);
+                lengths = Arrays.copyOf(lengths, lengthCount * 2);
+            }
+            lengthPositions[lengthCount] = position;
+            lengths[lengthCount] = lengthBytes;
+            fieldStack[fieldDepth++] = lengthCount++;
+        }
+
+        /**
+         * Writes the first bytes of the buffer, inserting the lengths of the
+         * fields of the compact encoding.
+         */
+        private void writeBody(int length) throws IOException {
+            int offset = 0;
+            for (int i = 0; i < lengthCount; i++) {
+                rootOutput.write(buffer, offset, lengthPositions[i] - offset);
+                offset = lengthPositions[i];
+                rootOutput.write(lengthBuffer, 0, setVarInt(lengthBuffer, 0, lengths[i]));
+            }
+            rootOutput.write(buffer, offset, length - offset);
+            lengthCount = 0;
+            lengthBytes = 0;
+        }
+
+        /**
+         * Writes a length, a count or a code.
+         */
+        @Override
+        public void writeLength(int v) {
+            if (compact) {
+                ensureCapacity(5);
+                position = setVarInt(buffer, position, v);
+            } else {
+                putInt(v);
             }
-            byte[] bytes = buf.first.toByteArray();
-            writeByteArray(bytes);
         }
 
         public void writeInt(int v) {
-            try {
-                getCurrentOutput().writeInt(v);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (compact) {
+                writeLength((v << 1) ^ (v >> 31));
+            } else {
+                putInt(v);
             }
         }
 
         public void writeLong(long v) {
-            try {
-                getCurrentOutput().writeLong(v);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (compact) {
+                long zigzag = (v << 1) ^ (v >> 63);
+                ensureCapacity(10);
+                while ((zigzag & ~0x7FL) != 0) {
+                    buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                    zigzag >>>= 7;
+                }
+                buffer[position++] = (byte) zigzag;
+            } else {
+                ensureCapacity(8);
+                setInt(position, (int) (v >>> 32));
+                setInt(position + 4, (int) v);
+                position += 8;
             }
         }
 
         public void writeDouble(double l) {
-            try {
-                getCurrentOutput().writeDouble(l);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
-            }
+            ensureCapacity(8);
+            long v = Double.doubleToLongBits(l);
+            setInt(position, (int) (v >>> 32));
+            setInt(position + 4, (int) v);
+            position += 8;
         }
 
         public void writeByteArray(byte[] v) {
-            try {
-                getCurrentOutput().writeInt(v.length);
-                getCurrentOutput().write(v);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            if (!compact) {
+                writeRawByteArray(v);
+                return;
             }
+            // the low bit tells it from a reference to a large array
+            writeLength(v.length << 1);
+            writeBytes(v);
         }
 
+        /**
+         * Writes a reference to a byte array which is kept, rather than
+         * copied, until the object is written. Only used for the values of
+         * objects, the arrays given to the handlers may be cleared as soon as
+         * they have been written, like encrypted secrets.
+         */
+        private void writeLargeByteArray(byte[] v) {
+            writeLength((largeByteArrays.size() << 1) | 1);
+            largeByteArrays.add(v);
+        }
+
+        private void writeRawByteArray(byte[] v) {
+            writeLength(v.length);
+            writeBytes(v);
+        }
+
+        @Override
         public void writeByte(byte b) {
-            try {
-                getCurrentOutput().writeByte(b);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
-            }
+            ensureCapacity(1);
+            buffer[position++] = b;
         }
 
         public void writeBoolean(boolean b) {
-            try {
-                getCurrentOutput().writeBoolean(b);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
-            }
+            writeByte(b ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public void writeString(String str) {
+            writeString(str, false);
         }
 
         public void writeString(String str, boolean intern) {
             if (intern) {
                 int code = internIdentifier(str);
-                writeInt(code);
+                writeLength(code);
+                return;
+            }
+            if (!compact) {
+                writeRawByteArray(str.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            // a value: either a reference to the pool or the string itself
+            Integer code = constantPool.get(str);
+            if (code == null && constantPool.size() < MAX_POOLED_STRINGS && !candidateStrings.add(str)) {
+                candidateStrings.remove(str);
+                code = internIdentifier(str);
+            }
+            if (code != null) {
+                writeLength((code << 1) | 1);
                 return;
             }
-            writeByteArray(str.getBytes(StandardCharsets.UTF_8));
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_POOLED_STRING_LENGTH) {
+                candidateStrings.remove(str);
+            } else if (candidateStrings.size() > MAX_CANDIDATE_STRINGS) {
+                candidateStrings.clear();
+            }
+            writeLength(bytes.length << 1);
+            writeBytes(bytes);
         }
 
         private void writeBytes(byte[] v) {
-            try {
-                getCurrentOutput().write(v);
-            } catch (IOException e) {
-                throw ConnectorException.wrap(e);
+            ensureCapacity(v.length);
+            System.arraycopy(v, 0, buffer, position, v.length);
+            position += v.length;
+        }
+
+        private void putInt(int v) {
+            ensureCapacity(4);
+            setInt(position, v);
+            position += 4;
+        }
+
+        private void setInt(int offset, int v) {
+            buffer[offset] = (byte) (v >>> 24);
+            buffer[offset + 1] = (byte) (v >>> 16);
+            buffer[offset + 2] = (byte) (v >>> 8);
+            buffer[offset + 3] = (byte) v;
+        }
+
+        /**
+         * Writes an unsigned variable-length integer at the given offset.
+         *
+         * @return the offset after it
+         */
+        private static int setVarInt(byte[] target, int offset, int v) {
+            while ((v & ~0x7F) != 0) {
+                target[offset++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            target[offset++] = (byte) v;
+            return offset;
+        }
+
+        private static int varIntSize(int v) {
+            return v == 0 ? 1 : (38 - Integer.numberOfLeadingZeros(v)) / 7;
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buffer.length) {
+                int size = Math.max(buffer.length * 2, position + length);
+                if (size < 0) {
+                    throw new ConnectorException("Object too large to serialize");
+                }
+                buffer = Arrays.copyOf(buffer, size);
             }
         }
 
@@ -277,20 +558,43 @@ public class BinaryObjectEncoder implements ObjectEncoder, BinaryObjectSerialize
             }
             return code;
         }
-
-        private DataOutputStream getCurrentOutput() {
-            if (outputBufferStack.isEmpty()) {
-                return rootOutput;
-            } else {
-                return outputBufferStack.peek().second;
-            }
-        }
     }
 
     private final InternalEncoder internalEncoder;
 
     public BinaryObjectEncoder(OutputStream output) {
-        internalEncoder = new InternalEncoder(new DataOutputStream(new BufferedOutputStream(output, 4096)));
+        this(output, ENCODING_VERSION);
+    }
+
+    /**
+     * Creates an encoder writing the given version of the encoding, either
+     * {@link #ENCODING_VERSION} or {@link #COMPACT_ENCODING_VERSION}, which
+     * only decoders of this release or later read.
+     *
+     * @since 1.7.0.0
+     */
+    public BinaryObjectEncoder(OutputStream output, int version) {
+        this(output, version, DEFAULT_LARGE_BYTE_ARRAY_THRESHOLD);
+    }
+
+    /**
+     * Creates an encoder writing the given version of the encoding, where
+     * byte array values of at least the given length are written outside of the
+     * objects when the version is {@link #COMPACT_ENCODING_VERSION}.
+     *
+     * @since 1.7.0.0
+     */
+    public BinaryObjectEncoder(OutputStream output, int version, int largeByteArrayThreshold) {
+        if (version != ENCODING_VERSION && version != COMPACT_ENCODING_VERSION) {
+            throw new IllegalArgumentException("Unsupported encoding version: " + version);
+        }
+        if (largeByteArrayThreshold <= 0) {
+            throw new IllegalArgumentException("Bad threshold: " + largeByteArrayThreshold);
+        }
+        // not a DataOutputStream, whose synchronized writes would pin the
+        // carrier of a virtual thread blocked on a socket
+        internalEncoder = new InternalEncoder(this, new BufferedOutputStream(output, 4096), version,
+                largeByteArrayThreshold);
     }
 
     @Override
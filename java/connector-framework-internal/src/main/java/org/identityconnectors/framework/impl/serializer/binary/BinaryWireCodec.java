@@ -0,0 +1,50 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.binary;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.identityconnectors.framework.common.serializer.BinaryObjectDeserializer;
+import org.identityconnectors.framework.common.serializer.BinaryObjectSerializer;
+import org.identityconnectors.framework.common.serializer.WireCodec;
+
+/**
+ * The default binary encoding, understood by every connector server.
+ */
+public class BinaryWireCodec extends WireCodec {
+
+    @Override
+    public String getName() {
+        return BINARY;
+    }
+
+    @Override
+    public BinaryObjectSerializer newSerializer(OutputStream os) {
+        return new BinaryObjectEncoder(os, BinaryObjectEncoder.ENCODING_VERSION);
+    }
+
+    @Override
+    public BinaryObjectDeserializer newDeserializer(InputStream is) {
+        return new BinaryObjectDecoder(is);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.binary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncDeltaBuilder;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.identityconnectors.framework.common.objects.Uid;
+
+/**
+ * Writes the types every search and sync streams with a fixed layout rather
+ * than with named fields, in the
+ * {@link BinaryObjectEncoder#COMPACT_ENCODING_VERSION compact encoding} only.
+ * <p>
+ * The layout of an object is the only anonymous field of the object. Nested
+ * attributes, uids and names are written inline, without a type or a field of
+ * their own; any other value is a complete nested object.
+ */
+final class FixedLayoutCodecs {
+
+    interface Output {
+
+        void writeByte(byte b);
+
+        void writeLength(int v);
+
+        void writeString(String str);
+
+        void writeObject(Object object);
+    }
+
+    interface Input {
+
+        byte readByte();
+
+        int readLength();
+
+        String readString();
+
+        Object readObject();
+    }
+
+    private static final byte VALUE_OBJECT = 0;
+
+    private static final byte VALUE_STRING = 1;
+
+    private static final byte ATTRIBUTE = 0;
+
+    private static final byte ATTRIBUTE_UID = 1;
+
+    private static final byte ATTRIBUTE_NAME = 2;
+
+    private static final byte UID_REVISION = 1;
+
+    private static final byte UID_NAME_HINT = 2;
+
+    private static final byte DELTA_TOKEN = 1;
+
+    private static final byte DELTA_PREVIOUS_UID = 2;
+
+    private static final byte DELTA_OBJECT_CLASS = 4;
+
+    private static final byte DELTA_UID = 8;
+
+    private static final byte DELTA_OBJECT = 16;
+
+    /**
+     * Returns true if objects of exactly the given class have a fixed layout.
+     */
+    static boolean isFixedLayout(final Class<?> clazz) {
+        return clazz == ConnectorObject.class || clazz == Attribute.class || clazz == Uid.class
+                || clazz == Name.class || clazz == SyncDelta.class;
+    }
+
+    static void write(final Object object, final Output out) {
+        Class<?> clazz = object.getClass();
+        if (clazz == ConnectorObject.class) {
+            writeConnectorObject((ConnectorObject) object, out);
+        } else if (clazz == Attribute.class) {
+            writeAttribute((Attribute) object, out);
+        } else if (clazz == Uid.class) {
+            writeUid((Uid) object, out);
+        } else if (clazz == Name.class) {
+            out.writeString(((Name) object).getNameValue());
+        } else if (clazz == SyncDelta.class) {
+            writeSyncDelta((SyncDelta) object, out);
+        } else {
+            throw new ConnectorException("No fixed layout for class: " + clazz);
+        }
+    }
+
+    static Object read(final Class<?> clazz, final Input in) {
+        if (clazz == ConnectorObject.class) {
+            return readConnectorObject(in);
+        } else if (clazz == Attribute.class) {
+            return readAttribute(in);
+        } else if (clazz == Uid.class) {
+            return readUid(in);
+        } else if (clazz == Name.class) {
+            return new Name(in.readString());
+        } else if (clazz == SyncDelta.class) {
+            return readSyncDelta(in);
+        } else {
+            throw new ConnectorException("No fixed layout for class: " + clazz);
+        }
+    }
+
+    private static void writeConnectorObject(final ConnectorObject object, final Output out) {
+        out.writeString(object.getObjectClass().getObjectClassValue());
+        Set<Attribute> attributes = object.getAttributes();
+        out.writeLength(attributes.size());
+        for (Attribute attribute : attributes) {
+            Class<?> clazz = attribute.getClass();
+            if (clazz == Uid.class) {
+                out.writeByte(ATTRIBUTE_UID);
+                writeUid((Uid) attribute, out);
+            } else if (clazz == Name.class) {
+                out.writeByte(ATTRIBUTE_NAME);
+                out.writeString(((Name) attribute).getNameValue());
+            } else if (clazz == Attribute.class) {
+                out.writeByte(ATTRIBUTE);
+                writeAttribute(attribute, out);
+            } else {
+                out.writeByte(VALUE_OBJECT);
+                out.writeObject(attribute);
+            }
+        }
+    }
+
+    private static ConnectorObject readConnectorObject(final Input in) {
+        ObjectClass objectClass = new ObjectClass(in.readString());
+        int size = in.readLength();
+        Set<Attribute> attributes = new HashSet<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            byte kind = in.readByte();
+            if (kind == ATTRIBUTE_UID) {
+                attributes.add(readUid(in));
+            } else if (kind == ATTRIBUTE_NAME) {
+                attributes.add(new Name(in.readString()));
+            } else if (kind == ATTRIBUTE) {
+                attributes.add(readAttribute(in));
+            } else {
+                attributes.add((Attribute) in.readObject());
+            }
+        }
+        return new ConnectorObject(objectClass, attributes);
+    }
+
+    private static void writeAttribute(final Attribute attribute, final Output out) {
+        out.writeString(attribute.getName());
+        List<Object> values = attribute.getValue();
+        // zero for no list at all
+        out.writeLength(values == null ? 0 : values.size() + 1);
+        if (values != null) {
+            for (Object value : values) {
+                if (value instanceof String) {
+                    out.writeByte(VALUE_STRING);
+                    out.writeString((String) value);
+                } else {
+                    out.writeByte(VALUE_OBJECT);
+                    out.writeObject(value);
+                }
+            }
+        }
+    }
+
+    private static Attribute readAttribute(final Input in) {
+        String name = in.readString();
+        int size = in.readLength() - 1;
+        List<Object> values = null;
+        if (size >= 0) {
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(in.readByte() == VALUE_STRING ? in.readString() : in.readObject());
+            }
+        }
+        return AttributeBuilder.build(name, values);
+    }
+
+    private static void writeUid(final Uid uid, final Output out) {
+        byte flags = 0;
+        if (uid.getRevision() != null) {
+            flags |= UID_REVISION;
+        }
+        if (uid.getNameHint() != null) {
+            flags |= UID_NAME_HINT;
+        }
+        out.writeByte(flags);
+        out.writeString(uid.getUidValue());
+        if (uid.getRevision() != null) {
+            out.writeString(uid.getRevision());
+        }
+        if (uid.getNameHint() != null) {
+            out.writeString(uid.getNameHint().getNameValue());
+        }
+    }
+
+    private static Uid readUid(final Input in) {
+        byte flags = in.readByte();
+        String value = in.readString();
+        String revision = (flags & UID_REVISION) != 0 ? in.readString() : null;
+        Name nameHint = (flags & UID_NAME_HINT) != 0 ? new Name(in.readString()) : null;
+        // revision parameter is not-null checked, nameHint is nullable
+        return revision == null
+                ? new Uid(value, nameHint)
+                : new Uid(value, revision, nameHint);
+    }
+
+    private static void writeSyncDelta(final SyncDelta delta, final Output out) {
+        byte flags = 0;
+        if (delta.getToken() != null) {
+            flags |= DELTA_TOKEN;
+        }
+        if (delta.getPreviousUid() != null) {
+            flags |= DELTA_PREVIOUS_UID;
+        }
+        if (delta.getObjectClass() != null) {
+            flags |= DELTA_OBJECT_CLASS;
+        }
+        if (delta.getUid() != null) {
+            flags |= DELTA_UID;
+        }
+        if (delta.getObject() != null) {
+            flags |= DELTA_OBJECT;
+        }
+        out.writeByte(flags);
+        out.writeString(delta.getDeltaType().name());
+        if (delta.getToken() != null) {
+            out.writeObject(delta.getToken());
+        }
+        if (delta.getPreviousUid() != null) {
+            writeUid(delta.getPreviousUid(), out);
+        }
+        if (delta.getObjectClass() != null) {
+            out.writeString(delta.getObjectClass().getObjectClassValue());
+        }
+        if (delta.getUid() != null) {
+            writeUid(delta.getUid(), out);
+        }
+        if (delta.getObject() != null) {
+            writeConnectorObject(delta.getObject(), out);
+        }
+    }
+
+    private static SyncDelta readSyncDelta(final Input in) {
+        byte flags = in.readByte();
+        SyncDeltaBuilder builder = new SyncDeltaBuilder();
+        builder.setDeltaType(SyncDeltaType.valueOf(in.readString()));
+        if ((flags & DELTA_TOKEN) != 0) {
+            builder.setToken((SyncToken) in.readObject());
+        }
+        if ((flags & DELTA_PREVIOUS_UID) != 0) {
+            builder.setPreviousUid(readUid(in));
+        }
+        if ((flags & DELTA_OBJECT_CLASS) != 0) {
+            builder.setObjectClass(new ObjectClass(in.readString()));
+        }
+        if ((flags & DELTA_UID) != 0) {
+            builder.setUid(readUid(in));
+        }
+        if ((flags & DELTA_OBJECT) != 0) {
+            builder.setObject(readConnectorObject(in));
+        }
+        return builder.build();
+    }
+
+    private FixedLayoutCodecs() {
+        // empty constructor for static utility class
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.identityconnectors.common.XmlUtil;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Element of a serialized object, lighter than a DOM element: the encoder
+ * builds the elements of one object before writing them, the parsers build
+ * them for one object at a time to decode it.
+ */
+final class XmlElement {
+
+    private final String name;
+
+    /**
+     * Attribute names and values, in the order they were set.
+     */
+    private List<String> attributes;
+
+    private List<XmlElement> children;
+
+    /**
+     * The unescaped text, null if none. Only elements without child
+     * elements keep their text.
+     */
+    private StringBuilder text;
+
+    XmlElement(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Copies the given DOM element.
+     */
+    static XmlElement of(Element element) {
+        XmlElement rv = new XmlElement(element.getTagName());
+        NamedNodeMap attrs = element.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr attr = (Attr) attrs.item(i);
+            rv.setAttribute(attr.getName(), attr.getValue());
+        }
+        String content = XmlUtil.getContent(element);
+        if (content != null) {
+            rv.appendText(content);
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                rv.addChild(of((Element) child));
+            }
+        }
+        return rv;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void setAttribute(String attrName, String value) {
+        if (attributes == null) {
+            attributes = new ArrayList<>(4);
+        }
+        attributes.add(attrName);
+        attributes.add(value);
+    }
+
+    /**
+     * Returns the value of the given attribute, null if not set.
+     */
+    String getAttribute(String attrName) {
+        if (attributes != null) {
+            for (int i = 0; i < attributes.size(); i += 2) {
+                if (attributes.get(i).equals(attrName)) {
+                    return attributes.get(i + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    void addChild(XmlElement child) {
+        if (children == null) {
+            children = new ArrayList<>(4);
+        }
+        children.add(child);
+        // whitespace between the child elements
+        text = null;
+    }
+
+    List<XmlElement> getChildren() {
+        return children != null ? children : List.of();
+    }
+
+    /**
+     * Returns the first child element of the given name, null if none.
+     */
+    XmlElement getChild(String childName) {
+        if (children != null) {
+            for (XmlElement child : children) {
+                if (child.name.equals(childName)) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    void appendText(CharSequence str) {
+        if (children != null) {
+            return;
+        }
+        if (text == null) {
+            text = new StringBuilder(str.length());
+        }
+        text.append(str);
+    }
+
+    void appendText(char[] ch, int start, int length) {
+        if (children != null) {
+            return;
+        }
+        if (text == null) {
+            text = new StringBuilder(length);
+        }
+        text.append(ch, start, length);
+    }
+
+    /**
+     * Returns the text of the element, null if none.
+     */
+    String getText() {
+        return text != null ? text.toString() : null;
+    }
+
+    /**
+     * Writes the element indented by the given level, in the layout of the
+     * serialized objects.
+     *
+     * @param buffer reused to escape the text and the attribute values
+     */
+    void write(Appendable out, int level, StringBuilder buffer) throws IOException {
+        indent(out, level);
+        out.append('<').append(name);
+        if (attributes != null) {
+            for (int i = 0; i < attributes.size(); i += 2) {
+                out.append(' ').append(attributes.get(i)).append("='");
+                buffer.setLength(0);
+                XmlUtil.escape(buffer, attributes.get(i + 1), XmlUtil.SINGLE_QUOTE);
+                out.append(buffer).append('\'');
+            }
+        }
+        if (children != null) {
+            out.append(">\n");
+            for (XmlElement child : children) {
+                child.write(out, level + 1, buffer);
+            }
+            indent(out, level);
+            out.append("</").append(name).append(">\n");
+        } else if (text != null && text.length() > 0) {
+            out.append('>');
+            buffer.setLength(0);
+            XmlUtil.escape(buffer, text.toString(), XmlUtil.NO_DELIM);
+            out.append(buffer);
+            out.append("</").append(name).append(">\n");
+        } else {
+            out.append("/>\n");
+        }
+    }
+
+    private static void indent(Appendable out, int level) throws IOException {
+        for (int i = 0; i < level * 2; i++) {
+            out.append(' ');
+        }
+    }
+}
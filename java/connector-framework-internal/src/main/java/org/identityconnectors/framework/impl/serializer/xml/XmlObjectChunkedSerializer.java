@@ -0,0 +1,116 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.xml;
+
+import java.io.Writer;
+import java.util.function.IntFunction;
+import org.identityconnectors.framework.common.serializer.XmlObjectSerializer;
+
+/**
+ * Writes a multi-object document per chunk of objects, so that large exports
+ * can be stored in parts and read back in parallel. Each chunk is a complete
+ * document. The writer of a chunk is closed when the next chunk starts, the
+ * last one is closed by {@link #close(boolean)} if requested.
+ *
+ * @since 1.7.0.0
+ */
+public class XmlObjectChunkedSerializer implements XmlObjectSerializer {
+
+    private final IntFunction<Writer> chunkFactory;
+
+    private final boolean includeHeader;
+
+    private final int objectsPerChunk;
+
+    private XmlObjectSerializerImpl currentChunk;
+
+    private int chunkCount;
+
+    private int objectsInChunk;
+
+    private boolean closed;
+
+    /**
+     * @param chunkFactory returns the writer of the chunk of the given
+     * index, starting at 0
+     * @param includeHeader true to include the xml header in each chunk
+     * @param objectsPerChunk the maximum number of objects of a chunk
+     */
+    public XmlObjectChunkedSerializer(
+            final IntFunction<Writer> chunkFactory, final boolean includeHeader, final int objectsPerChunk) {
+
+        if (objectsPerChunk <= 0) {
+            throw new IllegalArgumentException("objectsPerChunk must be positive");
+        }
+        this.chunkFactory = chunkFactory;
+        this.includeHeader = includeHeader;
+        this.objectsPerChunk = objectsPerChunk;
+    }
+
+    @Override
+    public void writeObject(final Object object) {
+        if (closed) {
+            throw new IllegalStateException("Attempt to writeObject after the document is already closed");
+        }
+        if (currentChunk == null || objectsInChunk == objectsPerChunk) {
+            nextChunk();
+        }
+        currentChunk.writeObject(object);
+        objectsInChunk++;
+    }
+
+    @Override
+    public void flush() {
+        if (currentChunk != null) {
+            currentChunk.flush();
+        }
+    }
+
+    @Override
+    public void close(final boolean closeStream) {
+        if (!closed) {
+            // an empty export still has its document
+            if (currentChunk == null) {
+                nextChunk();
+            }
+            closed = true;
+        }
+        currentChunk.close(closeStream);
+    }
+
+    /**
+     * Returns the number of chunks started so far.
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    private void nextChunk() {
+        if (currentChunk != null) {
+            currentChunk.close(true);
+        }
+        currentChunk = new XmlObjectSerializerImpl(chunkFactory.apply(chunkCount), includeHeader, true);
+        chunkCount++;
+        objectsInChunk = 0;
+    }
+}
@@ -27,22 +27,24 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
-import org.identityconnectors.common.XmlUtil;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.impl.serializer.ObjectDecoder;
 import org.identityconnectors.framework.impl.serializer.ObjectSerializationHandler;
 import org.identityconnectors.framework.impl.serializer.ObjectSerializerRegistry;
 import org.identityconnectors.framework.impl.serializer.ObjectTypeMapper;
-import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
 
 public class XmlObjectDecoder implements ObjectDecoder {
 
-    private final Element node;
+    private final XmlElement node;
 
     private final Class<?> expectedClass;
 
     public XmlObjectDecoder(Element node, Class<?> expectedClass) {
+        this(XmlElement.of(node), expectedClass);
+    }
+
+    XmlObjectDecoder(XmlElement node, Class<?> expectedClass) {
         this.node = node;
         this.expectedClass = expectedClass;
     }
@@ -129,42 +131,31 @@ public class XmlObjectDecoder implements ObjectDecoder {
 
     @Override
     public int getNumSubObjects() {
-        int count = 0;
-        for (Element subElement = XmlUtil.getFirstChildElement(node); subElement != null; subElement =
-                XmlUtil.getNextElement(subElement)) {
-            count++;
-        }
-        return count;
+        return node.getChildren().size();
     }
 
     @Override
     public Object readObjectContents(int index) {
-
-        Element subElement = XmlUtil.getFirstChildElement(node);
-        for (int i = 0; i < index; i++) {
-            subElement = XmlUtil.getNextElement(subElement);
-        }
-
-        if (subElement == null) {
+        if (index >= node.getChildren().size()) {
             throw new ConnectorException("Missing subelement number: " + index);
         }
 
-        return new XmlObjectDecoder(subElement, null).readObject();
+        return new XmlObjectDecoder(node.getChildren().get(index), null).readObject();
     }
 
     @Override
     public Object readObjectField(String fieldName, Class<?> expected, Object dflt) {
-        Element child = XmlUtil.findImmediateChildElement(node, fieldName);
+        XmlElement child = node.getChild(fieldName);
         if (child == null) {
             return dflt;
         }
         if (expected != null) {
             return new XmlObjectDecoder(child, expected).readObject();
         }
-        Element subElement = XmlUtil.getFirstChildElement(child);
-        if (subElement == null) {
+        if (child.getChildren().isEmpty()) {
             return dflt;
         }
+        XmlElement subElement = child.getChildren().get(0);
         // if they specify null, don't apply defaults
         return new XmlObjectDecoder(subElement, null).readObject();
     }
@@ -181,16 +172,15 @@ public class XmlObjectDecoder implements ObjectDecoder {
     }
 
     private String readStringContentsInternal() {
-        String xml = XmlUtil.getContent(node);
-        return xml;
+        return node.getText();
     }
 
     private String readStringAttributeInternal(String name, String dflt) {
-        Attr attr = node.getAttributeNode(name);
-        if (attr == null) {
+        String value = node.getAttribute(name);
+        if (value == null) {
             return dflt;
         }
-        return attr.getValue();
+        return value;
     }
 
     private boolean decodeBoolean(String v) {
@@ -244,8 +234,7 @@ public class XmlObjectDecoder implements ObjectDecoder {
             if (handler == null) {
                 if (expectedClass.isArray()) {
                     List<Object> temp = new ArrayList<>();
-                    for (Element child = XmlUtil.getFirstChildElement(node); child != null; child =
-                            XmlUtil.getNextElement(child)) {
+                    for (XmlElement child : node.getChildren()) {
                         XmlObjectDecoder sub = new XmlObjectDecoder(child, null);
                         Object obj = sub.readObject();
                         temp.add(obj);
@@ -263,17 +252,16 @@ public class XmlObjectDecoder implements ObjectDecoder {
             } else {
                 return handler.deserialize(this);
             }
-        } else if (node.getTagName().equals("null")) {
+        } else if (node.getName().equals("null")) {
             return null;
-        } else if (node.getTagName().equals("Array")) {
-            String componentType = XmlUtil.getAttribute(node, "componentType");
-            if (componentType == null) {
+        } else if (node.getName().equals("Array")) {
+            String componentType = node.getAttribute("componentType");
+            if (componentType == null || componentType.isEmpty()) {
                 componentType = "Object";
             }
             Class<?> componentClass = decodeClass(componentType);
             List<Object> temp = new ArrayList<>();
-            for (Element child = XmlUtil.getFirstChildElement(node); child != null; child =
-                    XmlUtil.getNextElement(child)) {
+            for (XmlElement child : node.getChildren()) {
                 XmlObjectDecoder sub = new XmlObjectDecoder(child, null);
                 Object obj = sub.readObject();
                 temp.add(obj);
@@ -286,7 +274,7 @@ public class XmlObjectDecoder implements ObjectDecoder {
             }
             return array;
         } else {
-            Class<?> clazz = decodeClass(node.getTagName());
+            Class<?> clazz = decodeClass(node.getName());
             ObjectSerializationHandler handler =
                     ObjectSerializerRegistry.getHandlerByObjectType(clazz);
             if (handler == null) {
@@ -23,11 +23,12 @@
  */
 package org.identityconnectors.framework.impl.serializer.xml;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Stack;
+import java.util.List;
 import org.identityconnectors.common.Assertions;
-import org.identityconnectors.common.XmlUtil;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.impl.serializer.ObjectEncoder;
 import org.identityconnectors.framework.impl.serializer.ObjectSerializationHandler;
@@ -36,30 +37,48 @@ import org.identityconnectors.framework.impl.serializer.ObjectTypeMapper;
 
 public class XmlObjectEncoder implements ObjectEncoder {
 
-    private static class OutputElement {
-
-        private final String name;
-
-        private final StringBuilder contents = new StringBuilder();
-
-        private boolean elementData = false;
-
-        public OutputElement(String name) {
-            this.name = name;
-        }
-    }
-
-    private final Stack<OutputElement> outputStack = new Stack<>();
+    private final List<XmlElement> outputStack = new ArrayList<>();
 
     private final StringBuilder rootBuilder;
 
+    /**
+     * The element of the last top-level object.
+     */
+    private XmlElement rootElement;
+
     public XmlObjectEncoder(StringBuilder builder) {
         Assertions.nullCheck(builder, "builder");
         rootBuilder = builder;
     }
 
+    /**
+     * Creates an encoder that keeps the elements of each object, see
+     * {@link #encodeObject(Object)}.
+     */
+    XmlObjectEncoder() {
+        rootBuilder = null;
+    }
+
     public String writeObject(Object o) {
-        return writeObjectInternal(o, false);
+        String typeName = writeObjectInternal(o, false);
+        try {
+            rootElement.write(rootBuilder, 0, new StringBuilder());
+        } catch (IOException e) {
+            // not thrown by a StringBuilder
+            throw ConnectorException.wrap(e);
+        }
+        rootElement = null;
+        return typeName;
+    }
+
+    /**
+     * Encodes the object into elements, rather than text.
+     */
+    XmlElement encodeObject(Object o) {
+        writeObjectInternal(o, false);
+        XmlElement rv = rootElement;
+        rootElement = null;
+        return rv;
     }
 
     @Override
@@ -270,76 +289,31 @@ public class XmlObjectEncoder implements ObjectEncoder {
     // xml encoding
     //
     // ///////////////////////////////////////////////////////////////
-    private OutputElement getCurrentElement() {
-        if (outputStack.isEmpty()) {
-            return null;
-        } else {
-            return outputStack.peek();
-        }
-    }
-
-    private StringBuilder getCurrentBuilder() {
-        if (outputStack.isEmpty()) {
-            return rootBuilder;
-        } else {
-            return getCurrentElement().contents;
-        }
+    private XmlElement getCurrentElement() {
+        return outputStack.get(outputStack.size() - 1);
     }
 
-    private StringBuilder getPreviousBuilder() {
+    private void beginElement(String name) {
+        XmlElement element = new XmlElement(name);
         if (outputStack.isEmpty()) {
-            return null;
-        } else if (outputStack.size() == 1) {
-            return rootBuilder;
+            rootElement = element;
         } else {
-            return outputStack.get(outputStack.size() - 2).contents;
-        }
-    }
-
-    private void beginElement(String name) {
-        indent(getCurrentBuilder(), outputStack.size());
-        OutputElement current = getCurrentElement();
-        if (current != null) {
-            current.elementData = true;
+            getCurrentElement().addChild(element);
         }
-        getCurrentBuilder().append('<').append(name);
-        outputStack.push(new OutputElement(name));
+        outputStack.add(element);
     }
 
     private void endElement() {
-        OutputElement endedElement = outputStack.pop();
-        String contents = endedElement.contents.toString();
-        StringBuilder currentBuilder = getCurrentBuilder();
-        if (contents.length() == 0) {
-            currentBuilder.append("/>\n"); // empty element
-        } else {
-            currentBuilder.append(">");
-            if (endedElement.elementData) {
-                currentBuilder.append("\n");
-            }
-            getCurrentBuilder().append(contents);
-            if (endedElement.elementData) {
-                indent(currentBuilder, outputStack.size());
-            }
-            currentBuilder.append("</").append(endedElement.name).append(">\n");
-        }
+        outputStack.remove(outputStack.size() - 1);
     }
 
     private void writeAttributeInternal(String fieldName, String str) {
-        StringBuilder previousBuilder = getPreviousBuilder();
-        previousBuilder.append(" ").append(fieldName).append("='");
-        XmlUtil.escape(previousBuilder, str, XmlUtil.SINGLE_QUOTE);
-        previousBuilder.append("'");
+        getCurrentElement().setAttribute(fieldName, str);
     }
 
     private void writeStringContentsInternal(String str) {
-        StringBuilder builder = getCurrentBuilder();
-        XmlUtil.escape(builder, str, XmlUtil.NO_DELIM);
-    }
-
-    private void indent(StringBuilder builder, int level) {
-        for (int i = 0; i < level * 2; i++) {
-            builder.append(" ");
+        if (str != null) {
+            getCurrentElement().appendText(str);
         }
     }
 }
@@ -25,17 +25,14 @@ package org.identityconnectors.framework.impl.serializer.xml;
 
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.Optional;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import org.identityconnectors.common.StringUtil;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.serializer.XmlObjectResultsHandler;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -45,8 +42,6 @@ public class XmlObjectParser {
 
     private static final SAXParserFactory SAX_PARSER_FACTORY;
 
-    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
-
     static {
         try {
             SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
@@ -71,15 +66,10 @@ public class XmlObjectParser {
     private static class MySAXHandler extends DefaultHandler {
 
         /**
-         * The document for the current top-level element. with each top-level
-         * element, we discard the previous to avoid accumulating memory
-         */
-        private Document currentTopLevelElementDocument;
-
-        /**
-         * Stack of elements we are creating.
+         * Stack of elements we are creating. with each top-level element, we
+         * discard the previous to avoid accumulating memory
          */
-        private final Stack<Element> elementStack = new Stack<>();
+        private final List<XmlElement> elementStack = new ArrayList<>();
 
         /**
          * Do we want to validate.
@@ -101,23 +91,24 @@ public class XmlObjectParser {
             this.validate = validate;
         }
 
-        private Optional<Element> currentElement() {
-            return Optional.ofNullable(elementStack.isEmpty() ? null : elementStack.peek());
+        private XmlElement currentElement() {
+            return elementStack.isEmpty() ? null : elementStack.get(elementStack.size() - 1);
         }
 
         @Override
         public void characters(final char[] ch, final int start, final int length) {
-            currentElement().ifPresent(e -> e.appendChild(
-                    currentTopLevelElementDocument.createTextNode(new String(ch, start, length))));
+            XmlElement element = currentElement();
+            if (element != null) {
+                element.appendText(ch, start, length);
+            }
         }
 
         @Override
         public void endElement(final String namespaceURI, final String localName, final String qName) {
             // we don't push the top-level MULTI_OBJECT_ELEMENT on the stack
             if (!elementStack.isEmpty()) {
-                Element element = elementStack.pop();
+                XmlElement element = elementStack.remove(elementStack.size() - 1);
                 if (elementStack.isEmpty()) {
-                    currentTopLevelElementDocument = null;
                     if (_stillHandling) {
                         XmlObjectDecoder decoder = new XmlObjectDecoder(element, null);
                         Object object = decoder.readObject();
@@ -129,8 +120,7 @@ public class XmlObjectParser {
 
         @Override
         public void ignorableWhitespace(final char[] ch, final int start, final int length) {
-            currentElement().ifPresent(e -> e.appendChild(
-                    currentTopLevelElementDocument.createTextNode(new String(ch, start, length))));
+            characters(ch, start, length);
         }
 
         @Override
@@ -139,24 +129,18 @@ public class XmlObjectParser {
 
             String name = StringUtil.isBlank(localName) ? qName : localName;
 
-            Element element = null;
+            XmlElement element = null;
             if (elementStack.isEmpty()) {
                 if (!XmlObjectSerializerImpl.MULTI_OBJECT_ELEMENT.equals(name)) {
-                    try {
-                        currentTopLevelElementDocument = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder().newDocument();
-                    } catch (Exception e) {
-                        throw ConnectorException.wrap(e);
-                    }
-                    element = currentTopLevelElementDocument.createElement(name);
+                    element = new XmlElement(name);
                 }
             } else {
-                element = currentElement().
-                        map(e -> (Element) e.appendChild(currentTopLevelElementDocument.createElement(name))).
-                        orElse(null);
+                element = new XmlElement(name);
+                currentElement().addChild(element);
             }
 
             if (element != null) {
-                elementStack.push(element);
+                elementStack.add(element);
                 for (int i = 0; i < atts.getLength(); i++) {
                     element.setAttribute(atts.getLocalName(i), atts.getValue(i));
                 }
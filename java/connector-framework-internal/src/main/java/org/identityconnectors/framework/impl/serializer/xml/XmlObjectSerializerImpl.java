@@ -43,6 +43,11 @@ public class XmlObjectSerializerImpl implements XmlObjectSerializer {
 
     private boolean documentEnded;
 
+    /**
+     * Reused to escape the text and the attribute values.
+     */
+    private final StringBuilder buffer = new StringBuilder();
+
     public XmlObjectSerializerImpl(final Writer output, final boolean includeHeader, final boolean multiObject) {
         this.output = output;
         this.includeHeader = includeHeader;
@@ -55,17 +60,20 @@ public class XmlObjectSerializerImpl implements XmlObjectSerializer {
             throw new IllegalStateException("Attempt to writeObject after the document is already closed");
         }
 
-        StringBuilder buf = new StringBuilder();
-        XmlObjectEncoder encoder = new XmlObjectEncoder(buf);
-        String elementName = encoder.writeObject(object);
+        // the elements of the object are written straight to the output
+        XmlElement element = new XmlObjectEncoder().encodeObject(object);
         if (!firstObjectWritten) {
-            startDocument(elementName);
+            startDocument(element.getName());
         } else {
             if (!multiObject) {
                 throw new IllegalStateException("Attempt to write multiple objects on a single-object document");
             }
         }
-        write(buf.toString());
+        try {
+            element.write(output, 0, buffer);
+        } catch (Exception e) {
+            throw ConnectorException.wrap(e);
+        }
         firstObjectWritten = true;
     }
 
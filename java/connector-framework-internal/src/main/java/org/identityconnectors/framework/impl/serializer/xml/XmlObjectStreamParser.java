@@ -0,0 +1,176 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.serializer.XmlObjectResultsHandler;
+import org.xml.sax.InputSource;
+
+/**
+ * Parses serialized objects with a StAX reader, keeping the elements of one
+ * object at a time, and stops reading as soon as the handler returns false.
+ * StAX readers do not validate, so validating parses are left to the
+ * {@link XmlObjectParser}.
+ *
+ * @since 1.7.0.0
+ */
+public class XmlObjectStreamParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        } catch (Exception e) {
+            throw ConnectorException.wrap(e);
+        }
+    }
+
+    public static void parse(
+            final InputSource inputSource, final XmlObjectResultsHandler handler, final boolean validate) {
+
+        if (validate) {
+            XmlObjectParser.parse(inputSource, handler, true);
+            return;
+        }
+        try {
+            XMLStreamReader reader = createReader(inputSource);
+            try {
+                parse(reader, handler);
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            throw ConnectorException.wrap(e);
+        }
+    }
+
+    /**
+     * Parses the documents of a chunked export in parallel on the given
+     * executor. The handler gets the objects of each chunk in order, but
+     * those of different chunks interleaved; it is not called concurrently.
+     * Once it returns false, or a chunk fails, the other chunks stop too.
+     */
+    public static void parse(final List<InputSource> chunks, final XmlObjectResultsHandler handler,
+            final boolean validate, final Executor executor) {
+
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final XmlObjectResultsHandler shared = object -> {
+            synchronized (stopped) {
+                if (stopped.get()) {
+                    return false;
+                }
+                if (!handler.handle(object)) {
+                    stopped.set(true);
+                    return false;
+                }
+                return true;
+            }
+        };
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+        for (InputSource chunk : chunks) {
+            futures.add(CompletableFuture.runAsync(() -> parse(chunk, shared, validate), executor).
+                    whenComplete((result, error) -> {
+                        if (error != null) {
+                            stopped.set(true);
+                        }
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw ConnectorException.wrap(e.getCause());
+        }
+    }
+
+    private static XMLStreamReader createReader(final InputSource inputSource) throws XMLStreamException {
+        if (inputSource.getCharacterStream() != null) {
+            return XML_INPUT_FACTORY.createXMLStreamReader(inputSource.getCharacterStream());
+        } else if (inputSource.getByteStream() != null) {
+            return inputSource.getEncoding() != null
+                    ? XML_INPUT_FACTORY.createXMLStreamReader(inputSource.getByteStream(), inputSource.getEncoding())
+                    : XML_INPUT_FACTORY.createXMLStreamReader(inputSource.getByteStream());
+        } else {
+            return XML_INPUT_FACTORY.createXMLStreamReader(new StreamSource(inputSource.getSystemId()));
+        }
+    }
+
+    private static void parse(final XMLStreamReader reader, final XmlObjectResultsHandler handler)
+            throws XMLStreamException {
+
+        // the elements of the current top-level object
+        List<XmlElement> elementStack = new ArrayList<>();
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String name = reader.getLocalName();
+                    // we don't push the top-level MULTI_OBJECT_ELEMENT on the stack
+                    if (elementStack.isEmpty() && XmlObjectSerializerImpl.MULTI_OBJECT_ELEMENT.equals(name)) {
+                        break;
+                    }
+                    XmlElement element = new XmlElement(name);
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+                    if (!elementStack.isEmpty()) {
+                        elementStack.get(elementStack.size() - 1).addChild(element);
+                    }
+                    elementStack.add(element);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!elementStack.isEmpty()) {
+                        elementStack.get(elementStack.size() - 1).appendText(
+                                reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (!elementStack.isEmpty()) {
+                        XmlElement ended = elementStack.remove(elementStack.size() - 1);
+                        if (elementStack.isEmpty()
+                                && !handler.handle(new XmlObjectDecoder(ended, null).readObject())) {
+                            return;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
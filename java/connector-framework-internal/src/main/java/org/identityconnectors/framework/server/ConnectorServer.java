@@ -76,6 +76,39 @@ public abstract class ConnectorServer {
      */
     private boolean useSSL = false;
 
+    /**
+     * Run each connection on its own virtual thread rather than on the
+     * bounded worker pool.
+     */
+    private boolean useVirtualThreads = false;
+
+    /**
+     * Compress connections when clients ask for it
+     */
+    private boolean useCompression = true;
+
+    /**
+     * The maximum number of operations running concurrently on a connector,
+     * 0 for no limit
+     */
+    private int maxOperationsPerConnector = 0;
+
+    /**
+     * The maximum number of operations waiting for a running one to complete
+     */
+    private int maxQueuedOperationsPerConnector = 10;
+
+    /**
+     * How long, in milliseconds, a queued operation waits before it is
+     * rejected
+     */
+    private long operationQueueTimeout = 30000;
+
+    /**
+     * Apply the operation limits to each facade instead of each connector
+     */
+    private boolean limitOperationsPerFacade = false;
+
     /**
      * The bundle URLs for connectors to be hosted in this server.
      */
@@ -233,6 +266,168 @@ public abstract class ConnectorServer {
         useSSL = ssl;
     }
 
+    /**
+     * Returns true if connections are served by virtual threads.
+     *
+     * @return true if connections are served by virtual threads.
+     * @since 1.7.0.0
+     */
+    public boolean getUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Sets whether each connection should be served by its own virtual
+     * thread. Idle connections then only cost a parked virtual thread, so
+     * the number of open connections is not limited by the max worker
+     * threads and accepted sockets are never queued waiting for a free
+     * worker. The min and max worker settings are ignored in this mode.
+     *
+     * @param virtualThreads
+     *            true if connections are to be served by virtual threads.
+     * @since 1.7.0.0
+     */
+    public void setUseVirtualThreads(final boolean virtualThreads) {
+        assertNotStarted();
+        useVirtualThreads = virtualThreads;
+    }
+
+    /**
+     * Returns true if connections are compressed when clients ask for it.
+     *
+     * @return true if compression is offered to clients.
+     * @since 1.7.0.0
+     */
+    public boolean getUseCompression() {
+        return useCompression;
+    }
+
+    /**
+     * Sets whether connections are compressed when clients ask for it.
+     * Compression trades server CPU for bandwidth; it is on by default since
+     * it is only used by clients configured for it.
+     *
+     * @param compression
+     *            true if compression is offered to clients.
+     * @since 1.7.0.0
+     */
+    public void setUseCompression(final boolean compression) {
+        assertNotStarted();
+        useCompression = compression;
+    }
+
+    /**
+     * Returns the maximum number of operations running concurrently on a
+     * connector.
+     *
+     * @return the maximum number of concurrent operations, 0 if unlimited.
+     * @since 1.7.0.0
+     */
+    public int getMaxOperationsPerConnector() {
+        return maxOperationsPerConnector;
+    }
+
+    /**
+     * Sets the maximum number of operations running concurrently on a
+     * connector, so that a slow target system cannot take all the workers of
+     * the server. Operations over the limit are deferred in a bounded queue,
+     * without holding a worker while they wait, and rejected with a
+     * {@link org.identityconnectors.framework.common.exceptions.RetryableException}
+     * when the queue is full or they waited too long. The operations of
+     * connections that are neither multiplexed nor cancellable, such as those
+     * of older clients, are rejected right away instead.
+     *
+     * @param max
+     *            the maximum number of concurrent operations, 0 if unlimited.
+     * @since 1.7.0.0
+     */
+    public void setMaxOperationsPerConnector(final int max) {
+        assertNotStarted();
+        if (max < 0) {
+            throw new IllegalArgumentException("The maximum number of operations must not be negative");
+        }
+        maxOperationsPerConnector = max;
+    }
+
+    /**
+     * Returns the maximum number of operations waiting for a running operation
+     * of the same connector to complete.
+     *
+     * @return the size of the wait queue of each connector.
+     * @since 1.7.0.0
+     */
+    public int getMaxQueuedOperationsPerConnector() {
+        return maxQueuedOperationsPerConnector;
+    }
+
+    /**
+     * Sets the maximum number of operations waiting for a running operation
+     * of the same connector to complete. Ignored unless
+     * {@link #setMaxOperationsPerConnector(int)} is set; the operations of
+     * connections that are neither multiplexed nor cancellable never wait.
+     *
+     * @param max
+     *            the size of the wait queue of each connector, 0 to reject
+     *            operations over the limit right away.
+     * @since 1.7.0.0
+     */
+    public void setMaxQueuedOperationsPerConnector(final int max) {
+        assertNotStarted();
+        if (max < 0) {
+            throw new IllegalArgumentException("The wait queue size must not be negative");
+        }
+        maxQueuedOperationsPerConnector = max;
+    }
+
+    /**
+     * Returns how long a queued operation waits before it is rejected.
+     *
+     * @return the timeout in milliseconds.
+     * @since 1.7.0.0
+     */
+    public long getOperationQueueTimeout() {
+        return operationQueueTimeout;
+    }
+
+    /**
+     * Sets how long a queued operation waits before it is rejected.
+     *
+     * @param timeout
+     *            the timeout in milliseconds.
+     * @since 1.7.0.0
+     */
+    public void setOperationQueueTimeout(final long timeout) {
+        assertNotStarted();
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The queue timeout must not be negative");
+        }
+        operationQueueTimeout = timeout;
+    }
+
+    /**
+     * Returns true if the operation limits apply to each connector facade
+     * rather than to each connector.
+     *
+     * @return true if the operations are limited per facade.
+     * @since 1.7.0.0
+     */
+    public boolean getLimitOperationsPerFacade() {
+        return limitOperationsPerFacade;
+    }
+
+    /**
+     * Sets whether the operation limits apply to each connector facade, that
+     * is each configuration of a connector, rather than to each connector.
+     *
+     * @param perFacade
+     *            true if the operations are limited per facade.
+     * @since 1.7.0.0
+     */
+    public void setLimitOperationsPerFacade(final boolean perFacade) {
+        assertNotStarted();
+        limitOperationsPerFacade = perFacade;
+    }
+
     /**
      * Returns the base-64 encoded SHA1 hash of the key.
      *
@@ -327,6 +522,20 @@ public abstract class ConnectorServer {
      */
     abstract public Long getStartTime();
 
+    /**
+     * Returns the state of the operation limits of each connector, or of each
+     * facade if the limits apply per facade, which operations were invoked on
+     * recently. The default implementation returns an empty list.
+     *
+     * @return the admission statistics, empty if the server is not started or
+     *         the operations are not limited.
+     * @see #setMaxOperationsPerConnector(int)
+     * @since 1.7.0.0
+     */
+    public List<OperationAdmissionStatistics> getAdmissionStatistics() {
+        return List.of();
+    }
+
     /**
      * Starts the server. All server settings must be configured prior to
      * calling. The following methods are required to be called:
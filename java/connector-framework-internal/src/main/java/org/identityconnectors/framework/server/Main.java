@@ -51,6 +51,18 @@ public final class Main {
 
     private static final String PROP_SSL = "connectorserver.usessl";
 
+    private static final String PROP_VIRTUAL_THREADS = "connectorserver.useVirtualThreads";
+
+    private static final String PROP_COMPRESSION = "connectorserver.useCompression";
+
+    private static final String PROP_MAX_OPERATIONS = "connectorserver.maxOperationsPerConnector";
+
+    private static final String PROP_MAX_QUEUED_OPERATIONS = "connectorserver.maxQueuedOperationsPerConnector";
+
+    private static final String PROP_OPERATION_QUEUE_TIMEOUT = "connectorserver.operationQueueTimeout";
+
+    private static final String PROP_LIMIT_PER_FACADE = "connectorserver.limitOperationsPerFacade";
+
     private static final String PROP_IFADDRESS = "connectorserver.ifaddress";
 
     private static final String PROP_KEY = "connectorserver.key";
@@ -133,6 +145,12 @@ public final class Main {
         String bundleDirStr = properties.getProperty(PROP_BUNDLE_DIR);
         String libDirStr = properties.getProperty(PROP_LIB_DIR);
         String useSSLStr = properties.getProperty(PROP_SSL);
+        String useVirtualThreadsStr = properties.getProperty(PROP_VIRTUAL_THREADS);
+        String useCompressionStr = properties.getProperty(PROP_COMPRESSION);
+        String maxOperationsStr = properties.getProperty(PROP_MAX_OPERATIONS);
+        String maxQueuedOperationsStr = properties.getProperty(PROP_MAX_QUEUED_OPERATIONS);
+        String operationQueueTimeoutStr = properties.getProperty(PROP_OPERATION_QUEUE_TIMEOUT);
+        String limitPerFacadeStr = properties.getProperty(PROP_LIMIT_PER_FACADE);
         String ifAddress = properties.getProperty(PROP_IFADDRESS);
         String keyHash = properties.getProperty(PROP_KEY);
         String loggerClass = properties.getProperty(PROP_LOGGER_CLASS);
@@ -180,6 +198,24 @@ public final class Main {
             boolean useSSL = Boolean.parseBoolean(useSSLStr);
             connectorServer.setUseSSL(useSSL);
         }
+        if (useVirtualThreadsStr != null) {
+            connectorServer.setUseVirtualThreads(Boolean.parseBoolean(useVirtualThreadsStr));
+        }
+        if (useCompressionStr != null) {
+            connectorServer.setUseCompression(Boolean.parseBoolean(useCompressionStr));
+        }
+        if (maxOperationsStr != null) {
+            connectorServer.setMaxOperationsPerConnector(Integer.parseInt(maxOperationsStr));
+        }
+        if (maxQueuedOperationsStr != null) {
+            connectorServer.setMaxQueuedOperationsPerConnector(Integer.parseInt(maxQueuedOperationsStr));
+        }
+        if (operationQueueTimeoutStr != null) {
+            connectorServer.setOperationQueueTimeout(Long.parseLong(operationQueueTimeoutStr));
+        }
+        if (limitPerFacadeStr != null) {
+            connectorServer.setLimitOperationsPerFacade(Boolean.parseBoolean(limitPerFacadeStr));
+        }
         if (ifAddress != null) {
             connectorServer.setIfAddress(InetAddress.getByName(ifAddress));
         }
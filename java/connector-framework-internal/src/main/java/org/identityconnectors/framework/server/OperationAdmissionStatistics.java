@@ -0,0 +1,112 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server;
+
+import org.identityconnectors.framework.api.ConnectorKey;
+
+/**
+ * A snapshot of the admission control state of the operations of one
+ * connector, or of one connector facade when the limits are applied per
+ * facade.
+ *
+ * @see ConnectorServer#getAdmissionStatistics()
+ * @since 1.7.0.0
+ */
+public final class OperationAdmissionStatistics {
+
+    private final ConnectorKey connectorKey;
+
+    private final String connectorFacadeDigest;
+
+    private final int activeOperations;
+
+    private final int queuedOperations;
+
+    private final long admittedOperations;
+
+    private final long rejectedOperations;
+
+    public OperationAdmissionStatistics(final ConnectorKey connectorKey,
+            final String connectorFacadeDigest, final int activeOperations,
+            final int queuedOperations, final long admittedOperations,
+            final long rejectedOperations) {
+        this.connectorKey = connectorKey;
+        this.connectorFacadeDigest = connectorFacadeDigest;
+        this.activeOperations = activeOperations;
+        this.queuedOperations = queuedOperations;
+        this.admittedOperations = admittedOperations;
+        this.rejectedOperations = rejectedOperations;
+    }
+
+    /**
+     * Returns the key of the connector the operations are invoked on.
+     */
+    public ConnectorKey getConnectorKey() {
+        return connectorKey;
+    }
+
+    /**
+     * Returns the digest of the key of the facade the operations are invoked
+     * on, null if the limits apply to all the facades of the connector.
+     */
+    public String getConnectorFacadeDigest() {
+        return connectorFacadeDigest;
+    }
+
+    /**
+     * Returns the number of operations currently running.
+     */
+    public int getActiveOperations() {
+        return activeOperations;
+    }
+
+    /**
+     * Returns the number of operations waiting for a running one to complete.
+     */
+    public int getQueuedOperations() {
+        return queuedOperations;
+    }
+
+    /**
+     * Returns the number of operations admitted since the server started.
+     */
+    public long getAdmittedOperations() {
+        return admittedOperations;
+    }
+
+    /**
+     * Returns the number of operations rejected since the server started,
+     * either because the wait queue was full or because they waited too long.
+     */
+    public long getRejectedOperations() {
+        return rejectedOperations;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationAdmissionStatistics [connectorKey=" + connectorKey
+                + (connectorFacadeDigest != null ? ", connectorFacadeDigest=" + connectorFacadeDigest : "")
+                + ", active=" + activeOperations + ", queued=" + queuedOperations
+                + ", admitted=" + admittedOperations + ", rejected=" + rejectedOperations + "]";
+    }
+}
@@ -25,8 +25,11 @@ package org.identityconnectors.framework.server.impl;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -60,6 +63,34 @@ class ConnectionListener extends CCLWatchThread {
      */
     private final ExecutorService threadPool;
 
+    /**
+     * Runs the operations of multiplexed and cancellable connections; their
+     * connection threads only read requests. Operations wait in the queue
+     * when all workers are busy, as many as there are workers, and are
+     * rejected past it.
+     */
+    private final ExecutorService operationPool;
+
+    /**
+     * Processors of the currently open connections
+     */
+    private final Set<ConnectionProcessor> processors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Limits the operations running on each connector
+     */
+    private final OperationAdmissionControl admissionControl;
+
+    /**
+     * The connector keys and infos sent in hello responses
+     */
+    private final ConnectorInfoCache connectorInfoCache;
+
+    /**
+     * The connector facade keys received by their digest
+     */
+    private final ConnectorFacadeKeyRegistry facadeKeyRegistry;
+
     /**
      * Set to indicated we need to start shutting down
      */
@@ -75,14 +106,31 @@ class ConnectionListener extends CCLWatchThread {
         super("ConnectionListener");
         connectorServer = server;
         this.socket = socket;
-        // idle time timeout
-        threadPool =
-                new ThreadPoolExecutor(server.getMinWorkers(), server.getMaxWorkers(), 30,
-                        TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(INTERNAL_QUEUE_SIZE,
-                        true), // fair
-                        new CCLWatchThreadFactory());
-        LOG.ok("Initialized instance of Connection listener with min amount of worker threads: {0} ,and " +
-                "max worker threads: {1}", server.getMinWorkers(), server.getMaxWorkers());
+        admissionControl = new OperationAdmissionControl(server);
+        connectorInfoCache = ConnectorInfoCache.of(server);
+        facadeKeyRegistry = ConnectorFacadeKeyRegistry.of(server);
+        if (server.getUseVirtualThreads()) {
+            // virtual threads inherit the context class loader of this thread
+            threadPool = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("ConnectionProcessor-", 0).factory());
+            operationPool = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("ConnectionOperation-", 0).factory());
+            LOG.ok("Initialized instance of Connection listener with virtual worker threads");
+        } else {
+            // idle time timeout
+            threadPool =
+                    new ThreadPoolExecutor(server.getMinWorkers(), server.getMaxWorkers(), 30,
+                            TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(INTERNAL_QUEUE_SIZE,
+                            true), // fair
+                            new CCLWatchThreadFactory());
+            ThreadPoolExecutor operations = new ThreadPoolExecutor(server.getMaxWorkers(),
+                    server.getMaxWorkers(), 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(server.getMaxWorkers()), new CCLWatchThreadFactory());
+            operations.allowCoreThreadTimeOut(true);
+            operationPool = operations;
+            LOG.ok("Initialized instance of Connection listener with min amount of worker threads: {0} ,and " +
+                    "max worker threads: {1}", server.getMinWorkers(), server.getMaxWorkers());
+        }
     }
 
     @Override
@@ -91,7 +139,16 @@ class ConnectionListener extends CCLWatchThread {
             try {
                 Socket connection = socket.accept();
                 ConnectionProcessor processor =
-                        new ConnectionProcessor(connectorServer, connection);
+                        new ConnectionProcessor(connectorServer, connection, operationPool,
+                                admissionControl, connectorInfoCache, facadeKeyRegistry);
+                processors.add(processor);
+                Runnable task = () -> {
+                    try {
+                        processor.run();
+                    } finally {
+                        processors.remove(processor);
+                    }
+                };
                 // this really sucks - ideally, execute would block
                 // if the queue is full. now we have to do a busy wait
                 // the effect is that eventually our socket's accept
@@ -99,7 +156,7 @@ class ConnectionListener extends CCLWatchThread {
                 // at the connection (which is what we want)
                 while (true) {
                     try {
-                        threadPool.execute(processor);
+                        threadPool.execute(task);
                         break;
                     } catch (RejectedExecutionException e) {
                         LOG.warn(e, "Execution exception occurred during Connector Server connection runtime: {0}", e.getLocalizedMessage());
@@ -131,6 +188,10 @@ class ConnectionListener extends CCLWatchThread {
         }
     }
 
+    OperationAdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
     private synchronized void markStopped() {
         stopped = true;
     }
@@ -155,10 +216,13 @@ class ConnectionListener extends CCLWatchThread {
                 // wait for the main listener thread to die so we don't
                 // get any new requests
                 join();
+                // close connections kept open by clients between requests
+                processors.forEach(ConnectionProcessor::shutdown);
                 // wait for all in-progress requests to finish
 
                 LOG.info("Shutting down Connector Server connection thread pool.");
                 threadPool.shutdown();
+                operationPool.shutdown();
 
                 LOG.info("Connector Server connection shutdown complete");
             } catch (Exception e) {
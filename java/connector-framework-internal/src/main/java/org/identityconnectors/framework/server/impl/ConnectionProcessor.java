@@ -30,11 +30,22 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 import org.identityconnectors.common.l10n.CurrentLocale;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.common.security.GuardedString;
@@ -47,11 +58,13 @@ import org.identityconnectors.framework.api.ConnectorKey;
 import org.identityconnectors.framework.api.operations.APIOperation;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.exceptions.InvalidCredentialException;
+import org.identityconnectors.framework.common.exceptions.RetryableException;
 import org.identityconnectors.framework.common.serializer.SerializerUtil;
+import org.identityconnectors.framework.common.serializer.WireCodec;
 import org.identityconnectors.framework.impl.api.ConnectorInfoManagerFactoryImpl;
 import org.identityconnectors.framework.impl.api.ObjectStreamHandler;
 import org.identityconnectors.framework.impl.api.StreamHandlerUtil;
-import org.identityconnectors.framework.impl.api.local.LocalConnectorInfoImpl;
+import org.identityconnectors.framework.impl.api.remote.MessageChannel;
 import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoImpl;
 import org.identityconnectors.framework.impl.api.remote.RemoteFrameworkConnection;
 import org.identityconnectors.framework.impl.api.remote.messages.EchoMessage;
@@ -59,35 +72,65 @@ import org.identityconnectors.framework.impl.api.remote.messages.ErrorResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloRequest;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestCancel;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestMoreData;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestStopData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponseEnd;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponsePart;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponsePause;
+import org.identityconnectors.framework.impl.api.remote.messages.StreamMessage;
 import org.identityconnectors.framework.server.ConnectorServer;
 
 public class ConnectionProcessor implements Runnable {
 
     private static final Log LOG = Log.getLog(ConnectionListener.class);
 
+    /**
+     * Streams the results of an operation to the client.
+     * <p>
+     * Clients that do not send credits get a pause every
+     * {@link #PAUSE_INTERVAL} results, and the results stop until the client
+     * answers. Otherwise the client grants credits ahead: when half of the
+     * last grant is left, a pause tells the client how many credits remain,
+     * and the results keep flowing while the client answers with more. Only
+     * when the credits run out does the handler wait, after sending a pause
+     * without credits so the client knows it did not keep up.
+     */
     private static class RemoteResultsHandler implements ObjectStreamHandler {
         private static final int PAUSE_INTERVAL = 200;
 
-        private final RemoteFrameworkConnection connection;
+        private final MessageChannel channel;
+        private final boolean creditBased;
         private long count = 0;
+        private long credits;
+        private int lastGrant;
 
-        public RemoteResultsHandler(RemoteFrameworkConnection conn) {
-            connection = conn;
+        /**
+         * Pauses sent without waiting for the answer.
+         */
+        private int unanswered = 0;
+
+        private boolean stopped = false;
+
+        public RemoteResultsHandler(MessageChannel channel, int credits) {
+            this.channel = channel;
+            this.creditBased = credits > 0;
+            this.credits = credits;
+            this.lastGrant = credits;
         }
 
         @Override
         public boolean handle(Object obj) {
             try {
-                OperationResponsePart part = new OperationResponsePart(null, obj);
-                connection.writeObject(part);
+                OperationResponsePart part = new OperationResponsePart(channel.getStreamId(), null, obj);
+                channel.writeObjects(part);
                 count++;
-                if (count % PAUSE_INTERVAL == 0) {
-                    connection.writeObject(new OperationResponsePause());
-                    Object message = connection.readObject();
+                if (creditBased) {
+                    return consumeCredit();
+                } else if (count % PAUSE_INTERVAL == 0) {
+                    channel.writeObjects(new OperationResponsePause(channel.getStreamId()));
+                    channel.flush();
+                    Object message = channel.readObject();
                     return message instanceof OperationRequestMoreData;
                 } else {
                     return true;
@@ -101,21 +144,307 @@ public class ConnectionProcessor implements Runnable {
             }
         }
 
+        private boolean consumeCredit() {
+            credits--;
+            // answers to the pauses, or a cancel which may come at any time
+            while (!stopped && channel.hasPendingInput()) {
+                readAnswer();
+            }
+            if (!stopped && credits <= 0) {
+                channel.writeObjects(new OperationResponsePause(channel.getStreamId(), 0));
+                unanswered++;
+                channel.flush();
+                while (!stopped && credits <= 0) {
+                    readAnswer();
+                }
+            } else if (!stopped && unanswered == 0 && credits <= lastGrant / 2) {
+                channel.writeObjects(new OperationResponsePause(channel.getStreamId(), (int) credits));
+                unanswered++;
+                channel.flush();
+            }
+            return !stopped;
+        }
+
+        private void readAnswer() {
+            Object message = channel.readObject();
+            if (message instanceof OperationRequestCancel) {
+                // not an answer, the client still answers all the pauses
+                stopped = true;
+                return;
+            }
+            unanswered--;
+            if (message instanceof OperationRequestMoreData) {
+                lastGrant = Math.max(((OperationRequestMoreData) message).getCredits(), 1);
+                credits += lastGrant;
+            } else {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Reads the answers to the pauses still unanswered. The client answers
+         * every pause it receives, and on a whole connection these answers
+         * must not be taken for the next request. A multiplexed connection
+         * drops them once the stream is closed.
+         */
+        public void awaitAnswers() {
+            if (channel.getStreamId() != 0) {
+                return;
+            }
+            try {
+                while (unanswered > 0) {
+                    readAnswer();
+                }
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw new BrokenConnectionException((IOException) e.getCause());
+                } else {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * One operation of a multiplexed connection. The thread reading the
+     * connection queues here the messages the client sends for it.
+     */
+    private class MultiplexedStream implements MessageChannel {
+
+        private final long streamId;
+
+        private final BlockingQueue<Object> requests = new LinkedBlockingQueue<>();
+
+        /**
+         * Guards the worker and the writes. Not a monitor, which would pin the
+         * carrier of a virtual thread blocked on the socket.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * The thread running the operation, null if it is not running.
+         */
+        private Thread worker;
+
+        private boolean cancelled = false;
+
+        public MultiplexedStream(long streamId) {
+            this.streamId = streamId;
+        }
+
+        /**
+         * Attaches the operation to the current thread.
+         *
+         * @return false if the operation was cancelled before it started
+         */
+        boolean start() {
+            lock.lock();
+            try {
+                if (cancelled) {
+                    return false;
+                }
+                worker = Thread.currentThread();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Detaches the operation from the current thread, clearing the
+         * interrupt status it may have left so the thread can be reused.
+         */
+        void finish() {
+            lock.lock();
+            try {
+                worker = null;
+                Thread.interrupted();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops the operation: the results handler stops at the next result,
+         * and the thread running the operation is interrupted to abort any
+         * blocking call to the connector.
+         */
+        void cancel(OperationRequestCancel message) {
+            lock.lock();
+            try {
+                cancelled = true;
+                if (worker != null) {
+                    worker.interrupt();
+                }
+            } finally {
+                lock.unlock();
+            }
+            requests.add(message);
+        }
+
+        @Override
+        public long getStreamId() {
+            return streamId;
+        }
+
+        /**
+         * Writes under the lock of {@link #cancel}, without the interrupt
+         * status: interrupting a virtual thread blocked on the socket would
+         * close the connection shared by all the operations.
+         */
+        @Override
+        public void writeObjects(Object... objects) {
+            lock.lock();
+            boolean interrupted = Thread.interrupted();
+            try {
+                connection.writeObjects(objects);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void flush() {
+            lock.lock();
+            boolean interrupted = Thread.interrupted();
+            try {
+                connection.flush();
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Reads without the interrupt status as well, so that a cancelled
+         * operation still reads the answers to its pauses; the cancel queues
+         * its message, which wakes the reader up.
+         */
+        @Override
+        public Object readObject() {
+            boolean interrupted = Thread.interrupted();
+            try {
+                while (true) {
+                    try {
+                        return requests.take();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public boolean hasPendingInput() {
+            return !requests.isEmpty();
+        }
     }
 
     private final ConnectorServer connectorServer;
     private final RemoteFrameworkConnection connection;
 
+    /**
+     * Runs the operations of the multiplexed protocol, null if the protocol is
+     * not offered.
+     */
+    private final Executor operationExecutor;
+
+    /**
+     * Limits the operations running on each connector, null if not limited.
+     */
+    private final OperationAdmissionControl admissionControl;
+
+    /**
+     * The connector keys and infos sent in hello responses.
+     */
+    private final ConnectorInfoCache connectorInfoCache;
+
+    /**
+     * The connector facade keys received by their digest.
+     */
+    private final ConnectorFacadeKeyRegistry facadeKeyRegistry;
+
+    /**
+     * Operations in progress on a multiplexed connection.
+     */
+    private final ConcurrentMap<Long, MultiplexedStream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * True while waiting for the next request on the connection.
+     */
+    private volatile boolean idle = false;
+
+    private volatile boolean stopped = false;
+
+    /**
+     * Set once a {@link HelloRequest} with a valid key opened a session; the
+     * following requests are not preceded by their locale and the key.
+     */
+    private boolean authenticated = false;
+
+    /**
+     * Set once a {@link HelloRequest} agreed to cancel the operations in
+     * progress.
+     */
+    private boolean cancellable = false;
+
+    /**
+     * The first object of the next request, read while the operation of a
+     * cancellable connection was running.
+     */
+    private Object nextRequest;
+
     public ConnectionProcessor(ConnectorServer server, Socket socket) {
+        this(server, socket, null);
+    }
+
+    /**
+     * The connector infos and the facade keys are those of the server, shared
+     * by all its connections.
+     *
+     * @param operationExecutor runs the operations of connections switched to
+     * the multiplexed protocol; if null, only the legacy protocol is offered
+     */
+    public ConnectionProcessor(ConnectorServer server, Socket socket, Executor operationExecutor) {
+        this(server, socket, operationExecutor, null, ConnectorInfoCache.of(server),
+                ConnectorFacadeKeyRegistry.of(server));
+    }
+
+    /**
+     * @param operationExecutor runs the operations of connections switched to
+     * the multiplexed protocol; if null, only the legacy protocol is offered
+     * @param admissionControl limits the operations running on each
+     * connector; if null, operations are not limited
+     * @param connectorInfoCache the connector keys and infos shared by all
+     * the connections of the server
+     * @param facadeKeyRegistry the connector facade keys shared by all the
+     * connections of the server
+     */
+    ConnectionProcessor(ConnectorServer server, Socket socket, Executor operationExecutor,
+            OperationAdmissionControl admissionControl, ConnectorInfoCache connectorInfoCache,
+            ConnectorFacadeKeyRegistry facadeKeyRegistry) {
         connectorServer = server;
         connection = new RemoteFrameworkConnection(socket);
+        this.operationExecutor = operationExecutor;
+        this.admissionControl = admissionControl;
+        this.connectorInfoCache = connectorInfoCache;
+        this.facadeKeyRegistry = facadeKeyRegistry;
     }
 
     @Override
     public void run() {
         try {
             try {
-                while (true) {
+                while (!stopped) {
                     boolean keepGoing = processRequest();
                     if (!keepGoing) {
                         break;
@@ -137,24 +466,58 @@ public class ConnectionProcessor implements Runnable {
         }
     }
 
-    private boolean processRequest() throws Exception {
-        Locale locale;
+    /**
+     * Stops processing requests; the connection is closed right away if no
+     * request is in progress, otherwise once the current request completes.
+     * Clients keep pooled connections open between requests, so this is what
+     * releases them when the server shuts down.
+     */
+    public void shutdown() {
+        stopped = true;
+        closeIfIdle();
+    }
+
+    private void closeIfIdle() {
+        if (idle && streams.isEmpty()) {
+            try {
+                connection.close();
+            } catch (Exception e) {
+                LOG.ok(e, "Failed to close idle connection");
+            }
+        }
+    }
+
+    /**
+     * Reads the first object of the next request.
+     *
+     * @return null if the client closed the connection or the server is
+     * shutting down
+     */
+    private Object readNextRequest() {
+        idle = true;
         try {
-            locale = (Locale) connection.readObject();
+            if (stopped) {
+                return null;
+            }
+            return connection.readObject();
         } catch (RuntimeException e) {
             if (e.getCause() instanceof EOFException) {
 
                 LOG.warn("Handled exception occurred while processing request: {0}", e.getLocalizedMessage());
 
-                return false;
+                return null;
+            }
+            if (stopped) {
+                LOG.ok("Idle connection closed on shutdown");
+                return null;
             }
             throw e;
+        } finally {
+            idle = false;
         }
-        CurrentLocale.set(locale);
-
-        LOG.ok("The request locale: {0}", locale.toString());
-        GuardedString key = (GuardedString) connection.readObject();
+    }
 
+    private InvalidCredentialException verifyKey(GuardedString key) {
         boolean authorized;
         try {
             authorized = key.verifyBase64SHA1Hash(connectorServer.getKeyHash());
@@ -170,16 +533,43 @@ public class ConnectionProcessor implements Runnable {
 
             LOG.ok("Request authorized, remote framework key is valid");
         }
+        return authException;
+    }
 
+    private boolean processRequest() throws Exception {
+        Object first = nextRequest != null ? nextRequest : readNextRequest();
+        nextRequest = null;
+        if (first == null) {
+            return false;
+        }
+        Locale locale;
+        InvalidCredentialException authException = null;
         Object requestObject;
-        try {
-            requestObject = connection.readObject();
-        } catch (Exception e) {
+        if (authenticated && first instanceof OperationRequestCancel) {
+            // the operation it was sent for completed before reading it
+            return true;
+        } else if (authenticated && !(first instanceof Locale)) {
+            requestObject = first;
+            locale = getRequestLocale(requestObject);
+            CurrentLocale.set(locale);
 
-                LOG.error(e,"An exception was thrown from initial connection object read: {0}",e.getLocalizedMessage());
-            ErrorResponse errorMessage = new ErrorResponse(e);
-            connection.writeObject(errorMessage);
-            throw e;
+            LOG.ok("The request locale: {0}", locale.toString());
+        } else {
+            locale = (Locale) first;
+            CurrentLocale.set(locale);
+
+            LOG.ok("The request locale: {0}", locale.toString());
+            authException = verifyKey((GuardedString) connection.readObject());
+
+            try {
+                requestObject = connection.readObject();
+            } catch (Exception e) {
+
+                    LOG.error(e,"An exception was thrown from initial connection object read: {0}",e.getLocalizedMessage());
+                ErrorResponse errorMessage = new ErrorResponse(e);
+                connection.writeObject(errorMessage);
+                throw e;
+            }
         }
 
         if (requestObject instanceof HelloRequest) {
@@ -191,6 +581,20 @@ public class ConnectionProcessor implements Runnable {
             } else {
                 HelloResponse response = processHelloRequest((HelloRequest) requestObject);
                 connection.writeObject(response);
+                if (response.getServerInfo().containsKey(HelloRequest.SESSION)) {
+                    authenticated = true;
+                }
+                if (response.getServerInfo().containsKey(HelloRequest.CANCEL)) {
+                    cancellable = true;
+                }
+                boolean compress = response.getServerInfo().containsKey(HelloRequest.COMPRESSION);
+                Object codec = response.getServerInfo().get(HelloRequest.CODEC);
+                if (compress || codec != null) {
+                    connection.switchEncoding(compress, codec != null ? (String) codec : WireCodec.BINARY);
+                }
+                if (response.getServerInfo().containsKey(HelloRequest.PROTOCOL_VERSION)) {
+                    return processMultiplexedRequests();
+                }
             }
         } else if (requestObject instanceof OperationRequest) {
 
@@ -198,9 +602,24 @@ public class ConnectionProcessor implements Runnable {
             if (authException != null) {
                 OperationResponsePart part = new OperationResponsePart(authException, null);
                 connection.writeObject(part);
+            } else if (cancellable && operationExecutor != null) {
+                // runs like an operation of a multiplexed connection, while this
+                // thread watches the connection for a cancel
+                startOperation(locale, null, (OperationRequest) requestObject);
+                nextRequest = processStreamMessages();
+                return nextRequest != null;
             } else {
                 OperationRequest opRequest = (OperationRequest) requestObject;
-                OperationResponsePart part = processOperationRequest(opRequest);
+                OperationResponsePart part;
+                OperationAdmissionControl.Gate gate = null;
+                try {
+                    if (admissionControl != null) {
+                        gate = admissionControl.tryAdmit(opRequest);
+                    }
+                    part = processOperationRequest(opRequest, connection, gate);
+                } catch (RetryableException e) {
+                    part = new OperationResponsePart(e, null);
+                }
                 connection.writeObject(part);
             }
         } else if (requestObject instanceof EchoMessage) {
@@ -228,6 +647,171 @@ public class ConnectionProcessor implements Runnable {
         return true;
     }
 
+    /**
+     * Hands the messages the client sends for the operation in progress on a
+     * whole connection to the operation, until the client sends the next
+     * request once it received the response.
+     *
+     * @return the first object of the next request, null if the client closed
+     * the connection or the server is shutting down
+     */
+    private Object processStreamMessages() {
+        while (true) {
+            Object message = readNextRequest();
+            if (message == null) {
+                // nobody reads the response any more
+                streams.values().forEach(stream -> stream.cancel(new OperationRequestCancel(stream.getStreamId())));
+                return null;
+            }
+            if (message instanceof OperationRequest || !(message instanceof StreamMessage)) {
+                return message;
+            }
+            MultiplexedStream stream = streams.get(((StreamMessage) message).getStreamId());
+            // the operation may have completed in the meantime
+            if (stream == null) {
+                continue;
+            }
+            if (message instanceof OperationRequestCancel) {
+                LOG.ok("Cancelling the operation of the connection");
+                stream.cancel((OperationRequestCancel) message);
+            } else {
+                stream.requests.add(message);
+            }
+        }
+    }
+
+    /**
+     * Returns the locale sent with a request of an authenticated connection.
+     */
+    private static Locale getRequestLocale(Object request) {
+        Locale locale = null;
+        if (request instanceof OperationRequest) {
+            locale = ((OperationRequest) request).getLocale();
+        }
+        return locale != null ? locale : Locale.getDefault();
+    }
+
+    /**
+     * Processes the requests of a connection switched to the multiplexed
+     * protocol, until the client closes it. Each operation runs on the
+     * operation executor and writes its messages tagged with its stream id;
+     * the control messages sent by the client are handed to the operations
+     * from here.
+     */
+    private boolean processMultiplexedRequests() {
+        LOG.ok("Switching connection to the multiplexed protocol");
+        try {
+            while (!stopped) {
+                Object message = readNextRequest();
+                if (message == null) {
+                    break;
+                }
+                if (message instanceof Locale) {
+                    Locale locale = (Locale) message;
+                    InvalidCredentialException authException =
+                            verifyKey((GuardedString) connection.readObject());
+                    Object requestObject = connection.readObject();
+                    if (!(requestObject instanceof OperationRequest)) {
+                        throw new ConnectorException("Unexpected request: " + requestObject);
+                    }
+                    startOperation(locale, authException, (OperationRequest) requestObject);
+                } else if (authenticated && message instanceof OperationRequest) {
+                    startOperation(getRequestLocale(message), null, (OperationRequest) message);
+                } else if (message instanceof OperationRequestCancel) {
+                    MultiplexedStream stream = streams.get(((StreamMessage) message).getStreamId());
+                    if (stream != null) {
+                        LOG.ok("Cancelling the operation of stream {0}", stream.getStreamId());
+                        stream.cancel((OperationRequestCancel) message);
+                    }
+                } else if (message instanceof StreamMessage) {
+                    MultiplexedStream stream = streams.get(((StreamMessage) message).getStreamId());
+                    // the operation may have completed in the meantime
+                    if (stream != null) {
+                        stream.requests.add(message);
+                    }
+                } else {
+                    throw new ConnectorException("Unexpected request: " + message);
+                }
+            }
+        } finally {
+            // release operations waiting for the client
+            streams.values().forEach(stream -> stream.requests.add(
+                    new OperationRequestStopData(stream.getStreamId())));
+        }
+        return false;
+    }
+
+    private void startOperation(final Locale locale, final InvalidCredentialException authException,
+            final OperationRequest request) {
+        // register the key before any later request of the connection refers
+        // to it by its digest
+        if (request.getConnectorFacadeKey() != null && request.getConnectorFacadeDigest() != null) {
+            facadeKeyRegistry.register(request.getConnectorFacadeKey(), request.getConnectorFacadeDigest());
+        }
+        final MultiplexedStream stream = new MultiplexedStream(request.getStreamId());
+        streams.put(stream.getStreamId(), stream);
+        try {
+            if (admissionControl != null && authException == null) {
+                // deferred while the connector is busy, rather than holding
+                // a worker of the executor
+                admissionControl.admit(request, operationExecutor,
+                        gate -> complete(locale, stream, () -> runOperation(request, stream, gate)),
+                        e -> complete(locale, stream, () -> new OperationResponsePart(stream.getStreamId(), e, null)));
+            } else {
+                operationExecutor.execute(() -> complete(locale, stream, () -> authException != null
+                        ? new OperationResponsePart(stream.getStreamId(), authException, null)
+                        : runOperation(request, stream, null)));
+            }
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Rejecting the operation of stream {0}: no worker is available", stream.getStreamId());
+            complete(locale, stream, () -> new OperationResponsePart(stream.getStreamId(),
+                    RetryableException.wrap("Too many operations waiting for a worker", e), null));
+        } catch (RuntimeException e) {
+            streams.remove(stream.getStreamId());
+            throw e;
+        }
+    }
+
+    private OperationResponsePart runOperation(final OperationRequest request, final MultiplexedStream stream,
+            final OperationAdmissionControl.Gate gate) throws IOException {
+        if (!stream.start()) {
+            if (gate != null) {
+                gate.release();
+            }
+            return new OperationResponsePart(stream.getStreamId(),
+                    new ConnectorException("Operation cancelled"), null);
+        }
+        try {
+            return processOperationRequest(request, stream, gate);
+        } finally {
+            stream.finish();
+        }
+    }
+
+    /**
+     * Runs an operation of a multiplexed connection and writes its response,
+     * which completes the stream.
+     */
+    private void complete(final Locale locale, final MultiplexedStream stream,
+            final Callable<OperationResponsePart> operation) {
+        CurrentLocale.set(locale);
+        try {
+            OperationResponsePart part = operation.call();
+            stream.writeObjects(part);
+            stream.flush();
+        } catch (Exception e) {
+            LOG.error(e, "Failed to send the response of stream {0}: {1}",
+                    stream.getStreamId(), e.getLocalizedMessage());
+        } finally {
+            CurrentLocale.clear();
+            // the stream id of a whole connection is reused by the next operation
+            streams.remove(stream.getStreamId(), stream);
+            if (stopped) {
+                closeIfIdle();
+            }
+        }
+    }
+
     private ConnectorInfoManager getConnectorInfoManager() {
         ConnectorInfoManagerFactoryImpl factory =
                 (ConnectorInfoManagerFactoryImpl) ConnectorInfoManagerFactory.getInstance();
@@ -241,19 +825,53 @@ public class ConnectionProcessor implements Runnable {
         Map<String, Object> serverInfo = null;
         Exception exception = null;
         try {
-            serverInfo = new HashMap<String, Object>(1);
+            serverInfo = new HashMap<String, Object>(2);
+            if (operationExecutor != null && request.getClientInfo().get(HelloRequest.PROTOCOL_VERSION)
+                    instanceof Integer) {
+                int version = (Integer) request.getClientInfo().get(HelloRequest.PROTOCOL_VERSION);
+                if (version >= HelloRequest.MULTIPLEXED_PROTOCOL_VERSION) {
+                    serverInfo.put(HelloRequest.PROTOCOL_VERSION, HelloRequest.MULTIPLEXED_PROTOCOL_VERSION);
+                }
+            }
+            if (Boolean.TRUE.equals(request.getClientInfo().get(HelloRequest.SESSION))) {
+                serverInfo.put(HelloRequest.SESSION, Boolean.TRUE);
+            }
+            if (Boolean.TRUE.equals(request.getClientInfo().get(HelloRequest.CANCEL))) {
+                serverInfo.put(HelloRequest.CANCEL, Boolean.TRUE);
+            }
+            if (Boolean.TRUE.equals(request.getClientInfo().get(HelloRequest.FACADE_DIGEST))) {
+                serverInfo.put(HelloRequest.FACADE_DIGEST, Boolean.TRUE);
+            }
+            if (request.getClientInfo().get(HelloRequest.CODEC) instanceof List) {
+                // the first codec of the client that is supported
+                for (Object codec : (List<?>) request.getClientInfo().get(HelloRequest.CODEC)) {
+                    if (codec instanceof String && WireCodec.getCodec((String) codec) != null) {
+                        serverInfo.put(HelloRequest.CODEC, codec);
+                        break;
+                    }
+                }
+            }
+            if (connectorServer.getUseCompression() && HelloRequest.DEFLATE_COMPRESSION.equals(
+                    request.getClientInfo().get(HelloRequest.COMPRESSION))) {
+                serverInfo.put(HelloRequest.COMPRESSION, HelloRequest.DEFLATE_COMPRESSION);
+            }
             if (request.isServerInfo()) {
                 serverInfo.put(HelloResponse.SERVER_START_TIME, connectorServer.getStartTime());
 
                 LOG.ok("Appended Server information to the Hello Request response");
             }
             if (request.isConnectorKeys()) {
-                ConnectorInfoManager manager = getConnectorInfoManager();
-                List<ConnectorInfo> localInfos = manager.getConnectorInfos();
-                connectorKeys = new ArrayList<ConnectorKey>();
-                for (ConnectorInfo localInfo : localInfos) {
-                    ConnectorKey connectorKey = localInfo.getConnectorKey();
-                    connectorKeys.add(connectorKey);
+                ConnectorInfoCache.Snapshot snapshot = connectorInfoCache.get(getConnectorInfoManager(),
+                        connectorServer.getStartTime());
+                serverInfo.put(HelloRequest.CONNECTOR_INFO_ETAG, snapshot.getEtag());
+                if (snapshot.getEtag().equals(request.getClientInfo().get(HelloRequest.CONNECTOR_INFO_ETAG))) {
+                    serverInfo.put(HelloResponse.CONNECTOR_INFO_NOT_MODIFIED, Boolean.TRUE);
+
+                    LOG.ok("Connector information of the client is up to date");
+                    return new HelloResponse(null, serverInfo, null, null);
+                }
+                connectorKeys = new ArrayList<ConnectorKey>(snapshot.getConnectorKeys());
+                for (ConnectorKey connectorKey : connectorKeys) {
 
                     LOG.ok("Appended connector name {0}, connector version {1} to server hello response", connectorKey.getBundleName(), connectorKey.getBundleVersion());
                 }
@@ -263,11 +881,14 @@ public class ConnectionProcessor implements Runnable {
                 }
 
                 if (request.isConnectorInfo()) {
+                    Object known = request.getClientInfo().get(HelloRequest.KNOWN_CONNECTOR_KEYS);
+                    Set<Object> knownKeys = known instanceof Collection
+                            ? new HashSet<Object>((Collection<?>) known) : Set.of();
                     connectorInfo = new ArrayList<RemoteConnectorInfoImpl>();
-                    for (ConnectorInfo localInfo : localInfos) {
-                        LocalConnectorInfoImpl localInfoImpl = (LocalConnectorInfoImpl) localInfo;
-                        RemoteConnectorInfoImpl remoteInfo = localInfoImpl.toRemote();
-                        connectorInfo.add(remoteInfo);
+                    for (RemoteConnectorInfoImpl remoteInfo : snapshot.getConnectorInfos()) {
+                        if (!knownKeys.contains(remoteInfo.getConnectorKey())) {
+                            connectorInfo.add(remoteInfo);
+                        }
                     }
                     if (!connectorInfo.isEmpty()) {
 
@@ -304,16 +925,49 @@ public class ConnectionProcessor implements Runnable {
         return found;
     }
 
-    private OperationResponsePart processOperationRequest(OperationRequest request)
-            throws IOException {
+    /**
+     * Returns the request with the facade key of its digest, the registered
+     * instance of the key if the request carries a digest.
+     */
+    private OperationRequest resolveConnectorFacadeKey(OperationRequest request) {
+        String digest = request.getConnectorFacadeDigest();
+        if (digest == null) {
+            return request;
+        }
+        String connectorFacadeKey;
+        if (request.getConnectorFacadeKey() != null) {
+            connectorFacadeKey = facadeKeyRegistry.register(request.getConnectorFacadeKey(), digest);
+            if (connectorFacadeKey == null) {
+                throw new ConnectorException("Connector facade digest does not match the key: " + digest);
+            }
+        } else {
+            connectorFacadeKey = facadeKeyRegistry.get(digest);
+            if (connectorFacadeKey == null) {
+                throw new ConnectorException("Unknown connector facade digest: " + digest);
+            }
+        }
+        return new OperationRequest(request.getStreamId(), request.getConnectorKey(), connectorFacadeKey, digest,
+                request.getOperation(), request.getOperationMethodName(), request.getArguments(),
+                request.getCredits(), request.getLocale());
+    }
+
+    /**
+     * @param gate released once the operation completed, null if the
+     * operations are not limited
+     */
+    private OperationResponsePart processOperationRequest(OperationRequest received, MessageChannel channel,
+            OperationAdmissionControl.Gate gate) throws IOException {
         Object result;
         Throwable exception = null;
+        OperationRequest request = received;
+        RemoteResultsHandler resultsHandler = new RemoteResultsHandler(channel, request.getCredits());
         try {
+            request = resolveConnectorFacadeKey(received);
             Method method = getOperationMethod(request);
             APIOperation operation = getAPIOperation(request);
             List<Object> arguments = request.getArguments();
             List<Object> argumentsAndStreamHandlers =
-                    populateStreamHandlers(method.getParameterTypes(), arguments);
+                    populateStreamHandlers(method.getParameterTypes(), arguments, resultsHandler);
 
             try {
 
@@ -335,7 +989,7 @@ public class ConnectionProcessor implements Runnable {
             if (anyStreams) {
                 try {
                     LOG.ok("Writing blank operation response");
-                    connection.writeObject(new OperationResponseEnd());
+                    channel.writeObjects(new OperationResponseEnd(channel.getStreamId()));
                 } catch (RuntimeException e) {
                     if (e.getCause() instanceof IOException) {
                         throw new BrokenConnectionException((IOException) e.getCause());
@@ -351,12 +1005,22 @@ public class ConnectionProcessor implements Runnable {
             LOG.error(e, "Exception occurred during the processing of an operation request: {0}", e.getLocalizedMessage());
             exception = e;
             result = null;
+        } finally {
+            if (gate != null) {
+                gate.release();
+            }
+        }
+        try {
+            resultsHandler.awaitAnswers();
+        } catch (BrokenConnectionException w) {
+            throw w.getIOException();
         }
         LOG.ok("Writing the processed request result out as operation response");
-        return new OperationResponsePart(exception, result);
+        return new OperationResponsePart(channel.getStreamId(), exception, result);
     }
 
-    private List<Object> populateStreamHandlers(Class<?>[] paramTypes, List<Object> arguments) {
+    private List<Object> populateStreamHandlers(Class<?>[] paramTypes, List<Object> arguments,
+            RemoteResultsHandler osh) {
         List<Object> rv = new ArrayList<Object>();
         boolean firstStream = true;
         Iterator<Object> argIt = arguments.iterator();
@@ -366,7 +1030,6 @@ public class ConnectionProcessor implements Runnable {
                     throw new UnsupportedOperationException(
                             "At most one stream handler is supported");
                 }
-                ObjectStreamHandler osh = new RemoteResultsHandler(connection);
                 rv.add(StreamHandlerUtil.adaptFromObjectStreamHandler(paramType, osh));
                 firstStream = false;
             } else {
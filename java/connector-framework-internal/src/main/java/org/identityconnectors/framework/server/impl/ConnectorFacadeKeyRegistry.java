@@ -0,0 +1,87 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server.impl;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorFacadeImpl;
+import org.identityconnectors.framework.server.ConnectorServer;
+
+/**
+ * Keeps the connector facade keys received by the server by their digest, so
+ * that clients send the digest only once the key has been received on their
+ * connection. Each key is registered with the instance first received, the
+ * lookups of the managed facades then compare identical strings.
+ */
+class ConnectorFacadeKeyRegistry {
+
+    private static final Map<ConnectorServer, ConnectorFacadeKeyRegistry> INSTANCES = new WeakHashMap<>();
+
+    private final ConcurrentMap<String, String> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the registry of the given server, shared by all its
+     * connections.
+     */
+    static ConnectorFacadeKeyRegistry of(ConnectorServer connectorServer) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(connectorServer, server -> new ConnectorFacadeKeyRegistry());
+        }
+    }
+
+    /**
+     * Registers a facade key sent with its digest, unless the digest does not
+     * match the key.
+     *
+     * @return the registered instance of the key, null if the digest does not
+     * match
+     */
+    String register(String connectorFacadeKey, String digest) {
+        String key = keys.get(digest);
+        if (key != null && key.equals(connectorFacadeKey)) {
+            return key;
+        }
+        if (!digest.equals(RemoteConnectorFacadeImpl.computeConnectorFacadeDigest(connectorFacadeKey))) {
+            return null;
+        }
+        key = keys.putIfAbsent(digest, connectorFacadeKey);
+        return key != null ? key : connectorFacadeKey;
+    }
+
+    /**
+     * Returns the facade key of the given digest, null if it has not been
+     * received yet.
+     */
+    String get(String digest) {
+        return keys.get(digest);
+    }
+
+    /**
+     * Returns the number of registered facade keys.
+     */
+    int size() {
+        return keys.size();
+    }
+}
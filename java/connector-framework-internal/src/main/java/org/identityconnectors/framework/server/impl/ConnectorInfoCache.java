@@ -0,0 +1,144 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorKey;
+import org.identityconnectors.framework.impl.api.local.LocalConnectorInfoImpl;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoImpl;
+import org.identityconnectors.framework.server.ConnectorServer;
+
+/**
+ * Keeps the connector keys and the remote connector infos sent in hello
+ * responses, so that they are not rebuilt for every client, together with
+ * their version: the start time of the server and a hash of the connector
+ * keys. There is one instance per server, shared by all its connections.
+ */
+class ConnectorInfoCache {
+
+    static final class Snapshot {
+
+        private final ConnectorInfoManager manager;
+
+        private final Long startTime;
+
+        private final String etag;
+
+        private final List<ConnectorKey> connectorKeys;
+
+        private final List<RemoteConnectorInfoImpl> connectorInfos;
+
+        private Snapshot(ConnectorInfoManager manager, Long startTime, String etag,
+                List<ConnectorKey> connectorKeys, List<RemoteConnectorInfoImpl> connectorInfos) {
+            this.manager = manager;
+            this.startTime = startTime;
+            this.etag = etag;
+            this.connectorKeys = connectorKeys;
+            this.connectorInfos = connectorInfos;
+        }
+
+        private boolean isFor(ConnectorInfoManager manager, Long startTime) {
+            return this.manager == manager && Objects.equals(this.startTime, startTime);
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        List<ConnectorKey> getConnectorKeys() {
+            return connectorKeys;
+        }
+
+        List<RemoteConnectorInfoImpl> getConnectorInfos() {
+            return connectorInfos;
+        }
+    }
+
+    private static final Map<ConnectorServer, ConnectorInfoCache> INSTANCES = new WeakHashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns the instance of the given server.
+     */
+    static ConnectorInfoCache of(ConnectorServer connectorServer) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(connectorServer, server -> new ConnectorInfoCache());
+        }
+    }
+
+    /**
+     * Returns the connector keys and infos of the given manager, building
+     * them only if the manager or the start time of the server changed since
+     * the last call.
+     */
+    Snapshot get(ConnectorInfoManager manager, Long startTime) {
+        Snapshot current = snapshot;
+        if (current == null || !current.isFor(manager, startTime)) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || !current.isFor(manager, startTime)) {
+                    current = build(manager, startTime);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build(ConnectorInfoManager manager, Long startTime) {
+        List<ConnectorInfo> localInfos = manager.getConnectorInfos();
+        List<ConnectorKey> keys = new ArrayList<>(localInfos.size());
+        List<RemoteConnectorInfoImpl> infos = new ArrayList<>(localInfos.size());
+        for (ConnectorInfo localInfo : localInfos) {
+            keys.add(localInfo.getConnectorKey());
+            infos.add(((LocalConnectorInfoImpl) localInfo).toRemote());
+        }
+        return new Snapshot(manager, startTime, computeEtag(keys, startTime),
+                List.copyOf(keys), List.copyOf(infos));
+    }
+
+    private static String computeEtag(List<ConnectorKey> keys, Long startTime) {
+        List<ConnectorKey> sorted = new ArrayList<>(keys);
+        sorted.sort(Comparator.comparing(ConnectorKey::getBundleName).
+                thenComparing(ConnectorKey::getBundleVersion).
+                thenComparing(ConnectorKey::getConnectorName));
+        StringBuilder builder = new StringBuilder();
+        for (ConnectorKey key : sorted) {
+            builder.append(key.getBundleName()).append('\u0000').
+                    append(key.getBundleVersion()).append('\u0000').
+                    append(key.getConnectorName()).append('\n');
+        }
+        return startTime + "-" + SecurityUtil.computeBase64SHA1Hash(
+                builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
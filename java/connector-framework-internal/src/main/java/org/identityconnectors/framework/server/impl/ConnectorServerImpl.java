@@ -27,6 +27,7 @@ package org.identityconnectors.framework.server.impl;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.util.Calendar;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.KeyManager;
@@ -38,6 +39,7 @@ import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.impl.api.ConnectorInfoManagerFactoryImpl;
 import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
 
 public class ConnectorServerImpl extends ConnectorServer {
 
@@ -51,6 +53,15 @@ public class ConnectorServerImpl extends ConnectorServer {
         return startDate;
     }
 
+    @Override
+    public List<OperationAdmissionStatistics> getAdmissionStatistics() {
+        final ConnectionListener listener = this.listener;
+        if (listener == null) {
+            return List.of();
+        }
+        return listener.getAdmissionControl().getStatistics();
+    }
+
     @Override
     public boolean isStarted() {
         return listener != null;
@@ -0,0 +1,373 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.api.ConnectorKey;
+import org.identityconnectors.framework.common.exceptions.RetryableException;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorFacadeImpl;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
+
+/**
+ * Limits the number of operations running concurrently on each connector, or
+ * on each connector facade, so that a slow target system cannot take all the
+ * workers of the server.
+ * <p/>
+ * No worker waits for a running operation to complete. The operations of
+ * multiplexed and cancellable connections over the limit are deferred in a
+ * bounded queue and handed to the operation executor once a running one
+ * completed; they are rejected with a {@link RetryableException} when the
+ * queue is full or when they waited longer than the configured timeout. The
+ * operations of the other connections are rejected right away, as their
+ * connection thread runs them and cannot serve anything else in the
+ * meantime.
+ * <p/>
+ * Facades are told apart by the digest of their key. The state of the
+ * connectors and facades without operations for a while is dropped.
+ */
+class OperationAdmissionControl {
+
+    private static final Log LOG = Log.getLog(OperationAdmissionControl.class);
+
+    /**
+     * How long, in milliseconds, the state of a connector or facade without
+     * operations is kept.
+     */
+    static final long GATE_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private final int maxConcurrentOperations;
+
+    private final int maxQueuedOperations;
+
+    private final long queueTimeout;
+
+    private final boolean perFacade;
+
+    private final long idleTimeout;
+
+    private final ConcurrentMap<GateKey, Gate> gates = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+
+    OperationAdmissionControl(ConnectorServer server) {
+        this(server, GATE_IDLE_TIMEOUT);
+    }
+
+    OperationAdmissionControl(ConnectorServer server, long idleTimeout) {
+        maxConcurrentOperations = server.getMaxOperationsPerConnector();
+        maxQueuedOperations = server.getMaxQueuedOperationsPerConnector();
+        queueTimeout = server.getOperationQueueTimeout();
+        perFacade = server.getLimitOperationsPerFacade();
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns true if operations are limited at all.
+     */
+    boolean isEnabled() {
+        return maxConcurrentOperations > 0;
+    }
+
+    /**
+     * Admits the operation if it may run right away.
+     *
+     * @return the gate to release once the operation completed, null if
+     *         operations are not limited.
+     * @throws RetryableException
+     *             if the limit is reached.
+     */
+    Gate tryAdmit(OperationRequest request) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Gate gate = reserveGate(request);
+        if (!gate.tryAcquire()) {
+            throw gate.reject("the limit of concurrent operations is reached");
+        }
+        return gate;
+    }
+
+    /**
+     * Runs the operation on the executor once it may run, deferring it while
+     * the limit is reached.
+     *
+     * @param operation
+     *            the operation, given the gate to release once it completed,
+     *            null if operations are not limited.
+     * @param rejected
+     *            run on the executor instead of the operation if it is
+     *            rejected.
+     * @throws RejectedExecutionException
+     *             if the executor does not accept the operation.
+     */
+    void admit(OperationRequest request, Executor executor, Consumer<Gate> operation,
+            Consumer<RetryableException> rejected) {
+        if (!isEnabled()) {
+            executor.execute(() -> operation.accept(null));
+            return;
+        }
+        reserveGate(request).admit(new Waiter(executor, operation, rejected));
+    }
+
+    List<OperationAdmissionStatistics> getStatistics() {
+        List<OperationAdmissionStatistics> statistics = new ArrayList<>(gates.size());
+        for (Gate gate : gates.values()) {
+            statistics.add(gate.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the gate of the request, reserved so that it is not evicted
+     * before the operation is admitted or rejected.
+     */
+    private Gate reserveGate(OperationRequest request) {
+        evictIdleGates();
+        String digest = null;
+        if (perFacade) {
+            digest = request.getConnectorFacadeDigest();
+            if (digest == null && request.getConnectorFacadeKey() != null) {
+                digest = RemoteConnectorFacadeImpl.computeConnectorFacadeDigest(request.getConnectorFacadeKey());
+            }
+        }
+        return gates.compute(new GateKey(request.getConnectorKey(), digest), (key, gate) -> {
+            Gate reserved = gate != null ? gate : new Gate(key);
+            reserved.reserve();
+            return reserved;
+        });
+    }
+
+    private void evictIdleGates() {
+        long now = System.currentTimeMillis();
+        long last = lastEviction.get();
+        if (now - last < idleTimeout || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        long cutoff = now - idleTimeout;
+        for (GateKey key : gates.keySet()) {
+            gates.computeIfPresent(key, (k, gate) -> gate.isIdleSince(cutoff) ? null : gate);
+        }
+    }
+
+    private static final class GateKey {
+
+        private final ConnectorKey connectorKey;
+
+        private final String connectorFacadeDigest;
+
+        GateKey(ConnectorKey connectorKey, String connectorFacadeDigest) {
+            this.connectorKey = connectorKey;
+            this.connectorFacadeDigest = connectorFacadeDigest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof GateKey) {
+                GateKey other = (GateKey) o;
+                return connectorKey.equals(other.connectorKey)
+                        && Objects.equals(connectorFacadeDigest, other.connectorFacadeDigest);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return connectorKey.hashCode() * 31 + Objects.hashCode(connectorFacadeDigest);
+        }
+    }
+
+    /**
+     * An operation deferred until a running one completes.
+     */
+    private static final class Waiter {
+
+        private final Executor executor;
+
+        private final Consumer<Gate> operation;
+
+        private final Consumer<RetryableException> rejected;
+
+        Waiter(Executor executor, Consumer<Gate> operation, Consumer<RetryableException> rejected) {
+            this.executor = executor;
+            this.operation = operation;
+            this.rejected = rejected;
+        }
+
+        void run(Gate gate) {
+            executor.execute(() -> operation.accept(gate));
+        }
+
+        void reject(RetryableException e) {
+            try {
+                executor.execute(() -> rejected.accept(e));
+            } catch (RejectedExecutionException e2) {
+                rejected.accept(e);
+            }
+        }
+    }
+
+    final class Gate {
+
+        private final GateKey key;
+
+        private final Deque<Waiter> waiting = new ArrayDeque<>();
+
+        /**
+         * The operations about to be admitted or rejected.
+         */
+        private int reserved = 0;
+
+        private int active = 0;
+
+        private long admitted = 0;
+
+        private long rejected = 0;
+
+        private long lastUsedTimestamp = System.currentTimeMillis();
+
+        private Gate(GateKey key) {
+            this.key = key;
+        }
+
+        private synchronized void reserve() {
+            reserved++;
+        }
+
+        private synchronized boolean isIdleSince(long timestamp) {
+            return reserved == 0 && active == 0 && lastUsedTimestamp < timestamp;
+        }
+
+        private synchronized boolean tryAcquire() {
+            reserved--;
+            if (active < maxConcurrentOperations) {
+                active++;
+                admitted++;
+                return true;
+            }
+            return false;
+        }
+
+        private void admit(Waiter waiter) {
+            boolean run = false;
+            boolean full = false;
+            synchronized (this) {
+                reserved--;
+                if (active < maxConcurrentOperations) {
+                    active++;
+                    admitted++;
+                    run = true;
+                } else if (waiting.size() < maxQueuedOperations) {
+                    waiting.add(waiter);
+                } else {
+                    full = true;
+                }
+            }
+            if (run) {
+                try {
+                    waiter.run(this);
+                } catch (RuntimeException e) {
+                    release();
+                    throw e;
+                }
+            } else if (full) {
+                waiter.reject(reject("the wait queue is full"));
+            } else {
+                CompletableFuture.delayedExecutor(queueTimeout, TimeUnit.MILLISECONDS).execute(() -> expire(waiter));
+            }
+        }
+
+        private void expire(Waiter waiter) {
+            boolean removed;
+            synchronized (this) {
+                removed = waiting.remove(waiter);
+            }
+            if (removed) {
+                waiter.reject(reject("no operation completed within " + queueTimeout + " ms"));
+            }
+        }
+
+        private RetryableException reject(String reason) {
+            synchronized (this) {
+                rejected++;
+            }
+            LOG.warn("Rejecting operation on {0}: {1}", this, reason);
+            return RetryableException.wrap("Too many concurrent operations on " + this + ", " + reason,
+                    (Throwable) null);
+        }
+
+        /**
+         * Releases the slot of a completed operation, handing it over to the
+         * next deferred operation if any.
+         */
+        void release() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = waiting.poll();
+                    if (next == null) {
+                        active--;
+                        lastUsedTimestamp = System.currentTimeMillis();
+                        return;
+                    }
+                    admitted++;
+                }
+                try {
+                    next.run(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    LOG.warn(e, "Failed to start a deferred operation on {0}", this);
+                    synchronized (this) {
+                        admitted--;
+                    }
+                    next.reject(reject("no worker is available"));
+                }
+            }
+        }
+
+        private synchronized OperationAdmissionStatistics getStatistics() {
+            return new OperationAdmissionStatistics(key.connectorKey, key.connectorFacadeDigest,
+                    active, waiting.size(), admitted, rejected);
+        }
+
+        @Override
+        public String toString() {
+            return "connector " + key.connectorKey
+                    + (key.connectorFacadeDigest != null ? " facade " + key.connectorFacadeDigest : "");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.identityconnectors.common.pooling.ObjectPoolConfiguration;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.api.operations.CreateApiOp;
+import org.identityconnectors.framework.common.FrameworkUtil;
+import org.identityconnectors.framework.common.serializer.SerializerUtil;
+import org.junit.jupiter.api.Test;
+
+public class APIConfigurationImplTests {
+
+    private static ConfigurationPropertyImpl property(String name, int order, Object value) {
+        ConfigurationPropertyImpl property = new ConfigurationPropertyImpl();
+        property.setName(name);
+        property.setOrder(order);
+        property.setValue(value);
+        property.setType(value.getClass());
+        property.setOperations(FrameworkUtil.allAPIOperations());
+        return property;
+    }
+
+    private static APIConfigurationImpl createConfiguration() {
+        ConfigurationPropertiesImpl properties = new ConfigurationPropertiesImpl();
+        properties.setProperties(List.of(
+                property("host", 1, "localhost"),
+                property("uri", 2, URI.create("ldap://localhost")),
+                property("password", 3, new GuardedString("secret".toCharArray())),
+                property("names", 4, new String[] { "a", "b" }),
+                property("ports", 5, new int[] { 389, 636 })));
+
+        APIConfigurationImpl config = new APIConfigurationImpl();
+        config.setConfigurationProperties(properties);
+        config.setConnectorPoolConfiguration(new ObjectPoolConfiguration());
+        config.getConnectorPoolConfiguration().setMaxObjects(42);
+        config.getResultsHandlerConfiguration().setEnableCaseInsensitiveFilter(true);
+        config.setConnectorPoolingSupported(true);
+        config.setProducerBufferSize(200);
+        config.setSupportedOperations(FrameworkUtil.allAPIOperations());
+        config.setTimeoutMap(new HashMap<>(Map.of(CreateApiOp.class, 6)));
+        config.setInstanceName("instance");
+        return config;
+    }
+
+    @Test
+    public void testCopyMatchesSerializationClone() {
+        APIConfigurationImpl config = createConfiguration();
+        APIConfigurationImpl copy = new APIConfigurationImpl(config);
+        APIConfigurationImpl clone = (APIConfigurationImpl) SerializerUtil.cloneObject(config);
+
+        assertEquals(SerializerUtil.serializeBase64Object(clone), SerializerUtil.serializeBase64Object(copy));
+        assertEquals(clone.getConfigurationProperties(), copy.getConfigurationProperties());
+        assertEquals(List.of("host", "uri", "password", "names", "ports"),
+                copy.getConfigurationProperties().getPropertyNames());
+    }
+
+    @Test
+    public void testCopySharesOnlyImmutableState() {
+        APIConfigurationImpl config = createConfiguration();
+        APIConfigurationImpl copy = new APIConfigurationImpl(config);
+
+        ConfigurationPropertiesImpl properties = config.getConfigurationProperties();
+        ConfigurationPropertiesImpl copied = copy.getConfigurationProperties();
+        assertSame(copy, copied.getParent());
+        assertSame(config, properties.getParent());
+        for (ConfigurationPropertyImpl property : copied.getProperties()) {
+            assertSame(copied, property.getParent());
+            assertSame(properties, ((ConfigurationPropertyImpl) properties.getProperty(property.getName()))
+                    .getParent());
+        }
+        assertSame(properties.getProperty("host").getValue(), copied.getProperty("host").getValue());
+        assertSame(properties.getProperty("uri").getValue(), copied.getProperty("uri").getValue());
+        assertNotSame(properties.getProperty("password").getValue(), copied.getProperty("password").getValue());
+        assertEquals(properties.getProperty("password").getValue(), copied.getProperty("password").getValue());
+
+        // changes of the copy do not affect the original
+        ((String[]) copied.getProperty("names").getValue())[0] = "c";
+        ((int[]) copied.getProperty("ports").getValue())[0] = 1389;
+        copy.getConnectorPoolConfiguration().setMaxObjects(1);
+        copy.getResultsHandlerConfiguration().setEnableCaseInsensitiveFilter(false);
+        copy.setTimeout(CreateApiOp.class, 7);
+        assertArrayEquals(new String[] { "a", "b" }, (String[]) properties.getProperty("names").getValue());
+        assertArrayEquals(new int[] { 389, 636 }, (int[]) properties.getProperty("ports").getValue());
+        assertEquals(42, config.getConnectorPoolConfiguration().getMaxObjects());
+        assertTrue(config.getResultsHandlerConfiguration().isEnableCaseInsensitiveFilter());
+        assertEquals(6, config.getTimeout(CreateApiOp.class));
+    }
+}
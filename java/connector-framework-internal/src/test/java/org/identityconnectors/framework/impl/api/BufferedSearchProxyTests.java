@@ -24,14 +24,26 @@
 package org.identityconnectors.framework.impl.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.common.l10n.CurrentLocale;
 import org.identityconnectors.framework.api.operations.SearchApiOp;
 import org.identityconnectors.framework.common.exceptions.OperationTimeoutException;
+import org.identityconnectors.framework.common.exceptions.RetryableException;
 import org.identityconnectors.framework.common.objects.ConnectorObject;
 import org.identityconnectors.framework.common.objects.ObjectClass;
 import org.identityconnectors.framework.common.objects.ResultsHandler;
@@ -196,6 +208,264 @@ public class BufferedSearchProxyTests {
         }
     }
 
+    @Test
+    public void deliverBeforeChunkIsFull() {
+        // the next result is only produced once the previous one is handled
+        CountDownLatch[] handled = new CountDownLatch[20];
+        for (int i = 0; i < handled.length; i++) {
+            handled[i] = new CountDownLatch(1);
+        }
+        SearchApiOp search = new Searches.ConnectorObjectSearch(handled.length) {
+
+            @Override
+            protected void beforeObject(int count) {
+                try {
+                    if (count > 0 && !handled[count - 1].await(10, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Result " + (count - 1) + " not handled");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ExpectedTestResults expected = new ExpectedTestResults();
+        for (int i = 0; i < handled.length; i++) {
+            CountDownLatch latch = handled[i];
+            expected.addExpectedResult(new CheckCountHandler(i) {
+
+                @Override
+                public boolean handle(ConnectorObject object) {
+                    latch.countDown();
+                    return super.handle(object);
+                }
+            });
+        }
+        createSearchProxy(search, 1000, 20000).search(ObjectClass.ACCOUNT, null, expected, null);
+        expected.assertFinished();
+    }
+
+    @Test
+    public void boundedBuffer() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        SearchApiOp search = new Searches.ConnectorObjectSearch(1000) {
+
+            @Override
+            protected void beforeObject(int count) {
+                produced.incrementAndGet();
+            }
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        CompletableFuture<Void> consumer = CompletableFuture.runAsync(() -> createSearchProxy(search, 100, 20000).
+                search(ObjectClass.ACCOUNT, null, obj -> {
+                    if (handled.getAndIncrement() == 0) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return true;
+                }, null));
+        // until the producer is blocked by the full buffer
+        int last = -1;
+        while (handled.get() == 0 || produced.get() != last) {
+            last = produced.get();
+            Thread.sleep(100);
+        }
+        // the buffer, the chunk taken by the handler and the result waiting for room
+        assertTrue(last > 100 && last <= 100 + 25 + 1, "produced " + last);
+        release.countDown();
+        consumer.get(10, TimeUnit.SECONDS);
+        assertEquals(1000, handled.get());
+    }
+
+    @Test
+    public void propagateContext() {
+        List<Object> context = new ArrayList<>();
+        SearchApiOp search = new Searches.ConnectorObjectSearch(1) {
+
+            @Override
+            protected void beforeObject(int count) {
+                context.add(CurrentLocale.isSet() ? CurrentLocale.get() : null);
+                context.add(Thread.currentThread().getContextClassLoader());
+            }
+        };
+        ClassLoader loader = new URLClassLoader(new URL[0]);
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            CurrentLocale.set(Locale.ITALIAN);
+            createSearchProxy(search, 10, 1000).search(ObjectClass.ACCOUNT, null, obj -> true, null);
+            CurrentLocale.clear();
+            // the pooled thread does not keep the previous locale
+            createSearchProxy(search, 10, 1000).search(ObjectClass.ACCOUNT, null, obj -> true, null);
+        } finally {
+            CurrentLocale.clear();
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+        assertEquals(Arrays.asList(Locale.ITALIAN, loader, null, loader), context);
+    }
+
+    @Test
+    public void queueProducers() throws Exception {
+        BufferedResultsProxy.setProducers(1, false);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            SearchApiOp blocking = new Searches.ConnectorObjectSearch(1) {
+
+                @Override
+                protected void beforeObject(int count) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            AtomicInteger count = new AtomicInteger();
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> createSearchProxy(blocking, 10, 10000).
+                    search(ObjectClass.ACCOUNT, null, obj -> count.incrementAndGet() > 0, null));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> createSearchProxy(
+                    new Searches.ConnectorObjectSearch(5), 10, 10000).
+                    search(ObjectClass.ACCOUNT, null, obj -> count.incrementAndGet() > 0, null));
+            while (BufferedResultsProxy.getStatistics().getQueuedProducers() == 0) {
+                Thread.sleep(10);
+            }
+            BufferedResultsProxy.Statistics statistics = BufferedResultsProxy.getStatistics();
+            assertEquals(1, statistics.getMaxProducers());
+            assertEquals(1, statistics.getPoolSize());
+            assertEquals(1, statistics.getActiveProducers());
+            assertEquals(1, statistics.getQueuedProducers());
+
+            // as many producers wait as there are threads
+            assertThrows(RetryableException.class, () -> createSearchProxy(
+                    new Searches.ConnectorObjectSearch(5), 10, 10000).
+                    search(ObjectClass.ACCOUNT, null, obj -> true, null));
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+            assertEquals(6, count.get());
+            assertEquals(0, BufferedResultsProxy.getStatistics().getQueuedProducers());
+        } finally {
+            BufferedResultsProxy.setProducers(BufferedResultsProxy.DEFAULT_MAX_PRODUCERS, false);
+        }
+    }
+
+    @Test
+    public void skipTimedOutProducer() throws Exception {
+        BufferedResultsProxy.setProducers(1, false);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            SearchApiOp blocking = new Searches.ConnectorObjectSearch(1) {
+
+                @Override
+                protected void beforeObject(int count) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            CompletableFuture<Void> first = CompletableFuture.runAsync(() -> createSearchProxy(blocking, 10, 10000).
+                    search(ObjectClass.ACCOUNT, null, obj -> true, null));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            AtomicInteger invoked = new AtomicInteger();
+            SearchApiOp counting = new Searches.ConnectorObjectSearch(5) {
+
+                @Override
+                protected void beforeObject(int count) {
+                    invoked.incrementAndGet();
+                }
+            };
+            // times out while its producer waits for the only thread
+            assertThrows(OperationTimeoutException.class, () -> createSearchProxy(counting, 10, 100).
+                    search(ObjectClass.ACCOUNT, null, obj -> true, null));
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            while (BufferedResultsProxy.getStatistics().getQueuedProducers() > 0
+                    || BufferedResultsProxy.getStatistics().getActiveProducers() > 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, invoked.get());
+        } finally {
+            BufferedResultsProxy.setProducers(BufferedResultsProxy.DEFAULT_MAX_PRODUCERS, false);
+        }
+    }
+
+    @Test
+    public void nestedProducer() {
+        BufferedResultsProxy.setProducers(1, false);
+        try {
+            AtomicInteger count = new AtomicInteger();
+            SearchApiOp nesting = new Searches.ConnectorObjectSearch(2) {
+
+                @Override
+                protected void beforeObject(int index) {
+                    // does not wait for the only pooled thread
+                    createSearchProxy(new Searches.ConnectorObjectSearch(3), 10, 10000).
+                            search(ObjectClass.ACCOUNT, null, obj -> count.incrementAndGet() > 0, null);
+                }
+            };
+            createSearchProxy(nesting, 10, 10000).search(ObjectClass.ACCOUNT, null, obj -> true, null);
+            assertEquals(6, count.get());
+        } finally {
+            BufferedResultsProxy.setProducers(BufferedResultsProxy.DEFAULT_MAX_PRODUCERS, false);
+        }
+    }
+
+    @Test
+    public void nestedInResultsHandler() {
+        BufferedResultsProxy.setProducers(1, false);
+        try {
+            AtomicInteger count = new AtomicInteger();
+            // the producer of the outer search blocks on the full buffer while
+            // the handler runs the nested search, which does not wait for it
+            createSearchProxy(new Searches.ConnectorObjectSearch(5), 1, 10000).
+                    search(ObjectClass.ACCOUNT, null, outer -> {
+                        createSearchProxy(new Searches.ConnectorObjectSearch(3), 10, 10000).
+                                search(ObjectClass.ACCOUNT, null, obj -> count.incrementAndGet() > 0, null);
+                        return true;
+                    }, null);
+            assertEquals(15, count.get());
+            assertEquals(0, BufferedResultsProxy.getStatistics().getQueuedProducers());
+        } finally {
+            BufferedResultsProxy.setProducers(BufferedResultsProxy.DEFAULT_MAX_PRODUCERS, false);
+        }
+    }
+
+    @Test
+    public void virtualThreadProducers() {
+        BufferedResultsProxy.setProducers(0, true);
+        try {
+            List<Boolean> virtual = new ArrayList<>();
+            ExpectedTestResults expected = new ExpectedTestResults();
+            expected.addExpectedRange(0, 50);
+            SearchApiOp search = new Searches.ConnectorObjectSearch(50) {
+
+                @Override
+                protected void beforeObject(int count) {
+                    virtual.add(Thread.currentThread().isVirtual());
+                }
+            };
+            createSearchProxy(search, 10, 10000).search(ObjectClass.ACCOUNT, null, expected, null);
+            expected.assertFinished();
+            assertFalse(virtual.contains(Boolean.FALSE));
+            assertTrue(BufferedResultsProxy.getStatistics().isVirtualThreads());
+        } finally {
+            BufferedResultsProxy.setProducers(BufferedResultsProxy.DEFAULT_MAX_PRODUCERS, false);
+        }
+    }
+
     private static SearchApiOp createSearchProxy(SearchApiOp search, int bufSize, long timeout) {
         BufferedResultsProxy timeoutHandler = new BufferedResultsProxy(search, bufSize, timeout);
         return (SearchApiOp) Proxy.newProxyInstance(SearchApiOp.class.getClassLoader(),
@@ -0,0 +1,239 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
+import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionGroup;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionGroup;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionPoolManager;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorGroupInfoManagerImpl;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
+import org.identityconnectors.testconnector.TstConnector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Spreads operations across a group of connector servers, one of which is down.
+ */
+public class RemoteConnectorGroupTests {
+
+    private static final int PORT1 = 8769;
+
+    private static final int PORT2 = 8771;
+
+    /**
+     * Nothing listens on this port.
+     */
+    private static final int DOWN_PORT = 8773;
+
+    /**
+     * A server is started on this port once the group is created.
+     */
+    private static final int LATE_PORT = 8774;
+
+    private static ConnectorServer server1;
+
+    private static ConnectorServer server2;
+
+    private static ConnectorServer startServer(int port) throws Exception {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setKeyHash(SecurityUtil.computeBase64SHA1Hash("changeit".toCharArray()));
+        server.setBundleURLs(List.of(getTestBundleUrl("testbundlev1.jar"),
+                getTestBundleUrl("testbundlev2.jar")));
+        server.setPort(port);
+        server.setIfAddress(InetAddress.getByName("127.0.0.1"));
+        // only to count the operations served
+        server.setMaxOperationsPerConnector(100);
+        server.start();
+        return server;
+    }
+
+    private static URL getTestBundleUrl(String name) {
+        URL url = RemoteConnectorGroupTests.class.getResource("/" + name);
+        if (url == null) {
+            throw new IllegalStateException("Bundle '" + name + "' could not be found");
+        }
+        return url;
+    }
+
+    private static RemoteFrameworkConnectionInfo connectionInfo(int port) {
+        return new RemoteFrameworkConnectionInfo(
+                "127.0.0.1", port, new GuardedString("changeit".toCharArray()), false, null, 0);
+    }
+
+    private static long admitted(ConnectorServer server) {
+        return server.getAdmissionStatistics().stream().
+                mapToLong(OperationAdmissionStatistics::getAdmittedOperations).sum();
+    }
+
+    @BeforeAll
+    public static void startServers() throws Exception {
+        server1 = startServer(PORT1);
+        server2 = startServer(PORT2);
+    }
+
+    @AfterAll
+    public static void stopServers() {
+        server1.stop();
+        server2.stop();
+        ConnectorFacadeFactory.getInstance().dispose();
+        ConnectorInfoManagerFactory.getInstance().clearLocalCache();
+        ConnectorInfoManagerFactory.getInstance().clearRemoteCache();
+    }
+
+    private static ConnectorFacade newFacade(ConnectorInfoManager manager) {
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.getConfigurationProperties().getProperty("numResults").setValue(500);
+        return ConnectorFacadeFactory.getInstance().newInstance(config);
+    }
+
+    private static void search(ConnectorFacade facade) {
+        AtomicInteger count = new AtomicInteger();
+        facade.search(ObjectClass.ACCOUNT, null, obj -> {
+            count.incrementAndGet();
+            return true;
+        }, null);
+        assertEquals(500, count.get());
+    }
+
+    @Test
+    public void testRoundRobinFailover() throws Exception {
+        RemoteFrameworkConnectionGroup group = new RemoteFrameworkConnectionGroup(
+                List.of(connectionInfo(DOWN_PORT), connectionInfo(PORT1), connectionInfo(PORT2)),
+                RemoteFrameworkConnectionGroup.Strategy.ROUND_ROBIN, 60 * 1000);
+        ConnectorInfoManager manager = ConnectorInfoManagerFactory.getInstance().getRemoteManager(group);
+        ConnectorFacade facade = newFacade(manager);
+
+        long before1 = admitted(server1);
+        long before2 = admitted(server2);
+        for (int i = 0; i < 6; i++) {
+            search(facade);
+        }
+        // every search succeeded, each live server served some of them
+        assertEquals(6, admitted(server1) - before1 + admitted(server2) - before2);
+        assertTrue(admitted(server1) > before1);
+        assertTrue(admitted(server2) > before2);
+
+        RemoteConnectionGroup connectionGroup =
+                ((RemoteConnectorGroupInfoManagerImpl) manager).getConnectionGroup();
+        assertTrue(connectionGroup.getMembers().get(0).isDown());
+        assertFalse(connectionGroup.getMembers().get(1).isDown());
+        assertEquals(2, connectionGroup.checkHealth());
+        connectionGroup.getMembers().forEach(m -> assertEquals(0, m.getOutstanding()));
+    }
+
+    @Test
+    public void testLeastOutstanding() throws Exception {
+        RemoteFrameworkConnectionGroup group = new RemoteFrameworkConnectionGroup(
+                List.of(connectionInfo(PORT1), connectionInfo(PORT2)));
+        ConnectorInfoManager manager = ConnectorInfoManagerFactory.getInstance().getRemoteManager(group);
+        ConnectorFacade facade = newFacade(manager);
+        RemoteConnectionGroup connectionGroup =
+                ((RemoteConnectorGroupInfoManagerImpl) manager).getConnectionGroup();
+
+        // a search in progress on one server sends the other operations to the other one
+        AtomicInteger busy = new AtomicInteger(-1);
+        long before1 = admitted(server1);
+        long before2 = admitted(server2);
+        facade.search(ObjectClass.ACCOUNT, null, obj -> {
+            if (busy.get() < 0) {
+                busy.set(connectionGroup.getMembers().get(0).getOutstanding() == 1 ? 0 : 1);
+                search(facade);
+                search(facade);
+            }
+            return true;
+        }, null);
+        assertTrue(busy.get() >= 0);
+        long served1 = admitted(server1) - before1;
+        long served2 = admitted(server2) - before2;
+        if (busy.get() == 0) {
+            assertEquals(1, served1);
+            assertEquals(2, served2);
+        } else {
+            assertEquals(2, served1);
+            assertEquals(1, served2);
+        }
+    }
+
+    @Test
+    public void testHealthCheckProbesDownServers() throws Exception {
+        RemoteFrameworkConnectionGroup group = new RemoteFrameworkConnectionGroup(
+                List.of(connectionInfo(LATE_PORT), connectionInfo(PORT1)),
+                RemoteFrameworkConnectionGroup.Strategy.ROUND_ROBIN, 100);
+        ConnectorInfoManager manager = ConnectorInfoManagerFactory.getInstance().getRemoteManager(group);
+        RemoteConnectionGroup connectionGroup =
+                ((RemoteConnectorGroupInfoManagerImpl) manager).getConnectionGroup();
+        RemoteConnectionGroup.Member late = connectionGroup.getMembers().get(0);
+        assertTrue(late.isDown());
+
+        // found up by the scheduled health check, without any operation
+        ConnectorServer lateServer = startServer(LATE_PORT);
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (late.isDown()) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(50);
+            }
+        } finally {
+            ((RemoteConnectorGroupInfoManagerImpl) manager).dispose();
+            RemoteConnectionPoolManager.dispose(connectionInfo(LATE_PORT));
+            lateServer.stop();
+        }
+    }
+
+    @Test
+    public void testAllDown() {
+        RemoteFrameworkConnectionGroup group = new RemoteFrameworkConnectionGroup(
+                List.of(connectionInfo(DOWN_PORT)));
+        try {
+            ConnectorInfoManagerFactory.getInstance().getRemoteManager(group);
+            throw new AssertionError("Expected the group to be unreachable");
+        } catch (RuntimeException e) {
+            // expected
+        } finally {
+            RemoteConnectionPoolManager.dispose(connectionInfo(DOWN_PORT));
+        }
+    }
+}
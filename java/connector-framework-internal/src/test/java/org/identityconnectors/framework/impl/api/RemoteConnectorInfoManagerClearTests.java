@@ -24,20 +24,47 @@
 package org.identityconnectors.framework.impl.api;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.InetAddress;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.identityconnectors.common.CollectionUtil;
 import org.identityconnectors.common.security.GuardedString;
 import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
 import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
 import org.identityconnectors.framework.api.ConnectorInfoManager;
 import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.ConnectorKey;
 import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfoBuilder;
+import org.identityconnectors.framework.api.operations.CreateApiOp;
+import org.identityconnectors.framework.common.exceptions.OperationTimeoutException;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptionsBuilder;
+import org.identityconnectors.framework.impl.api.local.ObjectPool;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionPoolManager;
 import org.identityconnectors.framework.impl.api.remote.RemoteConnectorInfoManagerImpl;
+import org.identityconnectors.framework.impl.api.remote.RemoteFrameworkConnection;
+import org.identityconnectors.testconnector.TstConnector;
+import org.identityconnectors.framework.impl.api.remote.messages.HelloRequest;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloResponse;
 import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
 import org.junit.jupiter.api.Test;
 
 public class RemoteConnectorInfoManagerClearTests extends ConnectorInfoManagerTestBase {
@@ -62,6 +89,8 @@ public class RemoteConnectorInfoManagerClearTests extends ConnectorInfoManagerTe
                 _server.setKeyHash(SecurityUtil.computeBase64SHA1Hash("changeit".toCharArray()));
                 _server.setBundleURLs(urls);
                 _server.setPort(PORT);
+                // only to track the operations in progress
+                _server.setMaxOperationsPerConnector(100);
                 _server.setIfAddress(InetAddress.getByName("127.0.0.1"));
                 _server.start();
             }
@@ -95,4 +124,142 @@ public class RemoteConnectorInfoManagerClearTests extends ConnectorInfoManagerTe
         assertNotNull(mgr.getServerInfo().get(HelloResponse.SERVER_START_TIME));
         assertEquals(mgr.getConnectorKeys().size(), 4);
     }
+
+    private static HelloResponse hello(RemoteFrameworkConnectionInfo connInfo, Map<String, Object> clientInfo) {
+        try (RemoteFrameworkConnection connection = new RemoteFrameworkConnection(connInfo)) {
+            connection.writeObjects(Locale.getDefault(), connInfo.getKey(),
+                    new HelloRequest(HelloRequest.CONNECTOR_INFO, clientInfo));
+            return (HelloResponse) connection.readObject();
+        }
+    }
+
+    @Test
+    public void testConnectorInfoEtag() throws Exception {
+        getConnectorInfoManager();
+        RemoteFrameworkConnectionInfo connInfo =
+                new RemoteFrameworkConnectionInfo("127.0.0.1", PORT, new GuardedString("changeit".toCharArray()));
+
+        HelloResponse full = hello(connInfo, null);
+        String etag = (String) full.getServerInfo().get(HelloRequest.CONNECTOR_INFO_ETAG);
+        assertNotNull(etag);
+        assertEquals(4, full.getConnectorKeys().size());
+        assertEquals(4, full.getConnectorInfos().size());
+
+        // up to date
+        HelloResponse notModified = hello(connInfo, Map.of(HelloRequest.CONNECTOR_INFO_ETAG, etag));
+        assertEquals(Boolean.TRUE, notModified.getServerInfo().get(HelloResponse.CONNECTOR_INFO_NOT_MODIFIED));
+        assertTrue(notModified.getConnectorKeys().isEmpty());
+        assertTrue(notModified.getConnectorInfos().isEmpty());
+
+        // outdated, only the unknown infos are sent
+        List<ConnectorKey> known = List.of(full.getConnectorKeys().get(0), full.getConnectorKeys().get(2));
+        HelloResponse changed = hello(connInfo, Map.of(HelloRequest.CONNECTOR_INFO_ETAG, "0-outdated",
+                HelloRequest.KNOWN_CONNECTOR_KEYS, known));
+        assertEquals(full.getConnectorKeys(), changed.getConnectorKeys());
+        assertEquals(2, changed.getConnectorInfos().size());
+        changed.getConnectorInfos().forEach(info -> assertFalse(known.contains(info.getConnectorKey())));
+
+        // the manager keeps its infos when polling an unchanged server
+        RemoteConnectorInfoManagerImpl mgr = new RemoteConnectorInfoManagerImpl(connInfo);
+        List<ConnectorInfo> infos = mgr.getConnectorInfos();
+        assertEquals(4, infos.size());
+        mgr.run();
+        assertSame(infos, mgr.getConnectorInfos());
+    }
+
+    @Test
+    public void testRemoteConnectionReuse() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(
+                info.createDefaultAPIConfiguration());
+
+        RemoteFrameworkConnectionInfo connInfo = new RemoteFrameworkConnectionInfo(
+                "127.0.0.1", PORT, new GuardedString("changeit".toCharArray()), false, null, 0);
+        ObjectPool<RemoteFrameworkConnection> pool = RemoteConnectionPoolManager.getPool(connInfo);
+
+        Set<Attribute> attrs = CollectionUtil.<Attribute>newReadOnlySet();
+        for (int i = 0; i < 5; i++) {
+            facade.create(ObjectClass.ACCOUNT, attrs, null);
+        }
+        // all calls went through a single connection, which is idle again
+        assertEquals(1, pool.getStatistics().getNumIdle());
+        assertEquals(0, pool.getStatistics().getNumActive());
+        // and authenticated once
+        try (ObjectPoolEntry<RemoteFrameworkConnection> entry = pool.borrowObject()) {
+            assertTrue(entry.getPooledObject().isAuthenticated());
+        }
+    }
+
+    @Test
+    public void testFlowControl() throws Exception {
+        getConnectorInfoManager();
+        RemoteFrameworkConnectionInfoBuilder builder = new RemoteFrameworkConnectionInfoBuilder().
+                setHost("127.0.0.1").
+                setPort(PORT).
+                setKey(new GuardedString("changeit".toCharArray())).
+                setTimeout(0);
+        // stop-and-wait, a single credit, and a small window that has to grow
+        List<RemoteFrameworkConnectionInfo> connInfos = CollectionUtil.newList(
+                builder.setFlowControlWindow(0).build(),
+                builder.setFlowControlWindow(1).build(),
+                builder.setFlowControlWindow(7).setAdaptiveFlowControl(true).build());
+        for (RemoteFrameworkConnectionInfo connInfo : connInfos) {
+            ConnectorInfo info = ConnectorInfoManagerFactory.getInstance().getRemoteManager(connInfo).
+                    getConnectorInfos().stream().
+                    filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                    findFirst().orElseThrow();
+            APIConfiguration config = info.createDefaultAPIConfiguration();
+            config.getConfigurationProperties().getProperty("numResults").setValue(1000);
+            ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+
+            final List<ConnectorObject> results = new ArrayList<>();
+            facade.search(ObjectClass.ACCOUNT, null, obj -> results.add(obj), null);
+            assertEquals(1000, results.size());
+
+            results.clear();
+            facade.search(ObjectClass.ACCOUNT, null, obj -> results.add(obj) && results.size() < 300, null);
+            assertEquals(300, results.size());
+
+            // the connection is reused once the answers to all pauses are read
+            results.clear();
+            facade.search(ObjectClass.ACCOUNT, null, obj -> results.add(obj), null);
+            assertEquals(1000, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(String.valueOf(i), results.get(i).getUid().getUidValue());
+            }
+            ObjectPool<RemoteFrameworkConnection> pool = RemoteConnectionPoolManager.getPool(connInfo);
+            assertEquals(1, pool.getStatistics().getNumIdle());
+        }
+    }
+
+    @Test
+    public void testCancelInterruptsOperation() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.setTimeout(CreateApiOp.class, 1000);
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+        // the connector sleeps that long before it creates
+        OperationOptionsBuilder opBuilder = new OperationOptionsBuilder();
+        opBuilder.setOption("delay", 10000);
+
+        long start = System.currentTimeMillis();
+        assertThrows(OperationTimeoutException.class,
+                () -> facade.create(ObjectClass.ACCOUNT, Set.of(), opBuilder.build()));
+
+        // the timeout cancels the operation, the server interrupts the sleep
+        while (_server.getAdmissionStatistics().stream().
+                mapToInt(OperationAdmissionStatistics::getActiveOperations).sum() > 0) {
+            assertTrue(System.currentTimeMillis() - start < 5000, "operation still running on the server");
+            Thread.sleep(50);
+        }
+
+        // and the connection is reused
+        facade.create(ObjectClass.ACCOUNT, Set.of(), null);
+    }
 }
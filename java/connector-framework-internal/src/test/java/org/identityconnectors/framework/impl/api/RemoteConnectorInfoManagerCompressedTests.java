@@ -0,0 +1,178 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
+import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfoBuilder;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.serializer.WireCodec;
+import org.identityconnectors.framework.impl.api.local.ObjectPoolEntry;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionPoolManager;
+import org.identityconnectors.framework.impl.api.remote.RemoteFrameworkConnection;
+import org.identityconnectors.framework.impl.api.remote.RemoteMultiplexedConnection;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.testconnector.TstConnector;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the remote tests over compressed connections.
+ */
+public class RemoteConnectorInfoManagerCompressedTests extends ConnectorInfoManagerTestBase {
+
+    private static ConnectorServer _server;
+
+    private final int PORT = 8767;
+
+    private RemoteFrameworkConnectionInfoBuilder getConnectionInfoBuilder() {
+        return new RemoteFrameworkConnectionInfoBuilder().
+                setHost("127.0.0.1").
+                setPort(PORT).
+                setKey(new GuardedString("changeit".toCharArray())).
+                setTimeout(0).
+                setCompressed(true).
+                setCodecs(List.of(WireCodec.COMPACT));
+    }
+
+    @Override
+    protected ConnectorInfoManager getConnectorInfoManager() throws Exception {
+        List<URL> urls = getTestBundles();
+
+        synchronized (RemoteConnectorInfoManagerCompressedTests.class) {
+            if (_server == null) {
+                _server = ConnectorServer.newInstance();
+                _server.setKeyHash(SecurityUtil.computeBase64SHA1Hash("changeit".toCharArray()));
+                _server.setBundleURLs(urls);
+                _server.setPort(PORT);
+                _server.setIfAddress(InetAddress.getByName("127.0.0.1"));
+                _server.start();
+            }
+        }
+        return ConnectorInfoManagerFactory.getInstance().getRemoteManager(getConnectionInfoBuilder().build());
+    }
+
+    @Override
+    protected synchronized void shutdownConnnectorInfoManager() {
+        synchronized (RemoteConnectorInfoManagerCompressedTests.class) {
+            if (_server != null) {
+                _server.stop();
+                _server = null;
+            }
+        }
+        // These are initialized by the connector server.
+        ConnectorFacadeFactory.getInstance().dispose();
+        ConnectorInfoManagerFactory.getInstance().clearLocalCache();
+    }
+
+    private List<ConnectorObject> search(final RemoteFrameworkConnectionInfo connInfo) {
+        ConnectorInfo info = ConnectorInfoManagerFactory.getInstance().getRemoteManager(connInfo).
+                getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.getConfigurationProperties().getProperty("numResults").setValue(1000);
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+        List<ConnectorObject> results = new ArrayList<>();
+        facade.search(ObjectClass.ACCOUNT, null, obj -> results.add(obj), null);
+        return results;
+    }
+
+    @Test
+    public void testCompressedConnection() throws Exception {
+        getConnectorInfoManager();
+        RemoteFrameworkConnectionInfo connInfo = getConnectionInfoBuilder().build();
+        List<ConnectorObject> results = search(connInfo);
+        assertEquals(1000, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(String.valueOf(i), results.get(i).getUid().getUidValue());
+        }
+
+        try (ObjectPoolEntry<RemoteFrameworkConnection> entry =
+                RemoteConnectionPoolManager.borrowConnection(connInfo)) {
+            assertTrue(entry.getPooledObject().isCompressed());
+            assertEquals(WireCodec.COMPACT, entry.getPooledObject().getCodec());
+            assertTrue(entry.getPooledObject().isFacadeDigests());
+        }
+    }
+
+    @Test
+    public void testCodecs() throws Exception {
+        assertTrue(WireCodec.getSupportedCodecs().contains(WireCodec.BINARY));
+        assertTrue(WireCodec.getSupportedCodecs().contains(WireCodec.COMPACT));
+        getConnectorInfoManager();
+
+        // the binary codec unless another one is offered
+        RemoteFrameworkConnectionInfo defaultInfo =
+                new RemoteFrameworkConnectionInfo("127.0.0.1", PORT, new GuardedString("changeit".toCharArray()));
+        assertTrue(defaultInfo.getCodecs().isEmpty());
+        try (ObjectPoolEntry<RemoteFrameworkConnection> entry =
+                RemoteConnectionPoolManager.borrowConnection(defaultInfo)) {
+            assertEquals(WireCodec.BINARY, entry.getPooledObject().getCodec());
+        }
+
+        // the first supported codec
+        RemoteFrameworkConnectionInfo connInfo =
+                getConnectionInfoBuilder().setCodecs(List.of("unknown", WireCodec.BINARY)).build();
+        assertEquals(1000, search(connInfo).size());
+        try (ObjectPoolEntry<RemoteFrameworkConnection> entry =
+                RemoteConnectionPoolManager.borrowConnection(connInfo)) {
+            assertEquals(WireCodec.BINARY, entry.getPooledObject().getCodec());
+        }
+
+        connInfo = getConnectionInfoBuilder().setCodecs(List.of()).setCompressed(false).build();
+        assertEquals(1000, search(connInfo).size());
+        try (ObjectPoolEntry<RemoteFrameworkConnection> entry =
+                RemoteConnectionPoolManager.borrowConnection(connInfo)) {
+            assertEquals(WireCodec.BINARY, entry.getPooledObject().getCodec());
+            assertFalse(entry.getPooledObject().isCompressed());
+        }
+    }
+
+    @Test
+    public void testCompressedMultiplexedConnection() throws Exception {
+        getConnectorInfoManager();
+        RemoteFrameworkConnectionInfo connInfo = getConnectionInfoBuilder().setMultiplexed(true).build();
+        assertEquals(1000, search(connInfo).size());
+
+        RemoteMultiplexedConnection connection = RemoteConnectionPoolManager.getMultiplexedConnection(connInfo);
+        assertNotNull(connection);
+        assertTrue(connection.isCompressed());
+    }
+}
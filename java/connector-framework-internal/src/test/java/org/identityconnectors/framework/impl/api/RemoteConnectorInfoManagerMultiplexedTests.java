@@ -0,0 +1,172 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
+import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfoBuilder;
+import org.identityconnectors.framework.api.operations.CreateApiOp;
+import org.identityconnectors.framework.common.exceptions.OperationTimeoutException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptionsBuilder;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectionPoolManager;
+import org.identityconnectors.framework.impl.api.remote.RemoteMultiplexedConnection;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
+import org.identityconnectors.testconnector.TstConnector;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the remote tests with all operations sharing one multiplexed connection.
+ */
+public class RemoteConnectorInfoManagerMultiplexedTests extends ConnectorInfoManagerTestBase {
+
+    private static ConnectorServer _server;
+
+    private final int PORT = 8763;
+
+    private RemoteFrameworkConnectionInfo getConnectionInfo() {
+        return new RemoteFrameworkConnectionInfoBuilder().
+                setHost("127.0.0.1").
+                setPort(PORT).
+                setKey(new GuardedString("changeit".toCharArray())).
+                setTimeout(0).
+                setMultiplexed(true).
+                build();
+    }
+
+    @Override
+    protected ConnectorInfoManager getConnectorInfoManager() throws Exception {
+        List<URL> urls = getTestBundles();
+
+        synchronized (RemoteConnectorInfoManagerMultiplexedTests.class) {
+            if (_server == null) {
+                _server = ConnectorServer.newInstance();
+                _server.setKeyHash(SecurityUtil.computeBase64SHA1Hash("changeit".toCharArray()));
+                _server.setBundleURLs(urls);
+                _server.setPort(PORT);
+                // only to track the operations in progress
+                _server.setMaxOperationsPerConnector(100);
+                _server.setIfAddress(InetAddress.getByName("127.0.0.1"));
+                _server.start();
+            }
+        }
+        return ConnectorInfoManagerFactory.getInstance().getRemoteManager(getConnectionInfo());
+    }
+
+    @Override
+    protected synchronized void shutdownConnnectorInfoManager() {
+        synchronized (RemoteConnectorInfoManagerMultiplexedTests.class) {
+            if (_server != null) {
+                _server.stop();
+                _server = null;
+            }
+        }
+        // These are initialized by the connector server.
+        ConnectorFacadeFactory.getInstance().dispose();
+        ConnectorInfoManagerFactory.getInstance().clearLocalCache();
+    }
+
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        // several pauses per search
+        config.getConfigurationProperties().getProperty("numResults").setValue(1000);
+        final ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    AtomicInteger count = new AtomicInteger();
+                    facade.search(ObjectClass.ACCOUNT, null, obj -> {
+                        assertEquals(String.valueOf(count.getAndIncrement()), obj.getUid().getUidValue());
+                        return true;
+                    }, null);
+                    return count.get();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(1000, result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        RemoteMultiplexedConnection connection =
+                RemoteConnectionPoolManager.getMultiplexedConnection(getConnectionInfo());
+        assertNotNull(connection);
+        assertEquals(0, connection.getStreamCount());
+    }
+
+    @Test
+    public void testCancelInterruptsOperation() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.setTimeout(CreateApiOp.class, 1000);
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+        // the connector sleeps that long before it creates
+        OperationOptionsBuilder opBuilder = new OperationOptionsBuilder();
+        opBuilder.setOption("delay", 10000);
+
+        long start = System.currentTimeMillis();
+        assertThrows(OperationTimeoutException.class,
+                () -> facade.create(ObjectClass.ACCOUNT, Set.of(), opBuilder.build()));
+
+        // the timeout cancels the operation, the server interrupts the sleep
+        while (_server.getAdmissionStatistics().stream().
+                mapToInt(OperationAdmissionStatistics::getActiveOperations).sum() > 0) {
+            assertTrue(System.currentTimeMillis() - start < 5000, "operation still running on the server");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
+import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.testconnector.TstConnector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Runs the remote tests against a server serving connections on virtual
+ * threads with a single carrier thread, where an operation pinning the carrier
+ * while it is blocked on the socket hangs the server. Run by its own surefire
+ * execution, which sets {@code jdk.virtualThreadScheduler.parallelism}.
+ */
+@EnabledIfSystemProperty(named = "jdk.virtualThreadScheduler.parallelism", matches = "1")
+@Timeout(value = 5, unit = TimeUnit.MINUTES, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+public class RemoteConnectorInfoManagerSingleCarrierTests extends RemoteConnectorInfoManagerVirtualThreadsTests {
+
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.getConfigurationProperties().getProperty("numResults").setValue(5000);
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> searches = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                searches.add(executor.submit(() -> {
+                    AtomicInteger count = new AtomicInteger();
+                    facade.search(ObjectClass.ACCOUNT, null, obj -> {
+                        count.incrementAndGet();
+                        return true;
+                    }, null);
+                    return count.get();
+                }));
+            }
+            for (Future<Integer> search : searches) {
+                assertEquals(5000, search.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.common.security.SecurityUtil;
+import org.identityconnectors.framework.api.APIConfiguration;
+import org.identityconnectors.framework.api.ConnectorFacade;
+import org.identityconnectors.framework.api.ConnectorFacadeFactory;
+import org.identityconnectors.framework.api.ConnectorInfo;
+import org.identityconnectors.framework.api.ConnectorInfoManager;
+import org.identityconnectors.framework.api.ConnectorInfoManagerFactory;
+import org.identityconnectors.framework.api.RemoteFrameworkConnectionInfo;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.testconnector.TstConnector;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the remote tests against a server serving connections on virtual threads.
+ */
+public class RemoteConnectorInfoManagerVirtualThreadsTests extends ConnectorInfoManagerTestBase {
+
+    private static ConnectorServer _server;
+
+    private final int PORT = 8765;
+
+    @Override
+    protected ConnectorInfoManager getConnectorInfoManager() throws Exception {
+        List<URL> urls = getTestBundles();
+
+        synchronized (RemoteConnectorInfoManagerVirtualThreadsTests.class) {
+            if (_server == null) {
+                _server = ConnectorServer.newInstance();
+                _server.setKeyHash(SecurityUtil.computeBase64SHA1Hash("changeit".toCharArray()));
+                _server.setBundleURLs(urls);
+                _server.setPort(PORT);
+                _server.setIfAddress(InetAddress.getByName("127.0.0.1"));
+                _server.setUseVirtualThreads(true);
+                // must not limit the open connections
+                _server.setMaxWorkers(2);
+                _server.start();
+            }
+        }
+        RemoteFrameworkConnectionInfo connInfo = new RemoteFrameworkConnectionInfo(
+                "127.0.0.1", PORT, new GuardedString("changeit".toCharArray()), false, null, 0);
+        return ConnectorInfoManagerFactory.getInstance().getRemoteManager(connInfo);
+    }
+
+    @Override
+    protected synchronized void shutdownConnnectorInfoManager() {
+        synchronized (RemoteConnectorInfoManagerVirtualThreadsTests.class) {
+            if (_server != null) {
+                _server.stop();
+                _server = null;
+            }
+        }
+        // These are initialized by the connector server.
+        ConnectorFacadeFactory.getInstance().dispose();
+        ConnectorInfoManagerFactory.getInstance().clearLocalCache();
+    }
+
+    @Test
+    public void testManyIdleConnections() throws Exception {
+        ConnectorInfoManager manager = getConnectorInfoManager();
+        ConnectorInfo info = manager.getConnectorInfos().stream().
+                filter(i -> TstConnector.class.getName().equals(i.getConnectorKey().getConnectorName())).
+                findFirst().orElseThrow();
+        APIConfiguration config = info.createDefaultAPIConfiguration();
+        config.getConfigurationProperties().getProperty("numResults").setValue(10);
+        ConnectorFacade facade = ConnectorFacadeFactory.getInstance().newInstance(config);
+
+        List<Socket> idle = new ArrayList<>();
+        try {
+            // far more open connections than worker threads
+            for (int i = 0; i < 50; i++) {
+                idle.add(new Socket("127.0.0.1", PORT));
+            }
+            AtomicInteger count = new AtomicInteger();
+            facade.search(ObjectClass.ACCOUNT, null, obj -> {
+                count.incrementAndGet();
+                return true;
+            }, null);
+            assertEquals(10, count.get());
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+}
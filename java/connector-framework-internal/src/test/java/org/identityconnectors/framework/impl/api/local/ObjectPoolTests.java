@@ -24,7 +24,9 @@
 package org.identityconnectors.framework.impl.api.local;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -267,6 +269,56 @@ public class ObjectPoolTests {
         assertEquals(0, pool.getStatistics().getNumActive());
     }
 
+    @Test
+    public void testEvictIdleObjects() throws Exception {
+        ObjectPoolConfiguration config = new ObjectPoolConfiguration();
+        config.setMaxObjects(3);
+        config.setMaxIdle(3);
+        config.setMinIdle(0);
+        config.setMinEvictableIdleTimeMillis(500);
+        MyTestConnectionFactory fact = new MyTestConnectionFactory();
+
+        ObjectPool<MyTestConnection> pool = new ObjectPool<>(fact, config);
+
+        ObjectPoolEntry<MyTestConnection> conn1 = pool.borrowObject();
+        ObjectPoolEntry<MyTestConnection> conn2 = pool.borrowObject();
+        conn1.close();
+        conn2.close();
+        pool.evictIdleObjects();
+        assertEquals(2, pool.getStatistics().getNumIdle());
+
+        Thread.sleep(config.getMinEvictableIdleTimeMillis() + 500);
+        // without borrowing or returning any object
+        pool.evictIdleObjects();
+        assertEquals(0, pool.getStatistics().getNumIdle());
+        assertEquals(0, pool.getStatistics().getNumActive());
+        assertEquals(false, conn1.getPooledObject().isGood());
+        assertEquals(false, conn2.getPooledObject().isGood());
+        assertEquals(2, fact.getTotalCreatedConnections());
+    }
+
+    @Test
+    public void testTryBorrowObject() throws Exception {
+        ObjectPoolConfiguration config = new ObjectPoolConfiguration();
+        config.setMaxObjects(1);
+        config.setMaxIdle(1);
+        config.setMinIdle(0);
+        config.setMaxWait(60 * 1000);
+        MyTestConnectionFactory fact = new MyTestConnectionFactory();
+
+        ObjectPool<MyTestConnection> pool = new ObjectPool<>(fact, config);
+
+        ObjectPoolEntry<MyTestConnection> conn1 = pool.tryBorrowObject();
+        assertNotNull(conn1);
+        // does not wait for the only object
+        assertNull(pool.tryBorrowObject());
+        conn1.close();
+        ObjectPoolEntry<MyTestConnection> conn2 = pool.tryBorrowObject();
+        assertSame(conn1, conn2);
+        assertEquals(1, fact.getTotalCreatedConnections());
+        conn2.close();
+    }
+
     @Test
     public void testCreateBadConnection()
             throws Exception {
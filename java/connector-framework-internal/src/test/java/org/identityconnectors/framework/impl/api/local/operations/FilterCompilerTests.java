@@ -0,0 +1,153 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.local.operations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.ConnectorObjectBuilder;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
+import org.identityconnectors.framework.common.objects.filter.FilterVisitor;
+import org.junit.jupiter.api.Test;
+
+public class FilterCompilerTests {
+
+    @Test
+    public void testLeaves() {
+        assertSameAccepted(FilterBuilder.equalTo(AttributeBuilder.build("count", 3)));
+        assertSameAccepted(FilterBuilder.equalTo(AttributeBuilder.build("missing")));
+        assertSameAccepted(FilterBuilder.equalsIgnoreCase(AttributeBuilder.build("mail", "USER3@EXAMPLE.COM")));
+        assertSameAccepted(FilterBuilder.startsWith(AttributeBuilder.build("mail", "user1")));
+        assertSameAccepted(FilterBuilder.endsWith(AttributeBuilder.build("mail", "3@example.com")));
+        assertSameAccepted(FilterBuilder.contains(AttributeBuilder.build("mail", "2@")));
+        assertSameAccepted(FilterBuilder.greaterThan(AttributeBuilder.build("count", 5)));
+        assertSameAccepted(FilterBuilder.greaterThanOrEqualTo(AttributeBuilder.build("count", 5)));
+        assertSameAccepted(FilterBuilder.lessThan(AttributeBuilder.build("count", 5)));
+        assertSameAccepted(FilterBuilder.lessThanOrEqualTo(AttributeBuilder.build("count", 5)));
+        // multi-valued attributes compare as less
+        assertSameAccepted(FilterBuilder.lessThan(AttributeBuilder.build("groups", "b")));
+        assertSameAccepted(FilterBuilder.containsAllValues(AttributeBuilder.build("groups", "a", "b")));
+        // attribute names are matched ignoring the case
+        assertSameAccepted(FilterBuilder.equalTo(AttributeBuilder.build("COUNT", 4)));
+    }
+
+    @Test
+    public void testComposites() {
+        Filter count = FilterBuilder.greaterThan(AttributeBuilder.build("count", 2));
+        Filter mail = FilterBuilder.startsWith(AttributeBuilder.build("mail", "user1"));
+        Filter groups = FilterBuilder.containsAllValues(AttributeBuilder.build("groups", "a"));
+        assertSameAccepted(FilterBuilder.and(count, FilterBuilder.or(mail, groups)));
+        assertSameAccepted(FilterBuilder.or(FilterBuilder.and(count, mail), FilterBuilder.not(groups)));
+        assertSameAccepted(FilterBuilder.and(FilterBuilder.and(count, mail), FilterBuilder.and(groups, count)));
+        List<Filter> clauses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            clauses.add(FilterBuilder.equalTo(AttributeBuilder.build("count", i)));
+        }
+        assertSameAccepted(FilterBuilder.or(clauses));
+        assertSameAccepted(FilterBuilder.and(count, new CountFilter()));
+    }
+
+    @Test
+    public void testNormalizingFilter() {
+        ObjectNormalizerFacade normalizer = new ObjectNormalizerFacade(ObjectClass.ACCOUNT, new CaseNormalizer());
+        assertSameAccepted(new NormalizingFilter(
+                FilterBuilder.equalTo(AttributeBuilder.build("mail", "User2@Example.com")), normalizer));
+        assertSameAccepted(new NormalizingFilter(FilterBuilder.or(
+                FilterBuilder.contains(AttributeBuilder.build("mail", "R1")),
+                FilterBuilder.containsAllValues(AttributeBuilder.build("groups", "A"))), normalizer));
+        assertSameAccepted(FilterBuilder.and(
+                new NormalizingFilter(FilterBuilder.startsWith(AttributeBuilder.build("mail", "USER")), normalizer),
+                FilterBuilder.startsWith(AttributeBuilder.build("mail", "user"))));
+        assertSameAccepted(new NormalizingFilter(new CountFilter(), normalizer));
+    }
+
+    @Test
+    public void testFailures() {
+        Filter filter = FilterCompiler.compile(FilterBuilder.startsWith(AttributeBuilder.build("count", "1")));
+        assertThrows(IllegalArgumentException.class, () -> filter.accept(createObject(1)));
+    }
+
+    @Test
+    public void testCompileOnce() {
+        Filter filter = FilterBuilder.equalTo(AttributeBuilder.build("count", 3));
+        Filter compiled = FilterCompiler.compile(filter);
+        assertSame(compiled, FilterCompiler.compile(compiled));
+        assertEquals(filter.toString(), compiled.toString());
+    }
+
+    private static void assertSameAccepted(final Filter filter) {
+        Filter compiled = FilterCompiler.compile(filter);
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            ConnectorObject object = createObject(i);
+            assertEquals(filter.accept(object), compiled.accept(object), filter + " on " + object);
+            accepted += compiled.accept(object) ? 1 : 0;
+        }
+        assertEquals(accepted, createObjects().stream().filter(filter::accept).count());
+    }
+
+    private static List<ConnectorObject> createObjects() {
+        List<ConnectorObject> objects = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            objects.add(createObject(i));
+        }
+        return objects;
+    }
+
+    private static ConnectorObject createObject(final int i) {
+        ConnectorObjectBuilder bld = new ConnectorObjectBuilder();
+        bld.setUid(String.valueOf(i));
+        bld.setName("user" + i);
+        bld.addAttribute(AttributeBuilder.build("count", i));
+        if (i % 4 != 0) {
+            bld.addAttribute(AttributeBuilder.build("mail", (i % 3 == 0 ? "User" : "user") + i + "@example.com"));
+        }
+        if (i % 2 == 0) {
+            bld.addAttribute(AttributeBuilder.build("groups", "a", i % 3 == 0 ? "b" : "c"));
+        }
+        return bld.build();
+    }
+
+    /**
+     * A filter unknown to the compiler.
+     */
+    private static class CountFilter implements Filter {
+
+        @Override
+        public boolean accept(final ConnectorObject obj) {
+            return ((Integer) obj.getAttributeByName("count").getValue().get(0)) % 2 == 1;
+        }
+
+        @Override
+        public <R, P> R accept(final FilterVisitor<R, P> v, final P p) {
+            return v.visitExtendedFilter(p, this);
+        }
+    }
+}
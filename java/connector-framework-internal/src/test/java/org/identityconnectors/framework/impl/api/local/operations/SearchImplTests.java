@@ -25,12 +25,18 @@
 package org.identityconnectors.framework.impl.api.local.operations;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import org.identityconnectors.common.CollectionUtil;
+import org.identityconnectors.framework.api.ResultsHandlerConfiguration;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.identityconnectors.framework.common.objects.AttributeBuilder;
 import org.identityconnectors.framework.common.objects.ConnectorObject;
 import org.identityconnectors.framework.common.objects.ConnectorObjectBuilder;
@@ -38,11 +44,15 @@ import org.identityconnectors.framework.common.objects.ObjectClass;
 import org.identityconnectors.framework.common.objects.OperationOptions;
 import org.identityconnectors.framework.common.objects.OperationOptionsBuilder;
 import org.identityconnectors.framework.common.objects.ResultsHandler;
+import org.identityconnectors.framework.common.objects.SearchResult;
 import org.identityconnectors.framework.common.objects.filter.Filter;
 import org.identityconnectors.framework.common.objects.filter.FilterTranslator;
 import org.identityconnectors.framework.common.objects.filter.FilterVisitor;
+import org.identityconnectors.framework.impl.api.local.ObjectPool;
 import org.identityconnectors.framework.spi.Configuration;
 import org.identityconnectors.framework.spi.Connector;
+import org.identityconnectors.framework.spi.PoolableConnector;
+import org.identityconnectors.framework.spi.SearchResultsHandler;
 import org.identityconnectors.framework.spi.operations.SearchOp;
 import org.identityconnectors.test.common.TestHelpers;
 import org.junit.jupiter.api.Test;
@@ -115,6 +125,65 @@ public class SearchImplTests {
         assertEquals(expecteList, actual);
     }
 
+    @Test
+    public void testParallelQueries() {
+        Set<ConnectorObject> expected = new HashSet<>();
+        List<List<ConnectorObject>> main = new ArrayList<>();
+        for (int q = 0; q < 4; q++) {
+            List<ConnectorObject> data = new ArrayList<>();
+            for (int i = q * 5; i < q * 5 + 8; i++) {
+                data.add(createObject(i));
+                expected.add(createObject(i));
+            }
+            main.add(data);
+        }
+        List<ConnectorObject> actual = new ArrayList<>();
+        // every query waits for the others, so they must run at the same time
+        ParallelProvider.barrier = new CyclicBarrier(4);
+        try {
+            SearchImpl.rawSearch(new ParallelProvider(), ObjectClass.ACCOUNT, new MockFilter(main),
+                    new ListHandler(actual, Integer.MAX_VALUE), new OperationOptionsBuilder().build(),
+                    new ParallelContext(4));
+        } finally {
+            ParallelProvider.barrier = null;
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+    }
+
+    @Test
+    public void testParallelQueriesStop() {
+        List<List<ConnectorObject>> main = new ArrayList<>();
+        for (int q = 0; q < 20; q++) {
+            List<ConnectorObject> data = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                data.add(createObject(q * 10 + i));
+            }
+            main.add(data);
+        }
+        List<ConnectorObject> actual = new ArrayList<>();
+        SearchImpl.rawSearch(new ParallelProvider(), ObjectClass.ACCOUNT, new MockFilter(main),
+                new ListHandler(actual, 3), new OperationOptionsBuilder().build(), new ParallelContext(4));
+        assertEquals(3, actual.size());
+    }
+
+    @Test
+    public void testParallelQueriesFailure() {
+        List<List<ConnectorObject>> main = new ArrayList<>();
+        for (int q = 0; q < 8; q++) {
+            List<ConnectorObject> data = new ArrayList<>();
+            // the provider fails on the empty query
+            if (q != 5) {
+                data.add(createObject(q));
+            }
+            main.add(data);
+        }
+        assertThrows(ConnectorException.class, () -> SearchImpl.rawSearch(
+                new ParallelProvider(), ObjectClass.ACCOUNT, new MockFilter(main),
+                new ListHandler(new ArrayList<>(), Integer.MAX_VALUE), new OperationOptionsBuilder().build(),
+                new ParallelContext(3)));
+    }
+
     ConnectorObject createObject(int uid) {
         ConnectorObjectBuilder bld = new ConnectorObjectBuilder();
         bld.setUid("" + uid);
@@ -177,6 +246,92 @@ public class SearchImplTests {
         }
     }
 
+    public static class ParallelProvider extends DuplicateProvider {
+
+        static volatile CyclicBarrier barrier;
+
+        @Override
+        public void executeQuery(ObjectClass objectClass,
+                List<ConnectorObject> query, ResultsHandler handler,
+                OperationOptions options) {
+            if (query.isEmpty()) {
+                throw new ConnectorException("Empty query");
+            }
+            CyclicBarrier b = barrier;
+            if (b != null) {
+                try {
+                    b.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw ConnectorException.wrap(e);
+                }
+            }
+            super.executeQuery(objectClass, query, handler, options);
+        }
+    }
+
+    /**
+     * Context of a search running its queries on new connector instances.
+     */
+    private static class ParallelContext extends ConnectorOperationalContext {
+
+        private final int maxParallelQueries;
+
+        ParallelContext(int maxParallelQueries) {
+            super(null, null);
+            this.maxParallelQueries = maxParallelQueries;
+        }
+
+        @Override
+        public ResultsHandlerConfiguration getResultsHandlerConfiguration() {
+            ResultsHandlerConfiguration cfg = new ResultsHandlerConfiguration();
+            cfg.setEnableParallelQueries(true);
+            cfg.setMaxParallelQueries(maxParallelQueries);
+            return cfg;
+        }
+
+        @Override
+        public ObjectPool<PoolableConnector> getPool() {
+            return null;
+        }
+
+        @Override
+        public Class<? extends Connector> getConnectorClass() {
+            return ParallelProvider.class;
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            return null;
+        }
+
+        @Override
+        public String getInstanceName() {
+            return null;
+        }
+    }
+
+    private static class ListHandler implements SearchResultsHandler {
+
+        private final List<ConnectorObject> objects;
+
+        private final int max;
+
+        ListHandler(List<ConnectorObject> objects, int max) {
+            this.objects = objects;
+            this.max = max;
+        }
+
+        @Override
+        public boolean handle(ConnectorObject connectorObject) {
+            objects.add(connectorObject);
+            return objects.size() < max;
+        }
+
+        @Override
+        public void handleResult(SearchResult result) {
+        }
+    }
+
     /**
      * Use the filter to pass objects to the filter translator.
      */
@@ -0,0 +1,97 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.api.local.operations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class UidSetTests {
+
+    @AfterEach
+    public void resetLimits() {
+        UidSet.setLimits(UidSet.DEFAULT_HASHED_ABOVE, UidSet.DEFAULT_SPILL_ABOVE, false);
+    }
+
+    @Test
+    public void testSmallSet() {
+        try (UidSet set = new UidSet()) {
+            assertAddsOnce(set, 100);
+            assertFalse(set.isHashed());
+        }
+    }
+
+    @Test
+    public void testHashedSet() {
+        UidSet.setLimits(10, UidSet.DEFAULT_SPILL_ABOVE, false);
+        try (UidSet set = new UidSet()) {
+            assertAddsOnce(set, 5000);
+            assertTrue(set.isHashed());
+            assertFalse(set.isSpilled());
+        }
+    }
+
+    @Test
+    public void testOffHeapSet() {
+        UidSet.setLimits(10, UidSet.DEFAULT_SPILL_ABOVE, true);
+        try (UidSet set = new UidSet()) {
+            assertAddsOnce(set, 5000);
+            assertTrue(set.isHashed());
+        }
+    }
+
+    @Test
+    public void testSpilledSet() {
+        UidSet.setLimits(10, 0, false);
+        try (UidSet set = new UidSet()) {
+            // longer than the write buffer of the file
+            String longUid = "x".repeat(100000);
+            assertTrue(set.add(longUid));
+            assertAddsOnce(set, 20000);
+            assertFalse(set.add(longUid));
+            assertFalse(set.add(longUid.substring(1) + "x"));
+            assertTrue(set.add(longUid.substring(1)));
+            assertTrue(set.isSpilled());
+            assertEquals(20002, set.size());
+        }
+    }
+
+    private static void assertAddsOnce(final UidSet set, final int count) {
+        int size = set.size();
+        for (int i = 0; i < count; i++) {
+            assertTrue(set.add(uid(i)));
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            assertFalse(set.add(uid(i)));
+        }
+        assertEquals(size + count, set.size());
+    }
+
+    private static String uid(final int i) {
+        // uids of different lengths sharing prefixes
+        return "uid=" + i + ",ou=people".substring(0, i % 11);
+    }
+}
@@ -94,6 +94,7 @@ import org.identityconnectors.framework.impl.api.remote.messages.HelloRequest;
 import org.identityconnectors.framework.impl.api.remote.messages.HelloResponse;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestMoreData;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestCancel;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationRequestStopData;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponseEnd;
 import org.identityconnectors.framework.impl.api.remote.messages.OperationResponsePart;
@@ -891,6 +892,14 @@ public class ObjectSerializationTests {
         HelloRequest v2 = (HelloRequest) cloneObject(v1);
         assertNotNull(v2);
         assertEquals(v2.getInfoLevel(), HelloRequest.CONNECTOR_INFO);
+        assertTrue(v2.getClientInfo().isEmpty());
+
+        Map<String, Object> clientInfo = new HashMap<>(1);
+        clientInfo.put(HelloRequest.PROTOCOL_VERSION, HelloRequest.MULTIPLEXED_PROTOCOL_VERSION);
+        v1 = new HelloRequest(HelloRequest.SERVER_INFO, clientInfo);
+        v2 = (HelloRequest) cloneObject(v1);
+        assertEquals(HelloRequest.SERVER_INFO, v2.getInfoLevel());
+        assertEquals(clientInfo, v2.getClientInfo());
     }
 
     @Test
@@ -942,6 +951,33 @@ public class ObjectSerializationTests {
         assertEquals(CreateApiOp.class, v2.getOperation());
         assertEquals("mymethodName", v2.getOperationMethodName());
         assertEquals(args, v2.getArguments());
+        assertEquals(0, v2.getStreamId());
+
+        v1 = new OperationRequest(7, v1.getConnectorKey(), v1.getConnectorFacadeKey(),
+                v1.getOperation(), v1.getOperationMethodName(), args);
+        v2 = (OperationRequest) cloneObject(v1);
+        assertEquals(7, v2.getStreamId());
+        assertEquals(args, v2.getArguments());
+        assertEquals(0, v2.getCredits());
+
+        v1 = new OperationRequest(7, v1.getConnectorKey(), v1.getConnectorFacadeKey(),
+                v1.getOperation(), v1.getOperationMethodName(), args, 500);
+        v2 = (OperationRequest) cloneObject(v1);
+        assertEquals(500, v2.getCredits());
+        assertNull(v2.getLocale());
+
+        v1 = new OperationRequest(7, v1.getConnectorKey(), v1.getConnectorFacadeKey(),
+                v1.getOperation(), v1.getOperationMethodName(), args, 0, Locale.of("en", "GB"));
+        v2 = (OperationRequest) cloneObject(v1);
+        assertEquals(Locale.of("en", "GB"), v2.getLocale());
+        assertNull(v2.getConnectorFacadeDigest());
+
+        // only the digest once the server knows the key
+        v1 = new OperationRequest(7, v1.getConnectorKey(), null, "digest",
+                v1.getOperation(), v1.getOperationMethodName(), args, 0, null);
+        v2 = (OperationRequest) cloneObject(v1);
+        assertNull(v2.getConnectorFacadeKey());
+        assertEquals("digest", v2.getConnectorFacadeDigest());
     }
 
     @Test
@@ -949,6 +985,7 @@ public class ObjectSerializationTests {
         OperationResponseEnd v1 = new OperationResponseEnd();
         OperationResponseEnd v2 = (OperationResponseEnd) cloneObject(v1);
         assertNotNull(v2);
+        assertEquals(3, ((OperationResponseEnd) cloneObject(new OperationResponseEnd(3))).getStreamId());
     }
 
     @Test
@@ -958,6 +995,12 @@ public class ObjectSerializationTests {
         OperationResponsePart v2 = (OperationResponsePart) cloneObject(v1);
         assertNotNull(v2.getException());
         assertEquals("bar", v2.getResult());
+        assertEquals(0, v2.getStreamId());
+
+        v2 = (OperationResponsePart) cloneObject(new OperationResponsePart(5, null, "bar"));
+        assertEquals(5, v2.getStreamId());
+        assertNull(v2.getException());
+        assertEquals("bar", v2.getResult());
     }
 
     @Test
@@ -965,6 +1008,10 @@ public class ObjectSerializationTests {
         OperationResponsePause v1 = new OperationResponsePause();
         OperationResponsePause v2 = (OperationResponsePause) cloneObject(v1);
         assertNotNull(v2);
+        assertEquals(3, ((OperationResponsePause) cloneObject(new OperationResponsePause(3))).getStreamId());
+        v2 = (OperationResponsePause) cloneObject(new OperationResponsePause(3, 250));
+        assertEquals(3, v2.getStreamId());
+        assertEquals(250, v2.getCredits());
     }
 
     @Test
@@ -972,6 +1019,10 @@ public class ObjectSerializationTests {
         OperationRequestMoreData v1 = new OperationRequestMoreData();
         OperationRequestMoreData v2 = (OperationRequestMoreData) cloneObject(v1);
         assertNotNull(v2);
+        assertEquals(3, ((OperationRequestMoreData) cloneObject(new OperationRequestMoreData(3))).getStreamId());
+        v2 = (OperationRequestMoreData) cloneObject(new OperationRequestMoreData(0, 500));
+        assertEquals(0, v2.getStreamId());
+        assertEquals(500, v2.getCredits());
     }
 
     @Test
@@ -979,6 +1030,16 @@ public class ObjectSerializationTests {
         OperationRequestStopData v1 = new OperationRequestStopData();
         OperationRequestStopData v2 = (OperationRequestStopData) cloneObject(v1);
         assertNotNull(v2);
+        assertEquals(3, ((OperationRequestStopData) cloneObject(new OperationRequestStopData(3))).getStreamId());
+    }
+
+    @Test
+    public void testOperationRequestCancel() {
+        OperationRequestCancel v1 = new OperationRequestCancel();
+        OperationRequestCancel v2 = (OperationRequestCancel) cloneObject(v1);
+        assertNotNull(v2);
+        assertEquals(0, v2.getStreamId());
+        assertEquals(5, ((OperationRequestCancel) cloneObject(new OperationRequestCancel(5))).getStreamId());
     }
 
     @Test
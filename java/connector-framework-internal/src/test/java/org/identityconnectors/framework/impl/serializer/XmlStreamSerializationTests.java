@@ -0,0 +1,201 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.serializer.BinaryObjectDeserializer;
+import org.identityconnectors.framework.common.serializer.BinaryObjectSerializer;
+import org.identityconnectors.framework.common.serializer.ObjectSerializerFactory;
+import org.identityconnectors.framework.common.serializer.SerializerUtil;
+import org.identityconnectors.framework.common.serializer.XmlObjectResultsHandler;
+import org.identityconnectors.framework.common.serializer.XmlObjectSerializer;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+/**
+ * Runs the serialization tests through the streaming parser, which does not
+ * validate.
+ */
+public class XmlStreamSerializationTests extends ObjectSerializationTests {
+
+    @Override
+    protected Object cloneObject(Object o) {
+        String xml = SerializerUtil.serializeXmlObject(o, true);
+        o = SerializerUtil.deserializeXmlObject(xml, false);
+
+        List<Object> list = new ArrayList<>();
+        list.add(o);
+        xml = SerializerUtil.serializeXmlObject(list, false);
+        @SuppressWarnings("unchecked")
+        List<Object> rv = (List<Object>) SerializerUtil.deserializeXmlObject(xml, false);
+        return rv.get(0);
+    }
+
+    @Test
+    public void testLayout() {
+        assertEquals("<?xml version='1.0' encoding='UTF-8'?>\n"
+                + "<!DOCTYPE List PUBLIC 'connectors.dtd' 'connectors.dtd'>\n"
+                + "<List>\n"
+                + "  <String>a&#xA;'b'</String>\n"
+                + "  <null/>\n"
+                + "  <String/>\n"
+                + "</List>\n",
+                SerializerUtil.serializeXmlObject(Arrays.asList("a\n'b'", null, ""), true));
+    }
+
+    @Test
+    public void testStopReading() {
+        // the unknown element is not read once the handler stops
+        String xml = "<MultiObject><String>foo</String><Unknown/></MultiObject>";
+        List<Object> results = new ArrayList<>();
+        ObjectSerializerFactory.getInstance().deserializeXmlStream(new InputSource(new StringReader(xml)),
+                o -> {
+                    results.add(o);
+                    return false;
+                }, false);
+        assertEquals(List.of("foo"), results);
+
+        assertThrows(ConnectorException.class, () -> ObjectSerializerFactory.getInstance().deserializeXmlStream(
+                new InputSource(new StringReader(xml)), o -> true, false));
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        ObjectSerializerFactory factory = ObjectSerializerFactory.getInstance();
+        List<StringWriter> chunks = new ArrayList<>();
+        XmlObjectSerializer ser = factory.newChunkedXmlSerializer(index -> {
+            assertEquals(chunks.size(), index);
+            StringWriter chunk = new StringWriter();
+            chunks.add(chunk);
+            return chunk;
+        }, true, 3);
+        for (int i = 0; i < 10; i++) {
+            ser.writeObject(i);
+        }
+        ser.close(true);
+        assertEquals(4, chunks.size());
+
+        List<InputSource> sources = new ArrayList<>();
+        for (StringWriter chunk : chunks) {
+            sources.add(new InputSource(new StringReader(chunk.toString())));
+        }
+        List<Object> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            factory.deserializeXmlChunks(sources, results::add, true, executor);
+            results.sort(null);
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), results);
+
+            // stop after the first object of any chunk
+            for (int i = 0; i < sources.size(); i++) {
+                sources.set(i, new InputSource(new StringReader(chunks.get(i).toString())));
+            }
+            AtomicInteger count = new AtomicInteger();
+            factory.deserializeXmlChunks(sources, o -> count.incrementAndGet() < 1, false, executor);
+            assertEquals(1, count.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmptyChunkedExport() {
+        List<StringWriter> chunks = new ArrayList<>();
+        XmlObjectSerializer ser = ObjectSerializerFactory.getInstance().newChunkedXmlSerializer(index -> {
+            StringWriter chunk = new StringWriter();
+            chunks.add(chunk);
+            return chunk;
+        }, false, 3);
+        ser.close(true);
+        assertEquals(1, chunks.size());
+        List<Object> results = Collections.synchronizedList(new ArrayList<>());
+        ObjectSerializerFactory.getInstance().deserializeXmlStream(
+                new InputSource(new StringReader(chunks.get(0).toString())), results::add, false);
+        assertEquals(List.of(), results);
+    }
+
+    @Test
+    public void testDefaultChunks() {
+        // a factory which does not know about chunks
+        ObjectSerializerFactory impl = ObjectSerializerFactory.getInstance();
+        ObjectSerializerFactory factory = new ObjectSerializerFactory() {
+
+            @Override
+            public BinaryObjectSerializer newBinarySerializer(OutputStream os) {
+                return impl.newBinarySerializer(os);
+            }
+
+            @Override
+            public BinaryObjectDeserializer newBinaryDeserializer(InputStream is) {
+                return impl.newBinaryDeserializer(is);
+            }
+
+            @Override
+            public XmlObjectSerializer newXmlSerializer(Writer w, boolean includeHeader, boolean multiObject) {
+                return impl.newXmlSerializer(w, includeHeader, multiObject);
+            }
+
+            @Override
+            public void deserializeXmlStream(InputSource is, XmlObjectResultsHandler handler, boolean validate) {
+                impl.deserializeXmlStream(is, handler, validate);
+            }
+        };
+        List<StringWriter> chunks = new ArrayList<>();
+        XmlObjectSerializer ser = factory.newChunkedXmlSerializer(index -> {
+            StringWriter chunk = new StringWriter();
+            chunks.add(chunk);
+            return chunk;
+        }, true, 3);
+        for (int i = 0; i < 10; i++) {
+            ser.writeObject(i);
+        }
+        ser.close(true);
+        assertEquals(1, chunks.size());
+
+        List<Object> results = new ArrayList<>();
+        factory.deserializeXmlChunks(List.of(new InputSource(new StringReader(chunks.get(0).toString())),
+                new InputSource(new StringReader(chunks.get(0).toString()))), results::add, true, null);
+        assertEquals(20, results.size());
+
+        AtomicInteger count = new AtomicInteger();
+        factory.deserializeXmlChunks(List.of(new InputSource(new StringReader(chunks.get(0).toString())),
+                new InputSource(new StringReader(chunks.get(0).toString()))), o -> count.incrementAndGet() < 2,
+                false, null);
+        assertEquals(2, count.get());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.binary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.List;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.junit.jupiter.api.Test;
+
+public class BinaryObjectDecoderTests {
+
+    @Test
+    public void testDecodeCompatibility() {
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(
+                Base64.getDecoder().decode(BinaryObjectEncoderTests.ENCODED_OBJECTS)));
+        for (Object expected : BinaryObjectEncoderTests.createObjects()) {
+            Object actual = decoder.readObject();
+            if (expected instanceof Object[]) {
+                assertArrayEquals((Object[]) expected, (Object[]) actual);
+            } else {
+                assertEquals(expected, actual);
+            }
+        }
+        decoder.close();
+    }
+
+    @Test
+    public void testNestedFieldsAfterTopLevel() {
+        // the buffer is reused by the second object, the first must be complete
+        List<Object> first = List.of(List.of("a", List.of("b", "c")), "d");
+        List<Object> second = List.of(List.of(List.of("e")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryObjectEncoder encoder = new BinaryObjectEncoder(out);
+        encoder.writeObject(first);
+        encoder.writeObject(second);
+        encoder.close();
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(first, decoder.readObject());
+        assertEquals(second, decoder.readObject());
+        decoder.close();
+    }
+
+    @Test
+    public void testTruncatedField() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryObjectEncoder encoder = new BinaryObjectEncoder(out);
+        encoder.writeObject(Integer.valueOf(1));
+        encoder.close();
+        byte[] bytes = out.toByteArray();
+        // shrink the length of the only field, an int, to 2 bytes
+        for (int i = bytes.length - 8; i >= 0; i--) {
+            if (bytes[i] == BinaryObjectEncoder.FIELD_TYPE_ANONYMOUS_FIELD && bytes[i + 4] == 4) {
+                bytes[i + 4] = 2;
+                break;
+            }
+        }
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(bytes));
+        assertThrows(ConnectorException.class, decoder::readObject);
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.impl.serializer.binary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.identityconnectors.common.security.GuardedByteArray;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.ConnectorObjectBuilder;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.SyncDeltaBuilder;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.junit.jupiter.api.Test;
+
+public class BinaryObjectEncoderTests {
+
+    /**
+     * The encoding of {@link #createObjects()} by the encoder which copied
+     * every field into its parent, all versions have to stay compatible with it.
+     */
+    static final String ENCODED_OBJECTS =
+            "AAD6+wAAAAIAAAAWAAAAD0Nvbm5lY3Rvck9iamVjdAAAAAAAAAALT2JqZWN0Q2xhc3MAAAABAAAABHR5cGUAAAAC"
+            + "AAAACkF0dHJpYnV0ZXMAAAADAAAAA1NldAAAAAQAAAAJQXR0cmlidXRlAAAABQAAAARuYW1lAAAABgAAAAZWYWx1"
+            + "ZXMAAAAHAAAABExpc3QAAAAIAAAACUJ5dGVBcnJheQAAAAkAAAAHSW50ZWdlcgAAAAoAAAAETG9uZwAAAAsAAAAG"
+            + "RG91YmxlAAAADAAAAAVGbG9hdAAAAA0AAAAHQm9vbGVhbgAAAA4AAAAEQnl0ZQAAAA8AAAAJQ2hhcmFjdGVyAAAA"
+            + "EAAAAAROYW1lAAAAEQAAAANVaWQAAAASAAAAA3VpZAAAABMAAAAIbmFtZUhpbnQAAAAUAAAABlN0cmluZwAAABU9"
+            + "AAAAAEcAAAABAAAAHj0AAAABRwAAAAIAAAAPAAAAC19fQUNDT1VOVF9fSEcAAAADAAABrz0AAAAERgAAADw9AAAA"
+            + "BUcAAAAGAAAABwAAAANiaW5HAAAABwAAAB09AAAACEYAAAASPQAAAAlGAAAABwAAAAMBAgNISEhGAAAAuD0AAAAF"
+            + "RwAAAAYAAAAHAAAAA251bUcAAAAHAAAAmT0AAAAIRgAAAA89AAAACkYAAAAEAAAAAUhGAAAAEz0AAAALRgAAAAgA"
+            + "AAAAAAAAAkhGAAAAEz0AAAAMRgAAAAhADAAAAAAAAEhGAAAAEz0AAAANRgAAAAhAEgAAAAAAAEhGAAAADD0AAAAO"
+            + "RgAAAAEBSEYAAAAMPQAAAA9GAAAAAQdIRgAAABA9AAAAEEYAAAAFAAAAAXhISEhGAAAAFD0AAAARRgAAAAkAAAAF"
+            + "bmFtZTFIRgAAACI9AAAAEkcAAAATAAAACAAAAAR1aWQxRwAAABQAAAACPEhIRgAAAGY9AAAABUcAAAAGAAAACQAA"
+            + "AAVtdWx0aUcAAAAHAAAART0AAAAIRgAAABA9AAAAFUYAAAAFAAAAAWFIRgAAABA9AAAAFUYAAAAFAAAAAWJIRgAA"
+            + "ABA9AAAAFUYAAAAFAAAAAWNISEhISAAAAAA8SAAAAAA+PQAAABVGAAAAET0AAAAVRgAAAAYAAAACczFIRgAAAAI8"
+            + "SEgAAAAAPQAAAAFHAAAAAgAAAA0AAAAJX19HUk9VUF9fSAAAAAIAAAADTWFwAAAAFgAAAAhNYXBFbnRyeQAAABc9"
+            + "AAAAFkYAAABOPQAAABdGAAAAED0AAAAVRgAAAAUAAAABa0hGAAAALj0AAAAIRgAAAA89AAAACkYAAAAEAAAAAUhG"
+            + "AAAADz0AAAAKRgAAAAQAAAACSEhISA==";
+
+    static List<Object> createObjects() {
+        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+        builder.setUid("uid1");
+        builder.setName("name1");
+        builder.addAttribute("multi", "a", "b", "c");
+        builder.addAttribute("num", 1, 2L, 3.5d, 4.5f, true, (byte) 7, 'x');
+        builder.addAttribute("bin", new byte[] { 1, 2, 3 });
+        List<Object> objects = new ArrayList<>();
+        objects.add(builder.build());
+        objects.add(null);
+        objects.add(new String[] { "s1", null });
+        objects.add(ObjectClass.GROUP);
+        objects.add(Map.of("k", List.of(1, 2)));
+        return objects;
+    }
+
+    private static byte[] encode(List<Object> objects) {
+        return encode(objects, BinaryObjectEncoder.ENCODING_VERSION);
+    }
+
+    private static byte[] encode(List<Object> objects, int version) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryObjectEncoder encoder = new BinaryObjectEncoder(out, version);
+        objects.forEach(encoder::writeObject);
+        encoder.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testWireCompatibility() {
+        assertEquals(ENCODED_OBJECTS, Base64.getEncoder().encodeToString(encode(createObjects())));
+    }
+
+    @Test
+    public void testCompactEncoding() {
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            objects.addAll(createObjects());
+        }
+        objects.add(Integer.MIN_VALUE);
+        objects.add(Long.MAX_VALUE);
+        objects.add(-1L);
+        // fields with lengths of two and three bytes, nested
+        char[] chars = new char[300];
+        Arrays.fill(chars, 'z');
+        objects.add(List.of(new String(chars), new String(chars)));
+        char[] longChars = new char[20000];
+        Arrays.fill(longChars, 'y');
+        objects.add(List.of(List.of(List.of(new String(longChars), new String(chars)), "short")));
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(
+                encode(objects, BinaryObjectEncoder.COMPACT_ENCODING_VERSION)));
+        for (Object expected : objects) {
+            Object actual = decoder.readObject();
+            if (expected instanceof Object[]) {
+                assertArrayEquals((Object[]) expected, (Object[]) actual);
+            } else {
+                assertEquals(expected, actual);
+            }
+        }
+        decoder.close();
+    }
+
+    @Test
+    public void testFixedLayouts() {
+        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+        builder.setObjectClass(ObjectClass.GROUP);
+        builder.setUid(new Uid("uid1", "rev1", new Name("hint1")));
+        builder.setName("name1");
+        builder.addAttribute(AttributeBuilder.build("empty"));
+        builder.addAttribute("mixed", "a", 1, null, new GuardedString("secret".toCharArray()));
+        ConnectorObject object = builder.build();
+
+        List<Object> objects = new ArrayList<>();
+        objects.add(object);
+        objects.add(AttributeBuilder.build("noValues", (List<Object>) null));
+        objects.add(new Uid("uid2", new Name("hint2")));
+        objects.add(new Name("name2"));
+        objects.add(new SyncDeltaBuilder().
+                setDeltaType(SyncDeltaType.CREATE_OR_UPDATE).
+                setToken(new SyncToken(42L)).
+                setPreviousUid(new Uid("uid0")).
+                setObject(object).
+                build());
+        objects.add(new SyncDeltaBuilder().
+                setDeltaType(SyncDeltaType.DELETE).
+                setToken(new SyncToken("token")).
+                setObjectClass(ObjectClass.ACCOUNT).
+                setUid(new Uid("uid3")).
+                build());
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(
+                encode(objects, BinaryObjectEncoder.COMPACT_ENCODING_VERSION)));
+        for (Object expected : objects) {
+            Object actual = decoder.readObject();
+            assertEquals(expected, actual);
+            if (expected instanceof Uid) {
+                assertEquals(((Uid) expected).getNameHint(), ((Uid) actual).getNameHint());
+            }
+        }
+        decoder.close();
+    }
+
+    @Test
+    public void testCompactEncodingSize() {
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+            builder.setUid(String.valueOf(i));
+            builder.setName("name" + i);
+            for (int j = 0; j < 50; j++) {
+                builder.addAttribute("myattribute" + j, "myvalue" + i + "-" + j);
+            }
+            objects.add(builder.build());
+        }
+        int size = encode(objects).length;
+        int compactSize = encode(objects, BinaryObjectEncoder.COMPACT_ENCODING_VERSION).length;
+        assertTrue(compactSize * 2 < size, "compact " + compactSize + " bytes, default " + size);
+    }
+
+    @Test
+    public void testLargeByteArrays() {
+        byte[] small = new byte[] { 1, 2, 3 };
+        byte[] large = new byte[100];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+        builder.setUid("uid1");
+        builder.setName("name1");
+        builder.addAttribute("jpegPhoto", large, small, large.clone());
+        builder.addAttribute("secret", new GuardedByteArray(large));
+        List<Object> objects = new ArrayList<>();
+        objects.add(builder.build());
+        objects.add(small);
+        objects.add(large);
+        objects.addAll(createObjects());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryObjectEncoder encoder =
+                new BinaryObjectEncoder(out, BinaryObjectEncoder.COMPACT_ENCODING_VERSION, 16);
+        objects.forEach(encoder::writeObject);
+        encoder.close();
+        byte[] bytes = out.toByteArray();
+
+        // written as is, one after the other
+        int index = indexOf(bytes, large, 0);
+        assertTrue(index > 0);
+        assertEquals(index + large.length, indexOf(bytes, large, index + 1));
+        index = indexOf(bytes, large, index + large.length + 1);
+        assertTrue(index > 0);
+        assertTrue(indexOf(bytes, large, index + 1) < 0);
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(bytes));
+        for (Object expectedObject : objects) {
+            Object actual = decoder.readObject();
+            if (expectedObject instanceof byte[]) {
+                assertArrayEquals((byte[]) expectedObject, (byte[]) actual);
+            } else if (expectedObject instanceof Object[]) {
+                assertArrayEquals((Object[]) expectedObject, (Object[]) actual);
+            } else if (expectedObject == objects.get(0)) {
+                ConnectorObject object = (ConnectorObject) actual;
+                List<Object> photos = object.getAttributeByName("jpegPhoto").getValue();
+                assertArrayEquals(large, (byte[]) photos.get(0));
+                assertArrayEquals(small, (byte[]) photos.get(1));
+                assertArrayEquals(large, (byte[]) photos.get(2));
+                assertEquals(object.getAttributeByName("secret"),
+                        ((ConnectorObject) expectedObject).getAttributeByName("secret"));
+            } else {
+                assertEquals(expectedObject, actual);
+            }
+        }
+        decoder.close();
+    }
+
+    private static int indexOf(byte[] bytes, byte[] value, int from) {
+        for (int i = from; i <= bytes.length - value.length; i++) {
+            if (Arrays.equals(bytes, i, i + value.length, value, 0, value.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testBufferReuse() {
+        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+        builder.setUid("large");
+        builder.setName("large");
+        // larger than the buffer kept between objects
+        byte[] large = new byte[2 * 1024 * 1024];
+        Arrays.fill(large, (byte) 5);
+        builder.addAttribute("bin", large);
+        ConnectorObject largeObject = builder.build();
+
+        List<Object> objects = new ArrayList<>(createObjects());
+        objects.add(largeObject);
+        objects.addAll(createObjects());
+
+        BinaryObjectDecoder decoder = new BinaryObjectDecoder(new ByteArrayInputStream(encode(objects)));
+        for (Object expected : objects) {
+            Object actual = decoder.readObject();
+            if (expected instanceof Object[]) {
+                assertArrayEquals((Object[]) expected, (Object[]) actual);
+            } else if (expected == largeObject) {
+                assertArrayEquals(large,
+                        (byte[]) ((ConnectorObject) actual).getAttributeByName("bin").getValue().get(0));
+            } else {
+                assertEquals(expected, actual);
+            }
+        }
+        decoder.close();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorFacadeImpl;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.junit.jupiter.api.Test;
+
+public class ConnectorFacadeKeyRegistryTests {
+
+    @Test
+    public void testRegister() {
+        ConnectorFacadeKeyRegistry registry = new ConnectorFacadeKeyRegistry();
+        String key = "facade key";
+        String digest = RemoteConnectorFacadeImpl.computeConnectorFacadeDigest(key);
+        assertNull(registry.get(digest));
+
+        assertSame(key, registry.register(key, digest));
+        assertSame(key, registry.get(digest));
+        // later copies of the key resolve to the registered instance
+        assertSame(key, registry.register(new String(key.toCharArray()), digest));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testRejectMismatchingDigest() {
+        ConnectorFacadeKeyRegistry registry = new ConnectorFacadeKeyRegistry();
+        String digest = RemoteConnectorFacadeImpl.computeConnectorFacadeDigest("facade key");
+        assertNull(registry.register("other key", digest));
+        assertNull(registry.get(digest));
+
+        registry.register("facade key", digest);
+        assertNull(registry.register("other key", digest));
+        assertEquals("facade key", registry.get(digest));
+    }
+
+    @Test
+    public void testSharedPerServer() {
+        ConnectorServer server = ConnectorServer.newInstance();
+        assertSame(ConnectorFacadeKeyRegistry.of(server), ConnectorFacadeKeyRegistry.of(server));
+        assertSame(ConnectorInfoCache.of(server), ConnectorInfoCache.of(server));
+        assertNotSame(ConnectorFacadeKeyRegistry.of(server),
+                ConnectorFacadeKeyRegistry.of(ConnectorServer.newInstance()));
+    }
+}
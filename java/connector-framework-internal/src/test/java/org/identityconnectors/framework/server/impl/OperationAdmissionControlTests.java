@@ -0,0 +1,225 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.server.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.identityconnectors.framework.api.ConnectorKey;
+import org.identityconnectors.framework.api.operations.SearchApiOp;
+import org.identityconnectors.framework.common.exceptions.RetryableException;
+import org.identityconnectors.framework.impl.api.remote.RemoteConnectorFacadeImpl;
+import org.identityconnectors.framework.impl.api.remote.messages.OperationRequest;
+import org.identityconnectors.framework.server.ConnectorServer;
+import org.identityconnectors.framework.server.OperationAdmissionStatistics;
+import org.junit.jupiter.api.Test;
+
+public class OperationAdmissionControlTests {
+
+    private static final ConnectorKey KEY1 = new ConnectorKey("bundle", "1.0", "Connector1");
+
+    private static final ConnectorKey KEY2 = new ConnectorKey("bundle", "1.0", "Connector2");
+
+    private static OperationRequest request(ConnectorKey key, String facadeKey) {
+        return new OperationRequest(key, facadeKey, SearchApiOp.class, "search",
+                List.of());
+    }
+
+    private static OperationAdmissionStatistics statistics(OperationAdmissionControl control,
+            ConnectorKey key) {
+        return control.getStatistics().stream().
+                filter(s -> key.equals(s.getConnectorKey())).findFirst().orElseThrow();
+    }
+
+    /**
+     * Records the operations admitted or rejected on the calling thread.
+     */
+    private static class Admissions {
+
+        private final BlockingQueue<OperationAdmissionControl.Gate> admitted = new LinkedBlockingQueue<>();
+
+        private final BlockingQueue<RetryableException> rejected = new LinkedBlockingQueue<>();
+
+        void admit(OperationAdmissionControl control, OperationRequest request) {
+            control.admit(request, Runnable::run, admitted::add, rejected::add);
+        }
+    }
+
+    @Test
+    public void testUnlimited() {
+        ConnectorServer server = ConnectorServer.newInstance();
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+        assertNull(control.tryAdmit(request(KEY1, "a")));
+        assertTrue(control.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testRejectWhenBusy() {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(2);
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+
+        OperationAdmissionControl.Gate gate1 = control.tryAdmit(request(KEY1, "a"));
+        OperationAdmissionControl.Gate gate2 = control.tryAdmit(request(KEY1, "b"));
+        // never waits, whatever the size of the queue
+        assertThrows(RetryableException.class, () -> control.tryAdmit(request(KEY1, "c")));
+        // other connectors are not affected
+        assertNotNull(control.tryAdmit(request(KEY2, "a")));
+
+        OperationAdmissionStatistics stats = statistics(control, KEY1);
+        assertNull(stats.getConnectorFacadeDigest());
+        assertEquals(2, stats.getActiveOperations());
+        assertEquals(0, stats.getQueuedOperations());
+        assertEquals(2, stats.getAdmittedOperations());
+        assertEquals(1, stats.getRejectedOperations());
+
+        gate1.release();
+        control.tryAdmit(request(KEY1, "c"));
+        gate2.release();
+        assertEquals(1, statistics(control, KEY1).getActiveOperations());
+    }
+
+    @Test
+    public void testDeferredUntilReleased() throws Exception {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(1);
+        server.setMaxQueuedOperationsPerConnector(1);
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+        Admissions admissions = new Admissions();
+
+        admissions.admit(control, request(KEY1, "a"));
+        OperationAdmissionControl.Gate gate = admissions.admitted.poll();
+        assertNotNull(gate);
+        // deferred without blocking the caller
+        admissions.admit(control, request(KEY1, "a"));
+        assertTrue(admissions.admitted.isEmpty());
+        assertEquals(1, statistics(control, KEY1).getQueuedOperations());
+        // the single queue slot is taken
+        admissions.admit(control, request(KEY1, "a"));
+        assertNotNull(admissions.rejected.poll());
+
+        gate.release();
+        assertSame(gate, admissions.admitted.poll());
+        OperationAdmissionStatistics stats = statistics(control, KEY1);
+        assertEquals(1, stats.getActiveOperations());
+        assertEquals(0, stats.getQueuedOperations());
+        assertEquals(2, stats.getAdmittedOperations());
+        assertEquals(1, stats.getRejectedOperations());
+    }
+
+    @Test
+    public void testDeferredRejectedWithoutWorker() throws Exception {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(1);
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+        BlockingQueue<OperationAdmissionControl.Gate> admitted = new LinkedBlockingQueue<>();
+        BlockingQueue<RetryableException> rejected = new LinkedBlockingQueue<>();
+        AtomicBoolean busy = new AtomicBoolean();
+        Executor executor = task -> {
+            if (busy.get()) {
+                throw new RejectedExecutionException();
+            }
+            task.run();
+        };
+
+        control.admit(request(KEY1, "a"), executor, admitted::add, rejected::add);
+        control.admit(request(KEY1, "a"), executor, admitted::add, rejected::add);
+        OperationAdmissionControl.Gate gate = admitted.poll();
+        assertNotNull(gate);
+
+        // the deferred operation gets an answer rather than being dropped
+        busy.set(true);
+        gate.release();
+        assertNotNull(rejected.poll());
+        assertTrue(admitted.isEmpty());
+        OperationAdmissionStatistics stats = statistics(control, KEY1);
+        assertEquals(0, stats.getActiveOperations());
+        assertEquals(1, stats.getAdmittedOperations());
+        assertEquals(1, stats.getRejectedOperations());
+    }
+
+    @Test
+    public void testQueueTimeout() throws Exception {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(1);
+        server.setOperationQueueTimeout(50);
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+        Admissions admissions = new Admissions();
+
+        admissions.admit(control, request(KEY1, "a"));
+        admissions.admit(control, request(KEY1, "a"));
+        assertNotNull(admissions.rejected.poll(10, TimeUnit.SECONDS));
+        assertEquals(1, admissions.admitted.size());
+        assertEquals(0, statistics(control, KEY1).getQueuedOperations());
+        assertEquals(1, statistics(control, KEY1).getRejectedOperations());
+    }
+
+    @Test
+    public void testPerFacade() {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(1);
+        server.setLimitOperationsPerFacade(true);
+        OperationAdmissionControl control = new OperationAdmissionControl(server);
+
+        control.tryAdmit(request(KEY1, "a"));
+        control.tryAdmit(request(KEY1, "b"));
+        assertThrows(RetryableException.class, () -> control.tryAdmit(request(KEY1, "a")));
+
+        List<OperationAdmissionStatistics> stats = control.getStatistics();
+        assertEquals(2, stats.size());
+        String digest = RemoteConnectorFacadeImpl.computeConnectorFacadeDigest("a");
+        OperationAdmissionStatistics a = stats.stream().
+                filter(s -> digest.equals(s.getConnectorFacadeDigest())).findFirst().orElseThrow();
+        assertEquals(1, a.getActiveOperations());
+        assertEquals(1, a.getRejectedOperations());
+        assertFalse(a.toString().contains("=a,"));
+    }
+
+    @Test
+    public void testEvictIdleGates() throws Exception {
+        ConnectorServer server = ConnectorServer.newInstance();
+        server.setMaxOperationsPerConnector(1);
+        OperationAdmissionControl control = new OperationAdmissionControl(server, 1);
+
+        OperationAdmissionControl.Gate busy = control.tryAdmit(request(KEY1, "a"));
+        control.tryAdmit(request(KEY2, "a")).release();
+        Thread.sleep(10);
+        control.tryAdmit(request(KEY2, "a")).release();
+        // the idle gate is recreated, the busy one is kept
+        assertEquals(1, statistics(control, KEY2).getAdmittedOperations());
+        assertEquals(1, statistics(control, KEY1).getActiveOperations());
+        busy.release();
+    }
+}
@@ -23,6 +23,7 @@
  */
 package org.identityconnectors.common;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -43,7 +44,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.jar.JarEntry;
@@ -536,6 +539,50 @@ public final class IOUtil {
         }
     }
 
+    /**
+     * Returns the names of the classes registered for a service by the
+     * <code>META-INF/services</code> files visible to the class loader of
+     * the service.
+     *
+     * @param service
+     * The service
+     * @return A non-null list of class names, in the order of the classpath
+     * @since 1.7.0.0
+     */
+    public static List<String> getRegisteredServices(final Class<?> service) {
+        List<String> result = new ArrayList<>();
+        String path = "META-INF/services/" + service.getName();
+        try {
+            Enumeration<URL> configFiles = service.getClassLoader().getResources(path);
+            while (configFiles.hasMoreElements()) {
+                addServices(configFiles.nextElement(), result);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void addServices(final URL configFile, final List<String> result) throws IOException {
+        // Encoding as per JAR file spec.
+        try (InputStream input = configFile.openStream();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+
+            reader.lines().forEach(l -> {
+                String line = l;
+
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (StringUtil.isNotBlank(line)) {
+                    result.add(line);
+                }
+            });
+        }
+    }
+
     /**
      * Extracts the resource to a file.
      *
@@ -194,6 +194,7 @@ public final class GuardedByteArray {
         System.arraycopy(encryptedBytes, 0, encryptedBytes2, 0, encryptedBytes.length);
         GuardedByteArray rv = new GuardedByteArray();
         rv.encryptedBytes = encryptedBytes2;
+        rv.base64SHA1Hash = base64SHA1Hash;
         return rv;
     }
 
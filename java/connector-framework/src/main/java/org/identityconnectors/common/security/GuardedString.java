@@ -195,6 +195,7 @@ public final class GuardedString {
         System.arraycopy(encryptedBytes, 0, encryptedBytes2, 0, encryptedBytes.length);
         GuardedString rv = new GuardedString();
         rv.encryptedBytes = encryptedBytes2;
+        rv.base64SHA1Hash = base64SHA1Hash;
         return rv;
     }
 
@@ -89,6 +89,34 @@ public abstract class ConnectorInfoManagerFactory {
      */
     public abstract ConnectorInfoManager getRemoteManager(RemoteFrameworkConnectionInfo info);
 
+    /**
+     * Returns the manager for a group of equivalent remote frameworks. The
+     * connector info is loaded from the first reachable server; facades
+     * created from it spread their operations across the servers of the group
+     * and fail over to another server when one cannot be reached. A search or
+     * sync stays on the server it started on.
+     * <p>
+     * The health of every server of the group is checked in the background at
+     * the retry interval of the group; the manager also implements
+     * {@link Runnable} to check it right away. <b>NOTE:</b> The results from
+     * this call are automatically cached and keyed by the group passed in.
+     * Clearing the cache with {@link #clearRemoteCache} stops the health
+     * checks.
+     * <p>
+     * The default implementation throws {@link UnsupportedOperationException}.
+     *
+     * @param group
+     *            The connection information of the servers.
+     *
+     * @return The manager
+     * @throws RuntimeException
+     *             If none of the servers could be reached
+     * @since 1.7.0.0
+     */
+    public ConnectorInfoManager getRemoteManager(RemoteFrameworkConnectionGroup group) {
+        throw new UnsupportedOperationException("Groups of remote frameworks are not supported");
+    }
+
     /**
      * Creates the <code>ConnectorInfoManager</code> for a remote framework but
      * the connection is not checked and not initialised.
@@ -0,0 +1,143 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.api;
+
+import java.util.List;
+import org.identityconnectors.common.Assertions;
+import org.identityconnectors.common.CollectionUtil;
+
+/**
+ * A group of equivalent remote instances of the connector framework, hosting
+ * the same connectors. Operations are spread across the servers of the group
+ * and fail over to another server when one is unreachable.
+ *
+ * @see ConnectorInfoManagerFactory#getRemoteManager(RemoteFrameworkConnectionGroup)
+ * @since 1.7.0.0
+ */
+public final class RemoteFrameworkConnectionGroup {
+
+    /**
+     * How the server of each operation is chosen.
+     */
+    public enum Strategy {
+        /**
+         * The servers take turns.
+         */
+        ROUND_ROBIN,
+        /**
+         * The server with the fewest operations in progress from this client.
+         */
+        LEAST_OUTSTANDING
+    }
+
+    /**
+     * The default number of milliseconds an unreachable server is skipped.
+     */
+    public static final long DEFAULT_RETRY_INTERVAL = 30 * 1000;
+
+    private final List<RemoteFrameworkConnectionInfo> servers;
+    private final Strategy strategy;
+    private final long retryInterval;
+
+    /**
+     * Creates a new group sending each operation to the server with the
+     * fewest operations in progress.
+     *
+     * @param servers
+     *            The connection information of each server of the group
+     */
+    public RemoteFrameworkConnectionGroup(List<RemoteFrameworkConnectionInfo> servers) {
+        this(servers, Strategy.LEAST_OUTSTANDING, DEFAULT_RETRY_INTERVAL);
+    }
+
+    /**
+     * Creates a new group.
+     *
+     * @param servers
+     *            The connection information of each server of the group
+     * @param strategy
+     *            How the server of each operation is chosen
+     * @param retryInterval
+     *            How long, in milliseconds, a server is skipped after it
+     *            could not be reached
+     */
+    public RemoteFrameworkConnectionGroup(List<RemoteFrameworkConnectionInfo> servers,
+            Strategy strategy, long retryInterval) {
+        Assertions.nullCheck(servers, "servers");
+        Assertions.nullCheck(strategy, "strategy");
+        if (servers.isEmpty()) {
+            throw new IllegalArgumentException("A group needs at least one server");
+        }
+        if (retryInterval < 0) {
+            throw new IllegalArgumentException("The retry interval must not be negative");
+        }
+        for (RemoteFrameworkConnectionInfo server : servers) {
+            Assertions.nullCheck(server, "server");
+        }
+        this.servers = CollectionUtil.newReadOnlyList(servers);
+        this.strategy = strategy;
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * Returns the connection information of each server of the group.
+     */
+    public List<RemoteFrameworkConnectionInfo> getServers() {
+        return servers;
+    }
+
+    /**
+     * Returns how the server of each operation is chosen.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns how long, in milliseconds, a server is skipped after it could
+     * not be reached.
+     */
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof RemoteFrameworkConnectionGroup) {
+            RemoteFrameworkConnectionGroup other = (RemoteFrameworkConnectionGroup) o;
+            return servers.equals(other.servers) && strategy == other.strategy
+                    && retryInterval == other.retryInterval;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return servers.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "{servers=" + servers + ", strategy=" + strategy + "}";
+    }
+}
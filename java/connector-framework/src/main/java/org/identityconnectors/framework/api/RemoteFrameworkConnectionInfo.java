@@ -33,12 +33,26 @@ import org.identityconnectors.common.security.GuardedString;
  * instance of the connector framework.
  */
 public final class RemoteFrameworkConnectionInfo {
+
+    /**
+     * The default number of search or sync results the server may send ahead
+     * of the client.
+     *
+     * @since 1.7.0.0
+     */
+    public static final int DEFAULT_FLOW_CONTROL_WINDOW = 1000;
+
     private final String host;
     private final int port;
     private final GuardedString key;
     private final boolean useSSL;
     private final List<TrustManager> trustManagers;
     private final int timeout;
+    private final boolean multiplexed;
+    private final int flowControlWindow;
+    private final boolean adaptiveFlowControl;
+    private final boolean compressed;
+    private final List<String> codecs;
 
     /**
      * Creates a new instance of RemoteFrameworkConnectionInfo, using a clear
@@ -77,14 +91,27 @@ public final class RemoteFrameworkConnectionInfo {
      */
     public RemoteFrameworkConnectionInfo(String host, int port, GuardedString key, boolean useSSL,
             List<TrustManager> trustManagers, int timeout) {
-        Assertions.nullCheck(host, "host");
-        Assertions.nullCheck(key, "key");
-        this.host = host;
-        this.port = port;
-        this.key = key;
-        this.useSSL = useSSL;
-        this.trustManagers = CollectionUtil.newReadOnlyList(trustManagers);
-        this.timeout = timeout;
+        this(new RemoteFrameworkConnectionInfoBuilder().setHost(host).setPort(port).setKey(key).
+                setUseSSL(useSSL).setTrustManagers(trustManagers).setTimeout(timeout));
+    }
+
+    /**
+     * Used by {@link RemoteFrameworkConnectionInfoBuilder}.
+     */
+    RemoteFrameworkConnectionInfo(RemoteFrameworkConnectionInfoBuilder builder) {
+        Assertions.nullCheck(builder.host, "host");
+        Assertions.nullCheck(builder.key, "key");
+        this.host = builder.host;
+        this.port = builder.port;
+        this.key = builder.key;
+        this.useSSL = builder.useSSL;
+        this.trustManagers = CollectionUtil.newReadOnlyList(builder.trustManagers);
+        this.timeout = builder.timeout;
+        this.multiplexed = builder.multiplexed;
+        this.flowControlWindow = builder.flowControlWindow;
+        this.adaptiveFlowControl = builder.adaptiveFlowControl;
+        this.compressed = builder.compressed;
+        this.codecs = CollectionUtil.newReadOnlyList(builder.codecs);
     }
 
     /**
@@ -143,6 +170,67 @@ public final class RemoteFrameworkConnectionInfo {
         return timeout;
     }
 
+    /**
+     * Returns true if concurrent operations should share a single connection,
+     * provided the connector server supports it.
+     *
+     * @return true if the multiplexed protocol should be negotiated.
+     * @since 1.7.0.0
+     */
+    public boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    /**
+     * Returns the number of search or sync results the server may send before
+     * it needs the client to grant more. The client grants more as it
+     * consumes the results, so the server does not have to stop while the
+     * client keeps up. Zero means the server stops every 200 results and
+     * waits for the client, as older servers always do.
+     *
+     * @return the flow control window, zero if disabled.
+     * @since 1.7.0.0
+     */
+    public int getFlowControlWindow() {
+        return flowControlWindow;
+    }
+
+    /**
+     * Returns true if the flow control window should grow each time the
+     * server had to wait for the client to grant more results, up to 16
+     * times {@link #getFlowControlWindow()}.
+     *
+     * @return true if the flow control window adapts to the connection.
+     * @since 1.7.0.0
+     */
+    public boolean isAdaptiveFlowControl() {
+        return adaptiveFlowControl;
+    }
+
+    /**
+     * Returns true if the connections should be compressed, provided the
+     * connector server supports it.
+     *
+     * @return true if compression should be negotiated.
+     * @since 1.7.0.0
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Returns the names of the
+     * {@link org.identityconnectors.framework.common.serializer.WireCodec}s
+     * offered to the connector server, the preferred first. The connections
+     * use the binary codec when none is offered or supported by the server.
+     *
+     * @return the offered codecs, empty by default.
+     * @since 1.7.0.0
+     */
+    public List<String> getCodecs() {
+        return codecs;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -168,6 +256,21 @@ public final class RemoteFrameworkConnectionInfo {
             if (getTimeout() != other.getTimeout()) {
                 return false;
             }
+            if (isMultiplexed() != other.isMultiplexed()) {
+                return false;
+            }
+            if (getFlowControlWindow() != other.getFlowControlWindow()) {
+                return false;
+            }
+            if (isAdaptiveFlowControl() != other.isAdaptiveFlowControl()) {
+                return false;
+            }
+            if (isCompressed() != other.isCompressed()) {
+                return false;
+            }
+            if (!getCodecs().equals(other.getCodecs())) {
+                return false;
+            }
 
             return true;
         }
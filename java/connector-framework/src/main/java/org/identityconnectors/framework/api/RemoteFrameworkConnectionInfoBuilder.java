@@ -0,0 +1,196 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.api;
+
+import java.util.List;
+import javax.net.ssl.TrustManager;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.serializer.WireCodec;
+
+/**
+ * Builder for {@link RemoteFrameworkConnectionInfo}, for the options that are
+ * not covered by its constructors.
+ *
+ * @since 1.7.0.0
+ */
+public final class RemoteFrameworkConnectionInfoBuilder {
+
+    String host;
+
+    int port;
+
+    GuardedString key;
+
+    boolean useSSL = false;
+
+    List<TrustManager> trustManagers;
+
+    int timeout = 60 * 1000;
+
+    boolean multiplexed = false;
+
+    int flowControlWindow = RemoteFrameworkConnectionInfo.DEFAULT_FLOW_CONTROL_WINDOW;
+
+    boolean adaptiveFlowControl = false;
+
+    boolean compressed = false;
+
+    List<String> codecs = List.of();
+
+    /**
+     * Creates an empty builder; host, port and key must be set before calling
+     * {@link #build()}.
+     */
+    public RemoteFrameworkConnectionInfoBuilder() {
+    }
+
+    /**
+     * Creates a builder initialized with the values of an existing instance.
+     *
+     * @param info the connection info to copy
+     */
+    public RemoteFrameworkConnectionInfoBuilder(final RemoteFrameworkConnectionInfo info) {
+        host = info.getHost();
+        port = info.getPort();
+        key = info.getKey();
+        useSSL = info.getUseSSL();
+        trustManagers = info.getTrustManagers();
+        timeout = info.getTimeout();
+        multiplexed = info.isMultiplexed();
+        flowControlWindow = info.getFlowControlWindow();
+        adaptiveFlowControl = info.isAdaptiveFlowControl();
+        compressed = info.isCompressed();
+        codecs = info.getCodecs();
+    }
+
+    /**
+     * Sets the host to connect to.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setHost(final String host) {
+        this.host = host;
+        return this;
+    }
+
+    /**
+     * Sets the port to connect to.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setPort(final int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Sets the remote framework key.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setKey(final GuardedString key) {
+        this.key = key;
+        return this;
+    }
+
+    /**
+     * Sets whether to connect via SSL.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setUseSSL(final boolean useSSL) {
+        this.useSSL = useSSL;
+        return this;
+    }
+
+    /**
+     * Sets the {@link TrustManager}'s to use for establishing the SSL
+     * connection; null or empty means the JVM defaults.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setTrustManagers(final List<TrustManager> trustManagers) {
+        this.trustManagers = trustManagers;
+        return this;
+    }
+
+    /**
+     * Sets the timeout (in milliseconds); zero means infinite timeout.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setTimeout(final int timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets whether concurrent operations should share a single connection.
+     * Only used if the connector server supports the multiplexed protocol,
+     * otherwise operations fall back to one connection each.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setMultiplexed(final boolean multiplexed) {
+        this.multiplexed = multiplexed;
+        return this;
+    }
+
+    /**
+     * Sets the number of search or sync results the server may send ahead of
+     * the client; zero to have the server wait for the client every 200
+     * results.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setFlowControlWindow(final int flowControlWindow) {
+        if (flowControlWindow < 0) {
+            throw new IllegalArgumentException("Flow control window must not be negative");
+        }
+        this.flowControlWindow = flowControlWindow;
+        return this;
+    }
+
+    /**
+     * Sets whether the flow control window should grow when the server has
+     * to wait for the client to grant more results.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setAdaptiveFlowControl(final boolean adaptiveFlowControl) {
+        this.adaptiveFlowControl = adaptiveFlowControl;
+        return this;
+    }
+
+    /**
+     * Sets whether the connections should be compressed. Worth it over slow
+     * links, where search and sync results, which repeat the same attribute
+     * names and values, shrink several times. Ignored by servers that do not
+     * support compression.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setCompressed(final boolean compressed) {
+        this.compressed = compressed;
+        return this;
+    }
+
+    /**
+     * Sets the names of the {@link WireCodec}s to offer, the preferred first.
+     * The server picks the first one it supports, or the
+     * {@link WireCodec#BINARY binary} codec if none. Defaults to no offer,
+     * the binary codec; the {@link WireCodec#COMPACT compact} codec has to be
+     * offered explicitly.
+     */
+    public RemoteFrameworkConnectionInfoBuilder setCodecs(final List<String> codecs) {
+        this.codecs = codecs;
+        return this;
+    }
+
+    /**
+     * Creates the {@link RemoteFrameworkConnectionInfo}.
+     */
+    public RemoteFrameworkConnectionInfo build() {
+        return new RemoteFrameworkConnectionInfo(this);
+    }
+}
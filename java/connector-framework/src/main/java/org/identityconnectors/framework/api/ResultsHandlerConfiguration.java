@@ -72,6 +72,21 @@ public class ResultsHandlerConfiguration {
      * in the handler chain.
      */
     boolean enableAttributesToGetSearchResultsHandler = true;
+    /**
+     * Runs the queries a filter is translated into concurrently, each on its
+     * own connector instance, instead of one after the other. The connector
+     * must run the queries translated by another instance of it.
+     *
+     * @since 1.7.0.0
+     */
+    boolean enableParallelQueries = false;
+    /**
+     * The maximum number of queries of one search running at the same time
+     * when {@link #enableParallelQueries} is set.
+     *
+     * @since 1.7.0.0
+     */
+    int maxParallelQueries = 10;
 
     /**
      * default empty constructor.
@@ -92,6 +107,8 @@ public class ResultsHandlerConfiguration {
         this.enableCaseInsensitiveFilter = source.isEnableCaseInsensitiveFilter();
         this.enableAttributesToGetSearchResultsHandler =
                 source.isEnableAttributesToGetSearchResultsHandler();
+        this.enableParallelQueries = source.isEnableParallelQueries();
+        this.maxParallelQueries = source.getMaxParallelQueries();
     }
 
     public boolean isEnableAttributesToGetSearchResultsHandler() {
@@ -135,6 +152,25 @@ public class ResultsHandlerConfiguration {
         this.enableNormalizingResultsHandler = enableNormalizingResultsHandler;
     }
 
+    public boolean isEnableParallelQueries() {
+        return enableParallelQueries;
+    }
+
+    public void setEnableParallelQueries(boolean enableParallelQueries) {
+        this.enableParallelQueries = enableParallelQueries;
+    }
+
+    public int getMaxParallelQueries() {
+        return maxParallelQueries;
+    }
+
+    public void setMaxParallelQueries(int maxParallelQueries) {
+        if (maxParallelQueries < 1) {
+            throw new IllegalArgumentException("maxParallelQueries must be positive: " + maxParallelQueries);
+        }
+        this.maxParallelQueries = maxParallelQueries;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -159,6 +195,12 @@ public class ResultsHandlerConfiguration {
         if (this.enableAttributesToGetSearchResultsHandler != other.enableAttributesToGetSearchResultsHandler) {
             return false;
         }
+        if (this.enableParallelQueries != other.enableParallelQueries) {
+            return false;
+        }
+        if (this.maxParallelQueries != other.maxParallelQueries) {
+            return false;
+        }
         return true;
     }
 
@@ -170,6 +212,8 @@ public class ResultsHandlerConfiguration {
         hash = 79 * hash + (this.filteredResultsHandlerInValidationMode ? 1 : 0);
         hash = 79 * hash + (this.enableCaseInsensitiveFilter ? 1 : 0);
         hash = 79 * hash + (this.enableAttributesToGetSearchResultsHandler ? 1 : 0);
+        hash = 79 * hash + (this.enableParallelQueries ? 1 : 0);
+        hash = 79 * hash + this.maxParallelQueries;
         return hash;
     }
 
@@ -180,6 +224,8 @@ public class ResultsHandlerConfiguration {
                 + enableFilteredResultsHandler + "\nfilteredResultsHandlerInValidationMode="
                 + filteredResultsHandlerInValidationMode + "\nenableCaseInsensitiveFilter="
                 + enableCaseInsensitiveFilter + "\nenableAttributesToGetSearchResultsHandler="
-                + enableAttributesToGetSearchResultsHandler + '}';
+                + enableAttributesToGetSearchResultsHandler + "\nenableParallelQueries="
+                + enableParallelQueries + "\nmaxParallelQueries="
+                + maxParallelQueries + '}';
     }
 }
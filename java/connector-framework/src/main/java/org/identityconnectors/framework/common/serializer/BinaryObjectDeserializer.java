@@ -35,6 +35,16 @@ public interface BinaryObjectDeserializer {
      */
     public Object readObject();
 
+    /**
+     * Returns the number of bytes that can be read without blocking, zero if
+     * the deserializer cannot tell.
+     *
+     * @since 1.7.0.0
+     */
+    default int available() {
+        return 0;
+    }
+
     /**
      * Closes the underlying stream
      */
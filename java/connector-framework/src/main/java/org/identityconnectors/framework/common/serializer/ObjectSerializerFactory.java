@@ -26,6 +26,10 @@ package org.identityconnectors.framework.common.serializer;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 import org.identityconnectors.framework.common.exceptions.ConnectorException;
 import org.xml.sax.InputSource;
 
@@ -117,7 +121,31 @@ public abstract class ObjectSerializerFactory {
             boolean multiObject);
 
     /**
-     * Deserializes XML objects from a stream
+     * Creates a <code>XmlObjectSerializer</code> writing the objects into
+     * chunks, each of them a complete multi-object document holding up to the
+     * given number of objects. The chunks can be read back in parallel with
+     * {@link #deserializeXmlChunks(List, XmlObjectResultsHandler, boolean, Executor)}.
+     * <p>
+     * This implementation writes all the objects into a single chunk, with
+     * {@link #newXmlSerializer(Writer, boolean, boolean)}.
+     *
+     * @param chunkFactory Returns the writer of the chunk of the given index,
+     * starting at 0. The writer of a chunk is closed when the next one starts.
+     * @param includeHeader True to include the xml header in each chunk
+     * @param objectsPerChunk The maximum number of objects of a chunk
+     * @return The serializer
+     * @since 1.7.0.0
+     */
+    public XmlObjectSerializer newChunkedXmlSerializer(IntFunction<Writer> chunkFactory,
+            boolean includeHeader,
+            int objectsPerChunk) {
+        return newXmlSerializer(chunkFactory.apply(0), includeHeader, true);
+    }
+
+    /**
+     * Deserializes XML objects from a stream. The objects are read one at a
+     * time; unless validating, the parsing stops as soon as the handler
+     * returns false.
      *
      * NOTE: Consider using {@link SerializerUtil#deserializeXmlObject(String,boolean)}
      * for convenience deserializing a single object.
@@ -132,4 +160,38 @@ public abstract class ObjectSerializerFactory {
     public abstract void deserializeXmlStream(InputSource is,
             XmlObjectResultsHandler handler,
             boolean validate);
+
+    /**
+     * Deserializes the XML objects of the given chunks in parallel. The
+     * handler gets the objects of each chunk in order, the objects of
+     * different chunks interleaved; it is never called concurrently. Once it
+     * returns false, the other chunks stop too.
+     * <p>
+     * This implementation deserializes the chunks one after the other on the
+     * calling thread, with
+     * {@link #deserializeXmlStream(InputSource, XmlObjectResultsHandler, boolean)}.
+     *
+     * @param chunks The input sources of the chunks
+     * @param handler The callback to receive objects from the chunks
+     * @param validate True if we are to validate
+     * @param executor Runs the parsing of each chunk
+     * @since 1.7.0.0
+     */
+    public void deserializeXmlChunks(List<InputSource> chunks,
+            XmlObjectResultsHandler handler,
+            boolean validate,
+            Executor executor) {
+        final AtomicBoolean stopped = new AtomicBoolean();
+        for (InputSource chunk : chunks) {
+            deserializeXmlStream(chunk, object -> {
+                if (!stopped.get() && !handler.handle(object)) {
+                    stopped.set(true);
+                }
+                return !stopped.get();
+            }, validate);
+            if (stopped.get()) {
+                break;
+            }
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * ====================
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright 2026 ConnId. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of the Common Development
+ * and Distribution License("CDDL") (the "License").  You may not use this file
+ * except in compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://opensource.org/licenses/cddl1.php
+ * See the License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * When distributing the Covered Code, include this CDDL Header Notice in each file
+ * and include the License file at http://opensource.org/licenses/cddl1.php.
+ * If applicable, add the following below this CDDL Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ * ====================
+ */
+package org.identityconnectors.framework.common.serializer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.identityconnectors.common.IOUtil;
+import org.identityconnectors.common.logging.Log;
+
+/**
+ * An encoding of the objects exchanged with a connector server.
+ * <p>
+ * The client offers the codecs it prefers when it opens a connection and the
+ * server picks the first one it supports; both then switch to it. Connections
+ * start with, and fall back to, the {@link #BINARY binary} codec that every
+ * peer understands. Codecs are registered by listing their class, which must
+ * have a public no-argument constructor, in
+ * <code>META-INF/services/org.identityconnectors.framework.common.serializer.WireCodec</code>.
+ *
+ * @since 1.7.0.0
+ */
+public abstract class WireCodec {
+
+    private static final Log LOG = Log.getLog(WireCodec.class);
+
+    /**
+     * The name of the default binary codec.
+     */
+    public static final String BINARY = "binary";
+
+    /**
+     * The name of the compact binary codec, with variable-length integers and
+     * repeated strings written once per connection.
+     */
+    public static final String COMPACT = "compact";
+
+    private static Map<String, WireCodec> codecs;
+
+    private static synchronized Map<String, WireCodec> getCodecs() {
+        if (codecs == null) {
+            Map<String, WireCodec> result = new LinkedHashMap<>();
+            IOUtil.getRegisteredServices(WireCodec.class).forEach(name -> {
+                try {
+                    WireCodec codec = (WireCodec) Class.forName(name).getDeclaredConstructor().newInstance();
+                    // do not override a codec earlier in the classpath
+                    result.putIfAbsent(codec.getName(), codec);
+                } catch (Exception | LinkageError e) {
+                    LOG.warn(e, "Failed to load wire codec {0}", name);
+                }
+            });
+            codecs = Collections.unmodifiableMap(result);
+        }
+        return codecs;
+    }
+
+    /**
+     * Returns the names of the registered codecs.
+     *
+     * @return the names of the registered codecs.
+     */
+    public static Set<String> getSupportedCodecs() {
+        return getCodecs().keySet();
+    }
+
+    /**
+     * Returns the codec of the given name.
+     *
+     * @param name the name of the codec
+     * @return the codec, or null if none is registered under that name
+     */
+    public static WireCodec getCodec(final String name) {
+        return name == null ? null : getCodecs().get(name);
+    }
+
+    /**
+     * Returns the name the codec is offered and agreed to under.
+     *
+     * @return the name of the codec.
+     */
+    public abstract String getName();
+
+    /**
+     * Creates a serializer writing objects to the given stream.
+     *
+     * @param os the stream, which is closed with the serializer
+     * @return the serializer.
+     */
+    public abstract BinaryObjectSerializer newSerializer(OutputStream os);
+
+    /**
+     * Creates a deserializer reading objects from the given stream.
+     *
+     * @param is the stream, which is closed with the deserializer
+     * @return the deserializer.
+     */
+    public abstract BinaryObjectDeserializer newDeserializer(InputStream is);
+}
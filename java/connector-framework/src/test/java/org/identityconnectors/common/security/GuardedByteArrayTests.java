@@ -85,6 +85,7 @@ public class GuardedByteArrayTests {
         }
         bytes = bytes.copy();
         assertTrue(Arrays.equals(new byte[] { 0x00, 0x01, 0x02 }, decryptToBytes(bytes)));
+        assertEquals(new GuardedByteArray(new byte[] { 0x00, 0x01, 0x02 }), bytes);
         bytes.appendByte((byte) 0x03);
         assertTrue(Arrays.equals(new byte[] { 0x00, 0x01, 0x02, 0x03 }, decryptToBytes(bytes)));
     }
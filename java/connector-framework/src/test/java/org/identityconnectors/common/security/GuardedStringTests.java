@@ -86,6 +86,7 @@ public class GuardedStringTests {
         }
         str = str.copy();
         assertEquals(decryptToString(str), "foo");
+        assertEquals(new GuardedString("foo".toCharArray()), str);
         str.appendChar('2');
         assertEquals(decryptToString(str), "foo2");
     }